@@ -1,21 +1,27 @@
 package org.javacomp.completion;
 
 import com.google.common.collect.ImmutableList;
-import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
 import org.javacomp.model.ClassEntity;
-import org.javacomp.model.Entity;
-import org.javacomp.model.FileScope;
+import org.javacomp.model.ClassIndex;
 import org.javacomp.model.Module;
+import org.javacomp.model.util.CamelCase;
 
 /** Completor for all entities accessible from a module */
 class AllEntitiesCompletor {
-  ImmutableList<ClassEntity> getAllClasses(Module module, String prefix) {
+  /**
+   * Returns classes defined in {@code module} and its depending modules whose simple names start
+   * with {@code prefix}, ignoring case, or match {@code prefix} by camel case humps.
+   *
+   * @param limit the maximum number of classes to return
+   */
+  ImmutableList<ClassEntity> getAllClasses(Module module, String prefix, int limit) {
     ImmutableList.Builder<ClassEntity> builder = new ImmutableList.Builder<>();
-    HashSet<FileScope> visitedFiles = new HashSet<>();
+    HashSet<ClassEntity> visitedClasses = new HashSet<>();
     HashSet<Module> visitedModules = new HashSet<>();
-    addClassesInModule(builder, module, prefix, visitedModules, visitedFiles);
+    String humpInitials = CamelCase.getPatternHumpInitials(prefix);
+    addClassesInModule(
+        builder, module, prefix, humpInitials, limit, visitedModules, visitedClasses);
     return builder.build();
   }
 
@@ -23,44 +29,48 @@ class AllEntitiesCompletor {
       ImmutableList.Builder<ClassEntity> builder,
       Module module,
       String prefix,
+      String humpInitials,
+      int limit,
       HashSet<Module> visitedModules,
-      HashSet<FileScope> visitedFiles) {
+      HashSet<ClassEntity> visitedClasses) {
     visitedModules.add(module);
 
-    for (FileScope fileScope : module.getAllFiles()) {
-      if (visitedFiles.contains(fileScope)) {
-        continue;
+    ClassIndex classIndex = module.getClassIndex();
+    for (ClassEntity classEntity :
+        classIndex.findClassesWithPrefix(prefix, limit - visitedClasses.size())) {
+      if (visitedClasses.add(classEntity)) {
+        builder.add(classEntity);
       }
-      visitedFiles.add(fileScope);
-
-      for (Entity entity : fileScope.getMemberEntities().values()) {
-        if (!(entity instanceof ClassEntity)) {
-          continue;
-        }
+    }
 
-        ClassEntity classEntity = (ClassEntity) entity;
-        addAllClasses(builder, classEntity, prefix);
+    // A prefix with only one hump can only match by prefix, which is handled above.
+    if (humpInitials.length() > 1) {
+      // Filter the candidates before applying the limit, so that candidates failing the check
+      // don't take the places of matching classes.
+      for (ClassEntity classEntity :
+          classIndex.findClassesWithHumpInitials(
+              humpInitials,
+              limit - visitedClasses.size(),
+              candidate ->
+                  !visitedClasses.contains(candidate) && matchesCamelCase(candidate, prefix))) {
+        visitedClasses.add(classEntity);
+        builder.add(classEntity);
       }
     }
 
     for (Module depModule : module.getDependingModules()) {
+      if (visitedClasses.size() >= limit) {
+        return;
+      }
       if (!visitedModules.contains(depModule)) {
-        addClassesInModule(builder, depModule, prefix, visitedModules, visitedFiles);
+        addClassesInModule(
+            builder, depModule, prefix, humpInitials, limit, visitedModules, visitedClasses);
       }
     }
   }
 
-  private void addAllClasses(
-      ImmutableList.Builder<ClassEntity> builder, ClassEntity parentClass, String prefix) {
-    LinkedList<ClassEntity> queue = new LinkedList<ClassEntity>();
-    queue.addLast(parentClass);
-    while (!queue.isEmpty()) {
-      ClassEntity classEntity = queue.removeFirst();
-      if (CompletionPrefixMatcher.matches(classEntity.getSimpleName(), prefix)) {
-        builder.add(classEntity);
-      }
-      Collection<ClassEntity> innerClasses = classEntity.getInnerClasses().values();
-      queue.addAll(innerClasses);
-    }
+  private static boolean matchesCamelCase(ClassEntity classEntity, String prefix) {
+    return CompletionPrefixMatcher.computeMatchLevel(classEntity.getSimpleName(), prefix)
+        == CompletionPrefixMatcher.MatchLevel.CAMEL_CASE;
   }
 }
@@ -3,12 +3,15 @@ package org.javacomp.completion;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.auto.value.AutoValue;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import org.javacomp.completion.CompletionCandidate.SortCategory;
 import org.javacomp.model.ClassEntity;
+import org.javacomp.model.ClassHierarchy;
 import org.javacomp.model.Entity;
 import org.javacomp.model.EntityWithContext;
 import org.javacomp.model.Module;
@@ -24,39 +27,75 @@ class ClassMemberCompletor {
     this.expressionSolver = expressionSolver;
   }
 
-  ImmutableList<CompletionCandidate> getClassMembers(
-      EntityWithContext actualClass, Module module, String prefix, Options options) {
-    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder(prefix);
-    boolean directMembers = true;
+  /**
+   * Adds the members of {@code actualClass} and its ancestors that match the completion prefix to
+   * {@code builder}.
+   */
+  void addClassMembers(
+      EntityWithContext actualClass,
+      Module module,
+      CompletionCandidateListBuilder builder,
+      Options options) {
+    checkState(
+        actualClass.getEntity() instanceof ClassEntity,
+        "Cannot get class members of non class entity %s",
+        actualClass);
     Set<String> addedMethodNames = options.includeAllMethodOverloads() ? null : new HashSet<>();
-    for (EntityWithContext classInHierachy : typeSolver.classHierarchy(actualClass, module)) {
-      checkState(
-          classInHierachy.getEntity() instanceof ClassEntity,
-          "classHierarchy() returns non class entity %s for %s",
-          classInHierachy,
-          actualClass);
-      for (Entity member :
-          ((ClassEntity) classInHierachy.getEntity()).getMemberEntities().values()) {
-        member = typeSolver.applyTypeParameters(member, classInHierachy.getSolvedTypeParameters());
-        if (!options.allowedKinds().contains(member.getKind())) {
-          continue;
-        }
-        if (!options.addBothInstanceAndStaticMembers()
-            && actualClass.isInstanceContext() != member.isInstanceMember()) {
+    HierarchyContexts hierarchyContexts = new HierarchyContexts(actualClass, module);
+    for (ClassHierarchy.Member classMember :
+        typeSolver.getEffectiveMembers((ClassEntity) actualClass.getEntity(), module)) {
+      Entity member = classMember.getEntity();
+      if (!options.allowedKinds().contains(member.getKind())) {
+        continue;
+      }
+      if (!options.addBothInstanceAndStaticMembers()
+          && actualClass.isInstanceContext() != member.isInstanceMember()) {
+        continue;
+      }
+      if (!options.includeAllMethodOverloads() && member.getKind() == Entity.Kind.METHOD) {
+        if (addedMethodNames.contains(member.getSimpleName())) {
           continue;
         }
-        if (!options.includeAllMethodOverloads() && member.getKind() == Entity.Kind.METHOD) {
-          if (addedMethodNames.contains(member.getSimpleName())) {
-            continue;
-          }
-          addedMethodNames.add(member.getSimpleName());
-        }
-        builder.addEntity(
-            member, directMembers ? SortCategory.DIRECT_MEMBER : SortCategory.ACCESSIBLE_SYMBOL);
+        addedMethodNames.add(member.getSimpleName());
+      }
+      // Check the name before allocating anything for the candidate.
+      CompletionPrefixMatcher.MatchLevel matchLevel = builder.getMatchLevel(member.getSimpleName());
+      if (matchLevel == CompletionPrefixMatcher.MatchLevel.NOT_MATCH) {
+        continue;
+      }
+      int classIndex = classMember.getClassIndex();
+      // Type parameters are only applied to the candidates whose details are sent to the client.
+      builder.addEntity(
+          member,
+          classIndex == 0 ? SortCategory.DIRECT_MEMBER : SortCategory.ACCESSIBLE_SYMBOL,
+          matchLevel,
+          () ->
+              typeSolver.applyTypeParameters(
+                  member, hierarchyContexts.get(classIndex).getSolvedTypeParameters()));
+    }
+  }
+
+  /** Classes in the hierarchy of a class with solved type parameters, solved on demand. */
+  private class HierarchyContexts {
+    private final EntityWithContext actualClass;
+    private final Iterator<EntityWithContext> iterator;
+    private final List<EntityWithContext> contexts;
+
+    private HierarchyContexts(EntityWithContext actualClass, Module module) {
+      this.actualClass = actualClass;
+      this.iterator = typeSolver.classHierarchy(actualClass, module).iterator();
+      this.contexts = new ArrayList<>();
+    }
+
+    /** Returns the {@code index}-th class in the hierarchy. 0 is the actual class itself. */
+    private synchronized EntityWithContext get(int index) {
+      while (contexts.size() <= index) {
+        checkState(
+            iterator.hasNext(), "No class at index %s in the hierarchy of %s", index, actualClass);
+        contexts.add(iterator.next());
       }
-      directMembers = false;
+      return contexts.get(index);
     }
-    return builder.build();
   }
 
   @AutoValue
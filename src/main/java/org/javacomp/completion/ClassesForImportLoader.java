@@ -0,0 +1,240 @@
+package org.javacomp.completion;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.javacomp.logging.JLogger;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.EntityScope;
+import org.javacomp.model.FileScope;
+import org.javacomp.model.Module;
+
+/**
+ * Looks up classes for import with {@link AllEntitiesCompletor}, bounded by the deadline of the
+ * completion request.
+ *
+ * <p>The lookup can be slow when the class indexes of large modules are not built yet. If the
+ * deadline expires, the lookup keeps running in the background and its result is cached, so that
+ * the following requests can use it. Results are reused for longer prefixes by filtering them, and
+ * are kept when only the file being completed changes. Pending lookups that cannot serve the latest
+ * request are cancelled.
+ */
+class ClassesForImportLoader {
+  private static final JLogger logger = JLogger.createForEnclosingClass();
+
+  /** The maximum number of lookups whose results are cached. */
+  private static final int MAX_CACHED_LOOKUPS = 16;
+
+  private static class Lookup {
+    private final Module module;
+    private final String prefix;
+    private final int limit;
+    private final long generation;
+    private final FutureTask<ImmutableList<ClassEntity>> result;
+
+    private Lookup(
+        Module module,
+        String prefix,
+        int limit,
+        long generation,
+        FutureTask<ImmutableList<ClassEntity>> result) {
+      this.module = module;
+      this.prefix = prefix;
+      this.limit = limit;
+      this.generation = generation;
+      this.result = result;
+    }
+
+    private boolean isValidFor(Module module, long generation) {
+      return this.module == module && this.generation == generation && !result.isCancelled();
+    }
+  }
+
+  private final AllEntitiesCompletor allEntitiesCompletor = new AllEntitiesCompletor();
+  private final Executor executor;
+  // Map of prefixes -> lookups, in access order.
+  private final Map<String, Lookup> lookups =
+      new LinkedHashMap<String, Lookup>(MAX_CACHED_LOOKUPS, 0.75f, /* accessOrder= */ true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Lookup> eldest) {
+          return size() > MAX_CACHED_LOOKUPS;
+        }
+      };
+
+  /** @param executor the executor for running lookups that may outlive the requests */
+  ClassesForImportLoader(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the classes whose simple names match {@code prefix}, or empty if they cannot be looked
+   * up before {@code deadline}.
+   *
+   * <p>Classes defined in {@code filename} are not returned. They don't need to be imported, and
+   * cached results may contain classes of its previous versions.
+   *
+   * @param filename the file being completed
+   * @see AllEntitiesCompletor#getAllClasses
+   */
+  Optional<ImmutableList<ClassEntity>> getClasses(
+      Module module, String prefix, int limit, String filename, Deadline deadline) {
+    // Edits of the completed file only change classes that are filtered out.
+    long generation = module.getTransitiveGenerationExcludingFile(filename);
+    Lookup lookup;
+    synchronized (this) {
+      Optional<ImmutableList<ClassEntity>> cachedClasses =
+          findFinishedLookup(module, generation, prefix, limit);
+      if (cachedClasses.isPresent()) {
+        return Optional.of(filterClasses(cachedClasses.get(), prefix, limit, filename));
+      }
+      lookup = getOrStartLookup(module, generation, prefix, limit, deadline.isBounded());
+    }
+
+    try {
+      ImmutableList<ClassEntity> classes;
+      if (deadline.isBounded()) {
+        classes = lookup.result.get(deadline.getRemainingNanos(), TimeUnit.NANOSECONDS);
+      } else {
+        // Runs the lookup in the current thread, unless it's already started in the background.
+        lookup.result.run();
+        classes = lookup.result.get();
+      }
+      return Optional.of(filterClasses(classes, prefix, limit, filename));
+    } catch (TimeoutException e) {
+      logger.fine("Looking up classes with prefix %s has not finished before deadline", prefix);
+    } catch (CancellationException e) {
+      logger.fine("Looking up classes with prefix %s is superseded", prefix);
+    } catch (ExecutionException e) {
+      logger.warning(e, "Failed to look up classes with prefix %s", prefix);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the result of the finished lookup with the longest prefix of {@code prefix} that
+   * contains all classes matching {@code prefix} or at least {@code limit} of them.
+   */
+  private Optional<ImmutableList<ClassEntity>> findFinishedLookup(
+      Module module, long generation, String prefix, int limit) {
+    Lookup bestLookup = null;
+    ImmutableList<ClassEntity> bestClasses = null;
+    for (Lookup lookup : lookups.values()) {
+      if (!lookup.isValidFor(module, generation)
+          || !lookup.result.isDone()
+          || !prefix.startsWith(lookup.prefix)
+          || (bestLookup != null && bestLookup.prefix.length() >= lookup.prefix.length())) {
+        continue;
+      }
+      ImmutableList<ClassEntity> classes;
+      try {
+        classes = lookup.result.get();
+      } catch (ExecutionException | InterruptedException e) {
+        continue;
+      }
+      // A truncated result may miss classes matching the longer prefix.
+      if (classes.size() < lookup.limit
+          || (lookup.limit >= limit && countMatches(classes, prefix, limit) >= limit)) {
+        bestLookup = lookup;
+        bestClasses = classes;
+      }
+    }
+    if (bestLookup == null) {
+      return Optional.empty();
+    }
+    // Keep the lookup in the cache.
+    lookups.get(bestLookup.prefix);
+    return Optional.of(bestClasses);
+  }
+
+  private Lookup getOrStartLookup(
+      Module module, long generation, String prefix, int limit, boolean runInBackground) {
+    Lookup lookup = lookups.get(prefix);
+    if (lookup != null && lookup.isValidFor(module, generation) && lookup.limit >= limit) {
+      return lookup;
+    }
+    cancelStaleLookups(module, generation, prefix);
+    FutureTask<ImmutableList<ClassEntity>> task =
+        new FutureTask<>(() -> allEntitiesCompletor.getAllClasses(module, prefix, limit));
+    lookup = new Lookup(module, prefix, limit, generation, task);
+    lookups.put(prefix, lookup);
+    if (runInBackground) {
+      executor.execute(task);
+    }
+    return lookup;
+  }
+
+  /**
+   * Drops lookups of other modules or generations, and cancels pending lookups whose results
+   * cannot be used for {@code prefix}.
+   */
+  private void cancelStaleLookups(Module module, long generation, String prefix) {
+    for (Iterator<Lookup> iterator = lookups.values().iterator(); iterator.hasNext(); ) {
+      Lookup lookup = iterator.next();
+      if (!lookup.isValidFor(module, generation)
+          || (!lookup.result.isDone() && !prefix.startsWith(lookup.prefix))) {
+        if (lookup.result.cancel(false /* mayInterruptIfRunning */)) {
+          logger.fine("Cancelled looking up classes with prefix %s", lookup.prefix);
+        }
+        iterator.remove();
+      }
+    }
+  }
+
+  private static ImmutableList<ClassEntity> filterClasses(
+      ImmutableList<ClassEntity> classes, String prefix, int limit, String filename) {
+    ImmutableList.Builder<ClassEntity> builder = new ImmutableList.Builder<>();
+    int count = 0;
+    for (ClassEntity classEntity : classes) {
+      if (count >= limit) {
+        break;
+      }
+      if (matches(classEntity, prefix) && !isDefinedInFile(classEntity, filename)) {
+        builder.add(classEntity);
+        count++;
+      }
+    }
+    return builder.build();
+  }
+
+  private static int countMatches(ImmutableList<ClassEntity> classes, String prefix, int limit) {
+    int count = 0;
+    for (ClassEntity classEntity : classes) {
+      if (count >= limit) {
+        break;
+      }
+      if (matches(classEntity, prefix)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Same criteria as {@link AllEntitiesCompletor#getAllClasses}. */
+  private static boolean matches(ClassEntity classEntity, String prefix) {
+    return CompletionPrefixMatcher.computeMatchLevel(classEntity.getSimpleName(), prefix)
+            .compareTo(CompletionPrefixMatcher.MatchLevel.CAMEL_CASE)
+        >= 0;
+  }
+
+  private static boolean isDefinedInFile(ClassEntity classEntity, String filename) {
+    EntityScope scope = classEntity;
+    while (!(scope instanceof FileScope)) {
+      Optional<EntityScope> parentScope = scope.getParentScope();
+      if (!parentScope.isPresent()) {
+        return false;
+      }
+      scope = parentScope.get();
+    }
+    return ((FileScope) scope).getFilename().equals(filename);
+  }
+}
@@ -1,6 +1,5 @@
 package org.javacomp.completion;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.sun.source.tree.ExpressionTree;
@@ -87,8 +86,8 @@ class CompleteMemberAction implements CompletionAction {
   }
 
   @Override
-  public ImmutableList<CompletionCandidate> getCompletionCandidates(
-      PositionContext positionContext, String completionPrefix) {
+  public void addCompletionCandidates(
+      PositionContext positionContext, CompletionCandidateListBuilder builder) {
     Optional<EntityWithContext> solvedParent =
         expressionSolver.solve(
             parentExpression,
@@ -97,37 +96,31 @@ class CompleteMemberAction implements CompletionAction {
             positionContext.getPosition());
     logger.fine("Solved parent expression: %s", solvedParent);
     if (!solvedParent.isPresent()) {
-      return ImmutableList.of();
+      return;
     }
 
     // TODO: handle array type
     if (solvedParent.get().getArrayLevel() > 0) {
-      return ImmutableList.of();
+      return;
     }
 
     if (solvedParent.get().getEntity() instanceof ClassEntity) {
-      return new ClassMemberCompletor(typeSolver, expressionSolver)
-          .getClassMembers(
-              solvedParent.get(), positionContext.getModule(), completionPrefix, options);
+      new ClassMemberCompletor(typeSolver, expressionSolver)
+          .addClassMembers(solvedParent.get(), positionContext.getModule(), builder, options);
+      return;
     }
 
     // Parent is a package.
-    return completePackageMembers(
-        solvedParent.get().getEntity().getScope().getMemberEntities().values(), completionPrefix);
+    addPackageMembers(
+        solvedParent.get().getEntity().getScope().getMemberEntities().values(), builder);
   }
 
-  private ImmutableList<CompletionCandidate> completePackageMembers(
-      Collection<Entity> entities, String completionPrefix) {
-    return entities.stream()
-        .filter(
-            (entity) -> {
-              return options.allowedKinds().contains(entity.getKind())
-                  && CompletionPrefixMatcher.matches(entity.getSimpleName(), completionPrefix);
-            })
-        .map(
-            (entity) ->
-                new EntityCompletionCandidate(
-                    entity, CompletionCandidate.SortCategory.DIRECT_MEMBER))
-        .collect(ImmutableList.toImmutableList());
+  private void addPackageMembers(
+      Collection<Entity> entities, CompletionCandidateListBuilder builder) {
+    for (Entity entity : entities) {
+      if (options.allowedKinds().contains(entity.getKind())) {
+        builder.addEntity(entity, CompletionCandidate.SortCategory.DIRECT_MEMBER);
+      }
+    }
   }
 }
@@ -41,58 +41,124 @@ class CompleteSymbolAction implements CompletionAction {
           .includeAllMethodOverloads(true)
           .build();
 
+  /**
+   * The maximum number of classes to be imported that are added as candidates. Such classes have
+   * the lowest priority, so there is no need to look up all of them.
+   */
+  private static final int MAX_CLASSES_FOR_IMPORT = 100;
+
   private final TypeSolver typeSolver;
   private final ClassMemberCompletor classMemberCompletor;
+  private final ScopeCandidatesCache scopeCandidatesCache;
+  private final ClassesForImportLoader classesForImportLoader;
 
-  CompleteSymbolAction(TypeSolver typeSolver, ExpressionSolver expressionSolver) {
+  CompleteSymbolAction(
+      TypeSolver typeSolver,
+      ExpressionSolver expressionSolver,
+      ClassesForImportLoader classesForImportLoader) {
     this.typeSolver = typeSolver;
+    this.classesForImportLoader = classesForImportLoader;
     this.classMemberCompletor = new ClassMemberCompletor(typeSolver, expressionSolver);
+    this.scopeCandidatesCache = new ScopeCandidatesCache();
   }
 
+  /**
+   * Members of block scopes are added every time. Candidates of classes, files and packages are the
+   * same for all positions in them. Candidates of classes and files are cached until the modules
+   * defining them change, and candidates of packages until the package members change.
+   */
   @Override
-  public ImmutableList<CompletionCandidate> getCompletionCandidates(
-      PositionContext positionContext, String completionPrefix) {
-    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder(completionPrefix);
-    addKeywords(builder);
+  public void addCompletionCandidates(
+      PositionContext positionContext, CompletionCandidateListBuilder builder) {
+    Module module = positionContext.getModule();
     for (EntityScope currentScope = positionContext.getScopeAtPosition();
         currentScope != null;
         currentScope = currentScope.getParentScope().orElse(null)) {
       logger.fine("Adding member entities in scope: %s", currentScope);
       if (currentScope instanceof ClassEntity) {
+        ClassEntity classEntity = (ClassEntity) currentScope;
         builder.addCandidates(
-            classMemberCompletor.getClassMembers(
-                EntityWithContext.ofEntity((ClassEntity) currentScope),
-                positionContext.getModule(),
-                completionPrefix,
-                CLASS_SCOPE_COMPLETE_OPTIONS));
+            scopeCandidatesCache.getCandidates(
+                classEntity,
+                module,
+                Module.getDefiningGeneration(classEntity, module),
+                scopeBuilder ->
+                    classMemberCompletor.addClassMembers(
+                        EntityWithContext.ofEntity(classEntity),
+                        module,
+                        scopeBuilder,
+                        CLASS_SCOPE_COMPLETE_OPTIONS)));
       } else if (currentScope instanceof FileScope) {
         FileScope fileScope = (FileScope) currentScope;
-        builder.addEntities(
-            getPackageMembers(fileScope, positionContext.getModule()),
-            SortCategory.ACCESSIBLE_SYMBOL);
-        addImportedEntities(builder, fileScope, positionContext.getModule());
+        ImmutableList<CompletionCandidate> fileCandidates =
+            scopeCandidatesCache.getCandidates(
+                fileScope,
+                module,
+                Module.getDefiningGeneration(fileScope, module),
+                scopeBuilder -> {
+                  scopeBuilder.addEntities(
+                      getPackageMembers(fileScope, module), SortCategory.ACCESSIBLE_SYMBOL);
+                  addImportedEntities(scopeBuilder, fileScope, module);
+                });
+        for (CompletionCandidate candidate : fileCandidates) {
+          // Unresolved imported classes are shadowed by any candidate with the same name.
+          if (!(candidate instanceof SimpleCompletionCandidate)
+              || !builder.hasCandidateWithName(candidate.getName())) {
+            builder.addCandidate(candidate);
+          }
+        }
       } else {
         builder.addEntities(currentScope.getMemberEntities(), SortCategory.DIRECT_MEMBER);
       }
     }
-    builder.addEntities(
-        typeSolver.getAggregateRootPackageScope(positionContext.getModule()).getMemberEntities(),
-        SortCategory.UNKNOWN);
-
-    Optional<PackageScope> javaLangPackage =
-        typeSolver.findPackageInModule(JAVA_LANG_QUALIFIERS, positionContext.getModule());
-    if (javaLangPackage.isPresent()) {
-      builder.addEntities(
-          javaLangPackage.get().getMemberEntities(), SortCategory.ACCESSIBLE_SYMBOL);
+
+    // Package candidates are kept until files are added to or removed from the package, so they
+    // survive edits of files in other packages.
+    builder.addCandidates(
+        scopeCandidatesCache.getPackageCandidates(
+            JAVA_LANG_QUALIFIERS,
+            module,
+            module.getTransitivePackageGeneration(JAVA_LANG_QUALIFIERS),
+            scopeBuilder -> {
+              Optional<PackageScope> javaLangPackage =
+                  typeSolver.findPackageInModule(JAVA_LANG_QUALIFIERS, module);
+              if (javaLangPackage.isPresent()) {
+                scopeBuilder.addEntities(
+                    javaLangPackage.get().getMemberEntities(), SortCategory.ACCESSIBLE_SYMBOL);
+              }
+            }));
+
+    // Candidates of the following categories are less preferred than the ones above. Skip them if
+    // the builder is already full of better candidates.
+    if (builder.canAddCandidatesOf(SortCategory.UNKNOWN)) {
+      // Root packages of all depending modules are aggregated.
+      builder.addCandidates(
+          scopeCandidatesCache.getPackageCandidates(
+              ImmutableList.of(),
+              module,
+              module.getTransitivePackageGeneration(ImmutableList.of()),
+              scopeBuilder ->
+                  scopeBuilder.addEntities(
+                      typeSolver.getAggregateRootPackageScope(module).getMemberEntities(),
+                      SortCategory.UNKNOWN)));
     }
 
-    addClassesForImport(
-        builder,
-        positionContext.getModule(),
-        completionPrefix,
-        positionContext.getFileScope().getFilename());
+    if (builder.canAddCandidatesOf(SortCategory.KEYWORD)) {
+      addKeywords(builder);
+    }
+  }
 
-    return builder.build();
+  @Override
+  public void addPrefixDependentCandidates(
+      PositionContext positionContext, CompletionCandidateListBuilder builder, Deadline deadline) {
+    if (builder.canAddCandidatesOf(SortCategory.TO_IMPORT)) {
+      addClassesForImport(
+          builder,
+          positionContext.getModule(),
+          builder.getCompletionPrefix(),
+          positionContext.getFileScope().getFilename(),
+          deadline);
+    }
   }
 
   private Multimap<String, Entity> getPackageMembers(FileScope fileScope, Module module) {
@@ -176,9 +242,25 @@ class CompleteSymbolAction implements CompletionAction {
   }
 
   private void addClassesForImport(
-      CompletionCandidateListBuilder builder, Module module, String prefix, String filename) {
-    List<ClassEntity> classes = new AllEntitiesCompletor().getAllClasses(module, prefix);
-    for (ClassEntity classEntity : classes) {
+      CompletionCandidateListBuilder builder,
+      Module module,
+      String prefix,
+      String filename,
+      Deadline deadline) {
+    // Look up one more class to know whether there are more classes than the limit.
+    Optional<ImmutableList<ClassEntity>> classes =
+        classesForImportLoader.getClasses(
+            module, prefix, MAX_CLASSES_FOR_IMPORT + 1, filename, deadline);
+    if (!classes.isPresent()) {
+      builder.markTruncated();
+      return;
+    }
+    ImmutableList<ClassEntity> classesToAdd = classes.get();
+    if (classesToAdd.size() > MAX_CLASSES_FOR_IMPORT) {
+      builder.markTruncated();
+      classesToAdd = classesToAdd.subList(0, MAX_CLASSES_FOR_IMPORT);
+    }
+    for (ClassEntity classEntity : classesToAdd) {
       builder.addCandidate(new ClassForImportCandidate(classEntity, filename));
     }
   }
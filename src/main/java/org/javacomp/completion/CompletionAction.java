@@ -1,10 +1,28 @@
 package org.javacomp.completion;
 
-import com.google.common.collect.ImmutableList;
 import org.javacomp.project.PositionContext;
 
 /** Action to perform the requested completion. */
 interface CompletionAction {
-  ImmutableList<CompletionCandidate> getCompletionCandidates(
-      PositionContext positionContext, String prefix);
+  /**
+   * Adds completion candidates matching {@link CompletionCandidateListBuilder#getCompletionPrefix}
+   * to {@code builder}.
+   *
+   * <p>The candidates may be computed with an empty prefix and cached for the completion site, so
+   * they must not be looked up in a way that depends on the prefix.
+   */
+  void addCompletionCandidates(
+      PositionContext positionContext, CompletionCandidateListBuilder builder);
+
+  /**
+   * Adds completion candidates that are looked up by the completion prefix, e.g. the ones from an
+   * index that is too large to enumerate. Such candidates are not cached and are added for every
+   * completion request.
+   *
+   * <p>Looking up such candidates may be slow. Candidates that cannot be looked up before {@code
+   * deadline} are skipped, and {@code builder} is {@link
+   * CompletionCandidateListBuilder#markTruncated marked as truncated}.
+   */
+  default void addPrefixDependentCandidates(
+      PositionContext positionContext, CompletionCandidateListBuilder builder, Deadline deadline) {}
 }
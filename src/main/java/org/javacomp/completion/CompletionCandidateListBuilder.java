@@ -1,12 +1,19 @@
 package org.javacomp.completion;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
 import java.util.function.Function;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.javacomp.model.Entity;
 import org.javacomp.typesolver.EntityShadowingListBuilder;
@@ -14,6 +21,9 @@ import org.javacomp.typesolver.EntityShadowingListBuilder;
 /**
  * A builder for bulding a {@link List} of {@link CompletionCandidate} instances that dedups the
  * candidates with the same name using {@link EntityShadowingListBuilder}.
+ *
+ * <p>If the maximum number of candidates is specified, only the best candidates are kept in a
+ * bounded heap, so that the cost of sorting doesn't grow with the number of matched candidates.
  */
 public class CompletionCandidateListBuilder {
   private static final GetElementFunction GET_ELEMENT_FUNCTION = new GetElementFunction();
@@ -21,24 +31,110 @@ public class CompletionCandidateListBuilder {
   private final Map<String, EntityShadowingListBuilder<CompletionCandidateWithMatchLevel>>
       candidateMap;
   private final String completionPrefix;
+  private final int maxCandidates;
+  // The best candidates added so far, with the worst one at the head. Null if the number of
+  // candidates is unlimited.
+  @Nullable private final PriorityQueue<CompletionCandidateWithMatchLevel> topCandidates;
+  private boolean truncated;
 
   public CompletionCandidateListBuilder(String completionPrefix) {
-    candidateMap = new HashMap<>();
+    this(completionPrefix, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param maxCandidates the maximum number of candidates returned by {@link #build}. Less
+   *     preferred candidates are dropped
+   */
+  public CompletionCandidateListBuilder(String completionPrefix, int maxCandidates) {
+    checkArgument(maxCandidates > 0, "maxCandidates must be positive, got %s", maxCandidates);
+    this.candidateMap = new HashMap<>();
     this.completionPrefix = completionPrefix;
+    this.maxCandidates = maxCandidates;
+    this.topCandidates =
+        maxCandidates == Integer.MAX_VALUE
+            ? null
+            : new PriorityQueue<>(maxCandidates + 1, Comparator.reverseOrder());
+  }
+
+  public String getCompletionPrefix() {
+    return completionPrefix;
+  }
+
+  /**
+   * Returns whether candidates of {@code sortCategory} can be added to the result. If not, callers
+   * can skip looking up such candidates, since all of them would be dropped.
+   *
+   * <p>When {@code false} is returned, the result is considered {@link #isTruncated truncated}.
+   */
+  public boolean canAddCandidatesOf(CompletionCandidate.SortCategory sortCategory) {
+    if (topCandidates == null || topCandidates.size() < maxCandidates) {
+      return true;
+    }
+    if (topCandidates.peek().getCompletionCandidate().getSortCategory().compareTo(sortCategory)
+        >= 0) {
+      return true;
+    }
+    truncated = true;
+    return false;
+  }
+
+  /**
+   * Marks the result as truncated when some matched candidates are not added for reasons other than
+   * the maximum number limit, e.g. they cannot be looked up in time.
+   */
+  public void markTruncated() {
+    truncated = true;
+  }
+
+  /** Returns whether any matched candidate is dropped because of the maximum number limit. */
+  public boolean isTruncated() {
+    return truncated;
   }
 
   public boolean hasCandidateWithName(String name) {
     return candidateMap.containsKey(name);
   }
 
+  /**
+   * Adds candidates for {@code entities} whose names match the completion prefix.
+   *
+   * <p>The entities are expected to be keyed by their simple names, so the match level is computed
+   * once per name. The value lists are iterated by index, because iterating {@link
+   * Multimap#values} allocates an iterator for each name.
+   */
   public CompletionCandidateListBuilder addEntities(
       Multimap<String, Entity> entities, CompletionCandidate.SortCategory sortCategory) {
-    for (Entity entity : entities.values()) {
-      addEntity(entity, sortCategory);
+    for (Map.Entry<String, Collection<Entity>> entry : entities.asMap().entrySet()) {
+      String name = entry.getKey();
+      Collection<Entity> values = entry.getValue();
+      CompletionPrefixMatcher.MatchLevel matchLevel = getMatchLevel(name);
+      if (values instanceof List && values instanceof RandomAccess) {
+        List<Entity> valueList = (List<Entity>) values;
+        for (int i = 0; i < valueList.size(); i++) {
+          addEntity(valueList.get(i), sortCategory, name, matchLevel);
+        }
+      } else {
+        for (Entity entity : values) {
+          addEntity(entity, sortCategory, name, matchLevel);
+        }
+      }
     }
     return this;
   }
 
+  private void addEntity(
+      Entity entity,
+      CompletionCandidate.SortCategory sortCategory,
+      String key,
+      CompletionPrefixMatcher.MatchLevel keyMatchLevel) {
+    String name = entity.getSimpleName();
+    CompletionPrefixMatcher.MatchLevel matchLevel =
+        name.equals(key) ? keyMatchLevel : getMatchLevel(name);
+    if (matchLevel != CompletionPrefixMatcher.MatchLevel.NOT_MATCH) {
+      addCandidate(name, new EntityCompletionCandidate(entity, sortCategory), matchLevel);
+    }
+  }
+
   public CompletionCandidateListBuilder addCandidates(Collection<CompletionCandidate> candidates) {
     for (CompletionCandidate candidate : candidates) {
       addCandidate(candidate);
@@ -48,27 +144,92 @@ public class CompletionCandidateListBuilder {
 
   public CompletionCandidateListBuilder addEntity(
       Entity entity, CompletionCandidate.SortCategory sortCategory) {
-    return this.addCandidate(new EntityCompletionCandidate(entity, sortCategory));
+    String name = entity.getSimpleName();
+    CompletionPrefixMatcher.MatchLevel matchLevel = getMatchLevel(name);
+    if (matchLevel == CompletionPrefixMatcher.MatchLevel.NOT_MATCH) {
+      return this;
+    }
+    return addCandidate(name, new EntityCompletionCandidate(entity, sortCategory), matchLevel);
+  }
+
+  /**
+   * Adds a candidate for {@code entity} if its name matches the completion prefix.
+   *
+   * @param detailEntity supplies the entity for showing the detail of the candidate. It's only
+   *     called if the detail of the candidate is requested
+   */
+  public CompletionCandidateListBuilder addEntity(
+      Entity entity, CompletionCandidate.SortCategory sortCategory, Supplier<Entity> detailEntity) {
+    String name = entity.getSimpleName();
+    return addEntity(entity, sortCategory, getMatchLevel(name), detailEntity);
+  }
+
+  /**
+   * Same as {@link #addEntity(Entity, CompletionCandidate.SortCategory, Supplier)}, with the match
+   * level of the entity name returned by {@link #getMatchLevel}. Callers can check the match level
+   * before allocating {@code detailEntity}.
+   */
+  CompletionCandidateListBuilder addEntity(
+      Entity entity,
+      CompletionCandidate.SortCategory sortCategory,
+      CompletionPrefixMatcher.MatchLevel matchLevel,
+      Supplier<Entity> detailEntity) {
+    if (matchLevel == CompletionPrefixMatcher.MatchLevel.NOT_MATCH) {
+      return this;
+    }
+    return addCandidate(
+        entity.getSimpleName(),
+        new EntityCompletionCandidate(entity, sortCategory, detailEntity),
+        matchLevel);
+  }
+
+  /** Returns how well {@code name} matches the completion prefix. Doesn't allocate any object. */
+  CompletionPrefixMatcher.MatchLevel getMatchLevel(String name) {
+    return CompletionPrefixMatcher.computeMatchLevel(name, completionPrefix);
   }
 
   public CompletionCandidateListBuilder addCandidate(CompletionCandidate candidate) {
     String name = candidate.getName();
-    CompletionPrefixMatcher.MatchLevel matchLevel =
-        CompletionPrefixMatcher.computeMatchLevel(name, completionPrefix);
+    CompletionPrefixMatcher.MatchLevel matchLevel = getMatchLevel(name);
     if (matchLevel == CompletionPrefixMatcher.MatchLevel.NOT_MATCH) {
       return this;
     }
+    return addCandidate(name, candidate, matchLevel);
+  }
 
-    if (!candidateMap.containsKey(name)) {
-      candidateMap.put(name, new EntityShadowingListBuilder<>(GET_ELEMENT_FUNCTION));
+  private CompletionCandidateListBuilder addCandidate(
+      String name,
+      CompletionCandidate candidate,
+      CompletionPrefixMatcher.MatchLevel matchLevel) {
+    EntityShadowingListBuilder<CompletionCandidateWithMatchLevel> shadowingListBuilder =
+        candidateMap.get(name);
+    if (shadowingListBuilder == null) {
+      shadowingListBuilder = new EntityShadowingListBuilder<>(GET_ELEMENT_FUNCTION);
+      candidateMap.put(name, shadowingListBuilder);
+    }
+    CompletionCandidateWithMatchLevel candidateWithLevel =
+        CompletionCandidateWithMatchLevel.create(candidate, matchLevel);
+    if (shadowingListBuilder.tryAdd(candidateWithLevel) && topCandidates != null) {
+      if (topCandidates.size() < maxCandidates) {
+        topCandidates.add(candidateWithLevel);
+      } else {
+        truncated = true;
+        if (candidateWithLevel.compareTo(topCandidates.peek()) < 0) {
+          topCandidates.poll();
+          topCandidates.add(candidateWithLevel);
+        }
+      }
     }
-    candidateMap.get(name).add(CompletionCandidateWithMatchLevel.create(candidate, matchLevel));
     return this;
   }
 
   public ImmutableList<CompletionCandidate> build() {
-    return candidateMap.values().stream()
-        .flatMap(entityShadowingListBuilder -> entityShadowingListBuilder.stream())
+    Stream<CompletionCandidateWithMatchLevel> candidates =
+        topCandidates != null
+            ? topCandidates.stream()
+            : candidateMap.values().stream()
+                .flatMap(entityShadowingListBuilder -> entityShadowingListBuilder.stream());
+    return candidates
         .sorted()
         .map(candidateWithLevel -> candidateWithLevel.getCompletionCandidate())
         .collect(ImmutableList.toImmutableList());
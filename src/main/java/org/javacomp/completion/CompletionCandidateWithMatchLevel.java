@@ -1,22 +1,11 @@
 package org.javacomp.completion;
 
 import com.google.auto.value.AutoValue;
-import java.util.Comparator;
 
 /** A wrapper of {@link CompletionCandidate} and {@link CompletionPrefixMatcher#MatchLevel}. */
 @AutoValue
 public abstract class CompletionCandidateWithMatchLevel
     implements Comparable<CompletionCandidateWithMatchLevel> {
-  private static final Comparator<CompletionCandidateWithMatchLevel> COMPARATOR =
-      Comparator.comparing(
-              (CompletionCandidateWithMatchLevel candidateWithLevel) ->
-                  candidateWithLevel.getCompletionCandidate().getSortCategory().ordinal())
-          .thenComparing(
-              candidateWithLevel -> candidateWithLevel.getMatchLevel().ordinal(),
-              Comparator.reverseOrder())
-          .thenComparing(
-              candidateWithLevel -> candidateWithLevel.getCompletionCandidate().getName());
-
   public abstract CompletionCandidate getCompletionCandidate();
 
   public abstract CompletionPrefixMatcher.MatchLevel getMatchLevel();
@@ -26,8 +15,25 @@ public abstract class CompletionCandidateWithMatchLevel
     return new AutoValue_CompletionCandidateWithMatchLevel(completionCandidate, matchLevel);
   }
 
+  /**
+   * Candidates are ordered by their sort categories, then by their match levels from the best to
+   * the worst, then by their names.
+   */
   @Override
   public int compareTo(CompletionCandidateWithMatchLevel other) {
-    return COMPARATOR.compare(this, other);
+    // Compared without Comparator chains to avoid boxing, since it's called for every candidate
+    // added to a bounded list.
+    int result =
+        getCompletionCandidate()
+            .getSortCategory()
+            .compareTo(other.getCompletionCandidate().getSortCategory());
+    if (result != 0) {
+      return result;
+    }
+    result = other.getMatchLevel().compareTo(getMatchLevel());
+    if (result != 0) {
+      return result;
+    }
+    return getCompletionCandidate().getName().compareTo(other.getCompletionCandidate().getName());
   }
 }
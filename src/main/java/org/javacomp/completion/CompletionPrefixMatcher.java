@@ -1,5 +1,7 @@
 package org.javacomp.completion;
 
+import org.javacomp.model.util.CamelCase;
+
 /** Logic of matching a completion name with a given completion prefix. */
 public class CompletionPrefixMatcher {
 
@@ -12,6 +14,18 @@ public class CompletionPrefixMatcher {
    */
   public enum MatchLevel {
     NOT_MATCH,
+    /**
+     * The characters of the prefix appear in the candidate name in the same order, ignoring case.
+     * The first characters of the prefix and the candidate name must match. E.g. {@code gtRs}
+     * matches {@code getResult}.
+     */
+    SUBSEQUENCE,
+    /**
+     * Each hump of the prefix is a prefix of the corresponding hump of the candidate name, ignoring
+     * case. E.g. {@code HM} matches {@code HashMap}, and {@code gCR} matches {@code
+     * getCompletionResult}. See {@link CamelCase} for the definition of humps.
+     */
+    CAMEL_CASE,
     CASE_INSENSITIVE_PREFIX,
     CASE_SENSITIVE_PREFIX,
     CASE_INSENSITIVE_EQUAL,
@@ -26,12 +40,21 @@ public class CompletionPrefixMatcher {
           : MatchLevel.CASE_SENSITIVE_PREFIX;
     }
 
-    if (candidateName.toLowerCase().startsWith(completionPrefix.toLowerCase())) {
+    if (candidateName.regionMatches(
+        true /* ignoreCase */, 0, completionPrefix, 0, completionPrefix.length())) {
       return candidateName.length() == completionPrefix.length()
           ? MatchLevel.CASE_INSENSITIVE_EQUAL
           : MatchLevel.CASE_INSENSITIVE_PREFIX;
     }
 
+    if (CamelCase.matchesHumps(candidateName, completionPrefix)) {
+      return MatchLevel.CAMEL_CASE;
+    }
+
+    if (matchesSubsequence(candidateName, completionPrefix)) {
+      return MatchLevel.SUBSEQUENCE;
+    }
+
     return MatchLevel.NOT_MATCH;
   }
 
@@ -39,4 +62,31 @@ public class CompletionPrefixMatcher {
   public static boolean matches(String candidateName, String completionPrefix) {
     return computeMatchLevel(candidateName, completionPrefix) != MatchLevel.NOT_MATCH;
   }
+
+  private static boolean matchesSubsequence(String candidateName, String completionPrefix) {
+    if (completionPrefix.isEmpty()) {
+      return true;
+    }
+    if (candidateName.isEmpty()
+        || !charEqualsIgnoreCase(candidateName.charAt(0), completionPrefix.charAt(0))) {
+      return false;
+    }
+    int candidateIndex = 1;
+    for (int prefixIndex = 1; prefixIndex < completionPrefix.length(); prefixIndex++) {
+      char prefixChar = completionPrefix.charAt(prefixIndex);
+      while (candidateIndex < candidateName.length()
+          && !charEqualsIgnoreCase(candidateName.charAt(candidateIndex), prefixChar)) {
+        candidateIndex++;
+      }
+      if (candidateIndex >= candidateName.length()) {
+        return false;
+      }
+      candidateIndex++;
+    }
+    return true;
+  }
+
+  private static boolean charEqualsIgnoreCase(char lhs, char rhs) {
+    return lhs == rhs || Character.toLowerCase(lhs) == Character.toLowerCase(rhs);
+  }
 }
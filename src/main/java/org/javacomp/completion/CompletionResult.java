@@ -18,36 +18,17 @@ public abstract class CompletionResult {
 
   public abstract ImmutableList<CompletionCandidate> getCompletionCandidates();
 
+  /**
+   * Whether there are more matched candidates than the ones in {@link #getCompletionCandidates}.
+   */
+  public abstract boolean isIncomplete();
+
   public abstract TextEditOptions getTextEditOptions();
 
   public abstract Builder toBuilder();
 
   public static Builder builder() {
-    return new AutoValue_CompletionResult.Builder();
-  }
-
-  /**
-   * Check if the completor is processing a completion request that is an incremental completion of
-   * the cached completion.
-   */
-  boolean isIncrementalCompletion(Path filePath, int line, int column, String prefix) {
-    if (!getFilePath().equals(filePath)) {
-      return false;
-    }
-    if (getLine() != line) {
-      return false;
-    }
-    if (getColumn() > column) {
-      return false;
-    }
-    if (!prefix.startsWith(getPrefix())) {
-      return false;
-    }
-    if (prefix.length() - getPrefix().length() != column - getColumn()) {
-      // FIXME: This may break for complicated Unicodes.
-      return false;
-    }
-    return true;
+    return new AutoValue_CompletionResult.Builder().setIncomplete(false);
   }
 
   @AutoValue.Builder
@@ -63,6 +44,8 @@ public abstract class CompletionResult {
     public abstract Builder setCompletionCandidates(
         ImmutableList<CompletionCandidate> completionCandidates);
 
+    public abstract Builder setIncomplete(boolean incomplete);
+
     public abstract Builder setTextEditOptions(TextEditOptions textEditOptions);
 
     public abstract CompletionResult build();
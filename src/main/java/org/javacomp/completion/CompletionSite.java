@@ -0,0 +1,30 @@
+package org.javacomp.completion;
+
+import com.google.auto.value.AutoValue;
+import java.nio.file.Path;
+
+/**
+ * The position where the completion prefix starts, together with the content of the line before
+ * it.
+ *
+ * <p>Completion requests with different prefixes at the same site have the same candidates before
+ * filtering by prefix, as long as the content before the site, e.g. the qualifier of a member
+ * select expression, is not changed.
+ */
+@AutoValue
+abstract class CompletionSite {
+  abstract Path getFilePath();
+
+  /** 0-based line number of the site. */
+  abstract int getLine();
+
+  /** 0-based character offset from the beginning of the line to the start of the prefix. */
+  abstract int getColumn();
+
+  /** The content of the line from its beginning to the site. */
+  abstract String getContentBefore();
+
+  static CompletionSite create(Path filePath, int line, int column, String contentBefore) {
+    return new AutoValue_CompletionSite(filePath, line, column, contentBefore);
+  }
+}
@@ -1,6 +1,7 @@
 package org.javacomp.completion;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.ImportTree;
 import com.sun.source.tree.LiteralTree;
@@ -9,10 +10,14 @@ import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
 import org.javacomp.file.FileManager;
 import org.javacomp.logging.JLogger;
+import org.javacomp.model.Module;
 import org.javacomp.project.ModuleManager;
 import org.javacomp.project.PositionContext;
 import org.javacomp.typesolver.ExpressionSolver;
@@ -24,21 +29,26 @@ import org.javacomp.typesolver.TypeSolver;
 public class Completor {
   private static final JLogger logger = JLogger.createForEnclosingClass();
 
-  private static final CompletionResult NO_CACHE =
-      CompletionResult.builder()
-          .setFilePath(Paths.get(""))
-          .setLine(-1)
-          .setColumn(-1)
-          .setPrefix("")
-          .setCompletionCandidates(ImmutableList.of())
-          .setTextEditOptions(TextEditOptions.DEFAULT)
-          .build();
+  /** The maximum number of completion sites whose candidates are cached. */
+  private static final int MAX_CACHED_SITES = 16;
 
   private final FileManager fileManager;
   private final TypeSolver typeSolver;
   private final ExpressionSolver expressionSolver;
+  private final CompleteSymbolAction completeSymbolAction;
+  private Optional<Duration> timeout = Optional.empty();
 
-  private CompletionResult cachedCompletion = NO_CACHE;
+  // Unfiltered candidates of recently completed sites, in access order.
+  private final Map<CompletionSite, SiteCandidates> cachedCandidates =
+      new LinkedHashMap<CompletionSite, SiteCandidates>(
+          MAX_CACHED_SITES, 0.75f, /* accessOrder= */ true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CompletionSite, SiteCandidates> eldest) {
+          return size() > MAX_CACHED_SITES;
+        }
+      };
+  private long speculativeComputations;
+  private long speculativeHits;
 
   public Completor(FileManager fileManager) {
     this.fileManager = fileManager;
@@ -47,6 +57,27 @@ public class Completor {
     this.expressionSolver =
         new ExpressionSolver(
             typeSolver, overloadSolver, new MemberSolver(typeSolver, overloadSolver));
+    ClassesForImportLoader classesForImportLoader =
+        new ClassesForImportLoader(
+            Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                    .setNameFormat("completion-lookup-%d")
+                    .setDaemon(true)
+                    .build()));
+    this.completeSymbolAction =
+        new CompleteSymbolAction(typeSolver, expressionSolver, classesForImportLoader);
+  }
+
+  /**
+   * Sets the latency budget of completion requests. When it expires, candidates that are slow to
+   * look up, such as classes to be imported, are skipped and the result is marked as {@link
+   * CompletionResult#isIncomplete incomplete}. The lookup keeps running in the background, and its
+   * result can be used by later requests.
+   *
+   * <p>If {@code timeout} is empty, requests always wait for all candidates.
+   */
+  public void setTimeout(Optional<Duration> timeout) {
+    this.timeout = timeout;
   }
 
   /**
@@ -57,14 +88,19 @@ public class Completor {
    */
   public CompletionResult getCompletionResult(
       ModuleManager moduleManager, Path filePath, int line, int column) {
-    // PositionContext gets the tree path whose leaf node includes the position
-    // (position < node's endPosition). However, for completions, we want the leaf node either
-    // includes the position, or just before the position (position == node's endPosition).
-    // Decresing column by 1 will decrease position by 1, which makes
-    // adjustedPosition == node's endPosition - 1 if the node is just before the actual position.
-    int contextColumn = column > 0 ? column - 1 : 0;
+    return getCompletionResult(moduleManager, filePath, line, column, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Same as {@link #getCompletionResult(ModuleManager, Path, int, int)}, but only returns the best
+   * {@code maxCandidates} candidates. If there are more matched candidates, the result is marked as
+   * {@link CompletionResult#isIncomplete incomplete}.
+   */
+  public CompletionResult getCompletionResult(
+      ModuleManager moduleManager, Path filePath, int line, int column, int maxCandidates) {
+    Deadline deadline = createDeadline();
     Optional<PositionContext> positionContext =
-        PositionContext.createForPosition(moduleManager, filePath, line, contextColumn);
+        createPositionContext(moduleManager, filePath, line, column);
 
     if (!positionContext.isPresent()) {
       return CompletionResult.builder()
@@ -79,53 +115,113 @@ public class Completor {
     ContentWithLineMap contentWithLineMap =
         ContentWithLineMap.create(positionContext.get().getFileScope(), fileManager, filePath);
     String prefix = contentWithLineMap.extractCompletionPrefix(line, column);
-    // TODO: limit the number of the candidates.
-    if (cachedCompletion.isIncrementalCompletion(filePath, line, column, prefix)) {
-      return getCompletionCandidatesFromCache(line, column, prefix);
-    } else {
-      cachedCompletion =
-          computeCompletionResult(positionContext.get(), contentWithLineMap, line, column, prefix);
-      return cachedCompletion;
+    return computeCompletionResult(
+        positionContext.get(), contentWithLineMap, line, column, prefix, maxCandidates, deadline);
+  }
+
+  /**
+   * Computes and caches the candidates of a position where a completion request is expected, e.g.
+   * the position right after an edit. Does nothing unless the position is after {@code .}, {@code
+   * ::} or an identifier character.
+   *
+   * <p>If the candidates are used by a completion request later, it's counted as a {@link
+   * #getSpeculativeHitCount hit}. Candidates already cached for the position are only recomputed if
+   * the file or the modules have changed since they were computed.
+   */
+  public void precomputeCompletion(
+      ModuleManager moduleManager, Path filePath, int line, int column) {
+    Deadline deadline = createDeadline();
+    Optional<PositionContext> positionContext =
+        createPositionContext(moduleManager, filePath, line, column);
+    if (!positionContext.isPresent()) {
+      return;
+    }
+
+    ContentWithLineMap contentWithLineMap =
+        ContentWithLineMap.create(positionContext.get().getFileScope(), fileManager, filePath);
+    if (!isSpeculativeCompletionPoint(contentWithLineMap, line, column)) {
+      return;
+    }
+    String prefix = contentWithLineMap.extractCompletionPrefix(line, column);
+    CompletionSite site = createCompletionSite(contentWithLineMap, line, column, prefix);
+    Module module = positionContext.get().getModule();
+    long generation = getSiteGeneration(module, contentWithLineMap);
+    ContentAroundPrefix content =
+        ContentAroundPrefix.create(contentWithLineMap, line, column, prefix);
+    SiteCandidates siteCandidates = cachedCandidates.get(site);
+    if (siteCandidates != null && siteCandidates.isValidFor(module, generation, content)) {
+      return;
+    }
+
+    CompletionAction action =
+        createAction(positionContext.get().getTreePath(), TextEditOptions.builder());
+    cachedCandidates.put(
+        site,
+        new SiteCandidates(
+            computeSiteCandidates(positionContext.get(), action),
+            module,
+            generation,
+            content,
+            true /* speculative */));
+    speculativeComputations++;
+    logger.fine("Precomputed candidates of %s", site);
+    if (deadline.isBounded()) {
+      // Also start looking up the candidates depending on the prefix. The result is not used, but
+      // the lookup warms up the caches for the request. Without a deadline the lookup would block
+      // until it's finished, and the request would wait for it anyway.
+      action.addPrefixDependentCandidates(
+          positionContext.get(), new CompletionCandidateListBuilder(prefix, 1), deadline);
     }
   }
 
+  /** Returns the number of sites whose candidates are computed by {@link #precomputeCompletion}. */
+  public long getSpeculativeComputationCount() {
+    return speculativeComputations;
+  }
+
+  /**
+   * Returns the number of sites whose candidates computed by {@link #precomputeCompletion} are
+   * used by completion requests.
+   */
+  public long getSpeculativeHitCount() {
+    return speculativeHits;
+  }
+
+  private Deadline createDeadline() {
+    return timeout.isPresent() ? Deadline.after(timeout.get()) : Deadline.NONE;
+  }
+
+  private static Optional<PositionContext> createPositionContext(
+      ModuleManager moduleManager, Path filePath, int line, int column) {
+    // PositionContext gets the tree path whose leaf node includes the position
+    // (position < node's endPosition). However, for completions, we want the leaf node either
+    // includes the position, or just before the position (position == node's endPosition).
+    // Decresing column by 1 will decrease position by 1, which makes
+    // adjustedPosition == node's endPosition - 1 if the node is just before the actual position.
+    int contextColumn = column > 0 ? column - 1 : 0;
+    return PositionContext.createForPosition(moduleManager, filePath, line, contextColumn);
+  }
+
+  /**
+   * Computes the completion result.
+   *
+   * <p>The candidates of a completion site are computed without filtering by prefix, and are
+   * cached. Later requests at the same site, either extending the prefix or deleting characters
+   * from it, are served by filtering the cached candidates with their own prefixes. The cached
+   * candidates are recomputed if the file is changed other than the prefix, or any other file in
+   * the module or its depending modules is changed.
+   */
   private CompletionResult computeCompletionResult(
       PositionContext positionContext,
       ContentWithLineMap contentWithLineMap,
       int line,
       int column,
-      String prefix) {
-    TreePath treePath = positionContext.getTreePath();
-    CompletionAction action;
+      String prefix,
+      int maxCandidates,
+      Deadline deadline) {
     TextEditOptions.Builder textEditOptions =
         TextEditOptions.builder().setAppendMethodArgumentSnippets(false);
-    if (treePath.getLeaf() instanceof MemberSelectTree) {
-      ExpressionTree parentExpression = ((MemberSelectTree) treePath.getLeaf()).getExpression();
-      Optional<ImportTree> importNode = findNodeOfType(treePath, ImportTree.class);
-      if (importNode.isPresent()) {
-        if (importNode.get().isStatic()) {
-          action =
-              CompleteMemberAction.forImportStatic(parentExpression, typeSolver, expressionSolver);
-        } else {
-          action = CompleteMemberAction.forImport(parentExpression, typeSolver, expressionSolver);
-        }
-      } else {
-        action =
-            CompleteMemberAction.forMemberSelect(parentExpression, typeSolver, expressionSolver);
-        textEditOptions.setAppendMethodArgumentSnippets(true);
-      }
-    } else if (treePath.getLeaf() instanceof MemberReferenceTree) {
-      ExpressionTree parentExpression =
-          ((MemberReferenceTree) treePath.getLeaf()).getQualifierExpression();
-      action =
-          CompleteMemberAction.forMethodReference(parentExpression, typeSolver, expressionSolver);
-    } else if (treePath.getLeaf() instanceof LiteralTree) {
-      // Do not complete on any literals, especially strings.
-      action = NoCandidateAction.INSTANCE;
-    } else {
-      action = new CompleteSymbolAction(typeSolver, expressionSolver);
-      textEditOptions.setAppendMethodArgumentSnippets(true);
-    }
+    CompletionAction action = createAction(positionContext.getTreePath(), textEditOptions);
 
     // When the cursor is before an opening parenthesis, it's likely the user is
     // trying to change the name of a method invocation. In this case the
@@ -135,30 +231,113 @@ public class Completor {
       textEditOptions.setAppendMethodArgumentSnippets(false);
     }
 
-    ImmutableList<CompletionCandidate> candidates =
-        action.getCompletionCandidates(positionContext, prefix);
+    CompletionSite site = createCompletionSite(contentWithLineMap, line, column, prefix);
+    Module module = positionContext.getModule();
+    long generation = getSiteGeneration(module, contentWithLineMap);
+    ContentAroundPrefix content =
+        ContentAroundPrefix.create(contentWithLineMap, line, column, prefix);
+    SiteCandidates siteCandidates = cachedCandidates.get(site);
+    if (siteCandidates == null || !siteCandidates.isValidFor(module, generation, content)) {
+      siteCandidates =
+          new SiteCandidates(
+              computeSiteCandidates(positionContext, action),
+              module,
+              generation,
+              content,
+              false /* speculative */);
+      cachedCandidates.put(site, siteCandidates);
+      logger.fine("Computed candidates of %s, %s", site, typeSolver.getCache());
+    } else {
+      logger.fine("Using cached candidates of %s", site);
+      if (siteCandidates.speculative) {
+        // Only count the first request using the precomputed candidates.
+        siteCandidates.speculative = false;
+        speculativeHits++;
+      }
+    }
+
+    CompletionCandidateListBuilder builder =
+        new CompletionCandidateListBuilder(prefix, maxCandidates)
+            .addCandidates(siteCandidates.candidates);
+    action.addPrefixDependentCandidates(positionContext, builder, deadline);
     return CompletionResult.builder()
         .setFilePath(contentWithLineMap.getFilePath())
         .setLine(line)
         .setColumn(column)
         .setPrefix(prefix)
-        .setCompletionCandidates(candidates)
+        .setCompletionCandidates(builder.build())
+        .setIncomplete(builder.isTruncated())
         .setTextEditOptions(textEditOptions.build())
         .build();
   }
 
-  private CompletionResult getCompletionCandidatesFromCache(int line, int column, String prefix) {
-    ImmutableList<CompletionCandidate> narrowedCandidates =
-        new CompletionCandidateListBuilder(prefix)
-            .addCandidates(cachedCompletion.getCompletionCandidates())
-            .build();
-    return cachedCompletion
-        .toBuilder()
-        .setCompletionCandidates(narrowedCandidates)
-        .setLine(line)
-        .setColumn(column)
-        .setPrefix(prefix)
-        .build();
+  private static ImmutableList<CompletionCandidate> computeSiteCandidates(
+      PositionContext positionContext, CompletionAction action) {
+    CompletionCandidateListBuilder siteBuilder = new CompletionCandidateListBuilder("");
+    action.addCompletionCandidates(positionContext, siteBuilder);
+    return siteBuilder.build();
+  }
+
+  private static CompletionSite createCompletionSite(
+      ContentWithLineMap contentWithLineMap, int line, int column, String prefix) {
+    // FIXME: This may break for complicated Unicodes.
+    int siteColumn = column - prefix.length();
+    return CompletionSite.create(
+        contentWithLineMap.getFilePath(),
+        line,
+        siteColumn,
+        contentWithLineMap.substring(line, 0, siteColumn));
+  }
+
+  /**
+   * Returns the generation of the module for validating cached candidates of a site in the file.
+   * Changes of the file itself are checked by {@link ContentAroundPrefix}, so that re-parsing the
+   * file after typing the prefix doesn't invalidate the candidates.
+   */
+  private static long getSiteGeneration(Module module, ContentWithLineMap contentWithLineMap) {
+    return module.getTransitiveGenerationExcludingFile(contentWithLineMap.getFilePath().toString());
+  }
+
+  /** Whether the content before the position ends with {@code .}, {@code ::} or an identifier. */
+  private static boolean isSpeculativeCompletionPoint(
+      ContentWithLineMap contentWithLineMap, int line, int column) {
+    if (column == 0) {
+      return false;
+    }
+    int start = Math.max(0, column - 2);
+    String before = contentWithLineMap.substring(line, start, column - start);
+    if (before.isEmpty()) {
+      return false;
+    }
+    char lastChar = before.charAt(before.length() - 1);
+    return lastChar == '.' || Character.isJavaIdentifierPart(lastChar) || before.equals("::");
+  }
+
+  private CompletionAction createAction(
+      TreePath treePath, TextEditOptions.Builder textEditOptions) {
+    if (treePath.getLeaf() instanceof MemberSelectTree) {
+      ExpressionTree parentExpression = ((MemberSelectTree) treePath.getLeaf()).getExpression();
+      Optional<ImportTree> importNode = findNodeOfType(treePath, ImportTree.class);
+      if (importNode.isPresent()) {
+        if (importNode.get().isStatic()) {
+          return CompleteMemberAction.forImportStatic(
+              parentExpression, typeSolver, expressionSolver);
+        }
+        return CompleteMemberAction.forImport(parentExpression, typeSolver, expressionSolver);
+      }
+      textEditOptions.setAppendMethodArgumentSnippets(true);
+      return CompleteMemberAction.forMemberSelect(parentExpression, typeSolver, expressionSolver);
+    } else if (treePath.getLeaf() instanceof MemberReferenceTree) {
+      ExpressionTree parentExpression =
+          ((MemberReferenceTree) treePath.getLeaf()).getQualifierExpression();
+      return CompleteMemberAction.forMethodReference(
+          parentExpression, typeSolver, expressionSolver);
+    } else if (treePath.getLeaf() instanceof LiteralTree) {
+      // Do not complete on any literals, especially strings.
+      return NoCandidateAction.INSTANCE;
+    }
+    textEditOptions.setAppendMethodArgumentSnippets(true);
+    return completeSymbolAction;
   }
 
   private static <T extends Tree> Optional<T> findNodeOfType(TreePath treePath, Class<T> type) {
@@ -174,14 +353,92 @@ public class Completor {
     return Optional.empty();
   }
 
+  /**
+   * The content of a file except the completion prefix. Candidates of a site depend on the content
+   * of the file, but not on the prefix being typed.
+   */
+  private static class ContentAroundPrefix {
+    private final CharSequence content;
+    private final int prefixStart;
+    private final int prefixEnd;
+
+    private ContentAroundPrefix(CharSequence content, int prefixStart, int prefixEnd) {
+      this.content = content;
+      this.prefixStart = prefixStart;
+      this.prefixEnd = prefixEnd;
+    }
+
+    private static ContentAroundPrefix create(
+        ContentWithLineMap contentWithLineMap, int line, int column, String prefix) {
+      int prefixEnd = contentWithLineMap.getOffset(line, column);
+      int prefixStart = Math.max(0, prefixEnd - prefix.length());
+      return new ContentAroundPrefix(contentWithLineMap.getContent(), prefixStart, prefixEnd);
+    }
+
+    /** Returns a copy that is not changed with the file, whose content may be mutable. */
+    private ContentAroundPrefix copy() {
+      String contentCopy =
+          new StringBuilder(content.length() - prefixEnd + prefixStart)
+              .append(content, 0, prefixStart)
+              .append(content, prefixEnd, content.length())
+              .toString();
+      return new ContentAroundPrefix(contentCopy, prefixStart, prefixStart);
+    }
+
+    private boolean contentEquals(ContentAroundPrefix other) {
+      if (prefixStart != other.prefixStart
+          || content.length() - prefixEnd != other.content.length() - other.prefixEnd) {
+        return false;
+      }
+      for (int i = 0; i < prefixStart; i++) {
+        if (content.charAt(i) != other.content.charAt(i)) {
+          return false;
+        }
+      }
+      for (int i = prefixEnd, j = other.prefixEnd; i < content.length(); i++, j++) {
+        if (content.charAt(i) != other.content.charAt(j)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class SiteCandidates {
+    private final ImmutableList<CompletionCandidate> candidates;
+    // The module, its generation and the content of the file the candidates are computed with.
+    private final Module module;
+    private final long generation;
+    private final ContentAroundPrefix content;
+    // Whether the candidates are computed speculatively and not used by any request yet.
+    private boolean speculative;
+
+    private SiteCandidates(
+        ImmutableList<CompletionCandidate> candidates,
+        Module module,
+        long generation,
+        ContentAroundPrefix content,
+        boolean speculative) {
+      this.candidates = candidates;
+      this.module = module;
+      this.generation = generation;
+      this.content = content.copy();
+      this.speculative = speculative;
+    }
+
+    private boolean isValidFor(Module module, long generation, ContentAroundPrefix content) {
+      return this.module == module
+          && this.generation == generation
+          && this.content.contentEquals(content);
+    }
+  }
+
   /** A {@link CompletionAction} that always returns an empty list of candidates. */
   private static class NoCandidateAction implements CompletionAction {
     public static final NoCandidateAction INSTANCE = new NoCandidateAction();
 
     @Override
-    public ImmutableList<CompletionCandidate> getCompletionCandidates(
-        PositionContext positionContext, String prefix) {
-      return ImmutableList.of();
-    }
+    public void addCompletionCandidates(
+        PositionContext positionContext, CompletionCandidateListBuilder builder) {}
   }
 }
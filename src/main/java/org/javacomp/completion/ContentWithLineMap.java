@@ -47,6 +47,12 @@ abstract class ContentWithLineMap {
     return getContent().subSequence(start + 1, position).toString();
   }
 
+  /** Gets the offset of the position (line, column) in the content, within the bounds of it. */
+  int getOffset(int line, int column) {
+    int position = LineMapUtil.getPositionFromZeroBasedLineAndColumn(getLineMap(), line, column);
+    return Math.max(0, Math.min(getContent().length(), position));
+  }
+
   String substring(int line, int column, int length) {
     int position = LineMapUtil.getPositionFromZeroBasedLineAndColumn(getLineMap(), line, column);
     if (position < 0) {
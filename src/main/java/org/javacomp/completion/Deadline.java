@@ -0,0 +1,31 @@
+package org.javacomp.completion;
+
+import java.time.Duration;
+
+/** The time by which a completion request should be responded. */
+class Deadline {
+  /** A deadline that never expires. */
+  static final Deadline NONE = new Deadline(0, false);
+
+  private final long deadlineNanos;
+  private final boolean bounded;
+
+  private Deadline(long deadlineNanos, boolean bounded) {
+    this.deadlineNanos = deadlineNanos;
+    this.bounded = bounded;
+  }
+
+  /** Returns a deadline that expires {@code timeout} after now. */
+  static Deadline after(Duration timeout) {
+    return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+  }
+
+  boolean isBounded() {
+    return bounded;
+  }
+
+  /** Returns the remaining time in nanoseconds. Non-positive if the deadline has expired. */
+  long getRemainingNanos() {
+    return bounded ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+  }
+}
@@ -1,7 +1,10 @@
 package org.javacomp.completion;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import java.util.List;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.javacomp.model.ClassEntity;
 import org.javacomp.model.Entity;
 import org.javacomp.model.MethodEntity;
@@ -12,10 +15,25 @@ import org.javacomp.model.VariableEntity;
 /** A {@link CompletionCandidate} backed by {@link Entity}. */
 class EntityCompletionCandidate extends EntityBasedCompletionCandidate {
   private final SortCategory sortCategory;
+  // Null if the detail is shown with the entity itself.
+  @Nullable private final Supplier<Entity> detailEntity;
 
   EntityCompletionCandidate(Entity entity, SortCategory sortCategory) {
     super(entity);
     this.sortCategory = sortCategory;
+    this.detailEntity = null;
+  }
+
+  /**
+   * @param detailEntity supplies the entity for showing the detail of the candidate, e.g. {@code
+   *     entity} with the type parameters of its context applied. It's only called when the detail
+   *     is needed
+   */
+  EntityCompletionCandidate(
+      Entity entity, SortCategory sortCategory, Supplier<Entity> detailEntity) {
+    super(entity);
+    this.sortCategory = sortCategory;
+    this.detailEntity = Suppliers.memoize(detailEntity);
   }
 
   @Override
@@ -61,7 +79,7 @@ class EntityCompletionCandidate extends EntityBasedCompletionCandidate {
 
   @Override
   public Optional<String> getDetail() {
-    Entity entity = getEntity();
+    Entity entity = detailEntity != null ? detailEntity.get() : getEntity();
     switch (entity.getKind()) {
       case METHOD:
         {
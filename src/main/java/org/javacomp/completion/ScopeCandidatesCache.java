@@ -0,0 +1,111 @@
+package org.javacomp.completion;
+
+import com.google.common.collect.ImmutableList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.javacomp.model.EntityScope;
+import org.javacomp.model.Module;
+
+/**
+ * Caches the unfiltered completion candidates contributed by scopes shared by many completion
+ * positions, such as classes, files and packages.
+ *
+ * <p>Classes and files are keyed by the scope instances, which are compared by identity, so a
+ * re-parsed file and the classes in it are new keys. Packages are keyed by their qualifiers, because
+ * the packages of all modules are aggregated into new scope instances on each lookup. Cached
+ * candidates are only valid for the module they are computed in, until the generation passed by
+ * the caller changes.
+ *
+ * @see Module#getDefiningGeneration
+ * @see Module#getTransitivePackageGeneration
+ */
+class ScopeCandidatesCache {
+  /** The maximum number of scopes whose candidates are cached. */
+  private static final int MAX_CACHED_SCOPES = 64;
+
+  private static class CachedCandidates {
+    private final Module module;
+    private final long generation;
+    private final ImmutableList<CompletionCandidate> candidates;
+
+    private CachedCandidates(
+        Module module, long generation, ImmutableList<CompletionCandidate> candidates) {
+      this.module = module;
+      this.generation = generation;
+      this.candidates = candidates;
+    }
+  }
+
+  // Scope instances don't override equals() and hashCode(), so they are compared by identity.
+  private final Map<Object, CachedCandidates> cache =
+      new LinkedHashMap<Object, CachedCandidates>(
+          MAX_CACHED_SCOPES, 0.75f, /* accessOrder= */ true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CachedCandidates> eldest) {
+          return size() > MAX_CACHED_SCOPES;
+        }
+      };
+  private long hits;
+  private long misses;
+
+  /**
+   * Returns the cached candidates of {@code scope}, or computes them by calling {@code
+   * candidatesAdder} with a builder without completion prefix.
+   *
+   * @param scope the class or file scope whose candidates are cached
+   * @param generation the generation of {@code scope} in {@code module}, see {@link
+   *     Module#getDefiningGeneration}
+   */
+  synchronized ImmutableList<CompletionCandidate> getCandidates(
+      EntityScope scope,
+      Module module,
+      long generation,
+      Consumer<CompletionCandidateListBuilder> candidatesAdder) {
+    return getCandidatesForKey(scope, module, generation, candidatesAdder);
+  }
+
+  /**
+   * Returns the cached candidates of the package {@code packageQualifiers} aggregated from {@code
+   * module} and its depending modules, or computes them by calling {@code candidatesAdder} with a
+   * builder without completion prefix.
+   *
+   * @param generation the generation of the package in {@code module}, see {@link
+   *     Module#getTransitivePackageGeneration}
+   */
+  synchronized ImmutableList<CompletionCandidate> getPackageCandidates(
+      List<String> packageQualifiers,
+      Module module,
+      long generation,
+      Consumer<CompletionCandidateListBuilder> candidatesAdder) {
+    return getCandidatesForKey(
+        ImmutableList.copyOf(packageQualifiers), module, generation, candidatesAdder);
+  }
+
+  private ImmutableList<CompletionCandidate> getCandidatesForKey(
+      Object key,
+      Module module,
+      long generation,
+      Consumer<CompletionCandidateListBuilder> candidatesAdder) {
+    CachedCandidates cached = cache.get(key);
+    if (cached != null && cached.module == module && cached.generation == generation) {
+      hits++;
+      return cached.candidates;
+    }
+    misses++;
+    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder("");
+    candidatesAdder.accept(builder);
+    ImmutableList<CompletionCandidate> candidates = builder.build();
+    cache.put(key, new CachedCandidates(module, generation, candidates));
+    return candidates;
+  }
+
+  synchronized long getHitCount() {
+    return hits;
+  }
+
+  synchronized long getMissCount() {
+    return misses;
+  }
+}
@@ -15,12 +15,14 @@ public class BlockScope implements EntityScope {
   private final Multimap<String, Entity> entities;
   private final EntityScope parentScope;
   private final ArrayList<EntityScope> childScopes = new ArrayList<>();
-  private final Range<Integer> definitionRange;
+  private final int definitionStart;
+  private final int definitionEnd;
 
   public BlockScope(EntityScope parentScope, Range<Integer> definitionRange) {
     this.entities = HashMultimap.create();
     this.parentScope = parentScope;
-    this.definitionRange = definitionRange;
+    this.definitionStart = EntityRanges.getStart(definitionRange);
+    this.definitionEnd = EntityRanges.getEnd(definitionRange);
   }
 
   @Override
@@ -51,7 +53,7 @@ public class BlockScope implements EntityScope {
 
   @Override
   public Range<Integer> getDefinitionRange() {
-    return definitionRange;
+    return EntityRanges.toRange(definitionStart, definitionEnd);
   }
 
   @Override
@@ -1,12 +1,16 @@
 package org.javacomp.model;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Range;
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -24,17 +28,21 @@ public class ClassEntity extends Entity implements EntityScope {
           Entity.Kind.CLASS, Entity.Kind.INTERFACE, Entity.Kind.ANNOTATION, Entity.Kind.ENUM);
 
   // Map of simple names -> fields.
-  private final Map<String, VariableEntity> fields;
-  // Map of simple names -> methods.
-  private final Multimap<String, MethodEntity> methods;
-  private final List<MethodEntity> constructors;
+  private Map<String, VariableEntity> fields;
+  // Map of simple names -> methods, in the order they are added.
+  private Multimap<String, MethodEntity> methods;
+  private List<MethodEntity> constructors;
   private final EntityScope parentScope;
   private final Optional<TypeReference> superClass;
   private final ImmutableList<TypeReference> interfaces;
-  private final Map<String, ClassEntity> innerClasses;
+  private Map<String, ClassEntity> innerClasses;
   private final ImmutableList<TypeParameter> typeParameters;
-  private final List<EntityScope> childScopes;
-  private final Range<Integer> definitionRange;
+  private List<EntityScope> childScopes;
+  private final int definitionStart;
+  private final int definitionEnd;
+  private boolean frozen;
+  // Resolved by TypeSolver on demand. May be stale, see ClassHierarchy#isValidFor.
+  private volatile Optional<ClassHierarchy> cachedHierarchy;
 
   public ClassEntity(
       String simpleName,
@@ -55,7 +63,7 @@ public class ClassEntity extends Entity implements EntityScope {
         kind,
         ALLOWED_KINDS);
     this.fields = new HashMap<>();
-    this.methods = HashMultimap.create();
+    this.methods = ArrayListMultimap.create();
     this.constructors = new ArrayList<>();
     this.parentScope = parentScope;
     this.superClass = superClass;
@@ -63,7 +71,10 @@ public class ClassEntity extends Entity implements EntityScope {
     this.typeParameters = ImmutableList.copyOf(typeParameters);
     this.innerClasses = new HashMap<>();
     this.childScopes = new ArrayList<>();
-    this.definitionRange = definitionRange;
+    this.definitionStart = EntityRanges.getStart(definitionRange);
+    this.definitionEnd = EntityRanges.getEnd(definitionRange);
+    this.frozen = false;
+    this.cachedHierarchy = Optional.empty();
   }
 
   @Override
@@ -95,6 +106,7 @@ public class ClassEntity extends Entity implements EntityScope {
 
   @Override
   public void addEntity(Entity entity) {
+    checkState(!frozen, "Cannot add %s to frozen class %s", entity, this);
     childScopes.add(entity.getScope());
     if (entity instanceof ClassEntity) {
       innerClasses.put(entity.getSimpleName(), (ClassEntity) entity);
@@ -112,6 +124,7 @@ public class ClassEntity extends Entity implements EntityScope {
 
   @Override
   public void addChildScope(EntityScope childScope) {
+    checkState(!frozen, "Cannot add child scope to frozen class %s", this);
     checkArgument(
         !childScope.getDefiningEntity().isPresent(),
         "Should call addEntity for adding entity %s",
@@ -126,7 +139,7 @@ public class ClassEntity extends Entity implements EntityScope {
 
   @Override
   public Range<Integer> getDefinitionRange() {
-    return definitionRange;
+    return EntityRanges.toRange(definitionStart, definitionEnd);
   }
 
   public List<MethodEntity> getMethodsWithName(String simpleName) {
@@ -155,6 +168,9 @@ public class ClassEntity extends Entity implements EntityScope {
   }
 
   public Map<String, ClassEntity> getInnerClasses() {
+    if (frozen) {
+      return innerClasses;
+    }
     return ImmutableMap.copyOf(innerClasses);
   }
 
@@ -162,6 +178,52 @@ public class ClassEntity extends Entity implements EntityScope {
     return typeParameters;
   }
 
+  /**
+   * Converts the members of this class into compact immutable collections sorted by name, and
+   * freezes its methods and inner classes recursively.
+   *
+   * <p>Entities and child scopes cannot be added to a frozen class. It's intended for classes that
+   * never change after being loaded, such as classes from index files or .class files.
+   */
+  public void freeze() {
+    if (frozen) {
+      return;
+    }
+    frozen = true;
+    fields = ImmutableSortedMap.copyOf(fields);
+    methods =
+        ImmutableListMultimap.<String, MethodEntity>builder()
+            .orderKeysBy(Ordering.natural())
+            .putAll(methods)
+            .build();
+    constructors = ImmutableList.copyOf(constructors);
+    innerClasses = ImmutableSortedMap.copyOf(innerClasses);
+    childScopes = ImmutableList.copyOf(childScopes);
+
+    for (MethodEntity method : methods.values()) {
+      method.freeze();
+    }
+    for (MethodEntity constructor : constructors) {
+      constructor.freeze();
+    }
+    for (ClassEntity innerClass : innerClasses.values()) {
+      innerClass.freeze();
+    }
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /** Returns the last resolved hierarchy of the class, which may be out of date. */
+  public Optional<ClassHierarchy> getCachedHierarchy() {
+    return cachedHierarchy;
+  }
+
+  public void setCachedHierarchy(ClassHierarchy hierarchy) {
+    this.cachedHierarchy = Optional.of(hierarchy);
+  }
+
   @Override
   public String toString() {
     return "ClassEntity<"
@@ -0,0 +1,112 @@
+package org.javacomp.model;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+
+/**
+ * The resolved super classes and interfaces of a {@link ClassEntity}, and the members it has
+ * including the inherited ones.
+ *
+ * <p>A class hierarchy is resolved in the context of a module. It's cached in the {@link
+ * ClassEntity} and is only valid for the module it's resolved in, until the module defining the
+ * class or any of its depending modules changes.
+ *
+ * @see Module#getDefiningGeneration
+ */
+@AutoValue
+public abstract class ClassHierarchy {
+  /** A resolved super class or interface. */
+  @AutoValue
+  public abstract static class Supertype {
+    public abstract ClassEntity getClassEntity();
+
+    /**
+     * The type reference the super type is resolved from. Empty for implicit super types, such as
+     * {@code java.lang.Enum} of enums and {@code java.lang.Object}.
+     */
+    public abstract Optional<TypeReference> getTypeReference();
+
+    /**
+     * The index of the class declaring this super type in {@link #getLinearizedAncestors}, or -1 if
+     * it's declared by the class of the hierarchy.
+     */
+    public abstract int getSubclassIndex();
+
+    public static Supertype create(
+        ClassEntity classEntity, Optional<TypeReference> typeReference, int subclassIndex) {
+      return new AutoValue_ClassHierarchy_Supertype(classEntity, typeReference, subclassIndex);
+    }
+
+    public Supertype withSubclassIndex(int subclassIndex) {
+      return create(getClassEntity(), getTypeReference(), subclassIndex);
+    }
+  }
+
+  /** A member entity declared by a class or an ancestor of it. */
+  @AutoValue
+  public abstract static class Member {
+    public abstract Entity getEntity();
+
+    /**
+     * The index of the class declaring the member. 0 is the class of the hierarchy, and {@code i}
+     * is the {@code (i - 1)}-th element of {@link #getLinearizedAncestors}.
+     */
+    public abstract int getClassIndex();
+
+    public static Member create(Entity entity, int classIndex) {
+      return new AutoValue_ClassHierarchy_Member(entity, classIndex);
+    }
+  }
+
+  public abstract Module getModule();
+
+  /**
+   * The transitive generation of the module defining the class when the hierarchy is resolved.
+   *
+   * @see Module#getDefiningGeneration
+   */
+  public abstract long getGeneration();
+
+  /** The resolved direct super class and interfaces. Unresolved ones are not included. */
+  public abstract ImmutableList<Supertype> getDirectSupertypes();
+
+  /**
+   * All ancestor classes and interfaces in breadth-first order, with {@code java.lang.Object} being
+   * the last one. Empty if the ancestors are not resolved yet.
+   */
+  public abstract Optional<ImmutableList<Supertype>> getLinearizedAncestors();
+
+  /**
+   * Members of the class and all its ancestors, excluding the ones shadowed by members of the class
+   * or closer ancestors. Members with the same name are in the order of the classes declaring them.
+   * Empty if the members are not resolved yet.
+   */
+  public abstract Optional<ImmutableList<Member>> getEffectiveMembers();
+
+  public abstract Builder toBuilder();
+
+  public static Builder builder() {
+    return new AutoValue_ClassHierarchy.Builder();
+  }
+
+  /** Returns whether the hierarchy is resolved in {@code module} and is still up to date. */
+  public boolean isValidFor(Module module, long generation) {
+    return getModule() == module && getGeneration() == generation;
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder setModule(Module module);
+
+    public abstract Builder setGeneration(long generation);
+
+    public abstract Builder setDirectSupertypes(ImmutableList<Supertype> directSupertypes);
+
+    public abstract Builder setLinearizedAncestors(ImmutableList<Supertype> linearizedAncestors);
+
+    public abstract Builder setEffectiveMembers(ImmutableList<Member> effectiveMembers);
+
+    public abstract ClassHierarchy build();
+  }
+}
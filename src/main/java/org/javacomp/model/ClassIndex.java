@@ -0,0 +1,164 @@
+package org.javacomp.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import org.javacomp.model.util.CamelCase;
+
+/**
+ * A mutable index of all classes, including inner classes, defined in a set of files.
+ *
+ * <p>Classes are stored in a map sorted by their simple names case-insensitively, so that all
+ * classes whose simple names start with a given prefix, ignoring case, are adjacent in the map and
+ * can be located in logarithmic time.
+ *
+ * <p>The index also keeps the hump initials of the class names (see {@link CamelCase}) in another
+ * sorted map, so that classes can be looked up by camel case abbreviations such as {@code HM} for
+ * {@code HashMap}.
+ *
+ * <p>Files can be added and removed incrementally. The index is thread-safe.
+ */
+public class ClassIndex {
+  /** Map of simple names -> classes with the names, sorted case-insensitively. */
+  private final NavigableMap<String, Set<ClassEntity>> classesBySimpleName;
+  /** Map of hump initials -> classes with the initials, sorted case-insensitively. */
+  private final NavigableMap<String, Set<ClassEntity>> classesByHumpInitials;
+  /** Map of files -> the classes indexed for them. */
+  private final Map<FileScope, ImmutableList<ClassEntity>> fileClasses;
+
+  private int size;
+
+  public ClassIndex() {
+    this.classesBySimpleName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    this.classesByHumpInitials = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    this.fileClasses = new HashMap<>();
+    this.size = 0;
+  }
+
+  /** Indexes all classes defined in {@code fileScope}, replacing the ones indexed for it before. */
+  public synchronized void addFile(FileScope fileScope) {
+    removeFile(fileScope);
+    ImmutableList.Builder<ClassEntity> builder = new ImmutableList.Builder<>();
+    Deque<ClassEntity> queue = new ArrayDeque<>();
+    for (Entity entity : fileScope.getMemberEntities().values()) {
+      if (entity instanceof ClassEntity) {
+        queue.addLast((ClassEntity) entity);
+      }
+    }
+    while (!queue.isEmpty()) {
+      ClassEntity classEntity = queue.removeFirst();
+      builder.add(classEntity);
+      String simpleName = classEntity.getSimpleName();
+      addToMap(classesBySimpleName, simpleName, classEntity);
+      addToMap(classesByHumpInitials, CamelCase.getHumpInitials(simpleName), classEntity);
+      queue.addAll(classEntity.getInnerClasses().values());
+    }
+    ImmutableList<ClassEntity> classes = builder.build();
+    if (!classes.isEmpty()) {
+      fileClasses.put(fileScope, classes);
+      size += classes.size();
+    }
+  }
+
+  /** Removes the classes indexed for {@code fileScope}. */
+  public synchronized void removeFile(FileScope fileScope) {
+    ImmutableList<ClassEntity> classes = fileClasses.remove(fileScope);
+    if (classes == null) {
+      return;
+    }
+    for (ClassEntity classEntity : classes) {
+      String simpleName = classEntity.getSimpleName();
+      removeFromMap(classesBySimpleName, simpleName, classEntity);
+      removeFromMap(classesByHumpInitials, CamelCase.getHumpInitials(simpleName), classEntity);
+    }
+    size -= classes.size();
+  }
+
+  /**
+   * Returns classes whose simple names start with {@code prefix}, ignoring case.
+   *
+   * <p>The classes are returned in case-insensitive order of their simple names. It takes
+   * logarithmic time to locate the first matching class.
+   *
+   * @param limit the maximum number of classes to return
+   */
+  public synchronized ImmutableList<ClassEntity> findClassesWithPrefix(String prefix, int limit) {
+    return findClasses(classesBySimpleName, prefix, limit, classEntity -> true);
+  }
+
+  /**
+   * Returns classes whose hump initials start with {@code initials}, ignoring case. For example,
+   * {@code HashMap} and {@code HashMultimap} are returned for {@code HM}.
+   *
+   * <p>The returned classes are candidates of camel case matching. Callers should check whether
+   * each hump of their names actually matches.
+   *
+   * @param limit the maximum number of classes to return
+   */
+  public ImmutableList<ClassEntity> findClassesWithHumpInitials(String initials, int limit) {
+    return findClassesWithHumpInitials(initials, limit, classEntity -> true);
+  }
+
+  /**
+   * Same as {@link #findClassesWithHumpInitials(String, int)}, but only returns classes accepted
+   * by {@code filter}. Rejected classes don't count towards {@code limit}.
+   */
+  public synchronized ImmutableList<ClassEntity> findClassesWithHumpInitials(
+      String initials, int limit, Predicate<ClassEntity> filter) {
+    return findClasses(classesByHumpInitials, initials, limit, filter);
+  }
+
+  /** Returns the number of classes in the index. */
+  public synchronized int size() {
+    return size;
+  }
+
+  private static ImmutableList<ClassEntity> findClasses(
+      NavigableMap<String, Set<ClassEntity>> map,
+      String prefix,
+      int limit,
+      Predicate<ClassEntity> filter) {
+    checkArgument(limit >= 0, "limit must not be negative, got %s", limit);
+    ImmutableList.Builder<ClassEntity> builder = new ImmutableList.Builder<>();
+    int count = 0;
+    for (Map.Entry<String, Set<ClassEntity>> entry :
+        map.tailMap(prefix, true /* inclusive */).entrySet()) {
+      if (count >= limit
+          || !entry.getKey().regionMatches(true /* ignoreCase */, 0, prefix, 0, prefix.length())) {
+        break;
+      }
+      for (ClassEntity classEntity : entry.getValue()) {
+        if (count >= limit) {
+          break;
+        }
+        if (filter.test(classEntity)) {
+          builder.add(classEntity);
+          count++;
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private static void addToMap(
+      NavigableMap<String, Set<ClassEntity>> map, String key, ClassEntity classEntity) {
+    map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(classEntity);
+  }
+
+  private static void removeFromMap(
+      NavigableMap<String, Set<ClassEntity>> map, String key, ClassEntity classEntity) {
+    Set<ClassEntity> classes = map.get(key);
+    if (classes != null && classes.remove(classEntity) && classes.isEmpty()) {
+      map.remove(key);
+    }
+  }
+}
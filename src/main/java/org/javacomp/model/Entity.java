@@ -34,12 +34,28 @@ public abstract class Entity {
     ;
   }
 
+  /** Access levels of entities, from the least restrictive to the most restrictive. */
+  public enum AccessLevel {
+    PUBLIC,
+    PROTECTED,
+    PACKAGE_PRIVATE,
+    PRIVATE,
+    ;
+
+    /** Returns the more restrictive one of this and {@code other}. */
+    public AccessLevel restrict(AccessLevel other) {
+      return compareTo(other) >= 0 ? this : other;
+    }
+  }
+
   private final String simpleName;
   private final List<String> qualifiers;
   private final Kind kind;
   private final boolean isStatic;
-  private final Range<Integer> symbolRange;
+  private final int symbolStart;
+  private final int symbolEnd;
   private final Optional<String> javadoc;
+  private AccessLevel accessLevel = AccessLevel.PUBLIC;
 
   protected Entity(
       String simpleName,
@@ -53,7 +69,8 @@ public abstract class Entity {
     this.qualifiers = ImmutableList.copyOf(qualifiers);
     this.isStatic = isStatic;
     this.javadoc = javadoc;
-    this.symbolRange = symbolRange;
+    this.symbolStart = EntityRanges.getStart(symbolRange);
+    this.symbolEnd = EntityRanges.getEnd(symbolRange);
   }
 
   /**
@@ -82,14 +99,45 @@ public abstract class Entity {
     return javadoc;
   }
 
+  /**
+   * Returns the range of the symbol name of the entity. The range is empty if the entity is not
+   * defined in source code. Otherwise a new {@link Range} instance is created for each call. Use
+   * {@link #getSymbolStart} and {@link #getSymbolEnd} in performance sensitive code.
+   */
   public Range<Integer> getSymbolRange() {
-    return symbolRange;
+    return EntityRanges.toRange(symbolStart, symbolEnd);
+  }
+
+  /** Returns the start offset of the symbol name of the entity. */
+  public int getSymbolStart() {
+    return symbolStart;
+  }
+
+  /**
+   * Returns the end offset of the symbol name of the entity, inclusive. It's less than {@link
+   * #getSymbolStart} if the symbol range is empty.
+   */
+  public int getSymbolEnd() {
+    return symbolEnd;
   }
 
   public boolean isStatic() {
     return isStatic;
   }
 
+  /**
+   * Returns the access level declared by the modifiers of the entity, or implied by its enclosing
+   * class. Entities whose access level is unknown, such as the ones loaded from index files, are
+   * considered {@link AccessLevel#PUBLIC}.
+   */
+  public AccessLevel getAccessLevel() {
+    return accessLevel;
+  }
+
+  public void setAccessLevel(AccessLevel accessLevel) {
+    this.accessLevel = accessLevel;
+  }
+
   /**
    * @return {@code true} if the entity is a member of a class instance, which can only be access in
    *     an instance context of that class.
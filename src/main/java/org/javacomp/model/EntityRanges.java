@@ -0,0 +1,60 @@
+package org.javacomp.model;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+/**
+ * Conversions between {@link Range} instances and the primitive offsets stored by entities and
+ * scopes.
+ *
+ * <p>Entities store the start and end offsets of their ranges as {@code int} fields, so that
+ * position lookups don't need to unbox the endpoints. Ranges are stored as closed intervals.
+ * Unbounded endpoints are stored as {@link Integer#MIN_VALUE} or {@link Integer#MAX_VALUE}. Empty
+ * ranges, such as the ranges of entities not defined in source code, are stored with an end offset
+ * less than the start offset, so that they never contain any position.
+ */
+final class EntityRanges {
+  private static final Range<Integer> EMPTY_RANGE = Range.closedOpen(0, 0);
+
+  private EntityRanges() {}
+
+  static int getStart(Range<Integer> range) {
+    if (!range.hasLowerBound()) {
+      return Integer.MIN_VALUE;
+    }
+    if (range.isEmpty() || range.lowerBoundType() == BoundType.CLOSED) {
+      return range.lowerEndpoint();
+    }
+    return range.lowerEndpoint() + 1;
+  }
+
+  static int getEnd(Range<Integer> range) {
+    if (!range.hasUpperBound()) {
+      return Integer.MAX_VALUE;
+    }
+    if (range.isEmpty()) {
+      return getStart(range) - 1;
+    }
+    if (range.upperBoundType() == BoundType.CLOSED) {
+      return range.upperEndpoint();
+    }
+    return range.upperEndpoint() - 1;
+  }
+
+  /**
+   * Returns the range of the stored offsets. Empty and unbounded ranges are shared instances, other
+   * ranges are created on each call.
+   */
+  static Range<Integer> toRange(int start, int end) {
+    if (end < start) {
+      return start == 0 ? EMPTY_RANGE : Range.closedOpen(start, start);
+    }
+    if (start == Integer.MIN_VALUE) {
+      return end == Integer.MAX_VALUE ? Range.all() : Range.atMost(end);
+    }
+    if (end == Integer.MAX_VALUE) {
+      return Range.atLeast(start);
+    }
+    return Range.closed(start, end);
+  }
+}
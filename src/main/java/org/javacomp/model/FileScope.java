@@ -1,14 +1,17 @@
 package org.javacomp.model;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Range;
-import com.google.common.collect.RangeMap;
 import com.sun.source.tree.LineMap;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import java.nio.file.Path;
@@ -17,6 +20,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import javax.annotation.Nullable;
+import org.javacomp.model.util.IntervalMap;
 
 /** Scope of entities in the scope of a Java source file. */
 public class FileScope implements EntityScope {
@@ -48,17 +53,21 @@ public class FileScope implements EntityScope {
 
   private final String filename;
   // Map of simple names -> entities.
-  private final Multimap<String, Entity> entities;
+  private Multimap<String, Entity> entities;
   private final ImmutableList<String> packageQualifiers;
-  private final Map<String, List<String>> importedClasses;
-  private final Map<String, List<String>> importedStaticMembers;
-  private final List<List<String>> onDemandClassImportQualifiers;
-  private final List<List<String>> onDemandStaticImportQualifiers;
+  private Map<String, List<String>> importedClasses;
+  private Map<String, List<String>> importedStaticMembers;
+  private List<List<String>> onDemandClassImportQualifiers;
+  private List<List<String>> onDemandStaticImportQualifiers;
   private final Optional<JCCompilationUnit> compilationUnit;
   private final FileType fileType;
   private final Range<Integer> definitionRange;
-  private RangeMap<Integer, EntityScope> scopeRangeMap = null;
+  private IntervalMap<EntityScope> scopeRangeMap = IntervalMap.empty();
   private Optional<LineMap> adjustedLineMap = Optional.empty();
+  private Optional<IdentifierOccurrences> identifierOccurrences = Optional.empty();
+  private boolean frozen = false;
+  // The module containing this file. Set by the module.
+  @Nullable private volatile Module module = null;
 
   private FileScope(
       String filename,
@@ -203,6 +212,7 @@ public class FileScope implements EntityScope {
 
   @Override
   public void addEntity(Entity entity) {
+    checkState(!frozen, "Cannot add %s to frozen file %s", entity, filename);
     entities.put(entity.getSimpleName(), entity);
   }
 
@@ -212,11 +222,49 @@ public class FileScope implements EntityScope {
         "Only classes can be added to a file. Found " + entityScope.getClass().getSimpleName());
   }
 
-  public void setScopeRangeMap(RangeMap<Integer, EntityScope> scopeRangeMap) {
+  /**
+   * Converts the entities and imports of this file into compact immutable collections sorted by
+   * name, and freezes all classes in the file recursively.
+   *
+   * <p>Entities and imports cannot be added to a frozen file. It's intended for files that never
+   * change after being loaded, such as files from index files or .class files.
+   */
+  public void freeze() {
+    if (frozen) {
+      return;
+    }
+    frozen = true;
+    entities =
+        ImmutableListMultimap.<String, Entity>builder()
+            .orderKeysBy(Ordering.natural())
+            .putAll(entities)
+            .build();
+    importedClasses = ImmutableSortedMap.copyOf(importedClasses);
+    importedStaticMembers = ImmutableSortedMap.copyOf(importedStaticMembers);
+    onDemandClassImportQualifiers = ImmutableList.copyOf(onDemandClassImportQualifiers);
+    onDemandStaticImportQualifiers = ImmutableList.copyOf(onDemandStaticImportQualifiers);
+
+    for (Entity entity : entities.values()) {
+      if (entity instanceof ClassEntity) {
+        ((ClassEntity) entity).freeze();
+      }
+    }
+  }
+
+  /** Returns the module containing this file, or empty if it's not added to any module. */
+  public Optional<Module> getModule() {
+    return Optional.ofNullable(module);
+  }
+
+  void setModule(@Nullable Module module) {
+    this.module = module;
+  }
+
+  public void setScopeRangeMap(IntervalMap<EntityScope> scopeRangeMap) {
     this.scopeRangeMap = scopeRangeMap;
   }
 
-  public RangeMap<Integer, EntityScope> getScopeRangeMap() {
+  public IntervalMap<EntityScope> getScopeRangeMap() {
     return scopeRangeMap;
   }
 
@@ -272,6 +320,22 @@ public class FileScope implements EntityScope {
     return Optional.of(compilationUnit.get().getLineMap());
   }
 
+  /**
+   * Sets the positions of identifiers in this file. It must be called before the file is added to a
+   * {@link Module}.
+   */
+  public void setIdentifierOccurrences(IdentifierOccurrences identifierOccurrences) {
+    this.identifierOccurrences = Optional.of(identifierOccurrences);
+  }
+
+  /**
+   * Gets the positions of identifiers in this file, or empty if they are not collected when parsing
+   * the file.
+   */
+  public Optional<IdentifierOccurrences> getIdentifierOccurrences() {
+    return identifierOccurrences;
+  }
+
   public FileType getFileType() {
     return fileType;
   }
@@ -0,0 +1,75 @@
+package org.javacomp.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions of all identifiers in a source file.
+ *
+ * <p>A position is the start offset of an identifier token in the content that the file is parsed
+ * from. If the content is fixed by {@code FileContentFixer}, the positions are in the fixed
+ * content, the same as the positions of the entities in the file.
+ */
+public class IdentifierOccurrences {
+  private static final IdentifierOccurrences EMPTY = new IdentifierOccurrences(ImmutableMap.of());
+
+  // Map of identifiers -> sorted positions.
+  private final ImmutableMap<String, int[]> positionsMap;
+
+  private IdentifierOccurrences(ImmutableMap<String, int[]> positionsMap) {
+    this.positionsMap = positionsMap;
+  }
+
+  public static IdentifierOccurrences empty() {
+    return EMPTY;
+  }
+
+  /** Returns all distinct identifiers in the file. */
+  public ImmutableSet<String> getIdentifiers() {
+    return positionsMap.keySet();
+  }
+
+  public boolean contains(String identifier) {
+    return positionsMap.containsKey(identifier);
+  }
+
+  /** Returns the positions of {@code identifier} in ascending order. */
+  public List<Integer> getPositions(String identifier) {
+    int[] positions = positionsMap.get(identifier);
+    if (positions == null) {
+      return ImmutableList.of();
+    }
+    return Collections.unmodifiableList(Ints.asList(positions));
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private final Map<String, List<Integer>> positionsMap = new HashMap<>();
+
+    private Builder() {}
+
+    /** Adds an occurrence of {@code identifier}. Positions must be added in ascending order. */
+    public Builder add(String identifier, int position) {
+      positionsMap.computeIfAbsent(identifier, k -> new ArrayList<>()).add(position);
+      return this;
+    }
+
+    public IdentifierOccurrences build() {
+      ImmutableMap.Builder<String, int[]> builder = new ImmutableMap.Builder<>();
+      for (Map.Entry<String, List<Integer>> entry : positionsMap.entrySet()) {
+        builder.put(entry.getKey(), Ints.toArray(entry.getValue()));
+      }
+      return new IdentifierOccurrences(builder.build());
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.javacomp.model;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
@@ -8,6 +10,7 @@ import com.google.common.collect.Range;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.javacomp.model.util.QualifiedNames;
 
 /** Represents a method. */
@@ -17,11 +20,17 @@ public class MethodEntity extends Entity implements EntityScope {
   private final TypeReference returnType;
   private final ImmutableList<TypeParameter> typeParameters;
   // Map of simple names -> entities.
-  private final Multimap<String, Entity> entities;
+  private Multimap<String, Entity> entities;
   private final ClassEntity classEntity;
-  private final List<EntityScope> childScopes;
-  private final Range<Integer> definitionRange;
+  private List<EntityScope> childScopes;
+  private final int definitionStart;
+  private final int definitionEnd;
   private ImmutableList<VariableEntity> parameters;
+  private boolean isVariableArity;
+  // Computed on demand by getParameterTypeErasures() and getErasedSignature().
+  @Nullable private ImmutableList<String> parameterTypeErasures;
+  @Nullable private Optional<String> erasedSignature;
+  private boolean frozen;
 
   public MethodEntity(
       String simpleName,
@@ -47,7 +56,9 @@ public class MethodEntity extends Entity implements EntityScope {
     this.entities = HashMultimap.create();
     this.classEntity = classEntity;
     this.childScopes = new ArrayList<>();
-    this.definitionRange = definitionRange;
+    this.definitionStart = EntityRanges.getStart(definitionRange);
+    this.definitionEnd = EntityRanges.getEnd(definitionRange);
+    this.frozen = false;
   }
 
   private static String getRealSimpleName(String simpleName, ClassEntity classEntity) {
@@ -89,12 +100,14 @@ public class MethodEntity extends Entity implements EntityScope {
 
   @Override
   public void addEntity(Entity entity) {
+    checkState(!frozen, "Cannot add %s to frozen method %s", entity, this);
     entities.put(entity.getSimpleName(), entity);
     childScopes.add(entity.getScope());
   }
 
   @Override
   public void addChildScope(EntityScope entityScope) {
+    checkState(!frozen, "Cannot add child scope to frozen method %s", this);
     childScopes.add(entityScope);
   }
 
@@ -105,13 +118,25 @@ public class MethodEntity extends Entity implements EntityScope {
 
   @Override
   public Range<Integer> getDefinitionRange() {
-    return definitionRange;
+    return EntityRanges.toRange(definitionStart, definitionEnd);
   }
 
   /////////////// Other methods ////////////////
 
+  /**
+   * Converts the members of this method into compact immutable collections. Entities and child
+   * scopes cannot be added after the method is frozen.
+   */
+  public void freeze() {
+    frozen = true;
+    entities = ImmutableMultimap.copyOf(entities);
+    childScopes = ImmutableList.copyOf(childScopes);
+  }
+
   public void setParameters(List<VariableEntity> parameters) {
     this.parameters = ImmutableList.copyOf(parameters);
+    this.parameterTypeErasures = null;
+    this.erasedSignature = null;
   }
 
   /** gets paramters */
@@ -119,6 +144,118 @@ public class MethodEntity extends Entity implements EntityScope {
     return parameters;
   }
 
+  /**
+   * Returns the simple names of the parameter types without type arguments, with {@code []}
+   * appended to array types. They are used for quickly ruling out method overloads without solving
+   * the parameter types.
+   */
+  public ImmutableList<String> getParameterTypeErasures() {
+    ImmutableList<String> erasures = parameterTypeErasures;
+    if (erasures == null) {
+      ImmutableList.Builder<String> builder = new ImmutableList.Builder<>();
+      for (VariableEntity parameter : parameters) {
+        TypeReference type = parameter.getType();
+        builder.add(type.isArray() ? type.getSimpleName() + "[]" : type.getSimpleName());
+      }
+      erasures = builder.build();
+      parameterTypeErasures = erasures;
+    }
+    return erasures;
+  }
+
+  /**
+   * Returns the name and the qualified parameter type erasures of the method, e.g. {@code
+   * foo(int,java.util.List[])}. Methods with the same erased signature override or hide each
+   * other.
+   *
+   * <p>Returns empty if the qualified name of any parameter type is unknown without solving it,
+   * e.g. a type variable, or a class referenced by its simple name without a single-type import.
+   */
+  public Optional<String> getErasedSignature() {
+    Optional<String> signature = erasedSignature;
+    if (signature == null) {
+      signature = computeErasedSignature();
+      erasedSignature = signature;
+    }
+    return signature;
+  }
+
+  private Optional<String> computeErasedSignature() {
+    StringBuilder sb = new StringBuilder(getSimpleName()).append('(');
+    for (int i = 0; i < parameters.size(); i++) {
+      TypeReference type = parameters.get(i).getType();
+      if (i > 0) {
+        sb.append(',');
+      }
+      if (type.isPrimitive()) {
+        sb.append(type.getSimpleName());
+      } else if (type.getPackageName().isPresent()) {
+        sb.append(QualifiedNames.formatQualifiedName(type.getQualifiers(), type.getSimpleName()));
+      } else {
+        Optional<List<String>> qualifiedName = getUnformalizedQualifiedName(type, getFileScope());
+        if (!qualifiedName.isPresent()) {
+          return Optional.empty();
+        }
+        sb.append(String.join(".", qualifiedName.get()));
+      }
+      if (type.isArray()) {
+        sb.append("[]");
+      }
+    }
+    return Optional.of(sb.append(')').toString());
+  }
+
+  /**
+   * Returns the qualified name of a type referenced in source code, if it's referenced by its
+   * fully qualified name, or its first component is imported by a single-type import.
+   */
+  private static Optional<List<String>> getUnformalizedQualifiedName(
+      TypeReference type, Optional<FileScope> fileScope) {
+    List<String> fullName = type.getQualifiers();
+    String first = fullName.isEmpty() ? type.getSimpleName() : fullName.get(0);
+    Optional<List<String>> importedClass =
+        fileScope.isPresent() ? fileScope.get().getImportedClass(first) : Optional.empty();
+    List<String> qualifiedName = new ArrayList<>();
+    if (importedClass.isPresent()) {
+      qualifiedName.addAll(importedClass.get());
+    } else if (!fullName.isEmpty() && Character.isLowerCase(first.charAt(0))) {
+      // By convention, a name starting with a lower case letter is a package name.
+      qualifiedName.add(first);
+    } else {
+      return Optional.empty();
+    }
+    if (!fullName.isEmpty()) {
+      qualifiedName.addAll(fullName.subList(1, fullName.size()));
+      qualifiedName.add(type.getSimpleName());
+    }
+    return Optional.of(qualifiedName);
+  }
+
+  private Optional<FileScope> getFileScope() {
+    EntityScope scope = classEntity;
+    while (!(scope instanceof FileScope)) {
+      Optional<EntityScope> parentScope = scope.getParentScope();
+      if (!parentScope.isPresent()) {
+        return Optional.empty();
+      }
+      scope = parentScope.get();
+    }
+    return Optional.of((FileScope) scope);
+  }
+
+  /**
+   * Returns whether the method is declared with variable arity, e.g. {@code foo(String...
+   * args)}, so that it may be invoked with variable number of arguments. A method whose last
+   * parameter is declared as an array, e.g. {@code foo(String[] args)}, is not variable arity.
+   */
+  public boolean isVariableArity() {
+    return isVariableArity;
+  }
+
+  public void setVariableArity(boolean isVariableArity) {
+    this.isVariableArity = isVariableArity;
+  }
+
   public ImmutableList<TypeParameter> getTypeParameters() {
     return typeParameters;
   }
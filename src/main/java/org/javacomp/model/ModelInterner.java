@@ -0,0 +1,81 @@
+package org.javacomp.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.List;
+
+/**
+ * Canonicalizes values that are repeated many times across entities, such as simple names,
+ * qualifier lists, and type references.
+ *
+ * <p>Equal values created while loading index files, .class files, or source files share one
+ * instance after being interned. The interners hold the instances weakly, so values no longer
+ * referenced by any entity can be garbage collected.
+ */
+public final class ModelInterner {
+  private static final Interner<String> NAME_INTERNER = Interners.newWeakInterner();
+  private static final Interner<ImmutableList<String>> QUALIFIERS_INTERNER =
+      Interners.newWeakInterner();
+  private static final Interner<TypeReference> TYPE_REFERENCE_INTERNER =
+      Interners.newWeakInterner();
+
+  private static volatile boolean enabled = true;
+
+  private ModelInterner() {}
+
+  /**
+   * Enables or disables interning. When disabled, all methods return values equal to their inputs
+   * without canonicalizing them. It's useful for measuring the memory saved by interning.
+   */
+  public static void setEnabled(boolean enabled) {
+    ModelInterner.enabled = enabled;
+  }
+
+  /** Returns the canonical instance of a simple name or qualifier. */
+  public static String internName(String name) {
+    if (!enabled) {
+      return name;
+    }
+    return NAME_INTERNER.intern(name);
+  }
+
+  /** Returns the canonical instance of a qualifier list. Each qualifier is interned as well. */
+  public static ImmutableList<String> internQualifiers(List<String> qualifiers) {
+    if (qualifiers.isEmpty()) {
+      return ImmutableList.of();
+    }
+    if (!enabled) {
+      return ImmutableList.copyOf(qualifiers);
+    }
+    ImmutableList.Builder<String> builder = new ImmutableList.Builder<>();
+    for (String qualifier : qualifiers) {
+      builder.add(internName(qualifier));
+    }
+    return QUALIFIERS_INTERNER.intern(builder.build());
+  }
+
+  /**
+   * Returns the canonical instance of the qualifier list formed by appending {@code name} to {@code
+   * parentQualifiers}. It's useful for getting the qualifiers of members of a class.
+   */
+  public static ImmutableList<String> internQualifiers(List<String> parentQualifiers, String name) {
+    ImmutableList<String> qualifiers =
+        new ImmutableList.Builder<String>()
+            .addAll(internQualifiers(parentQualifiers))
+            .add(internName(name))
+            .build();
+    if (!enabled) {
+      return qualifiers;
+    }
+    return QUALIFIERS_INTERNER.intern(qualifiers);
+  }
+
+  /** Returns the canonical instance of a type reference. */
+  public static TypeReference internTypeReference(TypeReference typeReference) {
+    if (!enabled) {
+      return typeReference;
+    }
+    return TYPE_REFERENCE_INTERNER.intern(typeReference);
+  }
+}
@@ -1,14 +1,23 @@
 package org.javacomp.model;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.javacomp.logging.JLogger;
 
 /**
@@ -19,35 +28,289 @@ import org.javacomp.logging.JLogger;
 public class Module {
   private static final JLogger logger = JLogger.createForEnclosingClass();
 
+  /**
+   * Source of generation numbers shared by all modules. Generations are increasing across modules,
+   * so a module's transitive generation can be updated by taking the maximum.
+   */
+  private static final AtomicLong lastGeneration = new AtomicLong();
+
   // Map of filename -> FileScope.
   private final Map<String, FileScope> fileScopeMap;
   private final PackageScope rootPackage;
   private final List<Module> dependingModules;
+  // Modules that directly depend on this module. Written rarely and read without the lock.
+  private final List<Module> dependentModules;
+
+  // Map of simple names of super classes and interfaces -> classes directly extending them.
+  private final Multimap<String, ClassEntity> subtypeCandidates;
+
+  // Map of identifiers -> source files containing them, for files with identifier occurrences.
+  private final Multimap<String, FileScope> identifierPostings;
+  // Source files without identifier occurrences. They may contain any identifier.
+  private final Set<FileScope> filesWithoutIdentifierOccurrences;
+  // Map of package qualifiers -> the generation when the members of the package last changed.
+  private final Map<List<String>, Long> packageGenerations;
+
+  /** Updated every time a file is added, replaced, or removed, or a dependency is added. */
+  private long generation;
+  /** The maximum generation of this module and the modules it transitively depends on. */
+  private final AtomicLong transitiveGeneration;
+  /**
+   * The generation when a depending module is added to this module or any module it transitively
+   * depends on.
+   */
+  private final AtomicLong dependencyGeneration;
+  /** The file changed by the latest change of this module, or {@code null} if it's not a file. */
+  @Nullable private String lastChangedFilename;
+  /**
+   * The transitive generation before the latest consecutive changes of {@link
+   * #lastChangedFilename}, without any other change of this module or its depending modules in
+   * between.
+   */
+  private long generationBeforeLastChangedFile;
+  /** Index of classes in this module, or {@code null} if it's not built yet. */
+  private ClassIndex classIndex;
+  /** Index of symbols in this module, or {@code null} if it's not built yet. */
+  private SymbolIndex symbolIndex;
 
   public Module() {
     this.fileScopeMap = new HashMap<>();
     this.rootPackage = new PackageScope();
     this.dependingModules = new ArrayList<>();
+    this.dependentModules = new CopyOnWriteArrayList<>();
+    this.subtypeCandidates = HashMultimap.create();
+    this.identifierPostings = HashMultimap.create();
+    this.filesWithoutIdentifierOccurrences = new HashSet<>();
+    this.packageGenerations = new HashMap<>();
+    this.generation = 0;
+    this.transitiveGeneration = new AtomicLong();
+    this.dependencyGeneration = new AtomicLong();
+    this.classIndex = null;
+    this.symbolIndex = null;
   }
 
   public synchronized void addOrReplaceFileScope(FileScope fileScope) {
     logger.fine("Adding file: %s: %s", fileScope.getFilename(), fileScope.getMemberEntities());
     FileScope existingFileScope = fileScopeMap.get(fileScope.getFilename());
-    // Add the new file scope to the package first, so that we don't GC the pacakge if
-    // the new file and old file are in the same pacakge and is the only file in the package.
-    addFileToPackage(fileScope);
+    // Adding the same file scope again re-indexes its entities, which may have been added after
+    // it's added to the module.
+    if (existingFileScope != fileScope) {
+      // Add the new file scope to the package first, so that we don't GC the pacakge if
+      // the new file and old file are in the same pacakge and is the only file in the package.
+      addFileToPackage(fileScope);
+    }
+    updatePackageGeneration(fileScope.getPackageQualifiers());
 
     if (existingFileScope != null) {
-      removeFileFromPacakge(existingFileScope);
+      if (existingFileScope != fileScope) {
+        removeFileFromPacakge(existingFileScope);
+      }
+      updateSubtypeCandidates(existingFileScope, false /* add */);
+      updateIdentifierPostings(existingFileScope, false /* add */);
+      updateSymbolIndex(existingFileScope, false /* add */);
+      updateClassIndex(existingFileScope, false /* add */);
+      existingFileScope.setModule(null);
     }
     fileScopeMap.put(fileScope.getFilename(), fileScope);
+    fileScope.setModule(this);
+    updateSubtypeCandidates(fileScope, true /* add */);
+    updateIdentifierPostings(fileScope, true /* add */);
+    updateSymbolIndex(fileScope, true /* add */);
+    updateClassIndex(fileScope, true /* add */);
+    updateGeneration(fileScope.getFilename());
   }
 
   public synchronized void removeFile(Path filePath) {
-    FileScope existingFileScope = fileScopeMap.get(filePath.toString());
+    FileScope existingFileScope = fileScopeMap.remove(filePath.toString());
     if (existingFileScope != null) {
       removeFileFromPacakge(existingFileScope);
+      updateSubtypeCandidates(existingFileScope, false /* add */);
+      updateIdentifierPostings(existingFileScope, false /* add */);
+      updateSymbolIndex(existingFileScope, false /* add */);
+      updateClassIndex(existingFileScope, false /* add */);
+      existingFileScope.setModule(null);
+      updateGeneration(null /* changedFilename */);
+    }
+  }
+
+  /**
+   * Returns a number that changes every time a file is added to, replaced in, or removed from this
+   * module, or a depending module is added. It does not reflect changes of depending modules.
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns a number that changes every time this module or any module it transitively depends on
+   * is changed.
+   *
+   * <p>The number is maintained when modules change, so this method takes constant time.
+   *
+   * @see #getGeneration
+   */
+  public long getTransitiveGeneration() {
+    return transitiveGeneration.get();
+  }
+
+  /**
+   * Same as {@link #getTransitiveGeneration}, but ignores the latest changes of the file {@code
+   * filename} if nothing else has changed since then.
+   *
+   * <p>It's useful for validating values computed from a file whose content is checked
+   * separately, e.g. when the file is re-parsed after each edit.
+   */
+  public synchronized long getTransitiveGenerationExcludingFile(String filename) {
+    long currentTransitiveGeneration = transitiveGeneration.get();
+    if (filename.equals(lastChangedFilename) && currentTransitiveGeneration == generation) {
+      return generationBeforeLastChangedFile;
+    }
+    return currentTransitiveGeneration;
+  }
+
+  /**
+   * Returns the module containing the file that defines {@code scope}. Returns empty if the file
+   * is not in any module, or {@code scope} is not defined in a file, such as a package.
+   */
+  public static Optional<Module> getDefiningModule(EntityScope scope) {
+    while (!(scope instanceof FileScope)) {
+      Optional<EntityScope> parentScope = scope.getParentScope();
+      if (!parentScope.isPresent()) {
+        return Optional.empty();
+      }
+      scope = parentScope.get();
+    }
+    return ((FileScope) scope).getModule();
+  }
+
+  /**
+   * Returns a number for validating values solved for {@code scope} in the context of {@code
+   * module}. It changes when the module defining {@code scope} or any module it transitively
+   * depends on is changed, or when a module is added to the dependencies of {@code module}, which
+   * may resolve names differently. If the defining module is unknown, the transitive generation of
+   * {@code module} is used.
+   *
+   * <p>Values cached for entities and scopes are keyed by this generation rather than the
+   * transitive generation of the module they are solved in. Entities of unchanged modules, such as
+   * the JDK and JAR archives, keep their cached values when files in the project module are
+   * changed.
+   */
+  public static long getDefiningGeneration(EntityScope scope, Module module) {
+    long definingGeneration = getDefiningModule(scope).orElse(module).getTransitiveGeneration();
+    return Math.max(definingGeneration, module.dependencyGeneration.get());
+  }
+
+  /**
+   * Returns a number that changes every time the members of the package {@code packageQualifiers}
+   * in this module or any module it transitively depends on are changed, or a module is added to
+   * the dependencies of this module.
+   *
+   * <p>Members of a package are changed when files are added to, replaced in, or removed from it,
+   * or its sub packages are created or removed. Changes of files in other packages don't change
+   * the number, so values computed from the root package or {@code java.lang} are kept when files
+   * in the project packages are edited.
+   */
+  public long getTransitivePackageGeneration(List<String> packageQualifiers) {
+    long packageGeneration = dependencyGeneration.get();
+    Set<Module> visitedModules = new HashSet<>();
+    Deque<Module> queue = new ArrayDeque<>();
+    queue.add(this);
+    while (!queue.isEmpty()) {
+      Module module = queue.removeFirst();
+      if (visitedModules.add(module)) {
+        packageGeneration =
+            Math.max(packageGeneration, module.getPackageGeneration(packageQualifiers));
+        queue.addAll(module.getDependingModules());
+      }
+    }
+    return packageGeneration;
+  }
+
+  private synchronized long getPackageGeneration(List<String> packageQualifiers) {
+    return packageGenerations.getOrDefault(packageQualifiers, 0L);
+  }
+
+  /**
+   * Returns the index of all classes defined in this module, not including classes in depending
+   * modules.
+   *
+   * <p>The index is built on the first call, and updated with the files added to or removed from
+   * this module afterwards.
+   */
+  public synchronized ClassIndex getClassIndex() {
+    if (classIndex == null) {
+      classIndex = new ClassIndex();
+      for (FileScope fileScope : fileScopeMap.values()) {
+        classIndex.addFile(fileScope);
+      }
+    }
+    return classIndex;
+  }
+
+  /**
+   * Returns classes defined in this module that directly extend or implement a class or interface
+   * with the given simple name, not including classes in depending modules.
+   *
+   * <p>The super class and interface references are not resolved, so the returned classes may
+   * extend or implement different classes that share the same simple name.
+   */
+  public synchronized ImmutableList<ClassEntity> getSubtypeCandidates(String simpleName) {
+    return ImmutableList.copyOf(subtypeCandidates.get(simpleName));
+  }
+
+  /**
+   * Returns source files in this module that may contain {@code identifier}, not including files in
+   * depending modules.
+   *
+   * <p>Files with {@link FileScope#getIdentifierOccurrences identifier occurrences} are returned
+   * only if they contain {@code identifier}. Other source files are always returned.
+   */
+  public synchronized ImmutableList<FileScope> getFilesWithIdentifier(String identifier) {
+    return new ImmutableList.Builder<FileScope>()
+        .addAll(identifierPostings.get(identifier))
+        .addAll(filesWithoutIdentifierOccurrences)
+        .build();
+  }
+
+  /**
+   * Returns classes, methods and fields defined in this module whose names match {@code query},
+   * best matches first, not including symbols in depending modules.
+   *
+   * <p>The symbol index is built on the first call whose {@code fileFilter} accepts any file in
+   * this module, and updated with the files added to or removed from this module afterwards.
+   * Modules without accepted files, e.g. JAR archives when only source files are wanted, are not
+   * indexed.
+   *
+   * @param limit the maximum number of symbols to return
+   * @param fileFilter only symbols defined in files accepted by the filter are returned
+   * @see SymbolIndex#findSymbols
+   */
+  public synchronized ImmutableList<SymbolIndex.Match> findSymbols(
+      String query, int limit, Predicate<FileScope> fileFilter) {
+    if (symbolIndex == null) {
+      if (!hasFileAcceptedBy(fileFilter)) {
+        return ImmutableList.of();
+      }
+      symbolIndex = new SymbolIndex();
+      for (FileScope fileScope : fileScopeMap.values()) {
+        symbolIndex.addFile(fileScope);
+      }
+    }
+    return symbolIndex.findSymbols(query, limit, fileFilter);
+  }
+
+  private boolean hasFileAcceptedBy(Predicate<FileScope> fileFilter) {
+    for (FileScope fileScope : fileScopeMap.values()) {
+      if (fileFilter.test(fileScope)) {
+        return true;
+      }
     }
+    return false;
+  }
+
+  @VisibleForTesting
+  synchronized boolean hasSymbolIndex() {
+    return symbolIndex != null;
   }
 
   public synchronized Optional<FileScope> getFileScope(String filename) {
@@ -72,6 +335,7 @@ public class Module {
       } else {
         PackageScope packageScope = new PackageScope();
         currentPackage.addEntity(new PackageEntity(qualifier, currentQualifiers, packageScope));
+        updatePackageGeneration(currentQualifiers);
         currentPackage = packageScope;
       }
       currentQualifiers.add(qualifier);
@@ -79,10 +343,135 @@ public class Module {
     return currentPackage;
   }
 
+  /**
+   * Freezes all files currently in the module.
+   *
+   * <p>Call it after the module is fully loaded from an index file or .class files to reduce its
+   * memory footprint. Files can still be added to or removed from the module afterwards.
+   *
+   * @see FileScope#freeze
+   */
+  public synchronized void freeze() {
+    for (FileScope fileScope : fileScopeMap.values()) {
+      fileScope.freeze();
+    }
+  }
+
   public synchronized List<FileScope> getAllFiles() {
     return ImmutableList.copyOf(fileScopeMap.values());
   }
 
+  private void updateGeneration(@Nullable String changedFilename) {
+    long previousTransitiveGeneration = transitiveGeneration.get();
+    if (changedFilename == null
+        || !changedFilename.equals(lastChangedFilename)
+        || previousTransitiveGeneration != generation) {
+      // Something else has changed since the previous change of the file.
+      generationBeforeLastChangedFile = previousTransitiveGeneration;
+    }
+    lastChangedFilename = changedFilename;
+    generation = lastGeneration.incrementAndGet();
+    updateTransitiveGeneration(generation, false /* dependencyAdded */);
+  }
+
+  /** Updates the transitive generations of this module and all modules depending on it. */
+  private void updateTransitiveGeneration(long newGeneration, boolean dependencyAdded) {
+    Set<Module> visitedModules = new HashSet<>();
+    Deque<Module> queue = new ArrayDeque<>();
+    queue.add(this);
+    while (!queue.isEmpty()) {
+      Module module = queue.removeFirst();
+      if (visitedModules.add(module)) {
+        module.transitiveGeneration.accumulateAndGet(newGeneration, Math::max);
+        if (dependencyAdded) {
+          module.dependencyGeneration.accumulateAndGet(newGeneration, Math::max);
+        }
+        queue.addAll(module.dependentModules);
+      }
+    }
+  }
+
+  /**
+   * Records a change of the members of a package. The generation is kept after the package is
+   * removed, so that it still contributes to {@link #getTransitivePackageGeneration}.
+   */
+  private void updatePackageGeneration(List<String> packageQualifiers) {
+    packageGenerations.put(
+        ImmutableList.copyOf(packageQualifiers), lastGeneration.incrementAndGet());
+  }
+
+  private void updateSubtypeCandidates(FileScope fileScope, boolean add) {
+    Deque<ClassEntity> queue = new ArrayDeque<>();
+    for (Entity entity : fileScope.getMemberEntities().values()) {
+      if (entity instanceof ClassEntity) {
+        queue.addLast((ClassEntity) entity);
+      }
+    }
+    while (!queue.isEmpty()) {
+      ClassEntity classEntity = queue.removeFirst();
+      if (classEntity.getSuperClass().isPresent()) {
+        updateSubtypeCandidate(classEntity.getSuperClass().get(), classEntity, add);
+      }
+      for (TypeReference iface : classEntity.getInterfaces()) {
+        updateSubtypeCandidate(iface, classEntity, add);
+      }
+      queue.addAll(classEntity.getInnerClasses().values());
+    }
+  }
+
+  private void updateSubtypeCandidate(
+      TypeReference supertype, ClassEntity classEntity, boolean add) {
+    if (add) {
+      subtypeCandidates.put(supertype.getSimpleName(), classEntity);
+    } else {
+      subtypeCandidates.remove(supertype.getSimpleName(), classEntity);
+    }
+  }
+
+  private void updateIdentifierPostings(FileScope fileScope, boolean add) {
+    if (fileScope.getFileType() != FileScope.FileType.SOURCE_CODE) {
+      return;
+    }
+    Optional<IdentifierOccurrences> occurrences = fileScope.getIdentifierOccurrences();
+    if (!occurrences.isPresent()) {
+      if (add) {
+        filesWithoutIdentifierOccurrences.add(fileScope);
+      } else {
+        filesWithoutIdentifierOccurrences.remove(fileScope);
+      }
+      return;
+    }
+    for (String identifier : occurrences.get().getIdentifiers()) {
+      if (add) {
+        identifierPostings.put(identifier, fileScope);
+      } else {
+        identifierPostings.remove(identifier, fileScope);
+      }
+    }
+  }
+
+  private void updateSymbolIndex(FileScope fileScope, boolean add) {
+    if (symbolIndex == null) {
+      return;
+    }
+    if (add) {
+      symbolIndex.addFile(fileScope);
+    } else {
+      symbolIndex.removeFile(fileScope);
+    }
+  }
+
+  private void updateClassIndex(FileScope fileScope, boolean add) {
+    if (classIndex == null) {
+      return;
+    }
+    if (add) {
+      classIndex.addFile(fileScope);
+    } else {
+      classIndex.removeFile(fileScope);
+    }
+  }
+
   private void addFileToPackage(FileScope fileScope) {
     getPackageForFile(fileScope).addFile(fileScope);
   }
@@ -100,10 +489,12 @@ public class Module {
       currentPackage = packageEntity.getScope();
     }
     currentPackage.removeFile(fileScope);
+    updatePackageGeneration(fileScope.getPackageQualifiers());
     while (!currentPackage.hasChildren() && !stack.isEmpty()) {
       PackageEntity packageEntity = stack.removeFirst();
       currentPackage = stack.isEmpty() ? rootPackage : stack.peekFirst().getScope();
       currentPackage.removePackage(packageEntity);
+      updatePackageGeneration(packageEntity.getQualifiers());
     }
   }
 
@@ -116,11 +507,18 @@ public class Module {
     return Optional.empty();
   }
 
-  public void addDependingModule(Module dependingModule) {
+  public synchronized void addDependingModule(Module dependingModule) {
     dependingModules.add(dependingModule);
+    dependingModule.dependentModules.add(this);
+    lastChangedFilename = null;
+    generation = lastGeneration.incrementAndGet();
+    // The depending module may have changed before it's added.
+    updateTransitiveGeneration(
+        Math.max(generation, dependingModule.getTransitiveGeneration()),
+        true /* dependencyAdded */);
   }
 
-  public List<Module> getDependingModules() {
+  public synchronized List<Module> getDependingModules() {
     return ImmutableList.copyOf(dependingModules);
   }
 }
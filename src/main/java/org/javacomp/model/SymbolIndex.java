@@ -0,0 +1,391 @@
+package org.javacomp.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.javacomp.model.util.CamelCase;
+
+/**
+ * A mutable index of the names of classes, methods and fields defined in a set of files, for
+ * looking up symbols by substrings or camel case humps of their names.
+ *
+ * <p>Symbols are numbered in the order they are added. The index maps keys derived from symbol
+ * names to the sorted numbers of the symbols having them:
+ *
+ * <ul>
+ *   <li>every trigram of the lower case name, so that the symbols containing a query of three or
+ *       more characters are found by intersecting the lists of the trigrams of the query;
+ *   <li>the first one and two characters of the lower case name, for shorter queries;
+ *   <li>the first two and three hump initials of the name (see {@link CamelCase}), for camel case
+ *       queries such as {@code HM} for {@code HashMap}.
+ * </ul>
+ *
+ * <p>Files can be added and removed incrementally. Symbols of removed files are marked as removed
+ * and skipped by lookups, until most symbols are removed and the index is rebuilt.
+ *
+ * <p>The index is not thread-safe.
+ */
+public class SymbolIndex {
+  /** How well a symbol name matches a query. Greater ordinal values mean better matches. */
+  public enum MatchLevel {
+    /** The query is a substring of the name, ignoring case. */
+    SUBSTRING,
+    /** Each hump of the query is a prefix of the corresponding hump of the name, ignoring case. */
+    CAMEL_CASE,
+    /** The query is a prefix of the name, ignoring case. */
+    PREFIX,
+    /** The query equals the name, ignoring case. */
+    EXACT,
+  }
+
+  /** A symbol matching a query. */
+  public static class Match {
+    private final Entity entity;
+    private final FileScope fileScope;
+    private final MatchLevel matchLevel;
+
+    private Match(Entity entity, FileScope fileScope, MatchLevel matchLevel) {
+      this.entity = entity;
+      this.fileScope = fileScope;
+      this.matchLevel = matchLevel;
+    }
+
+    public Entity getEntity() {
+      return entity;
+    }
+
+    /** The file defining the symbol. */
+    public FileScope getFileScope() {
+      return fileScope;
+    }
+
+    public MatchLevel getMatchLevel() {
+      return matchLevel;
+    }
+  }
+
+  /** Better matches first, then shorter names, then names in case-insensitive order. */
+  public static final Comparator<Match> BEST_MATCH_FIRST =
+      Comparator.comparing(Match::getMatchLevel)
+          .reversed()
+          .thenComparingInt((Match match) -> match.getEntity().getSimpleName().length())
+          .thenComparing(match -> match.getEntity().getSimpleName(), String.CASE_INSENSITIVE_ORDER);
+
+  private static final int TRIGRAM_LENGTH = 3;
+  private static final int MAX_PREFIX_LENGTH = 2;
+  private static final int MIN_HUMP_INITIALS_LENGTH = 2;
+  private static final int MAX_HUMP_INITIALS_LENGTH = 3;
+
+  private static final long KEY_TYPE_TRIGRAM = 1;
+  private static final long KEY_TYPE_PREFIX = 2;
+  private static final long KEY_TYPE_HUMP_INITIALS = 3;
+
+  /** The index is rebuilt when there are more removed symbols than this and the live ones. */
+  private static final int MIN_REMOVED_SYMBOLS_TO_REBUILD = 1024;
+
+  private static final int[] NO_SYMBOLS = new int[0];
+
+  // Symbol number -> entity, or null if its file is removed.
+  private final List<Entity> symbols = new ArrayList<>();
+  // Symbol number -> the file defining the symbol.
+  private final List<FileScope> symbolFiles = new ArrayList<>();
+  // File -> numbers of the symbols in the file. Files are compared by identity.
+  private final Map<FileScope, int[]> fileSymbols = new IdentityHashMap<>();
+  // Key -> sorted numbers of the symbols having the key.
+  private final Map<Long, IntList> postings = new HashMap<>();
+  private int numRemovedSymbols = 0;
+
+  /** Adds the symbols defined in {@code fileScope}. The file must not be in the index. */
+  public void addFile(FileScope fileScope) {
+    checkArgument(
+        !fileSymbols.containsKey(fileScope), "%s is already indexed", fileScope.getFilename());
+    IntList symbolNumbers = new IntList();
+    Deque<ClassEntity> queue = new ArrayDeque<>();
+    for (Entity entity : fileScope.getMemberEntities().values()) {
+      if (entity instanceof ClassEntity) {
+        queue.addLast((ClassEntity) entity);
+      }
+    }
+    while (!queue.isEmpty()) {
+      ClassEntity classEntity = queue.removeFirst();
+      symbolNumbers.add(addSymbol(classEntity, fileScope));
+      for (Entity member : classEntity.getMemberEntities().values()) {
+        if (member instanceof ClassEntity) {
+          queue.addLast((ClassEntity) member);
+        } else if (member.getKind() == Entity.Kind.METHOD
+            || member.getKind() == Entity.Kind.FIELD) {
+          symbolNumbers.add(addSymbol(member, fileScope));
+        }
+      }
+    }
+    fileSymbols.put(fileScope, symbolNumbers.toArray());
+  }
+
+  /** Removes the symbols defined in {@code fileScope}, if it's in the index. */
+  public void removeFile(FileScope fileScope) {
+    int[] symbolNumbers = fileSymbols.remove(fileScope);
+    if (symbolNumbers == null) {
+      return;
+    }
+    for (int symbolNumber : symbolNumbers) {
+      symbols.set(symbolNumber, null);
+      symbolFiles.set(symbolNumber, null);
+    }
+    numRemovedSymbols += symbolNumbers.length;
+    if (numRemovedSymbols > MIN_REMOVED_SYMBOLS_TO_REBUILD
+        && numRemovedSymbols > symbols.size() - numRemovedSymbols) {
+      rebuild();
+    }
+  }
+
+  /** Returns the number of symbols in the index. */
+  public int size() {
+    return symbols.size() - numRemovedSymbols;
+  }
+
+  /**
+   * Returns the symbols whose names match {@code query}, best matches first.
+   *
+   * <p>Queries shorter than three characters only match names by prefixes and camel case humps. An
+   * empty query matches all symbols.
+   *
+   * @param limit the maximum number of symbols to return
+   * @param fileFilter only symbols defined in files accepted by the filter are returned
+   */
+  public ImmutableList<Match> findSymbols(
+      String query, int limit, Predicate<FileScope> fileFilter) {
+    checkArgument(limit >= 0, "limit must not be negative, got %s", limit);
+    List<Match> matches = new ArrayList<>();
+    if (query.isEmpty()) {
+      for (int i = 0; i < symbols.size() && matches.size() < limit; i++) {
+        Entity entity = symbols.get(i);
+        if (entity != null && fileFilter.test(symbolFiles.get(i))) {
+          matches.add(new Match(entity, symbolFiles.get(i), MatchLevel.SUBSTRING));
+        }
+      }
+      return ImmutableList.copyOf(matches);
+    }
+
+    for (int symbolNumber : findCandidates(query)) {
+      Entity entity = symbols.get(symbolNumber);
+      if (entity == null || !fileFilter.test(symbolFiles.get(symbolNumber))) {
+        continue;
+      }
+      MatchLevel matchLevel = computeMatchLevel(entity.getSimpleName(), query);
+      if (matchLevel != null) {
+        matches.add(new Match(entity, symbolFiles.get(symbolNumber), matchLevel));
+      }
+    }
+    return ImmutableList.copyOf(Ordering.from(BEST_MATCH_FIRST).leastOf(matches, limit));
+  }
+
+  /**
+   * Returns how well {@code name} matches {@code query}, or {@code null} if it doesn't match.
+   *
+   * @see MatchLevel
+   */
+  @Nullable
+  public static MatchLevel computeMatchLevel(String name, String query) {
+    if (name.regionMatches(true /* ignoreCase */, 0, query, 0, query.length())) {
+      return name.length() == query.length() ? MatchLevel.EXACT : MatchLevel.PREFIX;
+    }
+    if (CamelCase.matchesHumps(name, query)) {
+      return MatchLevel.CAMEL_CASE;
+    }
+    for (int i = 1; i + query.length() <= name.length(); i++) {
+      if (name.regionMatches(true /* ignoreCase */, i, query, 0, query.length())) {
+        return MatchLevel.SUBSTRING;
+      }
+    }
+    return null;
+  }
+
+  /** Returns the sorted numbers of the symbols that may match {@code query}. */
+  private int[] findCandidates(String query) {
+    String lowerCaseQuery = toLowerCase(query);
+    int[] candidates;
+    if (lowerCaseQuery.length() >= TRIGRAM_LENGTH) {
+      candidates = findSymbolsWithTrigrams(lowerCaseQuery);
+    } else {
+      candidates =
+          getPostings(createKey(KEY_TYPE_PREFIX, lowerCaseQuery, 0, lowerCaseQuery.length()));
+    }
+
+    // A query with only one hump can only match by prefix, which is handled above.
+    String humpInitials = toLowerCase(CamelCase.getPatternHumpInitials(query));
+    if (humpInitials.length() >= MIN_HUMP_INITIALS_LENGTH) {
+      int length = Math.min(humpInitials.length(), MAX_HUMP_INITIALS_LENGTH);
+      candidates =
+          union(
+              candidates, getPostings(createKey(KEY_TYPE_HUMP_INITIALS, humpInitials, 0, length)));
+    }
+    return candidates;
+  }
+
+  /** Returns the sorted numbers of the symbols having all trigrams of {@code lowerCaseQuery}. */
+  private int[] findSymbolsWithTrigrams(String lowerCaseQuery) {
+    List<IntList> postingLists = new ArrayList<>();
+    for (int i = 0; i + TRIGRAM_LENGTH <= lowerCaseQuery.length(); i++) {
+      IntList symbolNumbers =
+          postings.get(createKey(KEY_TYPE_TRIGRAM, lowerCaseQuery, i, TRIGRAM_LENGTH));
+      if (symbolNumbers == null) {
+        return NO_SYMBOLS;
+      }
+      postingLists.add(symbolNumbers);
+    }
+    // Intersecting from the shortest list keeps the intermediate results small.
+    postingLists.sort(Comparator.comparingInt(symbolNumbers -> symbolNumbers.size));
+    int[] candidates = postingLists.get(0).toArray();
+    for (int i = 1; i < postingLists.size() && candidates.length > 0; i++) {
+      candidates = intersect(candidates, postingLists.get(i));
+    }
+    return candidates;
+  }
+
+  private int addSymbol(Entity entity, FileScope fileScope) {
+    int symbolNumber = symbols.size();
+    symbols.add(entity);
+    symbolFiles.add(fileScope);
+
+    String lowerCaseName = toLowerCase(entity.getSimpleName());
+    for (int i = 0; i + TRIGRAM_LENGTH <= lowerCaseName.length(); i++) {
+      addPosting(createKey(KEY_TYPE_TRIGRAM, lowerCaseName, i, TRIGRAM_LENGTH), symbolNumber);
+    }
+    for (int length = 1; length <= Math.min(lowerCaseName.length(), MAX_PREFIX_LENGTH); length++) {
+      addPosting(createKey(KEY_TYPE_PREFIX, lowerCaseName, 0, length), symbolNumber);
+    }
+    String humpInitials = toLowerCase(CamelCase.getHumpInitials(entity.getSimpleName()));
+    for (int length = MIN_HUMP_INITIALS_LENGTH;
+        length <= Math.min(humpInitials.length(), MAX_HUMP_INITIALS_LENGTH);
+        length++) {
+      addPosting(createKey(KEY_TYPE_HUMP_INITIALS, humpInitials, 0, length), symbolNumber);
+    }
+    return symbolNumber;
+  }
+
+  private void addPosting(long key, int symbolNumber) {
+    IntList symbolNumbers = postings.get(key);
+    if (symbolNumbers == null) {
+      symbolNumbers = new IntList();
+      postings.put(key, symbolNumbers);
+    }
+    // Symbols are added in increasing numbers, so a name with repeated trigrams only needs to be
+    // checked against the last symbol.
+    if (symbolNumbers.isEmpty() || symbolNumbers.last() != symbolNumber) {
+      symbolNumbers.add(symbolNumber);
+    }
+  }
+
+  private int[] getPostings(long key) {
+    IntList symbolNumbers = postings.get(key);
+    return symbolNumbers == null ? NO_SYMBOLS : symbolNumbers.toArray();
+  }
+
+  /** Re-adds all files to drop the removed symbols. */
+  private void rebuild() {
+    List<FileScope> files = new ArrayList<>(fileSymbols.keySet());
+    symbols.clear();
+    symbolFiles.clear();
+    fileSymbols.clear();
+    postings.clear();
+    numRemovedSymbols = 0;
+    for (FileScope fileScope : files) {
+      addFile(fileScope);
+    }
+  }
+
+  /**
+   * Packs the type of a key and up to three characters of {@code s} starting from {@code start}
+   * into a long.
+   */
+  private static long createKey(long keyType, String s, int start, int length) {
+    long key = keyType << 2 | length;
+    for (int i = 0; i < length; i++) {
+      key = key << 16 | s.charAt(start + i);
+    }
+    return key;
+  }
+
+  private static String toLowerCase(String s) {
+    StringBuilder sb = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      sb.append(Character.toLowerCase(s.charAt(i)));
+    }
+    return sb.toString();
+  }
+
+  private static int[] intersect(int[] lhs, IntList rhs) {
+    int[] result = new int[Math.min(lhs.length, rhs.size)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < lhs.length && j < rhs.size) {
+      if (lhs[i] < rhs.values[j]) {
+        i++;
+      } else if (lhs[i] > rhs.values[j]) {
+        j++;
+      } else {
+        result[size++] = lhs[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  private static int[] union(int[] lhs, int[] rhs) {
+    int[] result = new int[lhs.length + rhs.length];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < lhs.length || j < rhs.length) {
+      if (j >= rhs.length || (i < lhs.length && lhs[i] < rhs[j])) {
+        result[size++] = lhs[i++];
+      } else if (i >= lhs.length || lhs[i] > rhs[j]) {
+        result[size++] = rhs[j++];
+      } else {
+        result[size++] = lhs[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  /** A growable list of ints, taking less memory than {@code List<Integer>}. */
+  private static class IntList {
+    private int[] values = new int[2];
+    private int size = 0;
+
+    private void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    private boolean isEmpty() {
+      return size == 0;
+    }
+
+    private int last() {
+      return values[size - 1];
+    }
+
+    private int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
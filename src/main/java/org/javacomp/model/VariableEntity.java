@@ -18,7 +18,8 @@ public class VariableEntity extends Entity implements EntityScope {
 
   private final TypeReference type;
   private final EntityScope parentScope;
-  private final Range<Integer> definitionRange;
+  private final int definitionStart;
+  private final int definitionEnd;
 
   public VariableEntity(
       String simpleName,
@@ -34,7 +35,8 @@ public class VariableEntity extends Entity implements EntityScope {
     checkArgument(ALLOWED_KINDS.contains(kind), "Kind %s is not allowed for variables.", kind);
     this.type = type;
     this.parentScope = parentScope;
-    this.definitionRange = definitionRange;
+    this.definitionStart = EntityRanges.getStart(definitionRange);
+    this.definitionEnd = EntityRanges.getEnd(definitionRange);
   }
 
   public TypeReference getType() {
@@ -83,6 +85,6 @@ public class VariableEntity extends Entity implements EntityScope {
 
   @Override
   public Range<Integer> getDefinitionRange() {
-    return definitionRange;
+    return EntityRanges.toRange(definitionStart, definitionEnd);
   }
 }
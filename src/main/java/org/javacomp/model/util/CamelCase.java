@@ -0,0 +1,118 @@
+package org.javacomp.model.util;
+
+/**
+ * Utilities for splitting identifiers into humps.
+ *
+ * <p>Underscores separate humps and don't belong to any hump. In names, a hump also starts at an
+ * upper case letter following a character that is not an upper case letter. A run of upper case
+ * letters is a single hump, except that its last letter starts a new hump if it's followed by a
+ * lower case letter. For example, {@code getCompletionResult} has humps {@code get}, {@code
+ * Completion}, and {@code Result}, {@code URLConnection} has humps {@code URL} and {@code
+ * Connection}, and {@code MAX_VALUE} has humps {@code MAX} and {@code VALUE}.
+ *
+ * <p>In patterns typed by users, every upper case letter starts a hump, so that {@code UC} has
+ * humps {@code U} and {@code C}, and matches {@code URLConnection}.
+ */
+public final class CamelCase {
+  private static final char UNDERSCORE = '_';
+
+  private CamelCase() {}
+
+  /**
+   * Returns whether each hump of {@code pattern} is a prefix of the corresponding hump of {@code
+   * name}, ignoring case. For example, {@code HM} and {@code HaMa} match {@code HashMap}.
+   */
+  public static boolean matchesHumps(String name, String pattern) {
+    int nameHumpStart = nextHumpStart(name, 0, false /* isPattern */);
+    int patternHumpStart = nextHumpStart(pattern, 0, true /* isPattern */);
+    while (patternHumpStart < pattern.length()) {
+      if (nameHumpStart >= name.length()) {
+        return false;
+      }
+      int nameHumpEnd = getHumpEnd(name, nameHumpStart, false /* isPattern */);
+      int patternHumpEnd = getHumpEnd(pattern, patternHumpStart, true /* isPattern */);
+      int patternHumpLength = patternHumpEnd - patternHumpStart;
+      if (patternHumpLength > nameHumpEnd - nameHumpStart
+          || !name.regionMatches(
+              true /* ignoreCase */,
+              nameHumpStart,
+              pattern,
+              patternHumpStart,
+              patternHumpLength)) {
+        return false;
+      }
+      nameHumpStart = nextHumpStart(name, nameHumpEnd, false /* isPattern */);
+      patternHumpStart = nextHumpStart(pattern, patternHumpEnd, true /* isPattern */);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the first characters of all humps of {@code name}. For example, returns {@code gCR}
+   * for {@code getCompletionResult}, and {@code UC} for {@code URLConnection}.
+   */
+  public static String getHumpInitials(CharSequence name) {
+    return getHumpInitials(name, false /* isPattern */);
+  }
+
+  /**
+   * Returns the first characters of all humps of {@code pattern}. For example, returns {@code UC}
+   * for {@code UC}, and {@code UCo} for {@code UConn}.
+   */
+  public static String getPatternHumpInitials(CharSequence pattern) {
+    return getHumpInitials(pattern, true /* isPattern */);
+  }
+
+  private static String getHumpInitials(CharSequence s, boolean isPattern) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = nextHumpStart(s, 0, isPattern);
+        i < s.length();
+        i = nextHumpStart(s, i + 1, isPattern)) {
+      sb.append(s.charAt(i));
+    }
+    return sb.toString();
+  }
+
+  /** Returns whether a hump starts at {@code index} of {@code s}. */
+  private static boolean isHumpStart(CharSequence s, int index, boolean isPattern) {
+    char ch = s.charAt(index);
+    if (ch == UNDERSCORE) {
+      return false;
+    }
+    if (index == 0) {
+      return true;
+    }
+    char prev = s.charAt(index - 1);
+    if (prev == UNDERSCORE) {
+      return true;
+    }
+    if (!Character.isUpperCase(ch)) {
+      return false;
+    }
+    if (isPattern || !Character.isUpperCase(prev)) {
+      return true;
+    }
+    // The last upper case letter of a run starts a new hump if a lower case letter follows.
+    return index + 1 < s.length() && Character.isLowerCase(s.charAt(index + 1));
+  }
+
+  /**
+   * Returns the first index not less than {@code index} where a hump starts, or the length of
+   * {@code s} if there is no more hump.
+   */
+  private static int nextHumpStart(CharSequence s, int index, boolean isPattern) {
+    while (index < s.length() && !isHumpStart(s, index, isPattern)) {
+      index++;
+    }
+    return index;
+  }
+
+  /** Returns the end index, exclusive, of the hump starting at {@code humpStart}. */
+  private static int getHumpEnd(CharSequence s, int humpStart, boolean isPattern) {
+    int end = humpStart + 1;
+    while (end < s.length() && s.charAt(end) != UNDERSCORE && !isHumpStart(s, end, isPattern)) {
+      end++;
+    }
+    return end;
+  }
+}
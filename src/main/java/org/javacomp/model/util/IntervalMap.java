@@ -0,0 +1,80 @@
+package org.javacomp.model.util;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable map from disjoint integer intervals to values.
+ *
+ * <p>The intervals are stored as sorted primitive arrays of start and end offsets, so that looking
+ * up the value at a position is a binary search without any allocation.
+ *
+ * <p>Instances are created by {@link NestedRangeMapBuilder}.
+ */
+public class IntervalMap<V> {
+  private static final IntervalMap<Object> EMPTY =
+      new IntervalMap<>(new int[0], new int[0], new Object[0]);
+
+  /** Inclusive start offsets of the intervals, in ascending order. */
+  private final int[] starts;
+  /** Exclusive end offsets of the intervals. */
+  private final int[] ends;
+
+  private final Object[] values;
+
+  IntervalMap(int[] starts, int[] ends, Object[] values) {
+    this.starts = starts;
+    this.ends = ends;
+    this.values = values;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <V> IntervalMap<V> empty() {
+    return (IntervalMap<V>) EMPTY;
+  }
+
+  /**
+   * Returns the value of the interval containing {@code position}, or {@code null} if no interval
+   * contains it.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(int position) {
+    // Find the last interval whose start is less than or equal to position.
+    int low = 0;
+    int high = starts.length - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (starts[mid] <= position) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (found >= 0 && position < ends[found]) {
+      return (V) values[found];
+    }
+    return null;
+  }
+
+  /** Returns the number of intervals in the map. */
+  public int size() {
+    return starts.length;
+  }
+
+  /**
+   * Returns a map from closed-open ranges to values, in ascending order of the ranges. The returned
+   * map is created on every call, it's intended for testing and debugging.
+   */
+  @SuppressWarnings("unchecked")
+  public ImmutableMap<Range<Integer>, V> asMapOfRanges() {
+    ImmutableMap.Builder<Range<Integer>, V> builder = new ImmutableMap.Builder<>();
+    for (int i = 0; i < starts.length; i++) {
+      builder.put(Range.closedOpen(starts[i], ends[i]), (V) values[i]);
+    }
+    return builder.build();
+  }
+}
@@ -1,7 +1,6 @@
 package org.javacomp.model.util;
 
-import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.ImmutableRangeMap;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.Range;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -9,31 +8,38 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 
-/** Build a {@link RangeMap} from non-overlapping {@link Range} instances. */
+/** Build an {@link IntervalMap} from nested or non-overlapping ranges. */
 public class NestedRangeMapBuilder<V> {
   private static class Entry<V> implements Comparable<Entry<V>> {
-    // Range is an open-close range, e.g. [lower, upper).
-    private final Range<Integer> range;
+    // An open-close range, e.g. [start, end).
+    private final int start;
+    private final int end;
     private final V value;
 
-    private Entry(Range<Integer> range, V value) {
-      this.range = range;
+    private Entry(int start, int end, V value) {
+      this.start = start;
+      this.end = end;
       this.value = value;
     }
 
+    private boolean encloses(Entry<V> other) {
+      return start <= other.start && other.end <= end;
+    }
+
     /**
      * Compare two {@link Entry} instances by their ranges.
      *
-     * <p>Range A is less than range B if: a) the lower endpoint of A is less than that of B, or b)
-     * the lower endpoint of A is equal to that of B and the upper endpoint is greater than that of
-     * B. Otherwise, if the A and B are not equal, then A is greater than B.
+     * <p>Range A is less than range B if: a) the start of A is less than that of B, or b) the start
+     * of A is equal to that of B and the end is greater than that of B. Otherwise, if the A and B
+     * are not equal, then A is greater than B.
      */
+    @Override
     public int compareTo(Entry<V> o) {
-      int ret = Integer.compare(this.range.lowerEndpoint(), o.range.lowerEndpoint());
+      int ret = Integer.compare(this.start, o.start);
       if (ret != 0) {
         return ret;
       }
-      return -Integer.compare(this.range.upperEndpoint(), o.range.upperEndpoint());
+      return -Integer.compare(this.end, o.end);
     }
   }
 
@@ -45,50 +51,69 @@ public class NestedRangeMapBuilder<V> {
    * <p>All existing ranges must be disconnected with {@code range}, encloses {@code range}, or is
    * enclosed in {@code range}.
    */
-  public NestedRangeMapBuilder put(Range<Integer> range, V value) {
-    range = range.canonical(DiscreteDomain.integers());
-    if (!range.isEmpty()) {
-      entries.add(new Entry<>(range, value));
+  public NestedRangeMapBuilder<V> put(Range<Integer> range, V value) {
+    int start = range.lowerEndpoint();
+    if (range.lowerBoundType() == BoundType.OPEN) {
+      start++;
+    }
+    int end = range.upperEndpoint();
+    if (range.upperBoundType() == BoundType.CLOSED) {
+      end++;
+    }
+    return put(start, end, value);
+  }
+
+  /**
+   * Maps the range of [{@code start}, {@code end}) to a specified value.
+   *
+   * @see #put(Range, Object)
+   */
+  public NestedRangeMapBuilder<V> put(int start, int end, V value) {
+    if (start < end) {
+      entries.add(new Entry<>(start, end, value));
     }
     return this;
   }
 
-  public ImmutableRangeMap<Integer, V> build() {
+  public IntervalMap<V> build() {
     Collections.sort(entries);
-    ImmutableRangeMap.Builder<Integer, V> builder = new ImmutableRangeMap.Builder<>();
+    List<Entry<V>> output = new ArrayList<>(entries.size() * 2);
     // A stack of disconnected range and value entries. Ranges are in ascending order, e.g the first
-    // range's upper endpoint is greater than or equal to the second range's lower endpoint.
+    // range's end is greater than or equal to the second range's start.
     Deque<Entry<V>> stack = new ArrayDeque<>();
     for (Entry<V> entry : entries) {
       while (!stack.isEmpty()) {
         Entry<V> topEntry = stack.pollFirst();
-        if (topEntry.range.encloses(entry.range)) {
-          if (topEntry.range.lowerEndpoint() < entry.range.lowerEndpoint()) {
-            builder.put(
-                Range.closedOpen(topEntry.range.lowerEndpoint(), entry.range.lowerEndpoint()),
-                topEntry.value);
+        if (topEntry.encloses(entry)) {
+          if (topEntry.start < entry.start) {
+            output.add(new Entry<>(topEntry.start, entry.start, topEntry.value));
           }
 
-          if (topEntry.range.upperEndpoint() > entry.range.upperEndpoint()) {
-            stack.addFirst(
-                new Entry<>(
-                    Range.closedOpen(entry.range.upperEndpoint(), topEntry.range.upperEndpoint()),
-                    topEntry.value));
+          if (topEntry.end > entry.end) {
+            stack.addFirst(new Entry<>(entry.end, topEntry.end, topEntry.value));
           }
           break;
         } else {
-          // Disconnected with top entry, add the whole range of the top entry to the builder
-          builder.put(topEntry.range, topEntry.value);
+          // Disconnected with top entry, add the whole range of the top entry to the output
+          output.add(topEntry);
         }
       }
       stack.addFirst(entry);
     }
 
-    // Add the rest entries to the builder
-    for (Entry<V> entry : stack) {
-      builder.put(entry.range, entry.value);
-    }
+    // Add the rest entries to the output
+    output.addAll(stack);
+    Collections.sort(output);
 
-    return builder.build();
+    int[] starts = new int[output.size()];
+    int[] ends = new int[output.size()];
+    Object[] values = new Object[output.size()];
+    for (int i = 0; i < output.size(); i++) {
+      Entry<V> entry = output.get(i);
+      starts[i] = entry.start;
+      ends[i] = entry.end;
+      values[i] = entry.value;
+    }
+    return new IntervalMap<>(starts, ends, values);
   }
 }
@@ -17,4 +17,25 @@ public interface JavaCompOptions {
   public List<String> getIgnorePaths();
 
   public List<String> getTypeIndexFiles();
+
+  /**
+   * The latency budget of completion requests in milliseconds. If not set, completion requests
+   * always wait for all candidates.
+   */
+  @Nullable
+  public Integer getCompletionTimeoutMillis();
+
+  /**
+   * The maximum number of completion items returned for the client to filter locally. If not set,
+   * the client always asks the server for filtering completion items.
+   */
+  @Nullable
+  public Integer getClientFilteringMaxItems();
+
+  /**
+   * The maximum number of symbols returned for a workspace symbol request. If not set, a default
+   * limit is used.
+   */
+  @Nullable
+  public Integer getWorkspaceSymbolMaxResults();
 }
@@ -24,6 +24,7 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.util.TreePathScanner;
 import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.tree.DocCommentTable;
 import com.sun.tools.javac.tree.EndPosTable;
 import com.sun.tools.javac.tree.JCTree;
@@ -45,6 +46,7 @@ import org.javacomp.model.Entity;
 import org.javacomp.model.EntityScope;
 import org.javacomp.model.FileScope;
 import org.javacomp.model.MethodEntity;
+import org.javacomp.model.ModelInterner;
 import org.javacomp.model.TypeParameter;
 import org.javacomp.model.TypeReference;
 import org.javacomp.model.VariableEntity;
@@ -96,7 +98,10 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
     JCCompilationUnit compilationUnit = (JCCompilationUnit) node;
     this.fileScope =
         FileScope.createFromSource(
-            filename, this.currentQualifiers, compilationUnit, content.length());
+            filename,
+            ModelInterner.internQualifiers(this.currentQualifiers),
+            compilationUnit,
+            content.length());
     this.scopeRangeBuilder = new NestedRangeMapBuilder<>();
     this.endPosTable = compilationUnit.endPositions;
     this.docComments = compilationUnit.docComments;
@@ -164,10 +169,10 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
     ImmutableList.Builder<TypeReference> interfaceBuilder = new ImmutableList.Builder<>();
     Optional<TypeReference> superClass = Optional.empty();
     if (node.getExtendsClause() != null) {
-      superClass = Optional.of(typeReferenceScanner.getTypeReference(node.getExtendsClause()));
+      superClass = Optional.of(getTypeReference(node.getExtendsClause()));
     }
     for (Tree implementClause : node.getImplementsClause()) {
-      interfaceBuilder.add(typeReferenceScanner.getTypeReference(implementClause));
+      interfaceBuilder.add(getTypeReference(implementClause));
     }
     JCClassDecl classNode = (JCClassDecl) node;
     Range<Integer> classNameRange = getClassNameRange(classNode);
@@ -176,9 +181,9 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
             || isStatic(node.getModifiers());
     ClassEntity classEntity =
         new ClassEntity(
-            node.getSimpleName().toString(),
+            ModelInterner.internName(node.getSimpleName().toString()),
             entityKind,
-            this.currentQualifiers,
+            ModelInterner.internQualifiers(this.currentQualifiers),
             isStatic,
             currentScope,
             superClass,
@@ -187,6 +192,7 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
             getJavadoc(classNode),
             classNameRange,
             getNodeRange(node));
+    classEntity.setAccessLevel(getAccessLevel(currentScope, node.getModifiers().getFlags()));
     currentScope.addEntity(classEntity);
     addScopeRange((JCTree) node, classEntity);
     if (this.currentQualifiers != UNAVAILABLE_QUALIFIERS) {
@@ -210,7 +216,7 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
             node -> {
               ImmutableList<TypeReference> extendBounds =
                   node.getBounds().stream()
-                      .map(bound -> typeReferenceScanner.getTypeReference(bound))
+                      .map(bound -> getTypeReference(bound))
                       .collect(ImmutableList.toImmutableList());
               return TypeParameter.create(node.getName().toString(), extendBounds);
             })
@@ -231,15 +237,15 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
       // Constructor doesn't have return type.
       returnType = TypeReference.EMPTY_TYPE;
     } else {
-      returnType = typeReferenceScanner.getTypeReference(node.getReturnType());
+      returnType = getTypeReference(node.getReturnType());
     }
     ImmutableList<TypeParameter> typeParameters = convertTypeParameters(node.getTypeParameters());
     ClassEntity classEntity = (ClassEntity) currentScope;
     Range<Integer> range = getMethodNameRange(methodNode, classEntity.getSimpleName());
     MethodEntity methodEntity =
         new MethodEntity(
-            node.getName().toString(),
-            this.currentQualifiers,
+            ModelInterner.internName(node.getName().toString()),
+            ModelInterner.internQualifiers(this.currentQualifiers),
             isStatic(node.getModifiers()),
             returnType,
             ImmutableList.of() /* parameters */,
@@ -248,11 +254,13 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
             getJavadoc(methodNode),
             range,
             getNodeRange(node));
+    methodEntity.setAccessLevel(getAccessLevel(currentScope, node.getModifiers().getFlags()));
     ImmutableList.Builder<VariableEntity> parameterListBuilder = new ImmutableList.Builder<>();
     for (Tree parameter : node.getParameters()) {
       parameterListBuilder.add(parameterScanner.getParameter(parameter, methodEntity));
     }
     methodEntity.setParameters(parameterListBuilder.build());
+    methodEntity.setVariableArity(isVariableArity(methodNode));
 
     // TODO: distinguish between static and non-static methods.
     currentScope.addEntity(methodEntity);
@@ -267,6 +275,12 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
     return null;
   }
 
+  private static boolean isVariableArity(JCMethodDecl methodNode) {
+    List<JCVariableDecl> parameters = methodNode.getParameters();
+    return !parameters.isEmpty()
+        && (parameters.get(parameters.size() - 1).getModifiers().flags & Flags.VARARGS) != 0;
+  }
+
   @Override
   public Void visitVariable(VariableTree node, EntityScope currentScope) {
     JCVariableDecl variableNode = (JCVariableDecl) node;
@@ -283,20 +297,23 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
       // This can happen in the case of untyped lambda function parameters.
       variableType = TypeReference.EMPTY_TYPE;
     } else {
-      variableType = typeReferenceScanner.getTypeReference(node.getType());
+      variableType = getTypeReference(node.getType());
     }
 
     VariableEntity variableEntity =
         new VariableEntity(
-            node.getName().toString(),
+            ModelInterner.internName(node.getName().toString()),
             variableKind,
-            this.currentQualifiers,
+            ModelInterner.internQualifiers(this.currentQualifiers),
             isStatic(node.getModifiers()),
             variableType,
             currentScope,
             getJavadoc(variableNode),
             range,
             getNodeRange(node));
+    if (variableKind == Entity.Kind.FIELD) {
+      variableEntity.setAccessLevel(getAccessLevel(currentScope, node.getModifiers().getFlags()));
+    }
     currentScope.addEntity(variableEntity);
     addScopeRange(variableNode, variableEntity);
     // TODO: add entity to module if it's a non-private static entity.
@@ -380,19 +397,22 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
   private Range<Integer> getNodeRange(Tree node) {
     checkArgument(node instanceof JCTree, "%s is not a JCTree", node);
     JCTree jcTree = (JCTree) node;
-    int start = jcTree.getStartPosition();
-    int end = jcTree.getEndPosition(endPosTable);
+    return Range.closed(jcTree.getStartPosition(), getNodeEndPosition(jcTree));
+  }
+
+  private int getNodeEndPosition(JCTree node) {
+    int end = node.getEndPosition(endPosTable);
     if (end < 0) {
       // The file is syntactically incorrect, likely incomplete blocks. Use
       // length of 1 to avoid overlapping.
-      end = start + 1;
+      end = node.getStartPosition() + 1;
     }
-    return Range.closed(start, end);
+    return end;
   }
 
   private void addScopeRange(JCTree node, EntityScope scope) {
-    Range<Integer> range = getNodeRange(node);
-    scopeRangeBuilder.put(range, scope);
+    // Node ranges are closed ranges, e.g. [start, end].
+    scopeRangeBuilder.put(node.getStartPosition(), getNodeEndPosition(node) + 1, scope);
   }
 
   private boolean shouldScanWithModifiers(EntityScope scope, Set<Modifier> modifiers) {
@@ -409,6 +429,24 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
     return true;
   }
 
+  private static Entity.AccessLevel getAccessLevel(EntityScope scope, Set<Modifier> modifiers) {
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return Entity.AccessLevel.PUBLIC;
+    } else if (modifiers.contains(Modifier.PROTECTED)) {
+      return Entity.AccessLevel.PROTECTED;
+    } else if (modifiers.contains(Modifier.PRIVATE)) {
+      return Entity.AccessLevel.PRIVATE;
+    }
+    if (scope instanceof ClassEntity) {
+      Entity.Kind parentEntityKind = ((ClassEntity) scope).getKind();
+      if (parentEntityKind == Entity.Kind.INTERFACE || parentEntityKind == Entity.Kind.ANNOTATION) {
+        // Interface and annotation members are public by default.
+        return Entity.AccessLevel.PUBLIC;
+      }
+    }
+    return Entity.AccessLevel.PACKAGE_PRIVATE;
+  }
+
   private Range<Integer> getVariableNameRange(JCVariableDecl node) {
     if (node.getName() != null) {
       String name = node.getName().toString();
@@ -477,6 +515,10 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
     return getNodeRange(node);
   }
 
+  private TypeReference getTypeReference(Tree node) {
+    return ModelInterner.internTypeReference(typeReferenceScanner.getTypeReference(node));
+  }
+
   private boolean isStatic(ModifiersTree modifierTree) {
     return modifierTree.getFlags().contains(Modifier.STATIC);
   }
@@ -517,8 +559,9 @@ public class AstScanner extends TreePathScanner<Void, EntityScope> {
 
     @Override
     public Void visitVariable(VariableTree node, Void unused) {
-      name = node.getName().toString();
-      type = typeReferenceScanner.getTypeReference(node.getType());
+      name = ModelInterner.internName(node.getName().toString());
+      type =
+          ModelInterner.internTypeReference(typeReferenceScanner.getTypeReference(node.getType()));
       return null;
     }
   }
@@ -0,0 +1,29 @@
+package org.javacomp.parser;
+
+import com.sun.tools.javac.parser.Scanner;
+import com.sun.tools.javac.parser.Tokens.Token;
+import com.sun.tools.javac.parser.Tokens.TokenKind;
+import org.javacomp.model.IdentifierOccurrences;
+
+/** Collects the positions of all identifiers in Java source code from Javac tokens. */
+public class IdentifierScanner {
+  private final ParserContext parserContext;
+
+  public IdentifierScanner(ParserContext parserContext) {
+    this.parserContext = parserContext;
+  }
+
+  public IdentifierOccurrences scan(CharSequence content) {
+    Scanner scanner = parserContext.tokenize(content, false /* keepDocComments */);
+    IdentifierOccurrences.Builder builder = IdentifierOccurrences.builder();
+    for (; ; scanner.nextToken()) {
+      Token token = scanner.token();
+      if (token.kind == TokenKind.EOF) {
+        break;
+      } else if (token.kind == TokenKind.IDENTIFIER) {
+        builder.add(token.name().toString(), token.pos);
+      }
+    }
+    return builder.build();
+  }
+}
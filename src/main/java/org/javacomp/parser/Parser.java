@@ -15,6 +15,7 @@ public class Parser {
 
   private final ParserContext parserContext = new ParserContext();
   private final FileContentFixer fileContentFixer = new FileContentFixer(parserContext);
+  private final IdentifierScanner identifierScanner = new IdentifierScanner(parserContext);
   private final FileManager fileManager;
   private final IndexOptions indexOptions;
 
@@ -44,6 +45,7 @@ public class Parser {
     if (adjustedLineMap != null) {
       fileScope.setAdjustedLineMap(adjustedLineMap);
     }
+    fileScope.setIdentifierOccurrences(identifierScanner.scan(content));
     return Optional.of(fileScope);
   }
 }
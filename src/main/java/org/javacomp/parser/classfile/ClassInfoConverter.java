@@ -111,7 +111,11 @@ public class ClassInfoConverter {
           new SignatureParser(reader.getUtf8(signatureIndex), reader.getInnerClassMap())
               .parseMethodSignature();
       boolean isStatic = methodInfo.getAccessFlags().contains(MethodInfo.AccessFlag.STATIC);
-      builder.addMethod(ParsedClassFile.ParsedMethod.create(simpleName, methodSignature, isStatic));
+      boolean isVariableArity =
+          methodInfo.getAccessFlags().contains(MethodInfo.AccessFlag.VARARGS);
+      builder.addMethod(
+          ParsedClassFile.ParsedMethod.create(
+              simpleName, methodSignature, isStatic, isVariableArity));
     }
   }
 
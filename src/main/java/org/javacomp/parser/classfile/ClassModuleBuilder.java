@@ -9,15 +9,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.javacomp.logging.JLogger;
 import org.javacomp.model.ClassEntity;
 import org.javacomp.model.Entity;
 import org.javacomp.model.EntityScope;
 import org.javacomp.model.FileScope;
 import org.javacomp.model.MethodEntity;
+import org.javacomp.model.ModelInterner;
 import org.javacomp.model.Module;
 import org.javacomp.model.PackageScope;
 import org.javacomp.model.TypeReference;
@@ -39,6 +42,8 @@ public class ClassModuleBuilder {
   private final Map<String, ClassEntity> classEntityMap;
   /** Map from parent class binary name to parsed class file. */
   private final Multimap<String, ParsedClassFile> parsedInnerClassFileMap;
+  /** Files whose classes are changed since they are added to the module. */
+  private final Set<FileScope> pendingFileScopes;
 
   public ClassModuleBuilder(Module module) {
     this.parser = new ClassFileParser();
@@ -46,6 +51,7 @@ public class ClassModuleBuilder {
     this.module = module;
     this.classEntityMap = new HashMap<>();
     this.parsedInnerClassFileMap = ArrayListMultimap.create();
+    this.pendingFileScopes = new LinkedHashSet<>();
   }
 
   public void processClassFile(Path classFilePath) {
@@ -61,16 +67,16 @@ public class ClassModuleBuilder {
           parentScope = classEntityMap.get(outerClassBinaryName);
         }
       } else {
-        PackageScope packageScope = module.getOrCreatePackage(parsedClassFile.getClassQualifiers());
-        FileScope fileScope =
-            FileScope.createFromClassFile(classFilePath, parsedClassFile.getClassQualifiers());
-        module.addOrReplaceFileScope(fileScope);
-        parentScope = fileScope;
+        List<String> packageQualifiers =
+            ModelInterner.internQualifiers(parsedClassFile.getClassQualifiers());
+        PackageScope packageScope = module.getOrCreatePackage(packageQualifiers);
+        parentScope = FileScope.createFromClassFile(classFilePath, packageQualifiers);
       }
 
       if (parentScope != null) {
         ClassEntity classEntity = createClassEntity(parsedClassFile, parentScope);
         addClassEntity(parsedClassFile.getClassBinaryName(), classEntity);
+        pendingFileScopes.add(getFileScope(classEntity));
       } else {
         // It's an inner class and its outer class is not processed yet.
         parsedInnerClassFileMap.put(
@@ -81,13 +87,27 @@ public class ClassModuleBuilder {
     }
   }
 
+  /**
+   * Adds the files of the processed class files to the module, and returns the module.
+   *
+   * <p>Call it after all class files are processed. Each file is added once with all its classes,
+   * including inner classes in other class files, so that the module indexes them only once.
+   */
+  public Module build() {
+    for (FileScope fileScope : pendingFileScopes) {
+      module.addOrReplaceFileScope(fileScope);
+    }
+    pendingFileScopes.clear();
+    return module;
+  }
+
   private ClassEntity createClassEntity(ParsedClassFile parsedClassFile, EntityScope parentScope) {
     ClassSignature signature = parsedClassFile.getClassSignature();
     ClassEntity classEntity =
         new ClassEntity(
-            parsedClassFile.getSimpleName(),
+            ModelInterner.internName(parsedClassFile.getSimpleName()),
             parsedClassFile.getEntityKind(),
-            parsedClassFile.getClassQualifiers(),
+            ModelInterner.internQualifiers(parsedClassFile.getClassQualifiers()),
             parsedClassFile.isStatic(),
             parentScope,
             Optional.of(signature.getSuperClass()),
@@ -98,10 +118,7 @@ public class ClassModuleBuilder {
             EMPTY_RANGE);
 
     ImmutableList<String> classQualifiers =
-        new ImmutableList.Builder<String>()
-            .addAll(classEntity.getQualifiers())
-            .add(classEntity.getSimpleName())
-            .build();
+        ModelInterner.internQualifiers(classEntity.getQualifiers(), classEntity.getSimpleName());
     for (ParsedMethod parsedMethod : parsedClassFile.getMethods()) {
       MethodEntity method = createMethodEntity(parsedMethod, classEntity, classQualifiers);
       classEntity.addEntity(method);
@@ -122,7 +139,7 @@ public class ClassModuleBuilder {
       TypeReference parameterType = signature.getParameters().get(index);
       parameters.add(
           new VariableEntity(
-              "arg" + (index + 1),
+              ModelInterner.internName("arg" + (index + 1)),
               Entity.Kind.VARIABLE,
               ImmutableList.of() /* qualifiers */,
               false /* isStatic */,
@@ -135,7 +152,7 @@ public class ClassModuleBuilder {
 
     MethodEntity method =
         new MethodEntity(
-            parsedMethod.getSimpleName(),
+            ModelInterner.internName(parsedMethod.getSimpleName()),
             qualifiers,
             parsedMethod.isStatic(),
             signature.getResult(),
@@ -145,6 +162,7 @@ public class ClassModuleBuilder {
             Optional.empty() /* javadoc */,
             EMPTY_RANGE,
             EMPTY_RANGE);
+    method.setVariableArity(parsedMethod.isVariableArity());
     return method;
   }
 
@@ -152,7 +170,7 @@ public class ClassModuleBuilder {
       ParsedField parsedField, ClassEntity parentClass, ImmutableList<String> qualifiers) {
     VariableEntity field =
         new VariableEntity(
-            parsedField.getSimpleName(),
+            ModelInterner.internName(parsedField.getSimpleName()),
             Entity.Kind.FIELD,
             qualifiers,
             parsedField.isStatic(),
@@ -172,6 +190,14 @@ public class ClassModuleBuilder {
     parentScope.addEntity(classEntity);
   }
 
+  private static FileScope getFileScope(ClassEntity classEntity) {
+    EntityScope scope = classEntity;
+    while (!(scope instanceof FileScope)) {
+      scope = scope.getParentScope().get();
+    }
+    return (FileScope) scope;
+  }
+
   private void processInnerClasses(String binaryName, ClassEntity classEntity) {
     if (!parsedInnerClassFileMap.containsKey(binaryName)) {
       return;
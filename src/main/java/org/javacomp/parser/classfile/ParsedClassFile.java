@@ -44,9 +44,12 @@ public abstract class ParsedClassFile {
 
     public abstract boolean isStatic();
 
+    public abstract boolean isVariableArity();
+
     public static ParsedMethod create(
-        String simpleName, MethodSignature signature, boolean isStatic) {
-      return new AutoValue_ParsedClassFile_ParsedMethod(simpleName, signature, isStatic);
+        String simpleName, MethodSignature signature, boolean isStatic, boolean isVariableArity) {
+      return new AutoValue_ParsedClassFile_ParsedMethod(
+          simpleName, signature, isStatic, isVariableArity);
     }
   }
 
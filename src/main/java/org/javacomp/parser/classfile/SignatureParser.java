@@ -10,6 +10,7 @@ import com.google.common.collect.Lists;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import org.javacomp.model.ModelInterner;
 import org.javacomp.model.SimpleType;
 import org.javacomp.model.TypeArgument;
 import org.javacomp.model.TypeParameter;
@@ -194,7 +195,7 @@ public class SignatureParser {
     String identifier = lexer.nextIdentifier();
     while (lexer.peekChar() == '/') {
       lexer.skipChar();
-      packageNameBuilder.add(identifier);
+      packageNameBuilder.add(ModelInterner.internName(identifier));
       binaryNameBuilder.append(identifier).append('/');
       identifier = lexer.nextIdentifier();
     }
@@ -274,14 +275,15 @@ public class SignatureParser {
     checkNotNull(
         lastSimpleClassType, "No lastSimpleClassType for %s", binaryNameBuilder.toString());
 
-    return TypeReference.formalizedBuilder()
-        .setPackageName(packageNameBuilder.build())
-        .setEnclosingClasses(Lists.reverse(enclosingClassesBuilder.build()))
-        .setSimpleName(lastSimpleClassType.getSimpleName())
-        .setTypeArguments(lastSimpleClassType.getTypeArguments())
-        .setPrimitive(false)
-        .setArray(false)
-        .build();
+    return ModelInterner.internTypeReference(
+        TypeReference.formalizedBuilder()
+            .setPackageName(ModelInterner.internQualifiers(packageNameBuilder.build()))
+            .setEnclosingClasses(Lists.reverse(enclosingClassesBuilder.build()))
+            .setSimpleName(ModelInterner.internName(lastSimpleClassType.getSimpleName()))
+            .setTypeArguments(lastSimpleClassType.getTypeArguments())
+            .setPrimitive(false)
+            .setArray(false)
+            .build());
   }
 
   /**
@@ -299,12 +301,13 @@ public class SignatureParser {
     String identifier = lexer.nextIdentifier();
     char ch = lexer.nextChar();
     checkState(ch == ';', "TypeVariable does not end with ';'", ch, lexer.remainingContent());
-    return TypeReference.builder()
-        .setArray(false)
-        .setFullName(identifier)
-        .setPrimitive(false)
-        .setTypeArguments(ImmutableList.of())
-        .build();
+    return ModelInterner.internTypeReference(
+        TypeReference.builder()
+            .setArray(false)
+            .setFullName(ModelInterner.internName(identifier))
+            .setPrimitive(false)
+            .setTypeArguments(ImmutableList.of())
+            .build());
   }
 
   /** Identifier [TypeArguments] */
@@ -393,7 +396,8 @@ public class SignatureParser {
         return parseTypeVariableSignatureContent();
       case '[':
         // TODO: support multi-dimensional array.
-        return parseJavaTypeSignature().toBuilder().setArray(true).build();
+        return ModelInterner.internTypeReference(
+            parseJavaTypeSignature().toBuilder().setArray(true).build());
       default:
         throw new IllegalStateException(
             "Invalid referenceTypeSignature: " + ch + lexer.remainingContent());
@@ -92,6 +92,11 @@ public class FileSystemModuleManager implements ModuleManager {
     projectModule.addDependingModule(module);
   }
 
+  @Override
+  public Module getProjectModule() {
+    return projectModule;
+  }
+
   @Override
   public synchronized void removeFile(Path path) {
     projectModule.removeFile(path);
@@ -129,6 +134,8 @@ public class FileSystemModuleManager implements ModuleManager {
                 }
               });
       PathUtils.walkDirectory(rootJarPath, handlers, /* ignorePathPredicate= */ filePath -> false);
+      classModuleBuilder.build();
+      jarModule.freeze();
       projectModule.addDependingModule(jarModule);
     } catch (Throwable t) {
       logger.warning(t, "Failed to create module for JAR file %s", path);
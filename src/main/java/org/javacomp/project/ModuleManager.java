@@ -36,4 +36,10 @@ public interface ModuleManager {
 
   /** Add a module that all modules loaded by the module manager depends on. */
   void addDependingModule(Module module);
+
+  /**
+   * Returns the module of the project files. All other modules loaded by the module manager are
+   * its direct or indirect dependencies.
+   */
+  Module getProjectModule();
 }
@@ -2,8 +2,10 @@ package org.javacomp.project;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Range;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.URI;
@@ -13,23 +15,34 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import org.javacomp.completion.CompletionCandidate;
 import org.javacomp.completion.CompletionResult;
 import org.javacomp.completion.Completor;
 import org.javacomp.completion.TextEdits;
 import org.javacomp.file.FileChangeListener;
 import org.javacomp.file.FileManager;
 import org.javacomp.logging.JLogger;
+import org.javacomp.model.ClassEntity;
 import org.javacomp.model.Entity;
 import org.javacomp.model.FileScope;
 import org.javacomp.model.Module;
 import org.javacomp.options.IndexOptions;
 import org.javacomp.protocol.TextEdit;
 import org.javacomp.reference.DefinitionSolver;
+import org.javacomp.reference.ImplementationSolver;
 import org.javacomp.reference.MethodSignatures;
 import org.javacomp.reference.ReferenceSolver;
 import org.javacomp.reference.SignatureSolver;
+import org.javacomp.reference.WorkspaceSymbolSolver;
 import org.javacomp.storage.IndexStore;
 
 /** Handles all files in a project. */
@@ -43,8 +56,15 @@ public class Project {
   private final Completor completor;
   private final DefinitionSolver definitionSolver;
   private final SignatureSolver signatureSolver;
+  private final ImplementationSolver implementationSolver;
+  private final ReferenceSolver referenceSolver;
+  private final WorkspaceSymbolSolver workspaceSymbolSolver;
   private final ModuleManager moduleManager;
   private Path lastCompletedFile = null;
+  // The latest position scheduled for speculative completion that is not computed yet.
+  private final AtomicReference<SpeculativePosition> pendingSpeculativePosition =
+      new AtomicReference<>();
+  private final Executor speculativeCompletionExecutor;
 
   private boolean initialized;
 
@@ -57,7 +77,16 @@ public class Project {
     this.fileManager = fileManager;
     this.definitionSolver = new DefinitionSolver();
     this.signatureSolver = new SignatureSolver();
+    this.implementationSolver = new ImplementationSolver();
+    this.referenceSolver = new ReferenceSolver(fileManager);
+    this.workspaceSymbolSolver = new WorkspaceSymbolSolver();
     this.moduleManager = moduleManager;
+    this.speculativeCompletionExecutor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("speculative-completion-%d")
+                .setDaemon(true)
+                .build());
   }
 
   public synchronized void initialize() {
@@ -76,7 +105,9 @@ public class Project {
     try (BufferedReader reader =
         new BufferedReader(
             new InputStreamReader(this.getClass().getResourceAsStream(JDK_RESOURCE_PATH), UTF_8))) {
-      moduleManager.addDependingModule(new IndexStore().readModule(reader));
+      Module jdkModule = new IndexStore().readModule(reader);
+      jdkModule.freeze();
+      moduleManager.addDependingModule(jdkModule);
       logger.info("JDK module loaded");
     } catch (Throwable t) {
       logger.warning(t, "Unable to load JDK module");
@@ -90,6 +121,7 @@ public class Project {
       Module module =
           indexStore.readModuleFromFile(
               fileManager.getProjectRootPath().resolve(Paths.get(typeIndexFile)));
+      module.freeze();
       moduleManager.addDependingModule(module);
       logger.info("Loaded type index file %s", typeIndexFile);
     } catch (NoSuchFileException nsfe) {
@@ -105,17 +137,84 @@ public class Project {
     moduleManager.addOrUpdateFile(filePath, fixContentForParsing);
   }
 
+  /**
+   * Sets the latency budget of completion requests.
+   *
+   * @see Completor#setTimeout
+   */
+  public synchronized void setCompletionTimeout(Optional<Duration> timeout) {
+    completor.setTimeout(timeout);
+  }
+
   /**
    * @param filePath the path of the file beging completed
    * @param line 0-based line number
    * @param column 0-based character offset of the line
    */
-  public synchronized CompletionResult getCompletionResult(Path filePath, int line, int column) {
+  public CompletionResult getCompletionResult(Path filePath, int line, int column) {
+    return getCompletionResult(filePath, line, column, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param filePath the path of the file beging completed
+   * @param line 0-based line number
+   * @param column 0-based character offset of the line
+   * @param maxCandidates the maximum number of the best candidates to return
+   */
+  public synchronized CompletionResult getCompletionResult(
+      Path filePath, int line, int column, int maxCandidates) {
+    prepareFileForCompletion(filePath);
+    return completor.getCompletionResult(moduleManager, filePath, line, column, maxCandidates);
+  }
+
+  /**
+   * Returns the detail of a candidate returned by {@link #getCompletionResult}.
+   *
+   * <p>Details of some candidates are solved lazily with the type solver of the project, so they
+   * are computed with the lock of the project held, like completion requests.
+   */
+  public synchronized Optional<String> getCompletionCandidateDetail(
+      CompletionCandidate candidate) {
+    return candidate.getDetail();
+  }
+
+  /**
+   * Schedules computing the completion candidates of a position in the background, because a
+   * completion request at the position is expected soon, e.g. the position is right after an edit.
+   *
+   * <p>If multiple positions are scheduled before the background computation starts, only the
+   * latest one is computed.
+   *
+   * @see Completor#precomputeCompletion
+   */
+  public void scheduleSpeculativeCompletion(Path filePath, int line, int column) {
+    if (pendingSpeculativePosition.getAndSet(new SpeculativePosition(filePath, line, column))
+        == null) {
+      speculativeCompletionExecutor.execute(this::runSpeculativeCompletion);
+    }
+  }
+
+  private void runSpeculativeCompletion() {
+    SpeculativePosition position = pendingSpeculativePosition.getAndSet(null);
+    if (position == null) {
+      return;
+    }
+    synchronized (this) {
+      try {
+        prepareFileForCompletion(position.filePath);
+        completor.precomputeCompletion(
+            moduleManager, position.filePath, position.line, position.column);
+      } catch (Throwable e) {
+        logger.warning(e, "Failed to precompute completion at %s", position);
+      }
+    }
+  }
+
+  private synchronized void prepareFileForCompletion(Path filePath) {
     if (!filePath.equals(lastCompletedFile)) {
       lastCompletedFile = filePath;
       addOrUpdateFile(filePath);
     }
-    return completor.getCompletionResult(moduleManager, filePath, line, column);
   }
 
   /**
@@ -141,7 +240,108 @@ public class Project {
 
   public synchronized Multimap<FileScope, Range<Integer>> findReferencesAtPosition(
       Path filePath, int line, int column) {
-    return new ReferenceSolver(fileManager).findReferences(moduleManager, filePath, line, column);
+    return referenceSolver.findReferences(moduleManager, filePath, line, column);
+  }
+
+  /**
+   * Finds references of the symbol at the given position, reporting them to {@code collector} batch
+   * by batch.
+   *
+   * @param filePath the path of the file
+   * @param line 0-based line number
+   * @param column 0-based character offset of the line
+   */
+  public synchronized void findReferencesAtPosition(
+      Path filePath, int line, int column, ReferenceSolver.ReferenceCollector collector) {
+    referenceSolver.findReferences(moduleManager, filePath, line, column, collector);
+  }
+
+  /**
+   * Finds the classes extending or implementing the class at the given position, or the methods
+   * overriding the method at the given position.
+   *
+   * @param filePath the path of the file
+   * @param line 0-based line number
+   * @param column 0-based character offset of the line
+   */
+  public synchronized List<? extends Entity> findImplementations(
+      Path filePath, int line, int column) {
+    return implementationSolver.findImplementations(moduleManager, filePath, line, column);
+  }
+
+  /**
+   * Finds the class or interface at the given position for building its type hierarchy.
+   *
+   * @param filePath the path of the file
+   * @param line 0-based line number
+   * @param column 0-based character offset of the line
+   */
+  public synchronized Optional<ClassEntity> findTypeHierarchyClass(
+      Path filePath, int line, int column) {
+    return implementationSolver.findClassAtPosition(moduleManager, filePath, line, column);
+  }
+
+  /**
+   * Returns the direct super class and interfaces of the class with {@code qualifiedName} defined
+   * in {@code filePath}.
+   */
+  public synchronized List<ClassEntity> findDirectSupertypes(Path filePath, String qualifiedName) {
+    Optional<FileItem> fileItem = moduleManager.getFileItem(filePath);
+    Optional<ClassEntity> classEntity = findClassInFile(fileItem, qualifiedName);
+    if (!classEntity.isPresent()) {
+      return ImmutableList.of();
+    }
+    return implementationSolver.findDirectSupertypes(
+        classEntity.get(), fileItem.get().getModule());
+  }
+
+  /**
+   * Returns the classes directly extending or implementing the class with {@code qualifiedName}
+   * defined in {@code filePath}.
+   */
+  public synchronized List<ClassEntity> findDirectSubtypes(Path filePath, String qualifiedName) {
+    Optional<FileItem> fileItem = moduleManager.getFileItem(filePath);
+    Optional<ClassEntity> classEntity = findClassInFile(fileItem, qualifiedName);
+    if (!classEntity.isPresent()) {
+      return ImmutableList.of();
+    }
+    return implementationSolver.findDirectSubtypes(classEntity.get(), fileItem.get().getModule());
+  }
+
+  /**
+   * Finds classes, methods and fields in all modules whose names match {@code query}, reporting
+   * them to {@code collector} module by module.
+   *
+   * @param limit the maximum number of symbols to report
+   * @param fileFilter only symbols defined in files accepted by the filter are reported
+   */
+  public synchronized void findWorkspaceSymbols(
+      String query,
+      int limit,
+      Predicate<FileScope> fileFilter,
+      WorkspaceSymbolSolver.SymbolCollector collector) {
+    workspaceSymbolSolver.findSymbols(moduleManager, query, limit, fileFilter, collector);
+  }
+
+  private static Optional<ClassEntity> findClassInFile(
+      Optional<FileItem> fileItem, String qualifiedName) {
+    if (!fileItem.isPresent()) {
+      return Optional.empty();
+    }
+    Deque<ClassEntity> queue = new ArrayDeque<>();
+    for (Entity entity : fileItem.get().getFileScope().getMemberEntities().values()) {
+      if (entity instanceof ClassEntity) {
+        queue.addLast((ClassEntity) entity);
+      }
+    }
+    while (!queue.isEmpty()) {
+      ClassEntity classEntity = queue.removeFirst();
+      if (classEntity.getQualifiedName().equals(qualifiedName)) {
+        return Optional.of(classEntity);
+      }
+      queue.addAll(classEntity.getInnerClasses().values());
+    }
+    return Optional.empty();
   }
 
   private static boolean isJavaFile(Path filePath) {
@@ -150,6 +350,23 @@ public class Project {
     return filePath.toString().endsWith(JAVA_EXTENSION) && !Files.isDirectory(filePath);
   }
 
+  private static class SpeculativePosition {
+    private final Path filePath;
+    private final int line;
+    private final int column;
+
+    private SpeculativePosition(Path filePath, int line, int column) {
+      this.filePath = filePath;
+      this.line = line;
+      this.column = column;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s:%s:%s", filePath, line, column);
+    }
+  }
+
   private class ProjectFileChangeListener implements FileChangeListener {
     @Override
     public void onFileChange(Path filePath, WatchEvent.Kind<?> changeKind) {
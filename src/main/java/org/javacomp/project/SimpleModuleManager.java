@@ -63,6 +63,11 @@ public class SimpleModuleManager implements ModuleManager {
     module.addDependingModule(dependingModule);
   }
 
+  @Override
+  public Module getProjectModule() {
+    return module;
+  }
+
   public Module getModule() {
     return module;
   }
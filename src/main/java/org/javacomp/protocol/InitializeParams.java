@@ -56,6 +56,31 @@ public class InitializeParams implements RequestParams {
      */
     @Nullable public List<String> typeIndexFiles;
 
+    /**
+     * The latency budget of completion requests in milliseconds.
+     *
+     * <p>When the budget expires, candidates that are slow to look up, such as classes to be
+     * imported, are skipped and the result is marked as incomplete. If not set, completion requests
+     * always wait for all candidates.
+     */
+    @Nullable public Integer completionTimeoutMillis;
+
+    /**
+     * The maximum number of completion items returned for the client to filter locally.
+     *
+     * <p>If all completion candidates fit in this limit, they are all returned and the completion
+     * list is marked as complete, so that the client filters them while the user is typing without
+     * asking the server again. If not set, only the best candidates are returned and the client
+     * asks the server on each keystroke.
+     */
+    @Nullable public Integer clientFilteringMaxItems;
+
+    /**
+     * The maximum number of symbols returned for a "workspace/symbol" request. If not set, a
+     * default limit is used.
+     */
+    @Nullable public Integer workspaceSymbolMaxResults;
+
     @Override
     @Nullable
     public String getLogPath() {
@@ -101,6 +126,24 @@ public class InitializeParams implements RequestParams {
       }
       return ImmutableList.copyOf(typeIndexFiles);
     }
+
+    @Override
+    @Nullable
+    public Integer getCompletionTimeoutMillis() {
+      return completionTimeoutMillis;
+    }
+
+    @Override
+    @Nullable
+    public Integer getClientFilteringMaxItems() {
+      return clientFilteringMaxItems;
+    }
+
+    @Override
+    @Nullable
+    public Integer getWorkspaceSymbolMaxResults() {
+      return workspaceSymbolMaxResults;
+    }
   }
 
   /** Java log levels. */
@@ -30,6 +30,12 @@ public class InitializeResult {
     @Nullable public List<String> triggerCharacters;
   }
 
+  /** Find references options. */
+  public static class ReferenceOptions {
+    /** The server reports the progress of finding references. */
+    @Nullable public boolean workDoneProgress;
+  }
+
   /** Code Lens options. */
   public static class CodeLensOptions {
     /** Code lens has a resolve provider as well. */
@@ -102,7 +108,11 @@ public class InitializeResult {
     /** The server provides goto definition support. */
     @Nullable public boolean definitionProvider;
     /** The server provides find references support. */
-    @Nullable public boolean referencesProvider;
+    @Nullable public ReferenceOptions referencesProvider;
+    /** The server provides goto implementation support. */
+    @Nullable public boolean implementationProvider;
+    /** The server provides type hierarchy support. */
+    @Nullable public boolean typeHierarchyProvider;
     /** The server provides document highlight support. */
     @Nullable public boolean documentHighlightProvider;
     /** The server provides document symbol support. */
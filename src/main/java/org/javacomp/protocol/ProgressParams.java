@@ -0,0 +1,25 @@
+package org.javacomp.protocol;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * The parameters of "$/progress" notifications, reporting work done progress or partial results
+ * of a request.
+ *
+ * <p>See: https://microsoft.github.io/language-server-protocol/specification#progress
+ */
+public class ProgressParams {
+  /** The progress token provided by the client in the request. */
+  public JsonPrimitive token;
+
+  /**
+   * The progress data. A {@link WorkDoneProgress} for work done progress, or the same type as the
+   * result of the request for partial results.
+   */
+  public Object value;
+
+  public ProgressParams(JsonPrimitive token, Object value) {
+    this.token = token;
+    this.value = value;
+  }
+}
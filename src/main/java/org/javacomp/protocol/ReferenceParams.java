@@ -1,5 +1,8 @@
 package org.javacomp.protocol;
 
+import com.google.gson.JsonPrimitive;
+import javax.annotation.Nullable;
+
 /**
  * A parameter literal used in requests to resolve project-wide references for the symbol denoted by
  * the given text document position.
@@ -11,6 +14,12 @@ public class ReferenceParams extends TextDocumentPositionParams {
 
   public ReferenceContext context;
 
+  /** The token for reporting the progress of finding references with "$/progress". */
+  @Nullable public JsonPrimitive workDoneToken;
+
+  /** The token for streaming references found so far with "$/progress". */
+  @Nullable public JsonPrimitive partialResultToken;
+
   public static class ReferenceContext {
     /** Include the declaration of the current symbol. */
     public boolean includeDeclaration;
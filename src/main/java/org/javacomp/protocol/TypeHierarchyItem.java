@@ -0,0 +1,36 @@
+package org.javacomp.protocol;
+
+import java.net.URI;
+import javax.annotation.Nullable;
+
+/**
+ * Represents a class or interface in a type hierarchy.
+ *
+ * <p>See:
+ * https://microsoft.github.io/language-server-protocol/specification#typeHierarchyItem
+ */
+public class TypeHierarchyItem {
+  /** The simple name of the class. */
+  public String name;
+
+  /** The kind of the class. */
+  public SymbolKind kind;
+
+  /** The qualified name of the class. */
+  @Nullable public String detail;
+
+  /** The URI of the file that defines the class. */
+  public URI uri;
+
+  /** The range enclosing the class definition. */
+  public Range range;
+
+  /** The range of the class name. Must be contained by {@link #range}. */
+  public Range selectionRange;
+
+  /**
+   * Data preserved between a type hierarchy prepare request and supertypes or subtypes requests.
+   * JavaComp stores the qualified name of the class.
+   */
+  @Nullable public String data;
+}
@@ -0,0 +1,12 @@
+package org.javacomp.protocol;
+
+/**
+ * The parameters of "typeHierarchy/supertypes" and "typeHierarchy/subtypes" requests.
+ *
+ * <p>See:
+ * https://microsoft.github.io/language-server-protocol/specification#typeHierarchy_supertypes
+ */
+public class TypeHierarchyParams implements RequestParams {
+  /** The item returned by a "textDocument/prepareTypeHierarchy" request. */
+  public TypeHierarchyItem item;
+}
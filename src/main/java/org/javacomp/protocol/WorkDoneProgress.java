@@ -0,0 +1,57 @@
+package org.javacomp.protocol;
+
+import javax.annotation.Nullable;
+import org.javacomp.server.GsonEnum;
+
+/**
+ * The value of "$/progress" notifications reporting the progress of a long running request.
+ *
+ * <p>See: https://microsoft.github.io/language-server-protocol/specification#workDoneProgress
+ */
+public class WorkDoneProgress {
+  public Kind kind;
+
+  /** The title of the progress. Only set when {@link #kind} is {@link Kind#BEGIN}. */
+  @Nullable public String title;
+
+  /** Whether the client should show a button for cancelling the request. */
+  @Nullable public Boolean cancellable;
+
+  /** More details about the progress, e.g. the number of searched files. */
+  @Nullable public String message;
+
+  /** The percentage of the finished work, from 0 to 100. */
+  @Nullable public Integer percentage;
+
+  public static WorkDoneProgress begin(String title, boolean cancellable) {
+    WorkDoneProgress progress = new WorkDoneProgress(Kind.BEGIN);
+    progress.title = title;
+    progress.cancellable = cancellable;
+    progress.percentage = 0;
+    return progress;
+  }
+
+  public static WorkDoneProgress report(String message, int percentage) {
+    WorkDoneProgress progress = new WorkDoneProgress(Kind.REPORT);
+    progress.message = message;
+    progress.percentage = percentage;
+    return progress;
+  }
+
+  public static WorkDoneProgress end(@Nullable String message) {
+    WorkDoneProgress progress = new WorkDoneProgress(Kind.END);
+    progress.message = message;
+    return progress;
+  }
+
+  private WorkDoneProgress(Kind kind) {
+    this.kind = kind;
+  }
+
+  @GsonEnum(GsonEnum.SerializeType.LOWERCASE_NAME)
+  public enum Kind {
+    BEGIN,
+    REPORT,
+    END,
+  }
+}
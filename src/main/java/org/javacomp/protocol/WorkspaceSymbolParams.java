@@ -0,0 +1,20 @@
+package org.javacomp.protocol;
+
+import com.google.gson.JsonPrimitive;
+import javax.annotation.Nullable;
+
+/**
+ * The parameters of a "workspace/symbol" request.
+ *
+ * <p>See: https://microsoft.github.io/language-server-protocol/specification#workspace_symbol
+ */
+public class WorkspaceSymbolParams implements RequestParams {
+  /** A query string to filter symbols by. An empty string matches all symbols. */
+  public String query;
+
+  /** The token for reporting the progress of the search with "$/progress". */
+  @Nullable public JsonPrimitive workDoneToken;
+
+  /** The token for streaming symbols found so far with "$/progress". */
+  @Nullable public JsonPrimitive partialResultToken;
+}
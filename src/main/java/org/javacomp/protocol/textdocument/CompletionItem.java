@@ -143,6 +143,14 @@ public class CompletionItem implements RequestParams {
      * and latency.
      */
     FORMAT_JAVADOC,
+    /**
+     * Fill the detail, documentation and additionalTextEdits of a completion candidate kept by the
+     * server.
+     *
+     * <p>Completion responses only carry the ids of the candidates, so that the details are only
+     * computed for the items the client shows.
+     */
+    RESOLVE_CANDIDATE,
   }
 
   /** Marker interface for the actual type of {@link ResolveData#data}. */
@@ -156,6 +164,19 @@ public class CompletionItem implements RequestParams {
     public String classFullName;
   }
 
+  /** Resolve data for RESOLVE_CANDIDATE action. */
+  public static class ResolveCandidateParams implements ResolveActionParams {
+    /** The id of the completion result kept by the server. */
+    public long resultId;
+    /** The index of the candidate in the completion result. */
+    public int index;
+
+    public ResolveCandidateParams(long resultId, int index) {
+      this.resultId = resultId;
+      this.index = index;
+    }
+  }
+
   /** Resolve data for FORMAT_JAVADOC action. */
   public static class ResolveFormatJavadocParams implements ResolveActionParams {
     /** The javadoc to be converted. */
@@ -0,0 +1,267 @@
+package org.javacomp.reference;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.Entity;
+import org.javacomp.model.EntityScope;
+import org.javacomp.model.MethodEntity;
+import org.javacomp.model.Module;
+import org.javacomp.model.SolvedArrayType;
+import org.javacomp.model.SolvedEntityType;
+import org.javacomp.model.SolvedType;
+import org.javacomp.model.TypeParameter;
+import org.javacomp.model.TypeReference;
+import org.javacomp.model.VariableEntity;
+import org.javacomp.project.ModuleManager;
+import org.javacomp.project.PositionContext;
+import org.javacomp.typesolver.TypeSolver;
+
+/** Finds subtypes and supertypes of classes, and implementations of methods. */
+public class ImplementationSolver {
+  private final TypeSolver typeSolver;
+  private final DefinitionSolver definitionSolver;
+
+  public ImplementationSolver() {
+    this.typeSolver = new TypeSolver();
+    this.definitionSolver = new DefinitionSolver();
+  }
+
+  /**
+   * Finds the implementations of the class or method at a given position.
+   *
+   * <p>For a class or interface, returns all classes that directly or indirectly extend or
+   * implement it. For a method, returns the methods overriding it in those classes.
+   *
+   * @param filePath normalized path of the file
+   * @param line 0-based line number
+   * @param column 0-based character offset from the beginning of the line
+   */
+  public List<? extends Entity> findImplementations(
+      ModuleManager moduleManager, Path filePath, int line, int column) {
+    Optional<PositionContext> positionContext =
+        PositionContext.createForPosition(moduleManager, filePath, line, column);
+    if (!positionContext.isPresent()) {
+      return ImmutableList.of();
+    }
+    Module module = positionContext.get().getModule();
+    Optional<Entity> entity = findEntityAtPosition(positionContext.get());
+    if (!entity.isPresent()) {
+      return ImmutableList.of();
+    }
+
+    if (entity.get() instanceof ClassEntity) {
+      return findAllSubtypes((ClassEntity) entity.get(), module);
+    }
+    if (entity.get() instanceof MethodEntity) {
+      MethodEntity method = (MethodEntity) entity.get();
+      if (method.isConstructor() || method.isStatic()) {
+        return ImmutableList.of();
+      }
+      return findOverridingMethods(method, module);
+    }
+    return ImmutableList.of();
+  }
+
+  /**
+   * Returns methods defined in the subtypes of the class of {@code method} that override it.
+   *
+   * <p>The parameter types of the methods are solved and compared by their erasures. A parameter
+   * whose type is a type variable of {@code method} or its classes may be substituted by any
+   * reference type in the subtypes, so it matches any non-primitive type.
+   */
+  public List<MethodEntity> findOverridingMethods(MethodEntity method, Module module) {
+    ImmutableList.Builder<MethodEntity> builder = new ImmutableList.Builder<>();
+    for (ClassEntity subtype : findAllSubtypes(method.getParentClass(), module)) {
+      for (MethodEntity overriding : subtype.getMethodsWithName(method.getSimpleName())) {
+        if (!overriding.isStatic() && hasOverridingParameters(overriding, method, module)) {
+          builder.add(overriding);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private boolean hasOverridingParameters(
+      MethodEntity overriding, MethodEntity method, Module module) {
+    List<VariableEntity> parameters = method.getParameters();
+    List<VariableEntity> overridingParameters = overriding.getParameters();
+    if (parameters.size() != overridingParameters.size()) {
+      return false;
+    }
+    for (int i = 0; i < parameters.size(); i++) {
+      TypeReference type = parameters.get(i).getType();
+      TypeReference overridingType = overridingParameters.get(i).getType();
+      if (type.isArray() != overridingType.isArray()) {
+        return false;
+      }
+      if (isTypeVariable(type, method)) {
+        if (overridingType.isPrimitive() && !overridingType.isArray()) {
+          return false;
+        }
+        continue;
+      }
+      Optional<Entity> erasure = solveErasure(type, method, module);
+      Optional<Entity> overridingErasure = solveErasure(overridingType, overriding, module);
+      if (erasure.isPresent() && overridingErasure.isPresent()) {
+        if (erasure.get() != overridingErasure.get()) {
+          return false;
+        }
+      } else if (!type.getSimpleName().equals(overridingType.getSimpleName())) {
+        // Types that cannot be solved are compared by their simple names.
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the class or primitive type of {@code type} without type arguments and array. */
+  private Optional<Entity> solveErasure(TypeReference type, MethodEntity method, Module module) {
+    Optional<SolvedType> solvedType = typeSolver.solve(type, method, module);
+    if (solvedType.isPresent() && solvedType.get() instanceof SolvedArrayType) {
+      solvedType = Optional.of(((SolvedArrayType) solvedType.get()).getBaseType());
+    }
+    return solvedType
+        .filter(t -> t instanceof SolvedEntityType)
+        .map(t -> ((SolvedEntityType) t).getEntity());
+  }
+
+  /**
+   * Returns whether {@code type} is a type variable declared by {@code method} or the classes
+   * enclosing it.
+   */
+  private static boolean isTypeVariable(TypeReference type, MethodEntity method) {
+    if (type.getFullName().size() != 1) {
+      return false;
+    }
+    String name = type.getSimpleName();
+    if (hasTypeParameter(method.getTypeParameters(), name)) {
+      return true;
+    }
+    for (Optional<EntityScope> scope = method.getParentScope();
+        scope.isPresent();
+        scope = scope.get().getParentScope()) {
+      if (scope.get() instanceof ClassEntity) {
+        ClassEntity classEntity = (ClassEntity) scope.get();
+        if (hasTypeParameter(classEntity.getTypeParameters(), name)) {
+          return true;
+        }
+        if (classEntity.isStatic()) {
+          // Type variables of outer classes are not visible in static classes.
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasTypeParameter(List<TypeParameter> typeParameters, String name) {
+    for (TypeParameter typeParameter : typeParameters) {
+      if (typeParameter.getName().equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the class or interface at a given position.
+   *
+   * @param filePath normalized path of the file
+   * @param line 0-based line number
+   * @param column 0-based character offset from the beginning of the line
+   */
+  public Optional<ClassEntity> findClassAtPosition(
+      ModuleManager moduleManager, Path filePath, int line, int column) {
+    Optional<PositionContext> positionContext =
+        PositionContext.createForPosition(moduleManager, filePath, line, column);
+    if (!positionContext.isPresent()) {
+      return Optional.empty();
+    }
+    return findEntityAtPosition(positionContext.get())
+        .filter(entity -> entity instanceof ClassEntity)
+        .map(entity -> (ClassEntity) entity);
+  }
+
+  /** Returns the resolved direct super class and interfaces of {@code classEntity}. */
+  public List<ClassEntity> findDirectSupertypes(ClassEntity classEntity, Module module) {
+    return typeSolver.getDirectSupertypes(classEntity, module);
+  }
+
+  /**
+   * Returns classes that directly extend or implement {@code classEntity}, defined in {@code
+   * module} or its depending modules.
+   *
+   * <p>Only the classes whose super class or interface names match the simple name of {@code
+   * classEntity} are resolved, so the time is proportional to the number of the returned classes.
+   */
+  public List<ClassEntity> findDirectSubtypes(ClassEntity classEntity, Module module) {
+    ImmutableList.Builder<ClassEntity> builder = new ImmutableList.Builder<>();
+    for (Module searchModule : getAllModules(module)) {
+      for (ClassEntity candidate : searchModule.getSubtypeCandidates(classEntity.getSimpleName())) {
+        if (typeSolver.getDirectSupertypes(candidate, module).contains(classEntity)) {
+          builder.add(candidate);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns classes that directly or indirectly extend or implement {@code classEntity}, in
+   * breadth-first order.
+   */
+  public List<ClassEntity> findAllSubtypes(ClassEntity classEntity, Module module) {
+    Set<ClassEntity> subtypes = new LinkedHashSet<>();
+    Deque<ClassEntity> queue = new ArrayDeque<>();
+    queue.add(classEntity);
+    while (!queue.isEmpty()) {
+      for (ClassEntity subtype : findDirectSubtypes(queue.removeFirst(), module)) {
+        if (subtype != classEntity && subtypes.add(subtype)) {
+          queue.addLast(subtype);
+        }
+      }
+    }
+    return ImmutableList.copyOf(subtypes);
+  }
+
+  private Optional<Entity> findEntityAtPosition(PositionContext positionContext) {
+    // The position may be at the name of a class or method declaration.
+    Optional<Entity> entity = positionContext.getScopeAtPosition().getDefiningEntity();
+    int position = positionContext.getPosition();
+    if (entity.isPresent()
+        && entity.get().getSymbolStart() <= position
+        && position <= entity.get().getSymbolEnd()) {
+      return entity;
+    }
+
+    List<? extends Entity> definitions =
+        definitionSolver.getDefinitionEntities(positionContext.getModule(), positionContext);
+    if (definitions.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(definitions.get(0));
+  }
+
+  private static List<Module> getAllModules(Module module) {
+    ImmutableList.Builder<Module> builder = new ImmutableList.Builder<>();
+    Set<Module> visitedModules = new HashSet<>();
+    Deque<Module> queue = new ArrayDeque<>();
+    queue.add(module);
+    while (!queue.isEmpty()) {
+      Module current = queue.removeFirst();
+      if (visitedModules.add(current)) {
+        builder.add(current);
+        queue.addAll(current.getDependingModules());
+      }
+    }
+    return builder.build();
+  }
+}
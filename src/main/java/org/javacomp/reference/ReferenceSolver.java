@@ -4,76 +4,161 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Range;
 import com.sun.source.tree.LineMap;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.javacomp.file.FileManager;
 import org.javacomp.logging.JLogger;
 import org.javacomp.model.ClassEntity;
 import org.javacomp.model.Entity;
 import org.javacomp.model.EntityScope;
 import org.javacomp.model.FileScope;
+import org.javacomp.model.IdentifierOccurrences;
 import org.javacomp.model.MethodEntity;
 import org.javacomp.model.Module;
 import org.javacomp.parser.AdjustedLineMap;
 import org.javacomp.project.ModuleManager;
 import org.javacomp.project.PositionContext;
 
-/** Finds references of a symbol. */
+/**
+ * Finds references of a symbol.
+ *
+ * <p>Each textual match of the symbol name is verified by solving its definition. Matches in
+ * different files are verified in parallel. Files must not be changed while finding references.
+ *
+ * <p>Scopes are searched in batches, from the file of the position, the files in the same package,
+ * to the other files. References found in each batch are reported to a {@link ReferenceCollector}
+ * before searching the next batch.
+ */
 public class ReferenceSolver {
   private static final JLogger logger = JLogger.createForEnclosingClass();
 
-  private static final int MAX_SCOPES_TO_SEARCH = 500;
+  /** The maximum number of scopes searched in parallel before reporting the references found. */
+  private static final int MAX_SCOPES_IN_BATCH = 64;
+
+  /** Receives references found by {@link ReferenceSolver} batch by batch. */
+  public interface ReferenceCollector {
+    /**
+     * Called in the thread finding references after searching a batch of scopes. Called at least
+     * once unless the search is cancelled.
+     *
+     * @param references the references found in the batch
+     * @param numSearchedScopes the number of scopes searched so far, including the batch
+     * @param numScopes the total number of scopes to search
+     */
+    void collect(
+        Multimap<FileScope, Range<Integer>> references, int numSearchedScopes, int numScopes);
+
+    /**
+     * Returns whether finding references should stop without searching the remaining scopes. Can
+     * be called from multiple threads.
+     */
+    boolean isCancelled();
+  }
 
   private final FileManager fileManager;
   private final DefinitionSolver definitionSolver;
+  private final ForkJoinPool forkJoinPool;
 
   public ReferenceSolver(FileManager fileManager) {
+    this(fileManager, ForkJoinPool.commonPool());
+  }
+
+  /** @param forkJoinPool the pool for verifying matches in different files in parallel */
+  public ReferenceSolver(FileManager fileManager, ForkJoinPool forkJoinPool) {
     this.fileManager = fileManager;
     this.definitionSolver = new DefinitionSolver();
+    this.forkJoinPool = forkJoinPool;
   }
 
   public Multimap<FileScope, Range<Integer>> findReferences(
       ModuleManager moduleManager, Path filePath, int line, int column) {
+    ImmutableMultimap.Builder<FileScope, Range<Integer>> builder =
+        new ImmutableMultimap.Builder<>();
+    findReferences(
+        moduleManager,
+        filePath,
+        line,
+        column,
+        new ReferenceCollector() {
+          @Override
+          public void collect(
+              Multimap<FileScope, Range<Integer>> references,
+              int numSearchedScopes,
+              int numScopes) {
+            builder.putAll(references);
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return false;
+          }
+        });
+    return builder.build();
+  }
+
+  /**
+   * Finds references of the symbol at the given position, and reports them to {@code collector}
+   * batch by batch.
+   */
+  public void findReferences(
+      ModuleManager moduleManager,
+      Path filePath,
+      int line,
+      int column,
+      ReferenceCollector collector) {
     Optional<PositionContext> positionContext =
         PositionContext.createForPosition(moduleManager, filePath, line, column);
     if (!positionContext.isPresent()) {
-      return ImmutableMultimap.of();
+      collector.collect(ImmutableMultimap.of(), 0, 0);
+      return;
     }
     Optional<Entity> entity = findEntityWithNameAtPosition(positionContext.get());
     if (!entity.isPresent()) {
       // Not at any definition of entity. Try to get definition of the symbol at point.
       List<? extends Entity> definitions =
-          new DefinitionSolver()
-              .getDefinitionEntities(positionContext.get().getModule(), positionContext.get());
+          definitionSolver.getDefinitionEntities(
+              positionContext.get().getModule(), positionContext.get());
       if (!definitions.isEmpty()) {
         entity = Optional.of(definitions.get(0));
       }
     }
     if (!entity.isPresent()) {
-      return ImmutableMultimap.of();
+      collector.collect(ImmutableMultimap.of(), 0, 0);
+      return;
     }
-    return findReferencesForEntity(
-        positionContext.get().getModule(), entity.get(), positionContext.get());
+    findReferencesForEntity(
+        positionContext.get().getModule(), entity.get(), positionContext.get(), collector);
   }
 
   /** Finds the {@link Entity} whose name is defined a given position. */
   private Optional<Entity> findEntityWithNameAtPosition(PositionContext positionContext) {
     EntityScope scope = positionContext.getScopeAtPosition();
     Optional<Entity> entity = scope.getDefiningEntity();
+    int position = positionContext.getPosition();
     if (entity.isPresent()
-        && entity.get().getSymbolRange().contains(positionContext.getPosition())) {
+        && entity.get().getSymbolStart() <= position
+        && position <= entity.get().getSymbolEnd()) {
       return entity;
     }
     return Optional.empty();
   }
 
-  private Multimap<FileScope, Range<Integer>> findReferencesForEntity(
-      Module module, Entity entity, PositionContext positionContext) {
+  private void findReferencesForEntity(
+      Module module, Entity entity, PositionContext positionContext, ReferenceCollector collector) {
+    // Constructors are reported in the first batch.
     ImmutableMultimap.Builder<FileScope, Range<Integer>> builder =
         new ImmutableMultimap.Builder<>();
     if (entity instanceof ClassEntity) {
@@ -82,10 +167,89 @@ public class ReferenceSolver {
 
     // Try to limit the search of reference in a private scope.
     List<? extends EntityScope> searchScopes = findSearchScopes(module, entity, positionContext);
+    int numScopes = searchScopes.size();
+    if (numScopes <= 1) {
+      for (EntityScope searchScope : searchScopes) {
+        findReferencesInScope(builder, module, entity, searchScope, positionContext);
+      }
+      collector.collect(builder.build(), numScopes, numScopes);
+      return;
+    }
+
+    int numSearchedScopes = 0;
+    for (List<EntityScope> batch : createSearchBatches(searchScopes, positionContext)) {
+      if (collector.isCancelled()) {
+        return;
+      }
+      builder.putAll(findReferencesInScopes(module, entity, batch, positionContext, collector));
+      numSearchedScopes += batch.size();
+      collector.collect(builder.build(), numSearchedScopes, numScopes);
+      builder = new ImmutableMultimap.Builder<>();
+    }
+  }
+
+  /**
+   * Splits {@code searchScopes} into batches. The first batch has the scopes in the file of the
+   * position, followed by the batches of scopes in the same package, and the batches of other
+   * scopes. The order of scopes is kept in each batch.
+   */
+  private static List<List<EntityScope>> createSearchBatches(
+      List<? extends EntityScope> searchScopes, PositionContext positionContext) {
+    FileScope currentFile = positionContext.getFileScope();
+    List<String> packageQualifiers = currentFile.getPackageQualifiers();
+    List<EntityScope> currentFileScopes = new ArrayList<>();
+    List<EntityScope> packageScopes = new ArrayList<>();
+    List<EntityScope> otherScopes = new ArrayList<>();
     for (EntityScope searchScope : searchScopes) {
-      findReferencesInScope(builder, module, entity, searchScope, positionContext);
+      FileScope fileScope = getDefiningFileScope(searchScope);
+      if (fileScope == currentFile) {
+        currentFileScopes.add(searchScope);
+      } else if (fileScope.getPackageQualifiers().equals(packageQualifiers)) {
+        packageScopes.add(searchScope);
+      } else {
+        otherScopes.add(searchScope);
+      }
     }
 
+    List<List<EntityScope>> batches = new ArrayList<>();
+    if (!currentFileScopes.isEmpty()) {
+      batches.add(currentFileScopes);
+    }
+    batches.addAll(Lists.partition(packageScopes, MAX_SCOPES_IN_BATCH));
+    batches.addAll(Lists.partition(otherScopes, MAX_SCOPES_IN_BATCH));
+    return batches;
+  }
+
+  /**
+   * Searches {@code scopes} in parallel. Solving definitions of matches in one scope doesn't depend
+   * on other scopes. The results are merged in the order of the scopes.
+   */
+  private ImmutableMultimap<FileScope, Range<Integer>> findReferencesInScopes(
+      Module module,
+      Entity entity,
+      List<EntityScope> scopes,
+      PositionContext positionContext,
+      ReferenceCollector collector) {
+    List<ForkJoinTask<ImmutableMultimap<FileScope, Range<Integer>>>> tasks =
+        new ArrayList<>(scopes.size());
+    for (EntityScope searchScope : scopes) {
+      tasks.add(
+          forkJoinPool.submit(
+              () -> {
+                ImmutableMultimap.Builder<FileScope, Range<Integer>> scopeBuilder =
+                    new ImmutableMultimap.Builder<>();
+                // Skip the scopes not started yet when cancelled.
+                if (!collector.isCancelled()) {
+                  findReferencesInScope(scopeBuilder, module, entity, searchScope, positionContext);
+                }
+                return scopeBuilder.build();
+              }));
+    }
+    ImmutableMultimap.Builder<FileScope, Range<Integer>> builder =
+        new ImmutableMultimap.Builder<>();
+    for (ForkJoinTask<ImmutableMultimap<FileScope, Range<Integer>>> task : tasks) {
+      builder.putAll(task.join());
+    }
     return builder.build();
   }
 
@@ -95,16 +259,107 @@ public class ReferenceSolver {
     checkState(definitionScope.isPresent(), "Entity %s does not have definition scope", entity);
     if (definitionScope.get() instanceof FileScope) {
       // Top level class.
-      // TODO: limit search based on access level.
-      return module.getAllFiles();
+      return findAccessibleFiles(module, entity);
     } else if (!definitionScope.get().getDefiningEntity().isPresent()
         || !(definitionScope.get().getDefiningEntity().get() instanceof ClassEntity)) {
       // Not a direct member of a class. A local variable.
       return ImmutableList.of(definitionScope.get());
     } else {
-      // TODO: limit search based on access level.
-      return module.getAllFiles();
+      return findAccessibleFiles(module, entity);
+    }
+  }
+
+  /**
+   * Returns the files that may reference {@code entity}, a class or a class member, according to
+   * the access levels of the entity and its enclosing classes.
+   */
+  private List<FileScope> findAccessibleFiles(Module module, Entity entity) {
+    FileScope definingFile = getDefiningFileScope(entity);
+    Entity.AccessLevel accessLevel = getEffectiveAccessLevel(entity);
+    if (accessLevel == Entity.AccessLevel.PRIVATE) {
+      // Private entities can only be accessed in their top level classes.
+      return ImmutableList.of(definingFile);
+    }
+
+    List<FileScope> files = module.getFilesWithIdentifier(entity.getSimpleName());
+    if (accessLevel == Entity.AccessLevel.PUBLIC) {
+      return files;
+    }
+
+    // Any file declaring a subclass, including anonymous classes, has the name of its super class.
+    Set<FileScope> subclassFiles = new HashSet<>();
+    if (accessLevel == Entity.AccessLevel.PROTECTED) {
+      for (String className : findSubclassNames(module, entity)) {
+        subclassFiles.addAll(module.getFilesWithIdentifier(className));
+      }
+    }
+    List<String> packageQualifiers = definingFile.getPackageQualifiers();
+    ImmutableList.Builder<FileScope> builder = new ImmutableList.Builder<>();
+    for (FileScope fileScope : files) {
+      if (fileScope.getPackageQualifiers().equals(packageQualifiers)
+          || subclassFiles.contains(fileScope)) {
+        builder.add(fileScope);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the access level of {@code entity} restricted by its enclosing classes. Entities of
+   * private, local, and anonymous classes can only be accessed in their files, so they are
+   * considered private.
+   *
+   * <p>Members of package private classes can be inherited by public subclasses and accessed
+   * through them in other packages, so package private enclosing classes only restrict the access
+   * level to protected. Files of the subclasses and the files referencing them are searched then.
+   */
+  private static Entity.AccessLevel getEffectiveAccessLevel(Entity entity) {
+    Entity.AccessLevel accessLevel = entity.getAccessLevel();
+    EntityScope scope = entity.getParentScope().get();
+    while (!(scope instanceof FileScope)) {
+      if (!(scope instanceof ClassEntity)) {
+        return Entity.AccessLevel.PRIVATE;
+      }
+      ClassEntity classEntity = (ClassEntity) scope;
+      switch (classEntity.getAccessLevel()) {
+        case PRIVATE:
+          return Entity.AccessLevel.PRIVATE;
+        case PACKAGE_PRIVATE:
+        case PROTECTED:
+          accessLevel = accessLevel.restrict(Entity.AccessLevel.PROTECTED);
+          break;
+        default:
+          // Public classes don't restrict their members.
+      }
+      scope = classEntity.getParentScope().get();
+    }
+    return accessLevel;
+  }
+
+  /**
+   * Returns the simple names of the classes enclosing {@code entity} and the classes that may
+   * extend them directly or indirectly. Super classes are not resolved, so classes extending other
+   * classes with the same simple names are included.
+   */
+  private static Set<String> findSubclassNames(Module module, Entity entity) {
+    Set<String> classNames = new HashSet<>();
+    Deque<String> queue = new ArrayDeque<>();
+    EntityScope scope = entity.getParentScope().get();
+    while (scope instanceof ClassEntity) {
+      ClassEntity classEntity = (ClassEntity) scope;
+      queue.addLast(classEntity.getSimpleName());
+      scope = classEntity.getParentScope().get();
+    }
+    while (!queue.isEmpty()) {
+      String className = queue.removeFirst();
+      if (!classNames.add(className)) {
+        continue;
+      }
+      for (ClassEntity subclass : module.getSubtypeCandidates(className)) {
+        queue.addLast(subclass.getSimpleName());
+      }
     }
+    return classNames;
   }
 
   private void findClassConstructors(
@@ -126,17 +381,61 @@ public class ReferenceSolver {
       return;
     }
     FileScope fileScope = getDefiningFileScope(entityScope);
+    Range<Integer> definitionRange = entityScope.getDefinitionRange();
+    logger.fine(
+        "Finding entity %s in scope %s %s of file %s",
+        entityName, entityScope, definitionRange, fileScope.getFilename());
+    Optional<IdentifierOccurrences> occurrences = fileScope.getIdentifierOccurrences();
+    if (occurrences.isPresent()) {
+      findReferencesInOccurrences(
+          builder, module, entity, fileScope, definitionRange, occurrences.get());
+    } else {
+      findReferencesInFileContent(builder, module, entity, fileScope, definitionRange);
+    }
+  }
+
+  /** Checks the occurrences of the entity name collected when parsing the file. */
+  private void findReferencesInOccurrences(
+      ImmutableMultimap.Builder<FileScope, Range<Integer>> builder,
+      Module module,
+      Entity entity,
+      FileScope fileScope,
+      Range<Integer> definitionRange,
+      IdentifierOccurrences occurrences) {
+    String entityName = entity.getSimpleName();
+    // The positions of occurrences are in the same content as the positions of entities, so they
+    // don't need to be fixed.
+    for (int start : occurrences.getPositions(entityName)) {
+      if (start < definitionRange.lowerEndpoint()) {
+        continue;
+      }
+      if (start >= definitionRange.upperEndpoint()) {
+        break;
+      }
+      if (isSameEntity(entity, module, fileScope, start)) {
+        builder.put(fileScope, Range.closed(start, start + entityName.length()));
+      }
+    }
+  }
+
+  /** Searches the entity name in the file content for files without identifier occurrences. */
+  private void findReferencesInFileContent(
+      ImmutableMultimap.Builder<FileScope, Range<Integer>> builder,
+      Module module,
+      Entity entity,
+      FileScope fileScope,
+      Range<Integer> definitionRange) {
+    String entityName = entity.getSimpleName();
     Optional<CharSequence> fileContent =
         fileManager.getFileContent(Paths.get(fileScope.getFilename()));
-    if (!fileContent.isPresent()) {
+    Optional<LineMap> optionalLineMap = fileScope.getLineMap();
+    if (!fileContent.isPresent() || !optionalLineMap.isPresent()) {
       return;
     }
     String actualFileContent = fileContent.get().toString();
-    int start = entityScope.getDefinitionRange().lowerEndpoint();
-    int end = entityScope.getDefinitionRange().upperEndpoint();
-    logger.fine(
-        "Finding entity %s in scope %s [%s, %s] of file %s",
-        entityName, entityScope, start, end, fileScope.getFilename());
+    LineMap lineMap = optionalLineMap.get();
+    int start = definitionRange.lowerEndpoint();
+    int end = definitionRange.upperEndpoint();
     while (start < end) {
       start = actualFileContent.indexOf(entity.getSimpleName(), start);
       if (start < 0 || start >= end) {
@@ -146,11 +445,9 @@ public class ReferenceSolver {
       // the entity.
       //
       // TODO(chencaibin): Add semantic checks.
-      Range<Integer> referenceRange =
-          createRangeForUnfixedContent(fileScope, start, entityName.length());
       if (isExactEntityName(actualFileContent, start, start + entityName.length())
-          && isSameEntity(entity, module, fileScope, referenceRange.lowerEndpoint())) {
-        builder.put(fileScope, referenceRange);
+          && isSameEntity(entity, module, fileScope, getFixedPosition(lineMap, start))) {
+        builder.put(fileScope, createRangeForUnfixedContent(lineMap, start, entityName.length()));
       }
       start += entityName.length();
     }
@@ -188,12 +485,10 @@ public class ReferenceSolver {
   }
 
   private Range<Integer> createRangeForUnfixedContent(
-      FileScope fileScope, int unfixedStart, int length) {
-    Optional<LineMap> lineMap = fileScope.getLineMap();
-    checkState(lineMap.isPresent(), "No line map for file %s", fileScope.getFilename());
+      LineMap lineMap, int unfixedStart, int length) {
     int unfixedEnd = unfixedStart + length;
     return Range.closed(
-        getFixedPosition(lineMap.get(), unfixedStart), getFixedPosition(lineMap.get(), unfixedEnd));
+        getFixedPosition(lineMap, unfixedStart), getFixedPosition(lineMap, unfixedEnd));
   }
 
   private int getFixedPosition(LineMap lineMap, int unfixedPosition) {
@@ -0,0 +1,92 @@
+package org.javacomp.reference;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.javacomp.model.FileScope;
+import org.javacomp.model.Module;
+import org.javacomp.model.SymbolIndex;
+import org.javacomp.project.ModuleManager;
+
+/**
+ * Finds classes, methods and fields by name in all modules of a project.
+ *
+ * <p>Modules are searched one by one, from the project module to the modules it depends on,
+ * including JAR archives and type indexes. Symbols found in a module are sorted by how well they
+ * match the query, and reported to a {@link SymbolCollector} before searching the next module.
+ *
+ * @see SymbolIndex
+ */
+public class WorkspaceSymbolSolver {
+  /** Receives symbols found by {@link WorkspaceSymbolSolver} module by module. */
+  public interface SymbolCollector {
+    /** Called with the symbols found in a module, best matches first. */
+    void collect(List<SymbolIndex.Match> symbols);
+
+    /** Returns whether finding symbols should stop without searching the remaining modules. */
+    boolean isCancelled();
+  }
+
+  /**
+   * Returns the symbols whose names match {@code query}.
+   *
+   * @param limit the maximum number of symbols to return
+   * @param fileFilter only symbols defined in files accepted by the filter are returned
+   */
+  public ImmutableList<SymbolIndex.Match> findSymbols(
+      ModuleManager moduleManager, String query, int limit, Predicate<FileScope> fileFilter) {
+    ImmutableList.Builder<SymbolIndex.Match> builder = new ImmutableList.Builder<>();
+    findSymbols(
+        moduleManager,
+        query,
+        limit,
+        fileFilter,
+        new SymbolCollector() {
+          @Override
+          public void collect(List<SymbolIndex.Match> symbols) {
+            builder.addAll(symbols);
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return false;
+          }
+        });
+    return builder.build();
+  }
+
+  /**
+   * Finds the symbols whose names match {@code query}, and reports them to {@code collector}
+   * module by module.
+   *
+   * @param limit the maximum number of symbols to report in total
+   * @param fileFilter only symbols defined in files accepted by the filter are reported
+   */
+  public void findSymbols(
+      ModuleManager moduleManager,
+      String query,
+      int limit,
+      Predicate<FileScope> fileFilter,
+      SymbolCollector collector) {
+    int remaining = limit;
+    Set<Module> visitedModules = new HashSet<>();
+    Deque<Module> queue = new ArrayDeque<>();
+    queue.addLast(moduleManager.getProjectModule());
+    while (!queue.isEmpty() && remaining > 0 && !collector.isCancelled()) {
+      Module module = queue.removeFirst();
+      if (!visitedModules.add(module)) {
+        continue;
+      }
+      ImmutableList<SymbolIndex.Match> symbols = module.findSymbols(query, remaining, fileFilter);
+      if (!symbols.isEmpty()) {
+        collector.collect(symbols);
+        remaining -= symbols.size();
+      }
+      queue.addAll(module.getDependingModules());
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.javacomp.server;
+
+import com.google.gson.JsonPrimitive;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the IDs of requests cancelled by "$/cancelRequest" notifications, and the tokens of work
+ * done progresses cancelled by "window/workDoneProgress/cancel" notifications.
+ *
+ * <p>Cancellations are received by the thread reading requests while the requests are being handled
+ * in another thread, so all methods are thread-safe. Long running handlers poll {@link
+ * #isRequestCancelled} or {@link #isProgressCancelled} to stop early.
+ */
+public class CancelledRequests {
+  /**
+   * The maximum number of cancellations kept for each kind. Clients may cancel requests that have
+   * been handled, which are never removed explicitly.
+   */
+  private static final int MAX_CANCELLATIONS = 100;
+
+  private final Map<JsonPrimitive, Boolean> requestIds = createBoundedMap();
+  private final Map<JsonPrimitive, Boolean> progressTokens = createBoundedMap();
+
+  public synchronized void cancelRequest(JsonPrimitive requestId) {
+    requestIds.put(requestId, true);
+  }
+
+  public synchronized void cancelProgress(JsonPrimitive progressToken) {
+    progressTokens.put(progressToken, true);
+  }
+
+  public synchronized boolean isRequestCancelled(@Nullable JsonPrimitive requestId) {
+    return requestId != null && requestIds.containsKey(requestId);
+  }
+
+  public synchronized boolean isProgressCancelled(@Nullable JsonPrimitive progressToken) {
+    return progressToken != null && progressTokens.containsKey(progressToken);
+  }
+
+  /** Forgets the cancellation of a request after it's handled. */
+  public synchronized void finishRequest(@Nullable JsonPrimitive requestId) {
+    if (requestId != null) {
+      requestIds.remove(requestId);
+    }
+  }
+
+  /** Forgets the cancellation of a work done progress after it ends. */
+  public synchronized void finishProgress(@Nullable JsonPrimitive progressToken) {
+    if (progressToken != null) {
+      progressTokens.remove(progressToken);
+    }
+  }
+
+  private static Map<JsonPrimitive, Boolean> createBoundedMap() {
+    return new LinkedHashMap<JsonPrimitive, Boolean>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<JsonPrimitive, Boolean> eldest) {
+        return size() > MAX_CANCELLATIONS;
+      }
+    };
+  }
+}
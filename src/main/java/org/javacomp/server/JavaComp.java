@@ -13,7 +13,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -38,8 +40,14 @@ import org.javacomp.server.handler.textdocument.DidCloseHandler;
 import org.javacomp.server.handler.textdocument.DidOpenHandler;
 import org.javacomp.server.handler.textdocument.DocumentSymbolHandler;
 import org.javacomp.server.handler.textdocument.HoverHandler;
+import org.javacomp.server.handler.textdocument.ImplementationHandler;
+import org.javacomp.server.handler.textdocument.PrepareTypeHierarchyHandler;
+import org.javacomp.server.handler.textdocument.RecentCompletionResults;
 import org.javacomp.server.handler.textdocument.ReferencesHandler;
 import org.javacomp.server.handler.textdocument.ResolveCompletionItemHandler;
+import org.javacomp.server.handler.typehierarchy.SubtypesHandler;
+import org.javacomp.server.handler.typehierarchy.SupertypesHandler;
+import org.javacomp.server.handler.workspace.WorkspaceSymbolHandler;
 import org.javacomp.server.io.RequestReader;
 import org.javacomp.server.io.ResponseWriter;
 
@@ -62,6 +70,7 @@ public class JavaComp implements Server {
   private FileManager fileManager;
   private Project project;
   private ClientCapabilities clientCapabilities;
+  private JavaCompOptions options = new InitializeParams.InitializationOptions();
 
   public JavaComp(InputStream inputStream, OutputStream outputStream) {
     this.gson = GsonUtils.getGson();
@@ -70,11 +79,14 @@ public class JavaComp implements Server {
         new RequestParser(this.gson, new RequestReader(inputStream, REQUEST_BUFFER_SIZE));
     this.responseWriter = new ResponseWriter(this.gson, outputStream);
     this.executor = Executors.newFixedThreadPool(NUM_THREADS);
+    RecentCompletionResults recentCompletionResults = new RecentCompletionResults();
+    CancelledRequests cancelledRequests = new CancelledRequests();
     this.requestDispatcher =
         new RequestDispatcher.Builder()
             .setGson(gson)
             .setRequestParser(requestParser)
             .setResponseWriter(responseWriter)
+            .setCancelledRequests(cancelledRequests)
             // Server manipulation
             .registerHandler(new InitializeHandler(this))
             .registerHandler(new ShutdownHandler(this))
@@ -83,13 +95,20 @@ public class JavaComp implements Server {
             .registerHandler(new DidOpenHandler(this))
             .registerHandler(new DidChangeHandler(this))
             .registerHandler(new DidCloseHandler(this))
-            .registerHandler(new CompletionHandler(this, gson))
+            .registerHandler(new CompletionHandler(this, gson, recentCompletionResults))
             .registerHandler(new DefinitionHandler(this))
             .registerHandler(new SignatureHelpTextDocumentHandler(this))
             .registerHandler(new HoverHandler(this))
-            .registerHandler(new ResolveCompletionItemHandler(this, gson))
+            .registerHandler(new ResolveCompletionItemHandler(this, gson, recentCompletionResults))
             .registerHandler(new DocumentSymbolHandler(this))
-            .registerHandler(new ReferencesHandler(this))
+            .registerHandler(new ReferencesHandler(this, cancelledRequests))
+            .registerHandler(new ImplementationHandler(this))
+            .registerHandler(new PrepareTypeHierarchyHandler(this))
+            // Type hierarchy
+            .registerHandler(new SupertypesHandler(this))
+            .registerHandler(new SubtypesHandler(this))
+            // Workspace
+            .registerHandler(new WorkspaceSymbolHandler(this, cancelledRequests))
             // JavaComp custom handlers
             .registerHandler(new DocumentContentHandler(this))
             .setExecutor(executor)
@@ -125,8 +144,16 @@ public class JavaComp implements Server {
 
     logger.info("Initializing project: %s", projectRootUri);
     logger.info(
-        "Options:\n  logPath: %s\n  logLevel: %s\n" + "  ignorePaths: %s\n  typeIndexFiles: %s",
-        options.logPath, options.logLevel, options.ignorePaths, options.typeIndexFiles);
+        "Options:\n  logPath: %s\n  logLevel: %s\n"
+            + "  ignorePaths: %s\n  typeIndexFiles: %s\n  completionTimeoutMillis: %s\n"
+            + "  clientFilteringMaxItems: %s\n  workspaceSymbolMaxResults: %s",
+        options.logPath,
+        options.logLevel,
+        options.ignorePaths,
+        options.typeIndexFiles,
+        options.completionTimeoutMillis,
+        options.clientFilteringMaxItems,
+        options.workspaceSymbolMaxResults);
     if (options.logPath != null) {
       JLogger.setLogFile(options.logPath);
     }
@@ -140,6 +167,11 @@ public class JavaComp implements Server {
     }
     fileManager = new FileManagerImpl(projectRootUri, ignorePaths, executor);
     project = new Project(fileManager, projectRootUri, IndexOptions.FULL_INDEX_BUILDER.build());
+    if (options.getCompletionTimeoutMillis() != null) {
+      project.setCompletionTimeout(
+          Optional.of(Duration.ofMillis(options.getCompletionTimeoutMillis())));
+    }
+    this.options = options;
     if (clientCapabilities == null) {
       this.clientCapabilities = new ClientCapabilities();
     } else {
@@ -168,6 +200,21 @@ public class JavaComp implements Server {
     return clientCapabilities;
   }
 
+  @Override
+  public synchronized JavaCompOptions getOptions() {
+    return options;
+  }
+
+  @Override
+  public void sendNotification(String method, @Nullable Object params) {
+    // The response writer is thread-safe, so sending notifications doesn't hold the server lock.
+    try {
+      responseWriter.writeNotification(new Notification(method, params));
+    } catch (IOException e) {
+      logger.warning(e, "Failed to send notification %s", method);
+    }
+  }
+
   @Override
   public synchronized void shutdown() {
     checkState(initialized, "Shutting down the server without initializing it.");
@@ -235,6 +282,15 @@ public class JavaComp implements Server {
     if (from.getTypeIndexFiles() != null && !from.getTypeIndexFiles().isEmpty()) {
       to.typeIndexFiles = from.getTypeIndexFiles();
     }
+    if (from.getCompletionTimeoutMillis() != null) {
+      to.completionTimeoutMillis = from.getCompletionTimeoutMillis();
+    }
+    if (from.getClientFilteringMaxItems() != null) {
+      to.clientFilteringMaxItems = from.getClientFilteringMaxItems();
+    }
+    if (from.getWorkspaceSymbolMaxResults() != null) {
+      to.workspaceSymbolMaxResults = from.getWorkspaceSymbolMaxResults();
+    }
   }
 
   public static final void main(String[] args) {
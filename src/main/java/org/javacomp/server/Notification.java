@@ -0,0 +1,45 @@
+package org.javacomp.server;
+
+import com.google.common.base.MoreObjects;
+import javax.annotation.Nullable;
+
+/**
+ * A notification message sent from the server to the client, such as "$/progress".
+ *
+ * <p>See the Language Server Protocol spec:
+ * https://microsoft.github.io/language-server-protocol/specification#notificationMessage
+ */
+public class Notification {
+  private final String jsonrpc;
+  private final String method;
+  @Nullable private final Object params;
+
+  /**
+   * @param method the method of the notification
+   * @param params the parameters of the notification. If non-null, must be able to be converted to
+   *     JSON by Gson.
+   */
+  public Notification(String method, @Nullable Object params) {
+    this.jsonrpc = "2.0";
+    this.method = method;
+    this.params = params;
+  }
+
+  public String getJsonRpc() {
+    return jsonrpc;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  @Nullable
+  public Object getParams() {
+    return params;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("method", method).add("params", params).toString();
+  }
+}
@@ -22,28 +22,37 @@ import org.javacomp.server.io.StreamClosedException;
 /**
  * Logic for dispatching requests to registered {@link RequestHandler} instances based on method
  * name.
+ *
+ * <p>Requests are handled one by one in a separate thread. Cancellation notifications are handled
+ * when they are read, so that they can cancel the requests being handled or waiting in the queue.
  */
 public class RequestDispatcher {
   private static final JLogger logger = JLogger.createForEnclosingClass();
 
   private static final int MAX_REQUESTS_IN_QUEUE = 50;
+  private static final String METHOD_CANCEL_REQUEST = "$/cancelRequest";
+  private static final String METHOD_CANCEL_PROGRESS = "window/workDoneProgress/cancel";
 
   private final RequestParser requestParser;
   private final ExecutorService executor;
   private final BlockingQueue<RawRequest> requestQueue;
+  private final CancelledRequests cancelledRequests;
   private Future<?> dispatchFuture;
 
   private RequestDispatcher(Builder builder, ImmutableMap<String, RequestHandler> handlerRegistry) {
     this.requestParser = checkNotNull(builder.requestParser, "requestParser is not set");
     this.executor = checkNotNull(builder.executor, "executor is not set");
     this.requestQueue = new ArrayBlockingQueue<RawRequest>(MAX_REQUESTS_IN_QUEUE);
+    this.cancelledRequests =
+        builder.cancelledRequests != null ? builder.cancelledRequests : new CancelledRequests();
     this.dispatchFuture =
         executor.submit(
             new HandleRequestRunnable(
                 checkNotNull(builder.gson, "gson"),
                 checkNotNull(handlerRegistry, "handlerRegistry is not set"),
                 checkNotNull(builder.responseWriter, "responseWriter is not set"),
-                requestQueue));
+                requestQueue,
+                cancelledRequests));
   }
 
   /**
@@ -68,6 +77,10 @@ public class RequestDispatcher {
       return false;
     }
 
+    if (handleCancellation(rawRequest.getContent())) {
+      return true;
+    }
+
     while (!requestQueue.offer(rawRequest)) {
       RawRequest firstInQueue = requestQueue.poll();
       if (firstInQueue == null) {
@@ -83,21 +96,56 @@ public class RequestDispatcher {
     return true;
   }
 
+  /**
+   * Records the request or work done progress cancelled by a cancellation notification.
+   *
+   * @return whether {@code content} is a cancellation notification
+   */
+  private boolean handleCancellation(RawRequest.Content content) {
+    String method = content.getMethod();
+    String paramName;
+    if (METHOD_CANCEL_REQUEST.equals(method)) {
+      paramName = "id";
+    } else if (METHOD_CANCEL_PROGRESS.equals(method)) {
+      paramName = "token";
+    } else {
+      return false;
+    }
+
+    JsonElement params = content.getParams();
+    JsonElement value =
+        params != null && params.isJsonObject() ? params.getAsJsonObject().get(paramName) : null;
+    if (value == null || !value.isJsonPrimitive()) {
+      logger.warning("Invalid params of %s: %s", method, params);
+      return true;
+    }
+    logger.info("Cancelling %s %s", paramName, value);
+    if (METHOD_CANCEL_REQUEST.equals(method)) {
+      cancelledRequests.cancelRequest(value.getAsJsonPrimitive());
+    } else {
+      cancelledRequests.cancelProgress(value.getAsJsonPrimitive());
+    }
+    return true;
+  }
+
   private static class HandleRequestRunnable implements Runnable {
     private final Gson gson;
     private final ImmutableMap<String, RequestHandler> handlerRegistry;
     private final ResponseWriter responseWriter;
     private final BlockingQueue<RawRequest> requestQueue;
+    private final CancelledRequests cancelledRequests;
 
     private HandleRequestRunnable(
         Gson gson,
         ImmutableMap<String, RequestHandler> handlerRegistry,
         ResponseWriter responseWriter,
-        BlockingQueue<RawRequest> requestQueue) {
+        BlockingQueue<RawRequest> requestQueue,
+        CancelledRequests cancelledRequests) {
       this.gson = gson;
       this.handlerRegistry = handlerRegistry;
       this.responseWriter = responseWriter;
       this.requestQueue = requestQueue;
+      this.cancelledRequests = cancelledRequests;
     }
 
     @Override
@@ -120,13 +168,26 @@ public class RequestDispatcher {
           }
 
           try {
+            if (cancelledRequests.isRequestCancelled(requestId)) {
+              // Cancelled while waiting in the queue.
+              throw new RequestException(
+                  ErrorCode.REQUEST_CANCELLED,
+                  "Request %s is cancelled.",
+                  rawRequest.getContent().getMethod());
+            }
             result = dispatchRequestInternal(rawRequest, requestId);
           } catch (RequestException e) {
-            logger.severe(e, "Failed to process request.");
+            if (e.getErrorCode() == ErrorCode.REQUEST_CANCELLED) {
+              logger.info("%s", e.getMessage());
+            } else {
+              logger.severe(e, "Failed to process request.");
+            }
             error = new Response.ResponseError(e.getErrorCode(), e.getMessage());
           } catch (Throwable e) {
             logger.severe(e, "Failed to process request.");
             error = new Response.ResponseError(ErrorCode.INTERNAL_ERROR, e.getMessage());
+          } finally {
+            cancelledRequests.finishRequest(requestId);
           }
 
           if (requestId == null) {
@@ -215,6 +276,7 @@ public class RequestDispatcher {
     private RequestParser requestParser;
     private ResponseWriter responseWriter;
     private ExecutorService executor;
+    private CancelledRequests cancelledRequests;
 
     public Builder() {
       this.registryBuilder = new ImmutableMap.Builder<>();
@@ -246,6 +308,15 @@ public class RequestDispatcher {
       return this;
     }
 
+    /**
+     * Sets the {@link CancelledRequests} shared with request handlers. If not set, cancellations
+     * are only checked before handling requests.
+     */
+    public Builder setCancelledRequests(CancelledRequests cancelledRequests) {
+      this.cancelledRequests = cancelledRequests;
+      return this;
+    }
+
     public RequestDispatcher build() {
       return new RequestDispatcher(this, registryBuilder.build());
     }
@@ -38,4 +38,15 @@ public interface Server {
   Project getProject();
 
   ClientCapabilities getClientCapabilities();
+
+  /** Gets the user-provided options merged with the options of the project. */
+  JavaCompOptions getOptions();
+
+  /**
+   * Sends a notification to the client. Can be called while handling requests.
+   *
+   * @param method the method of the notification, e.g. "$/progress"
+   * @param params the parameters of the notification that can be converted to JSON by Gson
+   */
+  void sendNotification(String method, @Nullable Object params);
 }
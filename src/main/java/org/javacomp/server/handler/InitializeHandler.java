@@ -38,7 +38,11 @@ public class InitializeHandler extends RequestHandler<InitializeParams> {
     result.capabilities.signatureHelpProvider.triggerCharacters = ImmutableList.of("(", ",");
     result.capabilities.hoverProvider = true;
     result.capabilities.documentSymbolProvider = true;
-    result.capabilities.referencesProvider = true;
+    result.capabilities.workspaceSymbolProvider = true;
+    result.capabilities.referencesProvider = new InitializeResult.ReferenceOptions();
+    result.capabilities.referencesProvider.workDoneProgress = true;
+    result.capabilities.implementationProvider = true;
+    result.capabilities.typeHierarchyProvider = true;
     return result;
   }
 }
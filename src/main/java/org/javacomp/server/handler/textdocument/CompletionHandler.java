@@ -1,10 +1,10 @@
 package org.javacomp.server.handler.textdocument;
 
+import com.google.common.base.Strings;
 import com.google.gson.Gson;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import org.javacomp.completion.CompletionCandidate;
 import org.javacomp.completion.CompletionResult;
@@ -18,7 +18,7 @@ import org.javacomp.protocol.textdocument.CompletionItem;
 import org.javacomp.protocol.textdocument.CompletionItem.CompletionItemKind;
 import org.javacomp.protocol.textdocument.CompletionItem.InsertTextFormat;
 import org.javacomp.protocol.textdocument.CompletionItem.ResolveAction;
-import org.javacomp.protocol.textdocument.CompletionItem.ResolveActionParams;
+import org.javacomp.protocol.textdocument.CompletionItem.ResolveCandidateParams;
 import org.javacomp.protocol.textdocument.CompletionItem.ResolveData;
 import org.javacomp.protocol.textdocument.CompletionList;
 import org.javacomp.server.Request;
@@ -30,17 +30,27 @@ import org.javacomp.server.handler.RequestHandler;
  *
  * <p>See
  * https://github.com/Microsoft/language-server-protocol/blob/master/protocol.md#completion-request
+ *
+ * <p>Completion items only have the information needed for filtering and inserting them. Their
+ * details and documentation are filled by {@link ResolveCompletionItemHandler} when the client shows
+ * them.
+ *
+ * <p>If the {@code clientFilteringMaxItems} option is set and all candidates fit in it, all
+ * candidates are returned in a complete completion list for the client to filter locally.
  */
 public class CompletionHandler extends RequestHandler<TextDocumentPositionParams> {
   private static final int MAX_CANDIDATES = 30;
 
   private final Server server;
   private final Gson gson;
+  private final RecentCompletionResults recentCompletionResults;
 
-  public CompletionHandler(Server server, Gson gson) {
+  public CompletionHandler(
+      Server server, Gson gson, RecentCompletionResults recentCompletionResults) {
     super("textDocument/completion", TextDocumentPositionParams.class);
     this.server = server;
     this.gson = gson;
+    this.recentCompletionResults = recentCompletionResults;
   }
 
   @Override
@@ -48,34 +58,45 @@ public class CompletionHandler extends RequestHandler<TextDocumentPositionParams
       throws Exception {
     TextDocumentPositionParams params = request.getParams();
     Project project = server.getProject();
+    Integer clientFilteringMaxItems = server.getOptions().getClientFilteringMaxItems();
+    int maxCandidates =
+        clientFilteringMaxItems == null
+            ? MAX_CANDIDATES
+            : Math.max(clientFilteringMaxItems, MAX_CANDIDATES);
     CompletionResult result =
         project.getCompletionResult(
             Paths.get(params.textDocument.uri),
             params.position.getLine(),
-            params.position.getCharacter());
+            params.position.getCharacter(),
+            maxCandidates);
     List<CompletionCandidate> candidates = result.getCompletionCandidates();
 
     CompletionList completionList = new CompletionList();
-    completionList.isIncomplete = (candidates.size() > MAX_CANDIDATES);
+    completionList.isIncomplete = result.isIncomplete() || candidates.size() > maxCandidates;
     completionList.items = new ArrayList<>();
+    long resultId = recentCompletionResults.add(result);
 
-    int len = Math.min(candidates.size(), MAX_CANDIDATES);
+    // All candidates are returned if the client can filter them locally. Otherwise the client
+    // asks for completion again on the next keystroke, so only the best candidates are returned.
+    int len =
+        completionList.isIncomplete
+            ? Math.min(candidates.size(), MAX_CANDIDATES)
+            : candidates.size();
+    int sortTextWidth = Integer.toString(Math.max(len - 1, 0), Character.MAX_RADIX).length();
     for (int i = 0; i < len; i++) {
       CompletionCandidate candidate = candidates.get(i);
       CompletionItem item = new CompletionItem();
       item.label = candidate.getName();
       item.kind = getCompletionItemKind(candidate.getKind());
-      Optional<String> detail = candidate.getDetail();
-      if (detail.isPresent()) {
-        item.detail = detail.get();
-      }
 
-      // The sort text of a candidate is the candidate label prefixed with its
-      // sort category ordinal.
-      item.sortText = String.format("%05d", i);
+      // Candidates are sorted by the server. The sort text is the index of the candidate, padded
+      // to the same width so that the client keeps the order. The label is the candidate name,
+      // which the client filters with when filterText is not set.
+      item.sortText =
+          Strings.padStart(Integer.toString(i, Character.MAX_RADIX), sortTextWidth, '0');
 
       fillText(item, candidate, result);
-      fillData(item, candidate);
+      fillData(item, resultId, i);
 
       completionList.items.add(item);
     }
@@ -96,7 +117,7 @@ public class CompletionHandler extends RequestHandler<TextDocumentPositionParams
       // Either the client doesn't support snippet, or the candidate doesn't have a snippet.
       insertText = candidate.getInsertPlainText(result.getTextEditOptions());
     }
-    item.insertText = insertText.orElse(null);
+    // The text edit has precedence over insertText, which is left empty to keep the response small.
     item.textEdit =
         new TextEdit(
             new Range(
@@ -105,21 +126,12 @@ public class CompletionHandler extends RequestHandler<TextDocumentPositionParams
             insertText.orElse(candidate.getName()));
   }
 
-  private void fillData(CompletionItem item, CompletionCandidate candidate) {
-    Map<ResolveAction, ResolveActionParams> resolveActions = candidate.getResolveActions();
-    if (resolveActions.isEmpty()) {
-      return;
-    }
-
-    item.data = new ArrayList<>(resolveActions.size());
-    for (Map.Entry<ResolveAction, ResolveActionParams> entry : resolveActions.entrySet()) {
-      ResolveAction action = entry.getKey();
-      ResolveActionParams params = entry.getValue();
-      ResolveData data = new ResolveData();
-      data.action = action;
-      data.params = gson.toJsonTree(params);
-      item.data.add(data);
-    }
+  private void fillData(CompletionItem item, long resultId, int index) {
+    ResolveData data = new ResolveData();
+    data.action = ResolveAction.RESOLVE_CANDIDATE;
+    data.params = gson.toJsonTree(new ResolveCandidateParams(resultId, index));
+    item.data = new ArrayList<>(1);
+    item.data.add(data);
   }
 
   private static boolean clientSupportsSnippet(ClientCapabilities clientCapabilities) {
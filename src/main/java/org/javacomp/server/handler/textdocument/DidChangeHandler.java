@@ -1,6 +1,8 @@
 package org.javacomp.server.handler.textdocument;
 
+import com.google.common.base.CharMatcher;
 import java.net.URI;
+import java.nio.file.Paths;
 import java.util.Optional;
 import org.javacomp.file.FileManager;
 import org.javacomp.logging.JLogger;
@@ -12,6 +14,10 @@ import org.javacomp.server.handler.NotificationHandler;
 /**
  * Handles "textDocument/didChange" notification.
  *
+ * <p>If the last change inserts text ending with {@code .}, {@code :} or an identifier character, a
+ * completion request right after the inserted text is likely. The completion is computed
+ * speculatively in the background after the file is reparsed.
+ *
  * <p>See
  * https://github.com/Microsoft/language-server-protocol/blob/master/protocol.md#didchangetextdocument-notification
  */
@@ -30,6 +36,7 @@ public class DidChangeHandler extends NotificationHandler<DidChangeTextDocumentP
     FileManager fileManager = server.getFileManager();
     URI fileUri = request.getParams().textDocument.uri;
     logger.fine("Changing document: %s", fileUri);
+    DidChangeTextDocumentParams.TextDocumentContentChangeEvent lastChange = null;
     for (DidChangeTextDocumentParams.TextDocumentContentChangeEvent change :
         request.getParams().contentChanges) {
       logger.fine("Applying change: %s", change);
@@ -39,6 +46,32 @@ public class DidChangeHandler extends NotificationHandler<DidChangeTextDocumentP
       } else {
         fileManager.setSnaphotContent(fileUri, change.text);
       }
+      lastChange = change;
+    }
+
+    if (lastChange != null && isCompletionTrigger(lastChange)) {
+      // The position right after the inserted text.
+      String text = lastChange.text;
+      int line = lastChange.range.getStart().getLine();
+      int column = lastChange.range.getStart().getCharacter();
+      int lastNewLine = text.lastIndexOf('\n');
+      if (lastNewLine >= 0) {
+        line += CharMatcher.is('\n').countIn(text);
+        column = text.length() - lastNewLine - 1;
+      } else {
+        column += text.length();
+      }
+      server.getProject().scheduleSpeculativeCompletion(Paths.get(fileUri), line, column);
+    }
+  }
+
+  private static boolean isCompletionTrigger(
+      DidChangeTextDocumentParams.TextDocumentContentChangeEvent change) {
+    if (change.range == null || change.text == null || change.text.isEmpty()) {
+      return false;
     }
+    char lastChar = change.text.charAt(change.text.length() - 1);
+    // A colon may be the second colon of "::". Completor checks it.
+    return lastChar == '.' || lastChar == ':' || Character.isJavaIdentifierPart(lastChar);
   }
 }
@@ -0,0 +1,50 @@
+package org.javacomp.server.handler.textdocument;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.javacomp.model.Entity;
+import org.javacomp.model.FileScope;
+import org.javacomp.protocol.Location;
+import org.javacomp.protocol.TextDocumentPositionParams;
+import org.javacomp.server.Request;
+import org.javacomp.server.Server;
+import org.javacomp.server.handler.RequestHandler;
+import org.javacomp.server.handler.utils.MessageUtils;
+
+/**
+ * Handles "textDocument/implementation" request.
+ *
+ * <p>See https://microsoft.github.io/language-server-protocol/specification#textDocument_implementation
+ */
+public class ImplementationHandler extends RequestHandler<TextDocumentPositionParams> {
+  private final Server server;
+
+  public ImplementationHandler(Server server) {
+    super("textDocument/implementation", TextDocumentPositionParams.class);
+    this.server = server;
+  }
+
+  @Override
+  public List<Location> handleRequest(Request<TextDocumentPositionParams> request)
+      throws Exception {
+    TextDocumentPositionParams params = request.getParams();
+    List<? extends Entity> implementations =
+        server
+            .getProject()
+            .findImplementations(
+                Paths.get(params.textDocument.uri),
+                params.position.getLine(),
+                params.position.getCharacter());
+
+    ImmutableList.Builder<Location> locations = new ImmutableList.Builder<>();
+    for (Entity entity : implementations) {
+      Optional<FileScope> fileScope = MessageUtils.getSourceFileScope(entity);
+      if (fileScope.isPresent()) {
+        locations.add(MessageUtils.buildLocationForFile(fileScope.get(), entity.getSymbolRange()));
+      }
+    }
+    return locations.build();
+  }
+}
@@ -0,0 +1,45 @@
+package org.javacomp.server.handler.textdocument;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.protocol.TextDocumentPositionParams;
+import org.javacomp.protocol.TypeHierarchyItem;
+import org.javacomp.server.Request;
+import org.javacomp.server.Server;
+import org.javacomp.server.handler.RequestHandler;
+import org.javacomp.server.handler.typehierarchy.TypeHierarchyItems;
+
+/**
+ * Handles "textDocument/prepareTypeHierarchy" request.
+ *
+ * <p>See
+ * https://microsoft.github.io/language-server-protocol/specification#textDocument_prepareTypeHierarchy
+ */
+public class PrepareTypeHierarchyHandler extends RequestHandler<TextDocumentPositionParams> {
+  private final Server server;
+
+  public PrepareTypeHierarchyHandler(Server server) {
+    super("textDocument/prepareTypeHierarchy", TextDocumentPositionParams.class);
+    this.server = server;
+  }
+
+  @Override
+  public List<TypeHierarchyItem> handleRequest(Request<TextDocumentPositionParams> request)
+      throws Exception {
+    TextDocumentPositionParams params = request.getParams();
+    Optional<ClassEntity> classEntity =
+        server
+            .getProject()
+            .findTypeHierarchyClass(
+                Paths.get(params.textDocument.uri),
+                params.position.getLine(),
+                params.position.getCharacter());
+    if (!classEntity.isPresent()) {
+      return ImmutableList.of();
+    }
+    return TypeHierarchyItems.build(ImmutableList.of(classEntity.get()));
+  }
+}
@@ -0,0 +1,39 @@
+package org.javacomp.server.handler.textdocument;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.javacomp.completion.CompletionResult;
+
+/**
+ * Keeps the most recent completion results returned to the client, so that their items can be
+ * resolved by {@link ResolveCompletionItemHandler} with compact ids.
+ */
+public class RecentCompletionResults {
+  /**
+   * The maximum number of results kept. Clients only resolve items of the completion list being
+   * shown, which is the latest one in most cases.
+   */
+  private static final int MAX_RESULTS = 4;
+
+  private final Map<Long, CompletionResult> results =
+      new LinkedHashMap<Long, CompletionResult>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CompletionResult> eldest) {
+          return size() > MAX_RESULTS;
+        }
+      };
+  private long nextId = 0;
+
+  /** Adds {@code result} and returns its id. */
+  public synchronized long add(CompletionResult result) {
+    long id = nextId++;
+    results.put(id, result);
+    return id;
+  }
+
+  /** Returns the result with {@code id}, or empty if it's evicted. */
+  public synchronized Optional<CompletionResult> get(long id) {
+    return Optional.ofNullable(results.get(id));
+  }
+}
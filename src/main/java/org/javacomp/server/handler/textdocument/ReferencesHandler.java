@@ -9,42 +9,77 @@ import org.javacomp.logging.JLogger;
 import org.javacomp.model.FileScope;
 import org.javacomp.protocol.Location;
 import org.javacomp.protocol.ReferenceParams;
+import org.javacomp.reference.ReferenceSolver;
+import org.javacomp.server.CancelledRequests;
 import org.javacomp.server.Request;
 import org.javacomp.server.Server;
 import org.javacomp.server.handler.RequestHandler;
 import org.javacomp.server.handler.utils.MessageUtils;
+import org.javacomp.server.handler.utils.PartialResultReporter;
 
 /**
  * Handles "textDocument/references" notification.
  *
  * <p>See https://microsoft.github.io/language-server-protocol/specification#textDocument_references
+ *
+ * <p>If the client provides a partial result token, references are sent with "$/progress"
+ * notifications as soon as they are found, and the response has no references. If the client
+ * provides a work done token, the progress of the search is reported. The search stops when the
+ * request or the progress is cancelled.
  */
 public class ReferencesHandler extends RequestHandler<ReferenceParams> {
   private static final JLogger logger = JLogger.createForEnclosingClass();
 
+  private static final String PROGRESS_TITLE = "Finding references";
+
   private final Server server;
+  private final CancelledRequests cancelledRequests;
 
-  public ReferencesHandler(Server server) {
+  public ReferencesHandler(Server server, CancelledRequests cancelledRequests) {
     super("textDocument/references", ReferenceParams.class);
     this.server = server;
+    this.cancelledRequests = cancelledRequests;
   }
 
   @Override
   public List<Location> handleRequest(Request<ReferenceParams> request) throws Exception {
-    Multimap<FileScope, Range<Integer>> symbols =
-        server
-            .getProject()
-            .findReferencesAtPosition(
-                Paths.get(request.getParams().textDocument.uri),
-                request.getParams().position.getLine(),
-                request.getParams().position.getCharacter());
-    return symbols.entries().stream()
-        .map(
-            entry -> {
-              FileScope fileScope = entry.getKey();
-              Range<Integer> range = entry.getValue();
-              return MessageUtils.buildLocationForFile(fileScope, range);
-            })
+    ReferenceParams params = request.getParams();
+    PartialResultReporter<Location> reporter =
+        new PartialResultReporter<>(
+            server, cancelledRequests, request, params.workDoneToken, params.partialResultToken);
+    ReferenceSolver.ReferenceCollector collector =
+        new ReferenceSolver.ReferenceCollector() {
+          @Override
+          public void collect(
+              Multimap<FileScope, Range<Integer>> references,
+              int numSearchedScopes,
+              int numScopes) {
+            reporter.addResults(buildLocations(references));
+            reporter.reportProgress(numSearchedScopes, numScopes);
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return reporter.isCancelled();
+          }
+        };
+
+    return reporter.run(
+        PROGRESS_TITLE,
+        () ->
+            server
+                .getProject()
+                .findReferencesAtPosition(
+                    Paths.get(params.textDocument.uri),
+                    params.position.getLine(),
+                    params.position.getCharacter(),
+                    collector));
+  }
+
+  private static ImmutableList<Location> buildLocations(
+      Multimap<FileScope, Range<Integer>> references) {
+    return references.entries().stream()
+        .map(entry -> MessageUtils.buildLocationForFile(entry.getKey(), entry.getValue()))
         .collect(ImmutableList.toImmutableList());
   }
 }
@@ -1,11 +1,17 @@
 package org.javacomp.server.handler.textdocument;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import org.javacomp.completion.CompletionCandidate;
+import org.javacomp.completion.CompletionResult;
 import org.javacomp.protocol.textdocument.CompletionItem;
+import org.javacomp.protocol.textdocument.CompletionItem.ResolveAction;
+import org.javacomp.protocol.textdocument.CompletionItem.ResolveActionParams;
 import org.javacomp.protocol.textdocument.CompletionItem.ResolveAddImportTextEditsParams;
+import org.javacomp.protocol.textdocument.CompletionItem.ResolveCandidateParams;
 import org.javacomp.protocol.textdocument.CompletionItem.ResolveData;
 import org.javacomp.protocol.textdocument.CompletionItem.ResolveFormatJavadocParams;
 import org.javacomp.server.Request;
@@ -21,11 +27,14 @@ import org.javacomp.server.handler.RequestHandler;
 public class ResolveCompletionItemHandler extends RequestHandler<CompletionItem> {
   private final Server server;
   private final Gson gson;
+  private final RecentCompletionResults recentCompletionResults;
 
-  public ResolveCompletionItemHandler(Server server, Gson gson) {
+  public ResolveCompletionItemHandler(
+      Server server, Gson gson, RecentCompletionResults recentCompletionResults) {
     super("completionItem/resolve", CompletionItem.class);
     this.server = server;
     this.gson = gson;
+    this.recentCompletionResults = recentCompletionResults;
   }
 
   @Override
@@ -38,11 +47,17 @@ public class ResolveCompletionItemHandler extends RequestHandler<CompletionItem>
 
     for (ResolveData data : completionItem.data) {
       switch (data.action) {
+        case RESOLVE_CANDIDATE:
+          resolveCandidate(
+              completionItem, gson.fromJson(data.params, ResolveCandidateParams.class));
+          break;
         case ADD_IMPORT_TEXT_EDIT:
-          resolveImportClass(completionItem, data.params);
+          resolveImportClass(
+              completionItem, gson.fromJson(data.params, ResolveAddImportTextEditsParams.class));
           break;
         case FORMAT_JAVADOC:
-          populateDocumentation(completionItem, data.params);
+          populateDocumentation(
+              completionItem, gson.fromJson(data.params, ResolveFormatJavadocParams.class));
           break;
         default:
           throw new UnsupportedOperationException("Unsupported resolve action: " + data.action);
@@ -53,18 +68,46 @@ public class ResolveCompletionItemHandler extends RequestHandler<CompletionItem>
     return completionItem;
   }
 
-  private void resolveImportClass(CompletionItem completionItem, JsonElement jsonParams) {
+  private void resolveCandidate(CompletionItem completionItem, ResolveCandidateParams params) {
+    Optional<CompletionResult> result = recentCompletionResults.get(params.resultId);
+    if (!result.isPresent()
+        || params.index < 0
+        || params.index >= result.get().getCompletionCandidates().size()) {
+      // The result has been evicted by newer completion requests. Return the item as is.
+      return;
+    }
+
+    CompletionCandidate candidate = result.get().getCompletionCandidates().get(params.index);
+    // The detail may be solved lazily, which must not run concurrently with other requests.
+    completionItem.detail =
+        server.getProject().getCompletionCandidateDetail(candidate).orElse(null);
+    for (Map.Entry<ResolveAction, ResolveActionParams> entry :
+        candidate.getResolveActions().entrySet()) {
+      switch (entry.getKey()) {
+        case ADD_IMPORT_TEXT_EDIT:
+          resolveImportClass(completionItem, (ResolveAddImportTextEditsParams) entry.getValue());
+          break;
+        case FORMAT_JAVADOC:
+          populateDocumentation(completionItem, (ResolveFormatJavadocParams) entry.getValue());
+          break;
+        default:
+          throw new UnsupportedOperationException(
+              "Unsupported resolve action: " + entry.getKey());
+      }
+    }
+  }
+
+  private void resolveImportClass(
+      CompletionItem completionItem, ResolveAddImportTextEditsParams params) {
     if (completionItem.additionalTextEdits == null) {
       completionItem.additionalTextEdits = new ArrayList<>();
     }
-    ResolveAddImportTextEditsParams params =
-        gson.fromJson(jsonParams, ResolveAddImportTextEditsParams.class);
     completionItem.additionalTextEdits.add(
         server.getProject().textEditForImport(Paths.get(params.uri), params.classFullName));
   }
 
-  private void populateDocumentation(CompletionItem completionItem, JsonElement jsonParams) {
-    ResolveFormatJavadocParams params = gson.fromJson(jsonParams, ResolveFormatJavadocParams.class);
+  private void populateDocumentation(
+      CompletionItem completionItem, ResolveFormatJavadocParams params) {
     // TODO: Convert JavaDoc to markdown format.
     completionItem.documentation = params.javadoc;
   }
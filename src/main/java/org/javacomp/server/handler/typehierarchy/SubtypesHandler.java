@@ -0,0 +1,36 @@
+package org.javacomp.server.handler.typehierarchy;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import org.javacomp.protocol.TypeHierarchyItem;
+import org.javacomp.protocol.TypeHierarchyParams;
+import org.javacomp.server.Request;
+import org.javacomp.server.Server;
+import org.javacomp.server.handler.RequestHandler;
+
+/**
+ * Handles "typeHierarchy/subtypes" request. Returns the classes directly extending or implementing
+ * the class.
+ *
+ * <p>See https://microsoft.github.io/language-server-protocol/specification#typeHierarchy_subtypes
+ */
+public class SubtypesHandler extends RequestHandler<TypeHierarchyParams> {
+  private final Server server;
+
+  public SubtypesHandler(Server server) {
+    super("typeHierarchy/subtypes", TypeHierarchyParams.class);
+    this.server = server;
+  }
+
+  @Override
+  public List<TypeHierarchyItem> handleRequest(Request<TypeHierarchyParams> request)
+      throws Exception {
+    TypeHierarchyItem item = request.getParams().item;
+    if (item == null || item.data == null) {
+      return ImmutableList.of();
+    }
+    return TypeHierarchyItems.build(
+        server.getProject().findDirectSubtypes(Paths.get(item.uri), item.data));
+  }
+}
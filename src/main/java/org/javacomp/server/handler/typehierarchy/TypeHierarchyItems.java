@@ -0,0 +1,54 @@
+package org.javacomp.server.handler.typehierarchy;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.FileScope;
+import org.javacomp.protocol.SymbolKind;
+import org.javacomp.protocol.TypeHierarchyItem;
+import org.javacomp.server.handler.utils.MessageUtils;
+
+/** Utility functions for building {@link TypeHierarchyItem} messages. */
+public final class TypeHierarchyItems {
+  private TypeHierarchyItems() {}
+
+  /**
+   * Builds type hierarchy items for classes. Classes not defined in source code are skipped because
+   * there is no location for them.
+   */
+  public static List<TypeHierarchyItem> build(List<ClassEntity> classes) {
+    ImmutableList.Builder<TypeHierarchyItem> builder = new ImmutableList.Builder<>();
+    for (ClassEntity classEntity : classes) {
+      Optional<FileScope> fileScope = MessageUtils.getSourceFileScope(classEntity);
+      if (!fileScope.isPresent()) {
+        continue;
+      }
+      TypeHierarchyItem item = new TypeHierarchyItem();
+      item.name = classEntity.getSimpleName();
+      item.kind = getSymbolKind(classEntity);
+      item.detail = classEntity.getQualifiedName();
+      item.uri = Paths.get(fileScope.get().getFilename()).toUri();
+      item.range =
+          MessageUtils.buildRangeForFile(fileScope.get(), classEntity.getDefinitionRange());
+      item.selectionRange =
+          MessageUtils.buildRangeForFile(fileScope.get(), classEntity.getSymbolRange());
+      item.data = classEntity.getQualifiedName();
+      builder.add(item);
+    }
+    return builder.build();
+  }
+
+  private static SymbolKind getSymbolKind(ClassEntity classEntity) {
+    switch (classEntity.getKind()) {
+      case INTERFACE:
+      case ANNOTATION:
+        return SymbolKind.INTERFACE;
+      case ENUM:
+        return SymbolKind.ENUM;
+      default:
+        return SymbolKind.CLASS;
+    }
+  }
+}
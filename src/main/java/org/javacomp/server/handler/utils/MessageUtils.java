@@ -4,7 +4,10 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.sun.source.tree.LineMap;
 import java.nio.file.Paths;
+import java.util.Optional;
 import org.javacomp.file.EditHistory.AppliedEdit;
+import org.javacomp.model.Entity;
+import org.javacomp.model.EntityScope;
 import org.javacomp.model.FileScope;
 import org.javacomp.protocol.Location;
 import org.javacomp.protocol.Position;
@@ -60,6 +63,27 @@ public final class MessageUtils {
         (int) lineMap.getLineNumber(offset) - 1, (int) lineMap.getColumnNumber(offset) - 1);
   }
 
+  /**
+   * Returns the file scope of the source file that defines {@code entity}. Returns empty if the
+   * entity is not defined in source code, e.g. it's loaded from a type index JSON file or a .class
+   * file.
+   */
+  public static Optional<FileScope> getSourceFileScope(Entity entity) {
+    EntityScope scope = entity.getScope();
+    while (!(scope instanceof FileScope) && scope.getParentScope().isPresent()) {
+      scope = scope.getParentScope().get();
+    }
+    if (!(scope instanceof FileScope)) {
+      return Optional.empty();
+    }
+    FileScope fileScope = (FileScope) scope;
+    if (fileScope.getFileType() != FileScope.FileType.SOURCE_CODE
+        || !fileScope.getLineMap().isPresent()) {
+      return Optional.empty();
+    }
+    return Optional.of(fileScope);
+  }
+
   public static TextEdit buildTextEdit(AppliedEdit appliedEdit) {
     return new TextEdit(
         Range.createFromTextRange(appliedEdit.getTextRange()), appliedEdit.getNewText());
@@ -0,0 +1,114 @@
+package org.javacomp.server.handler.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonPrimitive;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.javacomp.protocol.ProgressParams;
+import org.javacomp.protocol.WorkDoneProgress;
+import org.javacomp.server.CancelledRequests;
+import org.javacomp.server.ErrorCode;
+import org.javacomp.server.Request;
+import org.javacomp.server.RequestException;
+import org.javacomp.server.Server;
+
+/**
+ * Reports results and progress of a request with "$/progress" notifications.
+ *
+ * <p>If the client provides a partial result token, results are sent as soon as they are added,
+ * and the response has no results. If the client provides a work done token, the progress is
+ * reported between begin and end notifications. The request is considered cancelled when either
+ * the request or the progress is cancelled.
+ *
+ * @param <T> the type of the results
+ */
+public class PartialResultReporter<T> {
+  private static final String PROGRESS_METHOD = "$/progress";
+
+  private final Server server;
+  private final CancelledRequests cancelledRequests;
+  private final JsonPrimitive requestId;
+  @Nullable private final JsonPrimitive workDoneToken;
+  @Nullable private final JsonPrimitive partialResultToken;
+  private final ImmutableList.Builder<T> results;
+
+  public PartialResultReporter(
+      Server server,
+      CancelledRequests cancelledRequests,
+      Request<?> request,
+      @Nullable JsonPrimitive workDoneToken,
+      @Nullable JsonPrimitive partialResultToken) {
+    this.server = server;
+    this.cancelledRequests = cancelledRequests;
+    this.requestId = request.getId();
+    this.workDoneToken = workDoneToken;
+    this.partialResultToken = partialResultToken;
+    this.results = new ImmutableList.Builder<>();
+  }
+
+  /**
+   * Adds a batch of results. The results are sent immediately if the client accepts partial
+   * results, otherwise they are returned by {@link #run}.
+   */
+  public void addResults(List<T> batch) {
+    if (partialResultToken == null) {
+      results.addAll(batch);
+    } else if (!batch.isEmpty()) {
+      sendProgress(partialResultToken, batch);
+    }
+  }
+
+  /** Reports that {@code numDone} of {@code numTotal} units of work are done. */
+  public void reportProgress(int numDone, int numTotal) {
+    if (workDoneToken != null && numTotal > 0) {
+      sendProgress(
+          workDoneToken,
+          WorkDoneProgress.report(
+              String.format("%d/%d", numDone, numTotal), numDone * 100 / numTotal));
+    }
+  }
+
+  /** Returns whether the request or its work done progress is cancelled. */
+  public boolean isCancelled() {
+    return cancelledRequests.isRequestCancelled(requestId)
+        || cancelledRequests.isProgressCancelled(workDoneToken);
+  }
+
+  /**
+   * Runs {@code task} between the begin and end notifications of the work done progress.
+   *
+   * @param title the title of the progress shown by the client, also used in the error message
+   *     when the request is cancelled
+   * @return the results that have not been sent as partial results
+   * @throws RequestException if the request or the progress is cancelled
+   */
+  public ImmutableList<T> run(String title, Task task) throws Exception {
+    if (workDoneToken != null) {
+      sendProgress(workDoneToken, WorkDoneProgress.begin(title, true /* cancellable */));
+    }
+    try {
+      task.run();
+    } finally {
+      if (workDoneToken != null) {
+        sendProgress(workDoneToken, WorkDoneProgress.end(null /* message */));
+      }
+    }
+
+    boolean cancelled = isCancelled();
+    cancelledRequests.finishProgress(workDoneToken);
+    if (cancelled) {
+      throw new RequestException(ErrorCode.REQUEST_CANCELLED, "%s is cancelled.", title);
+    }
+    // Empty if all results have been sent as partial results.
+    return results.build();
+  }
+
+  private void sendProgress(JsonPrimitive token, Object value) {
+    server.sendNotification(PROGRESS_METHOD, new ProgressParams(token, value));
+  }
+
+  /** A task that adds results to the reporter. */
+  public interface Task {
+    void run() throws Exception;
+  }
+}
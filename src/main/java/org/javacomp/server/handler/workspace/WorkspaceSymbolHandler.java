@@ -0,0 +1,124 @@
+package org.javacomp.server.handler.workspace;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.javacomp.model.Entity;
+import org.javacomp.model.FileScope;
+import org.javacomp.model.SymbolIndex;
+import org.javacomp.protocol.SymbolInformation;
+import org.javacomp.protocol.SymbolKind;
+import org.javacomp.protocol.WorkspaceSymbolParams;
+import org.javacomp.reference.WorkspaceSymbolSolver;
+import org.javacomp.server.CancelledRequests;
+import org.javacomp.server.Request;
+import org.javacomp.server.Server;
+import org.javacomp.server.handler.RequestHandler;
+import org.javacomp.server.handler.utils.MessageUtils;
+import org.javacomp.server.handler.utils.PartialResultReporter;
+
+/**
+ * Handles "workspace/symbol" requests.
+ *
+ * <p>See https://microsoft.github.io/language-server-protocol/specification#workspace_symbol
+ *
+ * <p>Only symbols defined in source files are returned, because each symbol must have a location.
+ * If the client provides a partial result token, symbols are sent with "$/progress" notifications
+ * module by module, and the response has no symbols.
+ */
+public class WorkspaceSymbolHandler extends RequestHandler<WorkspaceSymbolParams> {
+  private static final String PROGRESS_TITLE = "Finding symbols";
+  private static final int DEFAULT_MAX_RESULTS = 100;
+
+  private static final Predicate<FileScope> SOURCE_FILE_FILTER =
+      fileScope ->
+          fileScope.getFileType() == FileScope.FileType.SOURCE_CODE
+              && fileScope.getLineMap().isPresent();
+
+  private final Server server;
+  private final CancelledRequests cancelledRequests;
+
+  public WorkspaceSymbolHandler(Server server, CancelledRequests cancelledRequests) {
+    super("workspace/symbol", WorkspaceSymbolParams.class);
+    this.server = server;
+    this.cancelledRequests = cancelledRequests;
+  }
+
+  @Override
+  public List<SymbolInformation> handleRequest(Request<WorkspaceSymbolParams> request)
+      throws Exception {
+    WorkspaceSymbolParams params = request.getParams();
+    PartialResultReporter<SymbolInformation> reporter =
+        new PartialResultReporter<>(
+            server, cancelledRequests, request, params.workDoneToken, params.partialResultToken);
+    WorkspaceSymbolSolver.SymbolCollector collector =
+        new WorkspaceSymbolSolver.SymbolCollector() {
+          @Override
+          public void collect(List<SymbolIndex.Match> matches) {
+            reporter.addResults(buildSymbolInformations(matches));
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return reporter.isCancelled();
+          }
+        };
+
+    return reporter.run(
+        PROGRESS_TITLE,
+        () ->
+            server
+                .getProject()
+                .findWorkspaceSymbols(
+                    params.query == null ? "" : params.query,
+                    getMaxResults(),
+                    SOURCE_FILE_FILTER,
+                    collector));
+  }
+
+  private int getMaxResults() {
+    Integer maxResults = server.getOptions().getWorkspaceSymbolMaxResults();
+    return maxResults == null || maxResults <= 0 ? DEFAULT_MAX_RESULTS : maxResults;
+  }
+
+  private static ImmutableList<SymbolInformation> buildSymbolInformations(
+      List<SymbolIndex.Match> matches) {
+    ImmutableList.Builder<SymbolInformation> builder = new ImmutableList.Builder<>();
+    for (SymbolIndex.Match match : matches) {
+      Entity entity = match.getEntity();
+      SymbolInformation symbol = new SymbolInformation();
+      symbol.name = entity.getSimpleName();
+      symbol.kind = getSymbolKind(entity);
+      symbol.location =
+          MessageUtils.buildLocationForFile(match.getFileScope(), entity.getSymbolRange());
+      symbol.containerName = getContainerName(entity);
+      builder.add(symbol);
+    }
+    return builder.build();
+  }
+
+  private static SymbolKind getSymbolKind(Entity entity) {
+    switch (entity.getKind()) {
+      case INTERFACE:
+      case ANNOTATION:
+        return SymbolKind.INTERFACE;
+      case ENUM:
+        return SymbolKind.ENUM;
+      case METHOD:
+        return SymbolKind.METHOD;
+      case FIELD:
+        return SymbolKind.FIELD;
+      default:
+        return SymbolKind.CLASS;
+    }
+  }
+
+  @Nullable
+  private static String getContainerName(Entity entity) {
+    if (entity.getQualifiers().isEmpty()) {
+      return null;
+    }
+    return String.join(".", entity.getQualifiers());
+  }
+}
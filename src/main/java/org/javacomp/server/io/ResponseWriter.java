@@ -8,14 +8,18 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import org.javacomp.server.Notification;
 import org.javacomp.server.Response;
 
 /**
- * A writer that writes {@link Response} to an {@link OutputStream}.
+ * A writer that writes {@link Response} and {@link Notification} to an {@link OutputStream}.
  *
  * <p>The format is defined in the Base Protocol section of Language Server Protocol:
  * https://github.com/Microsoft/language-server-protocol/blob/master/protocol.md#base-protocol
  *
+ * <p>Notifications may be written by request handlers while responses are written by the request
+ * dispatcher, so messages are written atomically.
+ *
  * <p>When the writer is closed, the underlying {@link OutputStream} is closed as well.
  */
 public class ResponseWriter implements Closeable {
@@ -33,7 +37,14 @@ public class ResponseWriter implements Closeable {
   }
 
   public void writeResponse(Response response) throws IOException {
-    String content = gson.toJson(response);
+    writeContent(gson.toJson(response));
+  }
+
+  public void writeNotification(Notification notification) throws IOException {
+    writeContent(gson.toJson(notification));
+  }
+
+  private synchronized void writeContent(String content) throws IOException {
     int contentLength = content.getBytes(UTF_8).length;
     writeHeader(HEADER_CONTENT_LENGTH, "" + contentLength);
     writeHeader(HEADER_CONTENT_TYPE, CONTENT_TYPE);
@@ -50,7 +61,7 @@ public class ResponseWriter implements Closeable {
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
     writer.close();
   }
 }
@@ -32,6 +32,7 @@ import org.javacomp.model.EntityScope;
 import org.javacomp.model.EntityWithContext;
 import org.javacomp.model.FileScope;
 import org.javacomp.model.MethodEntity;
+import org.javacomp.model.ModelInterner;
 import org.javacomp.model.Module;
 import org.javacomp.model.PrimitiveEntity;
 import org.javacomp.model.SolvedTypeParameters;
@@ -119,7 +120,8 @@ public class IndexStore {
     checkNotNull(serializedFileScope.packageName, "serializedFileScope.packageName");
     checkNotNull(serializedFileScope.entities, "serializedFileScope.entities");
     List<String> packageQualifiers =
-        ImmutableList.copyOf(serializedFileScope.packageName.split(QUALIFIER_SEPARATOR));
+        ModelInterner.internQualifiers(
+            Arrays.asList(serializedFileScope.packageName.split(QUALIFIER_SEPARATOR)));
     FileScope fileScope = FileScope.createFromTypeIndex(packageQualifiers);
     for (SerializedEntity childEntity : serializedFileScope.entities) {
       fileScope.addEntity(deserializeEntity(childEntity, packageQualifiers, fileScope));
@@ -198,6 +200,7 @@ public class IndexStore {
     if (!entity.getSimpleName().equals("<init>")) {
       ret.type = serializeTypeReference(entity.getReturnType(), entity.getScope());
     }
+    ret.isVarargs = entity.isVariableArity();
     if (!entity.getTypeParameters().isEmpty()) {
       ret.typeParameters =
           entity.getTypeParameters().stream()
@@ -252,7 +255,7 @@ public class IndexStore {
         deserializeTypeParameters(serializedEntity.typeParameters);
     ClassEntity classEntity =
         new ClassEntity(
-            serializedEntity.simpleName,
+            ModelInterner.internName(serializedEntity.simpleName),
             entityKind,
             qualifiers,
             serializedEntity.isStatic,
@@ -265,10 +268,7 @@ public class IndexStore {
             EMPTY_RANGE);
     if (serializedEntity.members != null) {
       List<String> childQualifiers =
-          new ImmutableList.Builder<String>()
-              .addAll(qualifiers)
-              .add(serializedEntity.simpleName)
-              .build();
+          ModelInterner.internQualifiers(qualifiers, serializedEntity.simpleName);
       for (SerializedEntity childEntity : serializedEntity.members) {
         classEntity.addEntity(deserializeEntity(childEntity, childQualifiers, classEntity));
       }
@@ -299,17 +299,27 @@ public class IndexStore {
     }
     ImmutableList<TypeParameter> typeParameters =
         deserializeTypeParameters(serializedEntity.typeParameters);
-    return new MethodEntity(
-        serializedEntity.simpleName,
-        qualifiers,
-        serializedEntity.isStatic,
-        returnType,
-        parameters,
-        typeParameters,
-        classEntity,
-        Optional.ofNullable(serializedEntity.javadoc),
-        EMPTY_RANGE,
-        EMPTY_RANGE);
+    MethodEntity method =
+        new MethodEntity(
+            ModelInterner.internName(serializedEntity.simpleName),
+            qualifiers,
+            serializedEntity.isStatic,
+            returnType,
+            parameters,
+            typeParameters,
+            classEntity,
+            Optional.ofNullable(serializedEntity.javadoc),
+            EMPTY_RANGE,
+            EMPTY_RANGE);
+    if (serializedEntity.isVarargs != null) {
+      method.setVariableArity(serializedEntity.isVarargs);
+    } else {
+      // The index file doesn't record variable arity. Assume methods with an array as the last
+      // parameter are variable arity.
+      method.setVariableArity(
+          !parameters.isEmpty() && parameters.get(parameters.size() - 1).getType().isArray());
+    }
+    return method;
   }
 
   private VariableEntity deserializeVariableEntity(
@@ -322,7 +332,7 @@ public class IndexStore {
             ? TypeReference.EMPTY_TYPE
             : deserializeTypeReference(serializedEntity.type);
     return new VariableEntity(
-        serializedEntity.simpleName,
+        ModelInterner.internName(serializedEntity.simpleName),
         entityKind,
         qualifiers,
         serializedEntity.isStatic,
@@ -413,12 +423,14 @@ public class IndexStore {
 
     TypeReference ret =
         TypeReference.builder()
-            .setFullName(type.fullName.split(QUALIFIER_SEPARATOR))
+            .setFullName(
+                ModelInterner.internQualifiers(
+                    Arrays.asList(type.fullName.split(QUALIFIER_SEPARATOR))))
             .setPrimitive(PrimitiveEntity.isPrimitive(type.fullName))
             .setArray(type.isArray)
             .setTypeArguments(typeArguments)
             .build();
-    return ret;
+    return ModelInterner.internTypeReference(ret);
   }
 
   private SerializedTypeArgument serializeTypeArgument(
@@ -565,6 +577,8 @@ public class IndexStore {
     private String kind;
     private String simpleName;
     private boolean isStatic;
+    // Only set for methods. Index files written before it's added don't have it.
+    private Boolean isVarargs;
     private List<SerializedEntity> members;
     private List<SerializedEntity> parameters;
     private SerializedType type;
@@ -0,0 +1,116 @@
+package org.javacomp.tool;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import org.javacomp.completion.CompletionCandidate;
+import org.javacomp.completion.CompletionCandidateListBuilder;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.Entity;
+import org.javacomp.model.Module;
+import org.javacomp.options.IndexOptions;
+import org.javacomp.parser.AstScanner;
+import org.javacomp.parser.ParserContext;
+import org.javacomp.typesolver.TypeSolver;
+
+/**
+ * A micro-benchmark of filtering entities by completion prefix with {@link
+ * CompletionCandidateListBuilder}, reporting both time and allocated bytes per operation.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * bazel run //src/main/java/org/javacomp/tool:CompletionFilterBenchmark -- [iterations]
+ * </pre>
+ *
+ * <p>Each operation filters all members of a class with many fields and methods, keeping the best
+ * candidates like a completion request does. Allocated bytes are measured with {@link
+ * com.sun.management.ThreadMXBean#getThreadAllocatedBytes}, so the benchmark requires a JVM
+ * supporting it.
+ */
+public class CompletionFilterBenchmark {
+  private static final String FILENAME = "/benchmark/Members.java";
+  private static final String CLASS_NAME = "Members";
+  private static final int NUM_MEMBERS = 20000;
+  private static final int MAX_CANDIDATES = 30;
+  private static final int DEFAULT_ITERATIONS = 200;
+  private static final int WARMUP_ITERATIONS = 50;
+
+  private static final ImmutableList<String> WORDS =
+      ImmutableList.of(
+          "get", "set", "foo", "bar", "baz", "completion", "candidate", "list", "builder", "name");
+
+  // Prefixes from no match to matching everything.
+  private static final ImmutableList<String> PREFIXES =
+      ImmutableList.of("qqq", "getFooBarName", "gFB", "getF", "get", "g", "");
+
+  public void run(int iterations) {
+    Module module = new Module();
+    String content = generateSource();
+    module.addOrReplaceFileScope(
+        new AstScanner(IndexOptions.FULL_INDEX_BUILDER.build())
+            .startScan(new ParserContext().parse(FILENAME, content), FILENAME, content));
+    ClassEntity classEntity =
+        new TypeSolver().findClassInModule(ImmutableList.of(CLASS_NAME), module).get();
+    Multimap<String, Entity> members = classEntity.getMemberEntities();
+    System.out.printf("Members: %d\n", members.size());
+
+    com.sun.management.ThreadMXBean threadMxBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (String prefix : PREFIXES) {
+      int numCandidates = 0;
+      for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+        numCandidates = filter(members, prefix);
+      }
+      long startBytes = threadMxBean.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        numCandidates = filter(members, prefix);
+      }
+      long elapsed = System.nanoTime() - start;
+      long allocated = threadMxBean.getThreadAllocatedBytes(threadId) - startBytes;
+      System.out.printf(
+          "%-16s %12.1f us/op %14d bytes/op  -> %d candidates\n",
+          "\"" + prefix + "\"",
+          elapsed / 1000.0 / iterations,
+          allocated / iterations,
+          numCandidates);
+    }
+  }
+
+  private static int filter(Multimap<String, Entity> members, String prefix) {
+    return new CompletionCandidateListBuilder(prefix, MAX_CANDIDATES)
+        .addEntities(members, CompletionCandidate.SortCategory.DIRECT_MEMBER)
+        .build()
+        .size();
+  }
+
+  /** Generates a class with fields and methods whose names are random combinations of words. */
+  private static String generateSource() {
+    Random random = new Random(0);
+    StringBuilder sb = new StringBuilder();
+    sb.append("public class ").append(CLASS_NAME).append(" {\n");
+    for (int i = 0; i < NUM_MEMBERS; i++) {
+      StringBuilder name = new StringBuilder(WORDS.get(random.nextInt(WORDS.size())));
+      for (int j = 0; j < 3; j++) {
+        String word = WORDS.get(random.nextInt(WORDS.size()));
+        name.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+      }
+      name.append(i);
+      if (i % 2 == 0) {
+        sb.append("  public int ").append(name).append(";\n");
+      } else {
+        sb.append("  public void ").append(name).append("(int a) {}\n");
+      }
+    }
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+    new CompletionFilterBenchmark().run(iterations);
+  }
+}
@@ -0,0 +1,82 @@
+package org.javacomp.tool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.javacomp.model.ModelInterner;
+import org.javacomp.model.Module;
+import org.javacomp.project.Project;
+import org.javacomp.storage.IndexStore;
+
+/**
+ * Reports the heap usage of a module loaded from an index file, before and after the module is
+ * frozen.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * bazel run //src/main/java/org/javacomp/tool:IndexMemoryReporter -- [--no-intern] [index file]
+ * </pre>
+ *
+ * <p>The JDK index bundled with JavaComp is used if no index file is specified. With {@code
+ * --no-intern}, names, qualifiers and type references are not interned while loading the index.
+ * Compare the outputs with and without it to get the memory saved by interning.
+ */
+public class IndexMemoryReporter {
+  private static final String JDK_RESOURCE_PATH = "/resources/jdk/index.json";
+  private static final int NUM_GC_RUNS = 5;
+  private static final long BYTES_PER_MB = 1024 * 1024;
+  private static final String NO_INTERN_FLAG = "--no-intern";
+
+  public void run(Reader reader) {
+    long baseline = getUsedHeap();
+    Module module = new IndexStore().readModule(reader);
+    long loaded = getUsedHeap();
+    module.freeze();
+    long frozen = getUsedHeap();
+
+    System.out.printf("Files:                %d\n", module.getAllFiles().size());
+    System.out.printf("Classes:              %d\n", module.getClassIndex().size());
+    System.out.printf("Heap used by module:  %s (loaded)\n", formatBytes(loaded - baseline));
+    System.out.printf("                      %s (frozen)\n", formatBytes(frozen - baseline));
+    System.out.printf("Saved by freezing:    %s\n", formatBytes(loaded - frozen));
+  }
+
+  private static long getUsedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < NUM_GC_RUNS; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static String formatBytes(long bytes) {
+    return String.format("%,d bytes (%.1f MB)", bytes, (double) bytes / BYTES_PER_MB);
+  }
+
+  private static Reader openIndex(List<String> args) throws IOException {
+    if (!args.isEmpty()) {
+      return Files.newBufferedReader(Paths.get(args.get(0)), UTF_8);
+    }
+    return new BufferedReader(
+        new InputStreamReader(Project.class.getResourceAsStream(JDK_RESOURCE_PATH), UTF_8));
+  }
+
+  public static void main(String[] args) throws IOException {
+    List<String> argList = new ArrayList<>(Arrays.asList(args));
+    if (argList.remove(NO_INTERN_FLAG)) {
+      ModelInterner.setEnabled(false);
+    }
+    try (Reader reader = openIndex(argList)) {
+      new IndexMemoryReporter().run(reader);
+    }
+  }
+}
@@ -71,6 +71,7 @@ public class Indexer {
           throw new RuntimeException(t);
         }
       }
+      classModuleBuilder.build();
     }
     for (String dependIndexFile : dependIndexFiles) {
       project.loadTypeIndexFile(dependIndexFile);
@@ -0,0 +1,137 @@
+package org.javacomp.tool;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.EntityWithContext;
+import org.javacomp.model.MethodEntity;
+import org.javacomp.model.Module;
+import org.javacomp.model.SolvedType;
+import org.javacomp.model.VariableEntity;
+import org.javacomp.options.IndexOptions;
+import org.javacomp.parser.AstScanner;
+import org.javacomp.parser.ParserContext;
+import org.javacomp.typesolver.OverloadSolver;
+import org.javacomp.typesolver.TypeSolver;
+
+/**
+ * A micro-benchmark of {@link OverloadSolver} against a class with many overloads of one method,
+ * similar to {@code StringBuilder.append} or {@code ImmutableList.of}.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * bazel run //src/main/java/org/javacomp/tool:OverloadSolverBenchmark -- [iterations]
+ * </pre>
+ *
+ * <p>Each invocation in the benchmark is described by a probe method whose parameter types are the
+ * argument types. The average time of solving the overload for each invocation is reported.
+ */
+public class OverloadSolverBenchmark {
+  private static final String FILENAME = "/benchmark/Overloads.java";
+  private static final String CLASS_NAME = "Overloads";
+  private static final String METHOD_NAME = "append";
+  private static final String PROBE_PREFIX = "probe_";
+  private static final int DEFAULT_ITERATIONS = 100000;
+  private static final int WARMUP_ITERATIONS = 10000;
+
+  private static final ImmutableList<String> PARAMETER_TYPES =
+      ImmutableList.of(
+          "boolean", "char", "int", "long", "float", "double", "Foo", "Bar", "Baz", "char[]");
+
+  // Probe method name suffixes and parameters, representing the argument types of invocations.
+  private static final ImmutableList<String> PROBES =
+      ImmutableList.of(
+          "exact_int(int a)",
+          "exact_Foo_long(Foo a, long b)",
+          "subtype_Bar_Bar(Bar a, Bar b)",
+          "widening_short_short(short a, short b)",
+          "varargs_Baz_Baz_Baz_Baz(Baz a, Baz b, Baz c, Baz d)",
+          "no_match_Foo_Foo_Foo_Foo_Foo(Foo a, Foo b, Foo c, Foo d, Foo e)");
+
+  private final TypeSolver typeSolver = new TypeSolver();
+  private final OverloadSolver overloadSolver = new OverloadSolver(typeSolver);
+
+  public void run(int iterations) {
+    Module module = new Module();
+    String content = generateSource();
+    module.addOrReplaceFileScope(
+        new AstScanner(IndexOptions.FULL_INDEX_BUILDER.build())
+            .startScan(new ParserContext().parse(FILENAME, content), FILENAME, content));
+    ClassEntity classEntity =
+        typeSolver.findClassInModule(ImmutableList.of(CLASS_NAME), module).get();
+
+    List<EntityWithContext> overloads = new ArrayList<>();
+    for (MethodEntity method : classEntity.getMethodsWithName(METHOD_NAME)) {
+      overloads.add(EntityWithContext.ofEntity(method));
+    }
+    System.out.printf("Overloads of %s: %d\n", METHOD_NAME, overloads.size());
+
+    for (String probe : PROBES) {
+      String probeName = PROBE_PREFIX + probe.substring(0, probe.indexOf('('));
+      MethodEntity probeMethod = classEntity.getMethodsWithName(probeName).get(0);
+      List<Optional<SolvedType>> argumentTypes = new ArrayList<>();
+      for (VariableEntity parameter : probeMethod.getParameters()) {
+        argumentTypes.add(typeSolver.solve(parameter.getType(), classEntity, module));
+      }
+
+      MethodEntity solved = null;
+      for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+        solved = overloadSolver.solve(overloads, argumentTypes, module);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        solved = overloadSolver.solve(overloads, argumentTypes, module);
+      }
+      long elapsed = System.nanoTime() - start;
+      System.out.printf(
+          "%-40s %10.1f ns/op  -> %s\n",
+          probeName, (double) elapsed / iterations, solved.getParameterTypeErasures());
+    }
+  }
+
+  /** Generates a class with overloads of all combinations of up to 3 parameter types. */
+  private static String generateSource() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("public class ").append(CLASS_NAME).append(" {\n");
+    sb.append("  public class Foo {}\n");
+    sb.append("  public class Bar extends Foo {}\n");
+    sb.append("  public class Baz {}\n");
+    int numOverloads = 0;
+    for (String type1 : PARAMETER_TYPES) {
+      appendOverload(sb, numOverloads++, type1);
+      for (String type2 : PARAMETER_TYPES) {
+        appendOverload(sb, numOverloads++, type1 + " a", type2);
+        appendOverload(sb, numOverloads++, type1 + " a", type2 + " b", "long");
+      }
+    }
+    appendOverload(sb, numOverloads++, "Baz...");
+    appendOverload(sb, numOverloads++, "Foo a", "Baz...");
+    for (String probe : PROBES) {
+      sb.append("  public void ").append(PROBE_PREFIX).append(probe).append(" {}\n");
+    }
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  private static void appendOverload(StringBuilder sb, int index, String... parameters) {
+    sb.append("  public Overloads ").append(METHOD_NAME).append("(");
+    for (int i = 0; i < parameters.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(parameters[i]);
+      if (i == parameters.length - 1) {
+        sb.append(" p").append(index);
+      }
+    }
+    sb.append(") {}\n");
+  }
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+    new OverloadSolverBenchmark().run(iterations);
+  }
+}
@@ -0,0 +1,142 @@
+package org.javacomp.tool;
+
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Range;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import org.javacomp.file.SimpleFileManager;
+import org.javacomp.model.FileScope;
+import org.javacomp.project.SimpleModuleManager;
+import org.javacomp.reference.ReferenceSolver;
+
+/**
+ * A benchmark of {@link ReferenceSolver} finding references of a field used by many files,
+ * comparing verifying matches serially with verifying them in parallel.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * bazel run //src/main/java/org/javacomp/tool:ReferenceSolverBenchmark -- \
+ *     [files] [iterations] [threads]
+ * </pre>
+ *
+ * <p>Every generated file references the field several times, and declares local variables with
+ * the same name as the field, so that both the textual matching and the verification of the
+ * matches are exercised.
+ *
+ * <p>The parallel search uses {@code threads} threads, by default the number of available
+ * processors. The speedup is bounded by the number of processors, so run it on a multi-core
+ * machine. The available processors are printed with the results.
+ */
+public class ReferenceSolverBenchmark {
+  private static final String DIRECTORY = "/benchmark/";
+  private static final String TARGET_CLASS = "Target";
+  private static final String FIELD_NAME = "counter";
+  private static final String FIELD_DECLARATION = "public static int " + FIELD_NAME;
+  private static final int DEFAULT_FILES = 2000;
+  private static final int DEFAULT_ITERATIONS = 5;
+  private static final int WARMUP_ITERATIONS = 2;
+
+  private final SimpleModuleManager moduleManager = new SimpleModuleManager();
+
+  public void run(int numFiles, int iterations, int parallelism) {
+    String targetContent =
+        "package benchmark;\n"
+            + "public class "
+            + TARGET_CLASS
+            + " {\n"
+            + "  "
+            + FIELD_DECLARATION
+            + ";\n"
+            + "}\n";
+    addFile(TARGET_CLASS, targetContent);
+    for (int i = 0; i < numFiles; i++) {
+      String className = "User" + i;
+      addFile(className, generateSource(className));
+    }
+    // Line 2 of the target file is the field declaration.
+    int column = targetContent.split("\n")[2].indexOf(FIELD_NAME);
+    System.out.printf(
+        "Files: %d, available processors: %d\n",
+        numFiles + 1, Runtime.getRuntime().availableProcessors());
+
+    ForkJoinPool serialPool = new ForkJoinPool(1);
+    ForkJoinPool parallelPool = new ForkJoinPool(parallelism);
+    ReferenceSolver serialSolver = new ReferenceSolver(moduleManager.getFileManager(), serialPool);
+    ReferenceSolver parallelSolver =
+        new ReferenceSolver(moduleManager.getFileManager(), parallelPool);
+    // Both solvers are warmed up before measuring, and measured alternately, so that neither of
+    // them benefits from the JIT compilation done by the other.
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      findReferences(serialSolver, 2, column);
+      findReferences(parallelSolver, 2, column);
+    }
+    long serialNanos = 0;
+    long parallelNanos = 0;
+    for (int i = 0; i < iterations; i++) {
+      serialNanos += findReferences(serialSolver, 2, column);
+      parallelNanos += findReferences(parallelSolver, 2, column);
+    }
+    serialPool.shutdown();
+    parallelPool.shutdown();
+
+    double serialMillis = serialNanos / 1000000.0 / iterations;
+    double parallelMillis = parallelNanos / 1000000.0 / iterations;
+    System.out.printf("%-24s %10.1f ms/op\n", "serial", serialMillis);
+    System.out.printf(
+        "%-24s %10.1f ms/op\n", "parallel (" + parallelism + " threads)", parallelMillis);
+    System.out.printf("Speedup: %.2fx\n", serialMillis / parallelMillis);
+  }
+
+  /** Returns the elapsed nanoseconds of finding the references of the field. */
+  private long findReferences(ReferenceSolver referenceSolver, int line, int column) {
+    long start = System.nanoTime();
+    Multimap<FileScope, Range<Integer>> references =
+        referenceSolver.findReferences(moduleManager, getPath(TARGET_CLASS), line, column);
+    long elapsed = System.nanoTime() - start;
+    if (references.isEmpty()) {
+      throw new IllegalStateException("No reference found");
+    }
+    return elapsed;
+  }
+
+  private void addFile(String className, String content) {
+    Path path = getPath(className);
+    SimpleFileManager fileManager = moduleManager.getFileManager();
+    fileManager.openFileForSnapshot(path.toUri(), content);
+    moduleManager.addOrUpdateFile(path, /* fixContentForParsing= */ false);
+  }
+
+  private static Path getPath(String className) {
+    return Paths.get(DIRECTORY + className + ".java");
+  }
+
+  /** Generates a class referencing the field, and shadowing it with local variables. */
+  private static String generateSource(String className) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("package benchmark;\n");
+    sb.append("public class ").append(className).append(" {\n");
+    sb.append("  public int increase(int delta) {\n");
+    sb.append("    Target.").append(FIELD_NAME).append(" += delta;\n");
+    sb.append("    return Target.").append(FIELD_NAME).append(";\n");
+    sb.append("  }\n");
+    sb.append("  public int shadow() {\n");
+    sb.append("    int ").append(FIELD_NAME).append(" = Target.").append(FIELD_NAME).append(";\n");
+    sb.append("    for (int i = 0; i < 10; i++) {\n");
+    sb.append("      ").append(FIELD_NAME).append(" += i;\n");
+    sb.append("    }\n");
+    sb.append("    return ").append(FIELD_NAME).append(";\n");
+    sb.append("  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  public static void main(String[] args) {
+    int numFiles = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FILES;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+    int parallelism =
+        args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    new ReferenceSolverBenchmark().run(numFiles, iterations, parallelism);
+  }
+}
@@ -2,12 +2,15 @@ package org.javacomp.typesolver;
 
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.javacomp.model.Entity;
 import org.javacomp.model.EntityScope;
+import org.javacomp.model.MethodEntity;
 
 /**
  * A build of {@link List} that ignores a new element the list if any {@link Entity} from existing
@@ -17,12 +20,22 @@ import org.javacomp.model.EntityScope;
  *
  * <ul>
  *   <li>Neither a nor b is a method; or
- *   <li>Both a and b are methods, and a can override b.
+ *   <li>Both a and b are methods, and a can override b, i.e. they have the same {@link
+ *       MethodEntity#getErasedSignature erased signature}.
  * </ul>
+ *
+ * <p>Methods whose erased signatures are unknown without solving their parameter types don't
+ * shadow and are not shadowed by other methods, so that no overload is hidden by mistake.
+ *
+ * <p>Adding an element takes constant time regardless of the number of existing elements.
  */
 public class EntityShadowingListBuilder<E> {
   private final ArrayList<E> elements;
   private final Function<E, Entity> getEntityFunction;
+  // Created on demand, since most names are not shared by multiple methods.
+  @Nullable private Set<String> methodSignatures;
+  private boolean hasNonMethod;
+  private boolean hasNonMethodNotForImport;
 
   /**
    * @param getEntityFunction a function to get an {@link Entity} from an element for shadowing
@@ -30,51 +43,71 @@ public class EntityShadowingListBuilder<E> {
    *     won't be shadowed
    */
   public EntityShadowingListBuilder(Function<E, Entity> getEntityFunction) {
-    this.elements = new ArrayList<>();
+    // Most lists have only one element.
+    this.elements = new ArrayList<>(1);
     this.getEntityFunction = getEntityFunction;
   }
 
   public EntityShadowingListBuilder<E> add(E newElement) {
-    Entity newEntity = getEntityFunction.apply(newElement);
-    for (E existing : elements) {
-      if (entityShadows(getEntityFunction.apply(existing), newEntity)) {
-        return this;
-      }
-    }
-    elements.add(newElement);
+    tryAdd(newElement);
     return this;
   }
 
-  public ImmutableList<E> build() {
-    return ImmutableList.copyOf(elements);
-  }
-
-  public Stream<E> stream() {
-    return elements.stream();
-  }
-
-  private boolean entityShadows(@Nullable Entity existingEntity, @Nullable Entity newEntity) {
-    if (existingEntity == null || newEntity == null) {
-      return false;
+  /**
+   * Adds {@code newElement} to the list if it's not shadowed by any existing element.
+   *
+   * @return whether {@code newElement} is added
+   */
+  public boolean tryAdd(E newElement) {
+    Entity newEntity = getEntityFunction.apply(newElement);
+    if (newEntity == null) {
+      elements.add(newElement);
+      return true;
     }
-    boolean existingIsMethod = existingEntity.getKind() == Entity.Kind.METHOD;
-    boolean newIsMethod = newEntity.getKind() == Entity.Kind.METHOD;
-    boolean existingIsForImport = existingEntity instanceof ForImportEntity;
-    boolean newIsForImport = newEntity instanceof ForImportEntity;
 
-    if (existingIsMethod != newIsMethod) {
+    if (newEntity.getKind() == Entity.Kind.METHOD) {
+      // Methods wrapped in ForImportEntity don't have signatures. They don't shadow and are not
+      // shadowed by other methods.
+      if (!(newEntity instanceof MethodEntity) || addMethodSignature((MethodEntity) newEntity)) {
+        elements.add(newElement);
+        return true;
+      }
       return false;
     }
-    if (existingIsForImport && newIsForImport) {
+
+    if (newEntity instanceof ForImportEntity) {
       // We don't want foo.Bar shadow foz.Bar if no class Bar is imported.
-      return false;
+      if (hasNonMethodNotForImport) {
+        return false;
+      }
+    } else {
+      if (hasNonMethod) {
+        return false;
+      }
+      hasNonMethodNotForImport = true;
     }
-    if (!existingIsMethod) {
+    hasNonMethod = true;
+    elements.add(newElement);
+    return true;
+  }
+
+  private boolean addMethodSignature(MethodEntity method) {
+    Optional<String> signature = method.getErasedSignature();
+    if (!signature.isPresent()) {
       return true;
     }
+    if (methodSignatures == null) {
+      methodSignatures = new HashSet<>();
+    }
+    return methodSignatures.add(signature.get());
+  }
 
-    // TODO: Implement method overriding detection.
-    return false;
+  public ImmutableList<E> build() {
+    return ImmutableList.copyOf(elements);
+  }
+
+  public Stream<E> stream() {
+    return elements.stream();
   }
 
   /**
@@ -18,6 +18,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.javacomp.logging.JLogger;
 import org.javacomp.model.ClassEntity;
+import org.javacomp.model.EntityScope;
 import org.javacomp.model.EntityWithContext;
 import org.javacomp.model.MethodEntity;
 import org.javacomp.model.Module;
@@ -28,6 +29,7 @@ import org.javacomp.model.SolvedPrimitiveType;
 import org.javacomp.model.SolvedReferenceType;
 import org.javacomp.model.SolvedType;
 import org.javacomp.model.TypeReference;
+import org.javacomp.model.VariableEntity;
 
 /**
  * Find which method overload should be invoked with given arguments
@@ -138,10 +140,36 @@ public class OverloadSolver {
       return methods.get(0);
     }
 
+    // Methods that can be invoked with the number of arguments, either with fixed arity or
+    // variable arity. Other methods never match, so there is no need to solve their parameters.
+    int numArguments = argumentTypes.size();
+    List<MethodEntity> arityMatchedMethods = new ArrayList<>();
+    for (MethodEntity method : methods) {
+      int numParameters = method.getParameters().size();
+      if (numParameters == numArguments
+          || (method.isVariableArity() && numParameters - 1 <= numArguments)) {
+        arityMatchedMethods.add(method);
+      }
+    }
+    if (arityMatchedMethods.isEmpty()) {
+      return getMostSpecificMethod(
+          methods, numArguments, SignatureMatchLevel.LENGTH_NOT_MATCH, module);
+    }
+    if (arityMatchedMethods.size() == 1) {
+      return arityMatchedMethods.get(0);
+    }
+
+    // A method whose parameter types are exactly the argument types is the most specific one.
+    Optional<MethodEntity> exactMatchedMethod =
+        findExactMatchedMethod(arityMatchedMethods, argumentTypes, module);
+    if (exactMatchedMethod.isPresent()) {
+      return exactMatchedMethod.get();
+    }
+
     SignatureMatchLevel previousMatchLevel = SignatureMatchLevel.LENGTH_NOT_MATCH;
     List<MethodEntity> matchedMethods = new ArrayList<>();
     // Find the best match methods.
-    for (MethodEntity method : methods) {
+    for (MethodEntity method : arityMatchedMethods) {
       SignatureMatchLevel matchLevel = matchMethodSignature(method, argumentTypes, module);
       switch (compareMatchLevel(matchLevel, previousMatchLevel)) {
         case -1:
@@ -165,6 +193,90 @@ public class OverloadSolver {
     return getMostSpecificMethod(matchedMethods, argumentTypes.size(), previousMatchLevel, module);
   }
 
+  /**
+   * Finds the first method whose parameter types are the same as the argument types, ignoring type
+   * arguments.
+   *
+   * <p>The erased names of the parameter types are compared with the argument types first. Only
+   * parameter types of methods with matching names are solved.
+   */
+  private Optional<MethodEntity> findExactMatchedMethod(
+      List<MethodEntity> methods, List<Optional<SolvedType>> argumentTypes, Module module) {
+    List<String> argumentErasures = new ArrayList<>(argumentTypes.size());
+    for (Optional<SolvedType> argumentType : argumentTypes) {
+      String erasure = argumentType.isPresent() ? getErasure(argumentType.get()) : null;
+      if (erasure == null) {
+        // Unknown argument types match all methods, there is no exact match.
+        return Optional.empty();
+      }
+      argumentErasures.add(erasure);
+    }
+
+    methodLoop:
+    for (MethodEntity method : methods) {
+      if (!method.getParameterTypeErasures().equals(argumentErasures)) {
+        continue;
+      }
+      EntityScope methodParentScope = method.getScope().getParentScope().get();
+      List<VariableEntity> parameters = method.getParameters();
+      for (int i = 0; i < parameters.size(); i++) {
+        if (argumentTypes.get(i).get() instanceof SolvedPrimitiveType) {
+          // Primitive types with the same name are the same.
+          continue;
+        }
+        Optional<SolvedType> parameterType =
+            typeSolver.solve(parameters.get(i).getType(), methodParentScope, module);
+        if (!parameterType.isPresent()
+            || !isSameErasedType(argumentTypes.get(i).get(), parameterType.get())) {
+          continue methodLoop;
+        }
+      }
+      return Optional.of(method);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the erased name of {@code solvedType} in the format of {@link
+   * MethodEntity#getParameterTypeErasures}, or {@code null} if it's not a type that can be declared
+   * as a parameter type.
+   */
+  @Nullable
+  private static String getErasure(SolvedType solvedType) {
+    if (solvedType instanceof SolvedPrimitiveType) {
+      return ((SolvedPrimitiveType) solvedType).getEntity().getSimpleName();
+    }
+    if (solvedType instanceof SolvedReferenceType) {
+      return ((SolvedReferenceType) solvedType).getEntity().getSimpleName();
+    }
+    if (solvedType instanceof SolvedArrayType) {
+      SolvedType baseType = ((SolvedArrayType) solvedType).getBaseType();
+      if (baseType instanceof SolvedArrayType) {
+        // Multi-dimensional arrays are not distinguished in parameter type erasures.
+        return null;
+      }
+      String baseErasure = getErasure(baseType);
+      return baseErasure == null ? null : baseErasure + "[]";
+    }
+    return null;
+  }
+
+  private static boolean isSameErasedType(SolvedType lhs, SolvedType rhs) {
+    if (lhs instanceof SolvedPrimitiveType && rhs instanceof SolvedPrimitiveType) {
+      return ((SolvedPrimitiveType) lhs)
+          .getEntity()
+          .equals(((SolvedPrimitiveType) rhs).getEntity());
+    }
+    if (lhs instanceof SolvedReferenceType && rhs instanceof SolvedReferenceType) {
+      return ((SolvedReferenceType) lhs).getEntity() == ((SolvedReferenceType) rhs).getEntity();
+    }
+    if (lhs instanceof SolvedArrayType && rhs instanceof SolvedArrayType) {
+      return isSameErasedType(
+          ((SolvedArrayType) lhs).getBaseType(), ((SolvedArrayType) rhs).getBaseType());
+    }
+    return false;
+  }
+
   private SignatureMatchLevel matchMethodSignature(
       MethodEntity method, List<Optional<SolvedType>> argumentTypes, Module module) {
     List<TypeReference> parameterTypes =
@@ -172,8 +284,7 @@ public class OverloadSolver {
             .map(p -> p.getType())
             .collect(ImmutableList.toImmutableList());
 
-    boolean isVariableArityInvocation =
-        !parameterTypes.isEmpty() && parameterTypes.get(parameterTypes.size() - 1).isArray();
+    boolean isVariableArityInvocation = method.isVariableArity();
     if (!isVariableArityInvocation && argumentTypes.size() != parameterTypes.size()) {
       return SignatureMatchLevel.LENGTH_NOT_MATCH;
     }
@@ -0,0 +1,176 @@
+package org.javacomp.typesolver;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.javacomp.model.EntityScope;
+import org.javacomp.model.Module;
+import org.javacomp.model.SolvedType;
+import org.javacomp.model.SolvedTypeParameters;
+import org.javacomp.model.TypeReference;
+
+/**
+ * Memoizes types solved by {@link TypeSolver} in the context of their defining scopes, and the type
+ * parameters solved from scopes.
+ *
+ * <p>Cached values are grouped by the module they are solved in and the module defining the scope
+ * they are solved for. A group is dropped when the {@link Module#getDefiningGeneration defining
+ * generation} of its scopes changes, e.g. a file of the defining module or its depending modules
+ * is added, updated, or removed. Values solved for scopes in the JDK or JAR archives are kept when
+ * files of the project module change.
+ *
+ * <p>Each group keeps a bounded number of values and evicts the least recently used ones, so that
+ * groups of modules that never change keep caching new values.
+ */
+public class SolvedTypeCache {
+  /** Maximum number of cached values of each kind per module, to bound the memory usage. */
+  private static final int DEFAULT_MAX_ENTRIES_PER_MODULE = 20000;
+
+  private static class SolvedTypeKey {
+    private final TypeReference typeReference;
+    private final EntityScope scope;
+
+    private SolvedTypeKey(TypeReference typeReference, EntityScope scope) {
+      this.typeReference = typeReference;
+      this.scope = scope;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof SolvedTypeKey)) {
+        return false;
+      }
+      SolvedTypeKey otherKey = (SolvedTypeKey) other;
+      // Scopes are compared by identity. A re-parsed file has new scope instances.
+      return scope == otherKey.scope && typeReference.equals(otherKey.typeReference);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(typeReference, System.identityHashCode(scope));
+    }
+  }
+
+  /** Values solved in the same module for scopes defined in the same module. */
+  private static class ModuleCache {
+    private final long generation;
+    private final Cache<SolvedTypeKey, Optional<SolvedType>> solvedTypes;
+    // Scope instances don't override equals() and hashCode(), so they are compared by identity.
+    private final Cache<EntityScope, SolvedTypeParameters> typeParameters;
+
+    private ModuleCache(long generation, int maxEntries) {
+      this.generation = generation;
+      this.solvedTypes = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+      this.typeParameters = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+    }
+  }
+
+  private final int maxEntriesPerModule;
+
+  // Module solved in -> module defining the scopes -> cached values.
+  private final Map<Module, Map<Module, ModuleCache>> moduleCaches = new ConcurrentHashMap<>();
+  private final AtomicLong solvedTypeHits = new AtomicLong();
+  private final AtomicLong solvedTypeMisses = new AtomicLong();
+  private final AtomicLong typeParametersHits = new AtomicLong();
+  private final AtomicLong typeParametersMisses = new AtomicLong();
+
+  public SolvedTypeCache() {
+    this(DEFAULT_MAX_ENTRIES_PER_MODULE);
+  }
+
+  @VisibleForTesting
+  SolvedTypeCache(int maxEntriesPerModule) {
+    this.maxEntriesPerModule = maxEntriesPerModule;
+  }
+
+  /**
+   * Returns the cached type of {@code typeReference} referenced in {@code scope}, or solves it with
+   * {@code solver} and caches the result if it's not cached yet.
+   */
+  Optional<SolvedType> getSolvedType(
+      TypeReference typeReference,
+      EntityScope scope,
+      Module module,
+      Supplier<Optional<SolvedType>> solver) {
+    Cache<SolvedTypeKey, Optional<SolvedType>> solvedTypes =
+        getModuleCache(scope, module).solvedTypes;
+    SolvedTypeKey key = new SolvedTypeKey(typeReference, scope);
+    Optional<SolvedType> solvedType = solvedTypes.getIfPresent(key);
+    if (solvedType != null) {
+      solvedTypeHits.incrementAndGet();
+      return solvedType;
+    }
+    solvedTypeMisses.incrementAndGet();
+    // Not using computeIfAbsent() because solving a type may recursively solve other types.
+    solvedType = solver.get();
+    solvedTypes.put(key, solvedType);
+    return solvedType;
+  }
+
+  /**
+   * Returns the cached type parameters solved from {@code scope}, or solves them with {@code
+   * solver} and caches the result if they are not cached yet.
+   */
+  SolvedTypeParameters getTypeParameters(
+      EntityScope scope, Module module, Supplier<SolvedTypeParameters> solver) {
+    if (scope == null) {
+      return solver.get();
+    }
+    Cache<EntityScope, SolvedTypeParameters> typeParameters =
+        getModuleCache(scope, module).typeParameters;
+    SolvedTypeParameters solvedTypeParameters = typeParameters.getIfPresent(scope);
+    if (solvedTypeParameters != null) {
+      typeParametersHits.incrementAndGet();
+      return solvedTypeParameters;
+    }
+    typeParametersMisses.incrementAndGet();
+    solvedTypeParameters = solver.get();
+    typeParameters.put(scope, solvedTypeParameters);
+    return solvedTypeParameters;
+  }
+
+  public long getSolvedTypeHitCount() {
+    return solvedTypeHits.get();
+  }
+
+  public long getSolvedTypeMissCount() {
+    return solvedTypeMisses.get();
+  }
+
+  public long getTypeParametersHitCount() {
+    return typeParametersHits.get();
+  }
+
+  public long getTypeParametersMissCount() {
+    return typeParametersMisses.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "SolvedTypeCache{solvedType: %d hits, %d misses; typeParameters: %d hits, %d misses}",
+        getSolvedTypeHitCount(),
+        getSolvedTypeMissCount(),
+        getTypeParametersHitCount(),
+        getTypeParametersMissCount());
+  }
+
+  private ModuleCache getModuleCache(EntityScope scope, Module module) {
+    Module definingModule = Module.getDefiningModule(scope).orElse(module);
+    long generation = Module.getDefiningGeneration(scope, module);
+    Map<Module, ModuleCache> definingModuleCaches =
+        moduleCaches.computeIfAbsent(module, m -> new ConcurrentHashMap<>());
+    ModuleCache moduleCache = definingModuleCaches.get(definingModule);
+    if (moduleCache == null || moduleCache.generation != generation) {
+      moduleCache = new ModuleCache(generation, maxEntriesPerModule);
+      definingModuleCaches.put(definingModule, moduleCache);
+    }
+    return moduleCache;
+  }
+}
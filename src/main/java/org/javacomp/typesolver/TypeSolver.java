@@ -10,18 +10,22 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import org.javacomp.logging.JLogger;
 import org.javacomp.model.AggregatePackageScope;
 import org.javacomp.model.ClassEntity;
+import org.javacomp.model.ClassHierarchy;
 import org.javacomp.model.Entity;
 import org.javacomp.model.EntityScope;
 import org.javacomp.model.EntityWithContext;
@@ -61,10 +65,35 @@ public class TypeSolver {
   public static final List<String> JAVA_LANG_STRING_QUALIFIERS =
       ImmutableList.of("java", "lang", "String");
 
+  private final SolvedTypeCache cache = new SolvedTypeCache();
+
+  /**
+   * Solves {@code typeReference} referenced in {@code parentScope}, with the type parameters
+   * defined by {@code parentScope} and its enclosing scopes.
+   *
+   * <p>The result is cached until {@code module} or any of its depending modules changes.
+   */
   public Optional<SolvedType> solve(
       TypeReference typeReference, EntityScope parentScope, Module module) {
-    return solve(
-        typeReference, solveTypeParametersFromScope(parentScope, module), parentScope, module);
+    if (typeReference.isPrimitive()) {
+      // Solving primitive types doesn't look up any scope. It's cheaper than looking up the cache.
+      return solve(typeReference, SolvedTypeParameters.EMPTY, parentScope, module);
+    }
+    return cache.getSolvedType(
+        typeReference,
+        parentScope,
+        module,
+        () ->
+            solve(
+                typeReference,
+                solveTypeParametersFromScope(parentScope, module),
+                parentScope,
+                module));
+  }
+
+  /** Returns the cache of solved types, for inspecting its statistics. */
+  public SolvedTypeCache getCache() {
+    return cache;
   }
 
   public Optional<SolvedType> solve(
@@ -520,7 +549,7 @@ public class TypeSolver {
               entity -> {
                 if (position >= 0
                     && entity.getKind() == Entity.Kind.VARIABLE
-                    && entity.getSymbolRange().lowerEndpoint() > position) {
+                    && entity.getSymbolStart() > position) {
                   // Filter out variables defined after position.
                   return false;
                 }
@@ -764,10 +793,17 @@ public class TypeSolver {
   }
 
   /**
-   * Solve type parameter bindings based on the type parameters declared in the given scope and its
-   * parent scopes.
+   * Solves the type parameters defined by {@code baseScope} and its enclosing scopes.
+   *
+   * <p>The result is cached until {@code module} or any of its depending modules changes.
    */
   public SolvedTypeParameters solveTypeParametersFromScope(EntityScope baseScope, Module module) {
+    return cache.getTypeParameters(
+        baseScope, module, () -> solveTypeParametersFromScopeUncached(baseScope, module));
+  }
+
+  private SolvedTypeParameters solveTypeParametersFromScopeUncached(
+      EntityScope baseScope, Module module) {
     Deque<List<TypeParameter>> typeParametersStack = new ArrayDeque<>();
     Deque<EntityScope> entityScopeStack = new ArrayDeque<>();
     for (EntityScope currentScope = baseScope;
@@ -916,17 +952,20 @@ public class TypeSolver {
     for (VariableEntity parameter : method.getParameters()) {
       parameters.add(applyTypeParameters(parameter, solvedTypeParameters));
     }
-    return new MethodEntity(
-        method.getSimpleName(),
-        method.getQualifiers(),
-        method.isStatic(),
-        returnType,
-        parameters.build(),
-        method.getTypeParameters(),
-        method.getParentClass(),
-        method.getJavadoc(),
-        method.getSymbolRange(),
-        method.getDefinitionRange());
+    MethodEntity solvedMethod =
+        new MethodEntity(
+            method.getSimpleName(),
+            method.getQualifiers(),
+            method.isStatic(),
+            returnType,
+            parameters.build(),
+            method.getTypeParameters(),
+            method.getParentClass(),
+            method.getJavadoc(),
+            method.getSymbolRange(),
+            method.getDefinitionRange());
+    solvedMethod.setVariableArity(method.isVariableArity());
+    return solvedMethod;
   }
 
   public VariableEntity applyTypeParameters(
@@ -948,23 +987,144 @@ public class TypeSolver {
     }
   }
 
-  /** An iterator walking through a class and all its ancestor classes and interfaces */
-  public class ClassHierarchyIterator extends AbstractIterator<EntityWithContext> {
-    private class ClassReference {
-      private final TypeReference classType;
-      private final EntityWithContext subclassWithContext;
+  /** Returns the resolved direct super class and interfaces of {@code classEntity}. */
+  public ImmutableList<ClassEntity> getDirectSupertypes(ClassEntity classEntity, Module module) {
+    ImmutableList.Builder<ClassEntity> builder = new ImmutableList.Builder<>();
+    for (ClassHierarchy.Supertype supertype :
+        getClassHierarchy(classEntity, module).getDirectSupertypes()) {
+      builder.add(supertype.getClassEntity());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the members of {@code classEntity} and all its ancestors. Members shadowed by the ones
+   * of the class or closer ancestors are excluded according to {@link EntityShadowingListBuilder}.
+   * Type parameters are not applied to the members.
+   *
+   * <p>The result is cached in {@code classEntity} until the module defining it or any of its
+   * depending modules changes.
+   */
+  public ImmutableList<ClassHierarchy.Member> getEffectiveMembers(
+      ClassEntity classEntity, Module module) {
+    long generation = Module.getDefiningGeneration(classEntity, module);
+    Optional<ClassHierarchy> cachedHierarchy = classEntity.getCachedHierarchy();
+    if (cachedHierarchy.isPresent()
+        && cachedHierarchy.get().isValidFor(module, generation)
+        && cachedHierarchy.get().getEffectiveMembers().isPresent()) {
+      return cachedHierarchy.get().getEffectiveMembers().get();
+    }
 
-      private ClassReference(TypeReference classType, EntityWithContext subclassWithContext) {
-        this.classType = classType;
-        this.subclassWithContext = subclassWithContext;
+    // Classes and variables are in different namespaces, so they don't shadow each other.
+    Map<String, EntityShadowingListBuilder<ClassHierarchy.Member>> classMembers =
+        new LinkedHashMap<>();
+    Map<String, EntityShadowingListBuilder<ClassHierarchy.Member>> otherMembers =
+        new LinkedHashMap<>();
+    int classIndex = 0;
+    for (ClassEntity classInHierarchy : classHierarchyWithoutContext(classEntity, module)) {
+      for (Entity member : classInHierarchy.getMemberEntities().values()) {
+        Map<String, EntityShadowingListBuilder<ClassHierarchy.Member>> members =
+            member instanceof ClassEntity ? classMembers : otherMembers;
+        members
+            .computeIfAbsent(
+                member.getSimpleName(),
+                name -> new EntityShadowingListBuilder<>(ClassHierarchy.Member::getEntity))
+            .add(ClassHierarchy.Member.create(member, classIndex));
       }
+      classIndex++;
     }
 
-    private final Deque<ClassReference> classQueue;
-    private final Set<Entity> visitedClassEntity;
+    ImmutableList.Builder<ClassHierarchy.Member> builder = new ImmutableList.Builder<>();
+    for (EntityShadowingListBuilder<ClassHierarchy.Member> members :
+        Iterables.concat(otherMembers.values(), classMembers.values())) {
+      builder.addAll(members.build());
+    }
+    ImmutableList<ClassHierarchy.Member> effectiveMembers = builder.build();
+    // Iterating through the hierarchy has cached the resolved ancestors in classEntity.
+    ClassHierarchy hierarchy = getClassHierarchy(classEntity, module);
+    classEntity.setCachedHierarchy(
+        hierarchy.toBuilder().setEffectiveMembers(effectiveMembers).build());
+    return effectiveMembers;
+  }
+
+  /**
+   * Returns the resolved direct super class and interfaces of {@code classEntity}. The result is
+   * cached in {@code classEntity} until the module defining it or any of its depending modules
+   * changes.
+   *
+   * @see Module#getDefiningGeneration
+   */
+  private ClassHierarchy getClassHierarchy(ClassEntity classEntity, Module module) {
+    long generation = Module.getDefiningGeneration(classEntity, module);
+    Optional<ClassHierarchy> cachedHierarchy = classEntity.getCachedHierarchy();
+    if (cachedHierarchy.isPresent() && cachedHierarchy.get().isValidFor(module, generation)) {
+      return cachedHierarchy.get();
+    }
+
+    ImmutableList.Builder<ClassHierarchy.Supertype> builder = new ImmutableList.Builder<>();
+    EntityScope parentScope = classEntity.getParentScope().get();
+    if (classEntity.getSuperClass().isPresent()) {
+      addSupertype(builder, classEntity.getSuperClass().get(), parentScope, module);
+    } else if (classEntity.getKind() == Entity.Kind.ENUM) {
+      Optional<ClassEntity> javaLangEnum =
+          findClassInModule(TypeReference.JAVA_LANG_ENUM.getFullName(), module);
+      if (javaLangEnum.isPresent()) {
+        builder.add(
+            ClassHierarchy.Supertype.create(
+                javaLangEnum.get(), Optional.empty(), -1 /* subclassIndex */));
+      }
+    }
+    for (TypeReference iface : classEntity.getInterfaces()) {
+      addSupertype(builder, iface, parentScope, module);
+    }
+
+    ClassHierarchy hierarchy =
+        ClassHierarchy.builder()
+            .setModule(module)
+            .setGeneration(generation)
+            .setDirectSupertypes(builder.build())
+            .build();
+    classEntity.setCachedHierarchy(hierarchy);
+    return hierarchy;
+  }
+
+  private void addSupertype(
+      ImmutableList.Builder<ClassHierarchy.Supertype> builder,
+      TypeReference typeReference,
+      EntityScope parentScope,
+      Module module) {
+    Optional<ClassEntity> supertype =
+        findClassFromClassOrFile(typeReference.getFullName(), parentScope, module);
+    if (supertype.isPresent()) {
+      builder.add(
+          ClassHierarchy.Supertype.create(
+              supertype.get(), Optional.of(typeReference), -1 /* subclassIndex */));
+    }
+  }
+
+  /**
+   * An iterator walking through a class and all its ancestor classes and interfaces.
+   *
+   * <p>The direct super types of each class are resolved once and cached in the class. The ancestor
+   * list of the class is cached after the first full iteration, so that further iterations don't
+   * need to resolve any class.
+   */
+  public class ClassHierarchyIterator extends AbstractIterator<EntityWithContext> {
     private final EntityWithContext classWithContext;
+    private final ClassEntity classEntity;
     private final Module module;
     private final boolean solveTypeParameters;
+    // Ancestors of classEntity from the cache, or null if they are not resolved yet.
+    private final ImmutableList<ClassHierarchy.Supertype> cachedAncestors;
+    // Contexts of returned ancestors, in the same order of the ancestors.
+    private final List<EntityWithContext> ancestorContexts;
+
+    // States for resolving ancestors when they are not cached.
+    private final List<ClassHierarchy.Supertype> ancestors;
+    private final Deque<ClassHierarchy.Supertype> supertypeQueue;
+    private final Set<Entity> visitedClassEntity;
+    // The index of the next ancestor whose direct super types to be enqueued. -1 is classEntity.
+    private int nextAncestorToExpand;
 
     private boolean firstItem;
     private boolean javaLangObjectAdded;
@@ -972,88 +1132,66 @@ public class TypeSolver {
     public ClassHierarchyIterator(
         EntityWithContext classWithContext, Module module, boolean solveTypeParameters) {
       this.classWithContext = classWithContext;
+      this.classEntity = (ClassEntity) classWithContext.getEntity();
       this.module = module;
       this.solveTypeParameters = solveTypeParameters;
-      this.classQueue = new ArrayDeque<>();
+      this.ancestorContexts = new ArrayList<>();
+      this.ancestors = new ArrayList<>();
+      this.supertypeQueue = new ArrayDeque<>();
       this.visitedClassEntity = new HashSet<>();
+      this.nextAncestorToExpand = -1;
       this.firstItem = true;
+
+      Optional<ClassHierarchy> cachedHierarchy = classEntity.getCachedHierarchy();
+      if (cachedHierarchy.isPresent()
+          && cachedHierarchy
+              .get()
+              .isValidFor(module, Module.getDefiningGeneration(classEntity, module))
+          && cachedHierarchy.get().getLinearizedAncestors().isPresent()) {
+        this.cachedAncestors = cachedHierarchy.get().getLinearizedAncestors().get();
+      } else {
+        this.cachedAncestors = null;
+      }
     }
 
     @Override
     protected EntityWithContext computeNext() {
       if (firstItem) {
         firstItem = false;
-        visitClassAndEnqueueSupers(classWithContext);
+        visitClass(classEntity);
         return classWithContext;
       }
 
-      while (!classQueue.isEmpty()) {
-        ClassReference classReference = classQueue.removeFirst();
-        Optional<EntityWithContext> solvedEntity;
-        if (classReference.subclassWithContext == null) {
-          solvedEntity =
-              findClassInModule(classReference.classType.getFullName(), module)
-                  .map(
-                      entity ->
-                          EntityWithContext.simpleBuilder()
-                              .setEntity(entity)
-                              .setInstanceContext(classWithContext.isInstanceContext())
-                              .build());
-        } else if (solveTypeParameters) {
-          solvedEntity =
-              solve(
-                      classReference.classType,
-                      classReference.subclassWithContext.getSolvedTypeParameters(),
-                      classReference
-                          .subclassWithContext
-                          .getEntity()
-                          .getScope()
-                          .getParentScope()
-                          .get(),
-                      module)
-                  .filter(t -> t instanceof SolvedReferenceType)
-                  .map(
-                      t ->
-                          EntityWithContext.from(t)
-                              .setInstanceContext(classWithContext.isInstanceContext())
-                              .build());
-        } else {
-          solvedEntity =
-              findClassFromClassOrFile(
-                      classReference.classType.getFullName(),
-                      classReference
-                          .subclassWithContext
-                          .getEntity()
-                          .getScope()
-                          .getParentScope()
-                          .get(),
-                      module)
-                  .map(
-                      entity ->
-                          EntityWithContext.simpleBuilder()
-                              .setEntity(entity)
-                              .setInstanceContext(classWithContext.isInstanceContext())
-                              .build());
+      if (cachedAncestors != null) {
+        if (ancestorContexts.size() < cachedAncestors.size()) {
+          return createAncestorContext(cachedAncestors.get(ancestorContexts.size()));
         }
-        if (!solvedEntity.isPresent()) {
-          continue;
+        return endOfData();
+      }
+
+      while (true) {
+        while (supertypeQueue.isEmpty() && nextAncestorToExpand < ancestors.size()) {
+          ClassEntity classToExpand =
+              nextAncestorToExpand < 0
+                  ? classEntity
+                  : ancestors.get(nextAncestorToExpand).getClassEntity();
+          for (ClassHierarchy.Supertype supertype :
+              getClassHierarchy(classToExpand, module).getDirectSupertypes()) {
+            supertypeQueue.addLast(supertype.withSubclassIndex(nextAncestorToExpand));
+          }
+          nextAncestorToExpand++;
         }
-        EntityWithContext entityWithContext = solvedEntity.get();
-        if (!(entityWithContext.getEntity() instanceof ClassEntity)) {
-          logger.warning(
-              "%s is not a class entity for super class/interface type %s of class %s",
-              entityWithContext.getEntity(),
-              classReference.classType,
-              classReference.subclassWithContext.getEntity());
-          continue;
+        if (supertypeQueue.isEmpty()) {
+          break;
         }
 
-        if (visitedClassEntity.contains(entityWithContext.getEntity())) {
+        ClassHierarchy.Supertype supertype = supertypeQueue.removeFirst();
+        if (visitedClassEntity.contains(supertype.getClassEntity())) {
           continue;
         }
-
-        visitClassAndEnqueueSupers(entityWithContext);
-        return entityWithContext;
+        visitClass(supertype.getClassEntity());
+        ancestors.add(supertype);
+        return createAncestorContext(supertype);
       }
 
       if (!javaLangObjectAdded) {
@@ -1061,34 +1199,58 @@ public class TypeSolver {
         Optional<ClassEntity> javaLangObject =
             findClassInModule(JAVA_LANG_OBJECT_QUALIFIERS, module);
         if (javaLangObject.isPresent()) {
-          return EntityWithContext.simpleBuilder()
-              .setEntity(javaLangObject.get())
-              .setInstanceContext(classWithContext.isInstanceContext())
-              .build();
+          ClassHierarchy.Supertype supertype =
+              ClassHierarchy.Supertype.create(
+                  javaLangObject.get(), Optional.empty(), -1 /* subclassIndex */);
+          ancestors.add(supertype);
+          return createAncestorContext(supertype);
         }
       }
+
+      cacheAncestors();
       return endOfData();
     }
 
-    private void visitClassAndEnqueueSupers(EntityWithContext entityWithContext) {
-      visitedClassEntity.add(entityWithContext.getEntity());
-      if ("java.lang.Object".equals(entityWithContext.getEntity().getQualifiedName())) {
+    private void visitClass(ClassEntity visitedClass) {
+      visitedClassEntity.add(visitedClass);
+      if ("java.lang.Object".equals(visitedClass.getQualifiedName())) {
         javaLangObjectAdded = true;
       }
-      enqueueSuperClassAndInterfaces(entityWithContext);
     }
 
-    private void enqueueSuperClassAndInterfaces(EntityWithContext entityWithContext) {
-      ClassEntity classEntity = (ClassEntity) entityWithContext.getEntity();
-      if (classEntity.getSuperClass().isPresent() && classEntity.getParentScope().isPresent()) {
-        classQueue.addLast(
-            new ClassReference(classEntity.getSuperClass().get(), entityWithContext));
-      } else if (classEntity.getKind() == Entity.Kind.ENUM) {
-        classQueue.addLast(new ClassReference(TypeReference.JAVA_LANG_ENUM, null));
-      }
-      for (TypeReference iface : classEntity.getInterfaces()) {
-        classQueue.addLast(new ClassReference(iface, entityWithContext));
+    private EntityWithContext createAncestorContext(ClassHierarchy.Supertype supertype) {
+      EntityWithContext ancestorContext;
+      if (solveTypeParameters && supertype.getTypeReference().isPresent()) {
+        EntityWithContext subclassWithContext =
+            supertype.getSubclassIndex() < 0
+                ? classWithContext
+                : ancestorContexts.get(supertype.getSubclassIndex());
+        SolvedType solvedType =
+            createSolvedType(
+                supertype.getClassEntity(),
+                supertype.getTypeReference().get(),
+                subclassWithContext.getSolvedTypeParameters(),
+                subclassWithContext.getEntity().getParentScope().get(),
+                module);
+        ancestorContext =
+            EntityWithContext.from(solvedType)
+                .setInstanceContext(classWithContext.isInstanceContext())
+                .build();
+      } else {
+        ancestorContext =
+            EntityWithContext.simpleBuilder()
+                .setEntity(supertype.getClassEntity())
+                .setInstanceContext(classWithContext.isInstanceContext())
+                .build();
       }
+      ancestorContexts.add(ancestorContext);
+      return ancestorContext;
+    }
+
+    private void cacheAncestors() {
+      ClassHierarchy hierarchy = getClassHierarchy(classEntity, module);
+      classEntity.setCachedHierarchy(
+          hierarchy.toBuilder().setLinearizedAncestors(ImmutableList.copyOf(ancestors)).build());
     }
   }
 }
@@ -0,0 +1,143 @@
+package org.javacomp.completion;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.Module;
+import org.javacomp.testing.TestUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ClassesForImportLoaderTest {
+  private static final String FILENAME = "/dummy/Completed.java";
+
+  private final Deque<Runnable> pendingTasks = new ArrayDeque<>();
+  // Tasks are only run when the test runs them, so lookups never finish before the deadline.
+  private final ClassesForImportLoader loader = new ClassesForImportLoader(pendingTasks::addLast);
+  private final Module module =
+      TestUtil.parseContent("package foo; class FooBar {} class FooBaz {} class Other {}");
+
+  @Test
+  public void lookupWithoutDeadlineRunsImmediately() {
+    Optional<ImmutableList<ClassEntity>> classes =
+        loader.getClasses(module, "FooB", 100, FILENAME, Deadline.NONE);
+    assertThat(classes).isPresent();
+    assertThat(getNames(classes.get())).containsExactly("FooBar", "FooBaz");
+    assertThat(pendingTasks).isEmpty();
+  }
+
+  @Test
+  public void lookupContinuesAfterDeadline() {
+    assertThat(loader.getClasses(module, "FooB", 100, FILENAME, Deadline.after(Duration.ZERO)))
+        .isEmpty();
+    assertThat(pendingTasks).hasSize(1);
+
+    pendingTasks.removeFirst().run();
+    Optional<ImmutableList<ClassEntity>> classes =
+        loader.getClasses(module, "FooB", 100, FILENAME, Deadline.after(Duration.ZERO));
+    assertThat(classes).isPresent();
+    assertThat(getNames(classes.get())).containsExactly("FooBar", "FooBaz");
+    assertThat(pendingTasks).isEmpty();
+  }
+
+  @Test
+  public void lookupIsRestartedAfterModuleChanges() {
+    loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO));
+    pendingTasks.removeFirst().run();
+
+    module.addOrReplaceFileScope(
+        TestUtil.parseFileContent("package foo; class FooQux {}", TestUtil.DUMMY_PATH));
+    assertThat(loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO)))
+        .isEmpty();
+    pendingTasks.removeFirst().run();
+    assertThat(
+            getNames(
+                loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO))
+                    .get()))
+        .containsExactly("FooQux");
+  }
+
+  @Test
+  public void lookupWithoutDeadlineIsCached() {
+    loader.getClasses(module, "FooB", 100, FILENAME, Deadline.NONE);
+    Optional<ImmutableList<ClassEntity>> classes =
+        loader.getClasses(module, "FooB", 100, FILENAME, Deadline.after(Duration.ZERO));
+    assertThat(classes).isPresent();
+    assertThat(getNames(classes.get())).containsExactly("FooBar", "FooBaz");
+    assertThat(pendingTasks).isEmpty();
+  }
+
+  @Test
+  public void longerPrefixIsFilteredFromShorterPrefix() {
+    loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO));
+    pendingTasks.removeFirst().run();
+
+    Optional<ImmutableList<ClassEntity>> classes =
+        loader.getClasses(module, "FooBaz", 100, FILENAME, Deadline.after(Duration.ZERO));
+    assertThat(classes).isPresent();
+    assertThat(getNames(classes.get())).containsExactly("FooBaz");
+    assertThat(pendingTasks).isEmpty();
+  }
+
+  @Test
+  public void truncatedResultIsNotFilteredForLongerPrefix() {
+    loader.getClasses(module, "Foo", 1, FILENAME, Deadline.after(Duration.ZERO));
+    pendingTasks.removeFirst().run();
+
+    assertThat(loader.getClasses(module, "FooBa", 2, FILENAME, Deadline.after(Duration.ZERO)))
+        .isEmpty();
+    assertThat(pendingTasks).hasSize(1);
+  }
+
+  @Test
+  public void supersededLookupIsCancelled() {
+    loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO));
+    loader.getClasses(module, "FooB", 100, FILENAME, Deadline.after(Duration.ZERO));
+    loader.getClasses(module, "Oth", 100, FILENAME, Deadline.after(Duration.ZERO));
+
+    assertThat(pendingTasks).hasSize(3);
+    assertThat(((Future<?>) pendingTasks.removeFirst()).isCancelled()).isTrue();
+    assertThat(((Future<?>) pendingTasks.removeFirst()).isCancelled()).isTrue();
+    pendingTasks.removeFirst().run();
+    assertThat(
+            getNames(
+                loader.getClasses(module, "Oth", 100, FILENAME, Deadline.after(Duration.ZERO))
+                    .get()))
+        .containsExactly("Other");
+  }
+
+  @Test
+  public void lookupIsKeptWhenCompletedFileChanges() {
+    Path completedFile = Paths.get(FILENAME);
+    module.addOrReplaceFileScope(
+        TestUtil.parseFileContent("package foo; class FooOld {}", completedFile));
+    loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO));
+    pendingTasks.removeFirst().run();
+
+    module.addOrReplaceFileScope(
+        TestUtil.parseFileContent("package foo; class FooNew {}", completedFile));
+    Optional<ImmutableList<ClassEntity>> classes =
+        loader.getClasses(module, "Foo", 100, FILENAME, Deadline.after(Duration.ZERO));
+    assertThat(classes).isPresent();
+    // Classes of the completed file are never returned.
+    assertThat(getNames(classes.get())).containsExactly("FooBar", "FooBaz");
+    assertThat(pendingTasks).isEmpty();
+  }
+
+  private static ImmutableList<String> getNames(ImmutableList<ClassEntity> classes) {
+    return classes.stream()
+        .map(classEntity -> classEntity.getSimpleName())
+        .collect(ImmutableList.toImmutableList());
+  }
+}
@@ -1,9 +1,20 @@
 package org.javacomp.completion;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
 
+import com.google.common.collect.ForwardingMultimap;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.Entity;
+import org.javacomp.model.Module;
+import org.javacomp.testing.TestUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -29,6 +40,140 @@ public class CompletionCandidateListBuilderTest {
         .inOrder();
   }
 
+  @Test
+  public void keepOnlyTopCandidates() {
+    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder("fooB", 3);
+    builder
+        .addCandidate(createSimpleCandidate("foobar"))
+        .addCandidate(createSimpleCandidate("fooBar"))
+        .addCandidate(createSimpleCandidate("foo"))
+        .addCandidate(createSimpleCandidate("Foob"))
+        .addCandidate(createSimpleCandidate("fooB"));
+    assertThat(builder.isTruncated()).isTrue();
+    assertThat(buildCandidateNameList(builder)).containsExactly("fooB", "Foob", "fooBar").inOrder();
+  }
+
+  @Test
+  public void notTruncatedIfCandidatesFit() {
+    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder("foo", 3);
+    builder
+        .addCandidate(createSimpleCandidate("foobar"))
+        .addCandidate(createSimpleCandidate("bar"))
+        .addCandidate(createSimpleCandidate("foo"));
+    assertThat(builder.canAddCandidatesOf(CompletionCandidate.SortCategory.TO_IMPORT)).isTrue();
+    assertThat(builder.isTruncated()).isFalse();
+    assertThat(buildCandidateNameList(builder)).containsExactly("foo", "foobar").inOrder();
+  }
+
+  @Test
+  public void cannotAddWorseCategoryWhenFull() {
+    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder("", 2);
+    builder
+        .addCandidate(createSimpleCandidate("foo"))
+        .addCandidate(createSimpleCandidate("bar"));
+    // Simple candidates are of UNKNOWN category.
+    assertThat(builder.canAddCandidatesOf(CompletionCandidate.SortCategory.DIRECT_MEMBER)).isTrue();
+    assertThat(builder.canAddCandidatesOf(CompletionCandidate.SortCategory.UNKNOWN)).isTrue();
+    assertThat(builder.isTruncated()).isFalse();
+    assertThat(builder.canAddCandidatesOf(CompletionCandidate.SortCategory.TO_IMPORT)).isFalse();
+    assertThat(builder.isTruncated()).isTrue();
+  }
+
+  @Test
+  public void detailEntityIsOnlyComputedForRequestedDetails() {
+    Module module = TestUtil.parseContent("class Foo { int fooBar; String baz; }");
+    Entity fooBar = TestUtil.lookupEntity("Foo.fooBar", module);
+    Entity baz = TestUtil.lookupEntity("Foo.baz", module);
+    AtomicInteger detailEntityCount = new AtomicInteger();
+    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder("foo");
+    builder
+        .addEntity(
+            fooBar,
+            CompletionCandidate.SortCategory.DIRECT_MEMBER,
+            () -> {
+              detailEntityCount.incrementAndGet();
+              return fooBar;
+            })
+        .addEntity(
+            baz,
+            CompletionCandidate.SortCategory.DIRECT_MEMBER,
+            () -> {
+              detailEntityCount.incrementAndGet();
+              return baz;
+            });
+
+    List<CompletionCandidate> candidates = builder.build();
+    assertThat(candidates).hasSize(1);
+    assertThat(detailEntityCount.get()).isEqualTo(0);
+
+    assertThat(candidates.get(0).getDetail()).hasValue("int");
+    assertThat(candidates.get(0).getDetail()).hasValue("int");
+    assertThat(detailEntityCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void addEntitiesFiltersByPrefix() {
+    Module module =
+        TestUtil.parseContent(
+            "class Foo { int fooBar; void fooBaz() {} void fooBaz(int a) {} String baz; }");
+    Multimap<String, Entity> members =
+        ((ClassEntity) TestUtil.lookupEntity("Foo", module)).getMemberEntities();
+    CompletionCandidateListBuilder builder = new CompletionCandidateListBuilder("fooBa");
+    builder.addEntities(members, CompletionCandidate.SortCategory.DIRECT_MEMBER);
+    assertThat(buildCandidateNameList(builder)).containsExactly("fooBar", "fooBaz", "fooBaz");
+
+    // Entities of mutable multimaps are stored in sets.
+    builder = new CompletionCandidateListBuilder("fooBa");
+    builder.addEntities(
+        HashMultimap.create(members), CompletionCandidate.SortCategory.DIRECT_MEMBER);
+    assertThat(buildCandidateNameList(builder)).containsExactly("fooBar", "fooBaz", "fooBaz");
+  }
+
+  @Test
+  public void addEntitiesMatchesOncePerNameWithoutIteratingEntries() {
+    StringBuilder content = new StringBuilder("class Foo {");
+    for (int i = 0; i < 100; i++) {
+      content.append("void method").append(i).append("() {}");
+      content.append("void method").append(i).append("(int a) {}");
+    }
+    content.append("}");
+    Module module = TestUtil.parseContent(content.toString());
+    Multimap<String, Entity> members =
+        ((ClassEntity) TestUtil.lookupEntity("Foo", module)).getMemberEntities();
+    // Fails if entities are iterated through the per-entity views of the multimap.
+    Multimap<String, Entity> keyedOnlyMembers =
+        new ForwardingMultimap<String, Entity>() {
+          @Override
+          protected Multimap<String, Entity> delegate() {
+            return members;
+          }
+
+          @Override
+          public Collection<Entity> values() {
+            throw new UnsupportedOperationException();
+          }
+
+          @Override
+          public Collection<Map.Entry<String, Entity>> entries() {
+            throw new UnsupportedOperationException();
+          }
+        };
+    AtomicInteger matchLevelCount = new AtomicInteger();
+    CompletionCandidateListBuilder builder =
+        new CompletionCandidateListBuilder("qqq", 30) {
+          @Override
+          CompletionPrefixMatcher.MatchLevel getMatchLevel(String name) {
+            matchLevelCount.incrementAndGet();
+            return super.getMatchLevel(name);
+          }
+        };
+
+    builder.addEntities(keyedOnlyMembers, CompletionCandidate.SortCategory.DIRECT_MEMBER);
+
+    assertThat(matchLevelCount.get()).isEqualTo(members.keySet().size());
+    assertThat(builder.build()).isEmpty();
+  }
+
   private SimpleCompletionCandidate createSimpleCandidate(String name) {
     return SimpleCompletionCandidate.builder()
         .setName(name)
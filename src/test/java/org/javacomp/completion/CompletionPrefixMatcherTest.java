@@ -0,0 +1,68 @@
+package org.javacomp.completion;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.javacomp.completion.CompletionPrefixMatcher.computeMatchLevel;
+
+import org.javacomp.completion.CompletionPrefixMatcher.MatchLevel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CompletionPrefixMatcherTest {
+
+  @Test
+  public void prefixMatches() {
+    assertThat(computeMatchLevel("HashMap", "HashMap")).isEqualTo(MatchLevel.CASE_SENSITIVE_EQUAL);
+    assertThat(computeMatchLevel("HashMap", "hashmap"))
+        .isEqualTo(MatchLevel.CASE_INSENSITIVE_EQUAL);
+    assertThat(computeMatchLevel("HashMap", "Hash")).isEqualTo(MatchLevel.CASE_SENSITIVE_PREFIX);
+    assertThat(computeMatchLevel("HashMap", "hash"))
+        .isEqualTo(MatchLevel.CASE_INSENSITIVE_PREFIX);
+    assertThat(computeMatchLevel("HashMap", "")).isEqualTo(MatchLevel.CASE_SENSITIVE_PREFIX);
+  }
+
+  @Test
+  public void camelCaseMatches() {
+    assertThat(computeMatchLevel("HashMap", "HM")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("HashMap", "HaMa")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("HashMultimap", "HM")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("getCompletionResult", "gCR")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("getCompletionResult", "gCo")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("MAX_VALUE", "MAX_V")).isEqualTo(MatchLevel.CASE_SENSITIVE_PREFIX);
+  }
+
+  @Test
+  public void camelCaseMatchesRunsOfCapitalsAsOneHump() {
+    assertThat(computeMatchLevel("URLConnection", "UC")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("URLConnection", "UCon")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("HttpURLConnection", "HUC")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("getURL", "gU")).isEqualTo(MatchLevel.CAMEL_CASE);
+    // C is in the same hump as U.
+    assertThat(computeMatchLevel("URLConnection", "UUC")).isEqualTo(MatchLevel.NOT_MATCH);
+  }
+
+  @Test
+  public void camelCaseMatchesUnderscoresAsHumpSeparators() {
+    assertThat(computeMatchLevel("MAX_VALUE", "MV")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("MAX_VALUE", "M_V")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("MAX_VALUE", "MaVa")).isEqualTo(MatchLevel.CAMEL_CASE);
+    assertThat(computeMatchLevel("MIN_MAX_VALUE", "MMV")).isEqualTo(MatchLevel.CAMEL_CASE);
+  }
+
+  @Test
+  public void subsequenceMatches() {
+    assertThat(computeMatchLevel("getCompletionResult", "gRes")).isEqualTo(MatchLevel.SUBSEQUENCE);
+    assertThat(computeMatchLevel("HashMap", "hmp")).isEqualTo(MatchLevel.SUBSEQUENCE);
+    assertThat(computeMatchLevel("HashMap", "HMC")).isEqualTo(MatchLevel.NOT_MATCH);
+    // The first characters must match.
+    assertThat(computeMatchLevel("HashMap", "Map")).isEqualTo(MatchLevel.NOT_MATCH);
+  }
+
+  @Test
+  public void betterMatchesHaveGreaterLevels() {
+    assertThat(MatchLevel.SUBSEQUENCE).isGreaterThan(MatchLevel.NOT_MATCH);
+    assertThat(MatchLevel.CAMEL_CASE).isGreaterThan(MatchLevel.SUBSEQUENCE);
+    assertThat(MatchLevel.CASE_INSENSITIVE_PREFIX).isGreaterThan(MatchLevel.CAMEL_CASE);
+  }
+}
@@ -88,6 +88,15 @@ public class CompletorTest {
     return new CompletionParams(line, column);
   }
 
+  /** Updates the content of a file in the module without adding other modules. */
+  private void updateFile(String filename, String content) {
+    Path filePath = getInputFilePath(filename);
+    moduleManager
+        .getFileManager()
+        .openFileForSnapshot(filePath.toUri(), content.replace(COMPLETION_POINT_MARK, ""));
+    moduleManager.addOrUpdateFile(filePath, /* fixContentForParsing= */ true);
+  }
+
   private List<CompletionCandidate> completeContent(
       String inputFilename, String testDataContent, String... otherFiles) {
     CompletionParams params = createCompletionParams(inputFilename, testDataContent, otherFiles);
@@ -157,13 +166,11 @@ public class CompletorTest {
             "memberField",
             "memberMethod",
             "staticMethod",
-            "staticMethod", // TODO: Fix duplicate.
             "org",
             // From java.lang
             "java",
             "Object",
             // From Object
-            "toString",
             "toString");
     assertThat(getCandidateNames(completeTestFile("CompleteNewStatement.java")))
         .containsExactlyElementsIn(Iterables.concat(expectedMembers, keywords));
@@ -342,6 +349,200 @@ public class CompletorTest {
             "OnDemandInnerClass");
   }
 
+  @Test
+  public void cachedCandidatesServeNarrowingAndWidening() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    assertThat(
+            getCandidateNames(
+                completeWithContent(
+                    completor, "CompleteInMethod.java", "above.aboveF/** @complete */")))
+        .containsExactly("aboveField");
+    // Deleting characters from the prefix.
+    assertThat(
+            getCandidateNames(
+                completeWithContent(
+                    completor, "CompleteInMethod.java", "above.ab/** @complete */")))
+        .containsExactly("aboveField", "aboveMethod");
+    assertThat(
+            getCandidateNames(
+                completeWithContent(completor, "CompleteInMethod.java", "above./** @complete */")))
+        .containsExactly("aboveField", "aboveMethod", "toString");
+    // Same completion site with a different qualifier.
+    assertThat(
+            getCandidateNames(
+                completeWithContent(completor, "CompleteInMethod.java", "below./** @complete */")))
+        .containsExactly("belowField", "belowMethod", "toString");
+  }
+
+  @Test
+  public void precomputedCandidatesAreUsedByRequest() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    Path filePath = getInputFilePath("CompleteInMethod.java");
+    CompletionParams params =
+        createCompletionParams(
+            "CompleteInMethod.java",
+            getFileContent("CompleteInMethod.java")
+                .replace(INSERTION_POINT_MARK, "above./** @complete */"));
+    completor.precomputeCompletion(moduleManager, filePath, params.line, params.column);
+    assertThat(completor.getSpeculativeComputationCount()).isEqualTo(1);
+    assertThat(completor.getSpeculativeHitCount()).isEqualTo(0);
+
+    assertThat(
+            getCandidateNames(
+                completor
+                    .getCompletionResult(moduleManager, filePath, params.line, params.column)
+                    .getCompletionCandidates()))
+        .containsExactly("aboveField", "aboveMethod", "toString");
+    assertThat(completor.getSpeculativeHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void cachedCandidatesAreRecomputedAfterFileChanges() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    Path filePath = getInputFilePath("CompleteInMethod.java");
+    String content =
+        getFileContent("CompleteInMethod.java")
+            .replace(INSERTION_POINT_MARK, "below./** @complete */");
+    CompletionParams params = createCompletionParams("CompleteInMethod.java", content);
+    assertThat(
+            getCandidateNames(
+                completor
+                    .getCompletionResult(moduleManager, filePath, params.line, params.column)
+                    .getCompletionCandidates()))
+        .containsExactly("belowField", "belowMethod", "toString");
+
+    // Add a field after the completion site, so that the site is not moved.
+    updateFile(
+        "CompleteInMethod.java",
+        content.replace(
+            "public final int belowField;",
+            "public final int belowField;\n    public int otherBelowField;"));
+    assertThat(
+            getCandidateNames(
+                completor
+                    .getCompletionResult(moduleManager, filePath, params.line, params.column)
+                    .getCompletionCandidates()))
+        .containsExactly("belowField", "otherBelowField", "belowMethod", "toString");
+  }
+
+  @Test
+  public void cachedCandidatesAreRecomputedAfterChangesWithSameHash() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    Path filePath = getInputFilePath("CompleteInMethod.java");
+    String content =
+        getFileContent("CompleteInMethod.java")
+            .replace(INSERTION_POINT_MARK, "below./** @complete */")
+            .replace(
+                "public final int belowField;",
+                "public final int belowField;\n    public int belowFieldAa;");
+    CompletionParams params = createCompletionParams("CompleteInMethod.java", content);
+    assertThat(
+            getCandidateNames(
+                completor
+                    .getCompletionResult(moduleManager, filePath, params.line, params.column)
+                    .getCompletionCandidates()))
+        .contains("belowFieldAa");
+
+    // "Aa" and "BB" have the same polynomial hash.
+    updateFile("CompleteInMethod.java", content.replace("belowFieldAa", "belowFieldBB"));
+    List<String> candidateNames =
+        getCandidateNames(
+            completor
+                .getCompletionResult(moduleManager, filePath, params.line, params.column)
+                .getCompletionCandidates());
+    assertThat(candidateNames).contains("belowFieldBB");
+    assertThat(candidateNames).doesNotContain("belowFieldAa");
+  }
+
+  @Test
+  public void precomputedCandidatesAreUsedAfterTypingPrefix() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    Path filePath = getInputFilePath("CompleteInMethod.java");
+    CompletionParams params =
+        createCompletionParams(
+            "CompleteInMethod.java",
+            getFileContent("CompleteInMethod.java")
+                .replace(INSERTION_POINT_MARK, "below./** @complete */"));
+    completor.precomputeCompletion(moduleManager, filePath, params.line, params.column);
+
+    // The file is parsed again after typing the prefix.
+    updateFile(
+        "CompleteInMethod.java",
+        getFileContent("CompleteInMethod.java")
+            .replace(INSERTION_POINT_MARK, "below.b/** @complete */"));
+    assertThat(
+            getCandidateNames(
+                completor
+                    .getCompletionResult(moduleManager, filePath, params.line, params.column + 1)
+                    .getCompletionCandidates()))
+        .containsExactly("belowField", "belowMethod");
+    assertThat(completor.getSpeculativeHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void precomputedCandidatesAreRecomputedAfterFileChanges() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    Path filePath = getInputFilePath("CompleteInMethod.java");
+    String content =
+        getFileContent("CompleteInMethod.java")
+            .replace(INSERTION_POINT_MARK, "below./** @complete */");
+    CompletionParams params = createCompletionParams("CompleteInMethod.java", content);
+    completor.precomputeCompletion(moduleManager, filePath, params.line, params.column);
+    // Valid candidates are not computed again.
+    completor.precomputeCompletion(moduleManager, filePath, params.line, params.column);
+    assertThat(completor.getSpeculativeComputationCount()).isEqualTo(1);
+
+    // Add a field after the completion site, so that the site is not moved.
+    updateFile(
+        "CompleteInMethod.java",
+        content.replace(
+            "public final int belowField;",
+            "public final int belowField;\n    public int otherBelowField;"));
+    completor.precomputeCompletion(moduleManager, filePath, params.line, params.column);
+    assertThat(completor.getSpeculativeComputationCount()).isEqualTo(2);
+    assertThat(
+            getCandidateNames(
+                completor
+                    .getCompletionResult(moduleManager, filePath, params.line, params.column)
+                    .getCompletionCandidates()))
+        .containsExactly("belowField", "otherBelowField", "belowMethod", "toString");
+    assertThat(completor.getSpeculativeHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void noPrecomputationAfterNonTriggerCharacters() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    CompletionParams params =
+        createCompletionParams(
+            "CompleteInMethod.java",
+            getFileContent("CompleteInMethod.java")
+                .replace(INSERTION_POINT_MARK, "above.aboveMethod(/** @complete */"));
+    completor.precomputeCompletion(
+        moduleManager, getInputFilePath("CompleteInMethod.java"), params.line, params.column);
+    assertThat(completor.getSpeculativeComputationCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void resultIsIncompleteWhenClassesForImportAreTruncated() {
+    Completor completor = new Completor(moduleManager.getFileManager());
+    Path filePath = getInputFilePath("CompleteInMethod.java");
+    CompletionParams params =
+        createCompletionParams(
+            "CompleteInMethod.java",
+            getFileContent("CompleteInMethod.java")
+                .replace(INSERTION_POINT_MARK, "S/** @complete */"));
+    StringBuilder manyClasses = new StringBuilder("package other;\n");
+    for (int i = 0; i < 151; i++) {
+      manyClasses.append("class Sa").append(i).append(" {}\n");
+    }
+    manyClasses.append("class Szz {}\n");
+    updateFile("ManyClasses.java", manyClasses.toString());
+
+    CompletionResult result =
+        completor.getCompletionResult(moduleManager, filePath, params.line, params.column);
+    assertThat(result.isIncomplete()).isTrue();
+  }
+
   private void assertCompletion(String filename, String toComplete, String... expectedCandidates) {
     assertCompletion(filename, ImmutableList.of(toComplete), expectedCandidates);
   }
@@ -394,6 +595,15 @@ public class CompletorTest {
     return completeContent(filename, newContent, otherFiles);
   }
 
+  private List<CompletionCandidate> completeWithContent(
+      Completor completor, String filename, String toInsert) {
+    String newContent = getFileContent(filename).replace(INSERTION_POINT_MARK, toInsert);
+    CompletionParams params = createCompletionParams(filename, newContent);
+    return completor
+        .getCompletionResult(moduleManager, getInputFilePath(filename), params.line, params.column)
+        .getCompletionCandidates();
+  }
+
   private String extractCompletionPrefixWithContent(String filename, String toInsert) {
     String testDataContent = getFileContent(filename);
     String newContent = testDataContent.replace(INSERTION_POINT_MARK, toInsert);
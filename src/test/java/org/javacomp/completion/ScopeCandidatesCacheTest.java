@@ -0,0 +1,101 @@
+package org.javacomp.completion;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.javacomp.model.FileScope;
+import org.javacomp.model.Module;
+import org.javacomp.testing.TestUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ScopeCandidatesCacheTest {
+  private static final String CONTENT = "package foo; class Foo {}";
+
+  private final ScopeCandidatesCache cache = new ScopeCandidatesCache();
+  private final AtomicInteger numComputed = new AtomicInteger();
+  private final Consumer<CompletionCandidateListBuilder> candidatesAdder =
+      builder -> {
+        numComputed.incrementAndGet();
+        builder.addCandidate(
+            SimpleCompletionCandidate.builder()
+                .setName("foo")
+                .setKind(CompletionCandidate.Kind.UNKNOWN)
+                .build());
+      };
+
+  @Test
+  public void candidatesAreCachedForSameScopeAndGeneration() {
+    Module module = TestUtil.parseContent(CONTENT);
+    FileScope fileScope = TestUtil.parseFileContent(CONTENT, TestUtil.DUMMY_PATH);
+    long generation = module.getTransitiveGeneration();
+
+    ImmutableList<CompletionCandidate> candidates =
+        cache.getCandidates(fileScope, module, generation, candidatesAdder);
+    assertThat(cache.getCandidates(fileScope, module, generation, candidatesAdder))
+        .isSameAs(candidates);
+    assertThat(candidates).hasSize(1);
+    assertThat(numComputed.get()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void candidatesAreRecomputedForNewScopeOrModuleChange() {
+    Module module = TestUtil.parseContent(CONTENT);
+    FileScope fileScope = TestUtil.parseFileContent(CONTENT, TestUtil.DUMMY_PATH);
+    cache.getCandidates(fileScope, module, module.getTransitiveGeneration(), candidatesAdder);
+
+    // A re-parsed file is a different scope.
+    FileScope reparsedFileScope = TestUtil.parseFileContent(CONTENT, TestUtil.DUMMY_PATH);
+    cache.getCandidates(
+        reparsedFileScope, module, module.getTransitiveGeneration(), candidatesAdder);
+    assertThat(numComputed.get()).isEqualTo(2);
+
+    module.addOrReplaceFileScope(reparsedFileScope);
+    cache.getCandidates(
+        reparsedFileScope, module, module.getTransitiveGeneration(), candidatesAdder);
+    assertThat(numComputed.get()).isEqualTo(3);
+
+    cache.getCandidates(fileScope, new Module(), 0, candidatesAdder);
+    assertThat(numComputed.get()).isEqualTo(4);
+    assertThat(cache.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void packageCandidatesAreKeptWhenFileInOtherPackageIsEdited() {
+    Module module = TestUtil.parseContent(CONTENT);
+    ImmutableList<String> rootPackage = ImmutableList.of();
+    ImmutableList<CompletionCandidate> candidates =
+        cache.getPackageCandidates(
+            rootPackage,
+            module,
+            module.getTransitivePackageGeneration(rootPackage),
+            candidatesAdder);
+
+    // Edit the method block of the file, which is re-parsed into a new file scope.
+    module.addOrReplaceFileScope(
+        TestUtil.parseFileContent(
+            "package foo; class Foo { void bar() { int a; } }", TestUtil.DUMMY_PATH));
+    assertThat(
+            cache.getPackageCandidates(
+                rootPackage,
+                module,
+                module.getTransitivePackageGeneration(rootPackage),
+                candidatesAdder))
+        .isSameAs(candidates);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+
+    // A new package is a new member of the root package.
+    module.addOrReplaceFileScope(
+        TestUtil.parseFileContent("package bar; class Bar {}", Paths.get("/dummy/bar/Bar.java")));
+    cache.getPackageCandidates(
+        rootPackage, module, module.getTransitivePackageGeneration(rootPackage), candidatesAdder);
+    assertThat(numComputed.get()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,150 @@
+package org.javacomp.model;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ClassIndexTest {
+  private final Module module = new Module();
+
+  @Test
+  public void findClassesWithPrefix_matchesIgnoringCase() {
+    addFile("foo", "HashMap", "Hashtable", "hashCodes", "HashSet", "Map");
+
+    assertThat(findClassNames("hash", 10))
+        .containsExactly("hashCodes", "HashMap", "HashSet", "Hashtable")
+        .inOrder();
+    assertThat(findClassNames("HashS", 10)).containsExactly("HashSet");
+    assertThat(findClassNames("Map", 10)).containsExactly("Map");
+    assertThat(findClassNames("Tree", 10)).isEmpty();
+    assertThat(findClassNames("", 10)).hasSize(5);
+  }
+
+  @Test
+  public void findClassesWithPrefix_respectsLimit() {
+    addFile("foo", "Aa", "Ab", "Ac", "Ad");
+
+    assertThat(findClassNames("a", 2)).containsExactly("Aa", "Ab").inOrder();
+    assertThat(findClassNames("a", 0)).isEmpty();
+  }
+
+  @Test
+  public void findClassesWithHumpInitials() {
+    addFile("foo", "HashMap", "HashMultimap", "Hashtable", "HM", "MapHolder");
+
+    // HM is a single hump, which is matched by prefix instead.
+    assertThat(findClassNamesWithHumpInitials("HM", 10)).containsExactly("HashMap", "HashMultimap");
+    assertThat(findClassNamesWithHumpInitials("hm", 1)).hasSize(1);
+    assertThat(findClassNamesWithHumpInitials("MH", 10)).containsExactly("MapHolder");
+    assertThat(findClassNamesWithHumpInitials("X", 10)).isEmpty();
+  }
+
+  @Test
+  public void findClassesWithHumpInitials_appliesLimitAfterFilter() {
+    addFile("foo", "HaMa", "HashMap", "HeMa", "HoMa");
+
+    assertThat(
+            module.getClassIndex()
+                .findClassesWithHumpInitials(
+                    "HM", 2, classEntity -> !classEntity.getSimpleName().startsWith("Ha"))
+                .stream()
+                .map(classEntity -> classEntity.getSimpleName())
+                .collect(ImmutableList.toImmutableList()))
+        .containsExactly("HeMa", "HoMa");
+  }
+
+  @Test
+  public void findClassesWithHumpInitials_treatsRunsOfCapitalsAsOneHump() {
+    addFile("foo", "URLConnection", "MAX_VALUE", "UnsupportedCharset");
+
+    assertThat(findClassNamesWithHumpInitials("UC", 10))
+        .containsExactly("URLConnection", "UnsupportedCharset");
+    assertThat(findClassNamesWithHumpInitials("MV", 10)).containsExactly("MAX_VALUE");
+  }
+
+  @Test
+  public void findClassesWithPrefix_includesInnerClasses() {
+    FileScope fileScope = addFile("foo", "Outer");
+    ClassEntity outer = (ClassEntity) fileScope.getMemberEntities().get("Outer").iterator().next();
+    outer.addEntity(createClass("OuterInner", outer));
+    // Simulate reparsing the file.
+    module.addOrReplaceFileScope(fileScope);
+
+    assertThat(findClassNames("outer", 10)).containsExactly("Outer", "OuterInner").inOrder();
+  }
+
+  @Test
+  public void classIndexIsUpdatedWithModule() {
+    FileScope fileScope1 = addFile("foo", "Foo");
+    assertThat(findClassNames("f", 10)).containsExactly("Foo");
+
+    addFile("bar", "Far");
+    assertThat(findClassNames("f", 10)).containsExactly("Far", "Foo").inOrder();
+
+    module.removeFile(Paths.get(fileScope1.getFilename()));
+    assertThat(findClassNames("f", 10)).containsExactly("Far");
+  }
+
+  @Test
+  public void classIndexIsUpdatedPerFileWithoutRebuilding() {
+    FileScope fileScope = addFile("foo", "Foo", "FooBar");
+    ClassIndex classIndex = module.getClassIndex();
+
+    addFile("bar", "Far");
+    fileScope.addEntity(createClass("FooBaz", fileScope));
+    // Simulate reparsing the file.
+    module.addOrReplaceFileScope(fileScope);
+
+    assertThat(module.getClassIndex()).isSameAs(classIndex);
+    assertThat(classIndex.size()).isEqualTo(4);
+    assertThat(findClassNames("f", 10)).containsExactly("Far", "Foo", "FooBar", "FooBaz").inOrder();
+    assertThat(findClassNamesWithHumpInitials("FB", 10)).containsExactly("FooBar", "FooBaz");
+  }
+
+  private FileScope addFile(String packageName, String... classNames) {
+    FileScope fileScope =
+        FileScope.createFromClassFile(
+            Paths.get("/" + packageName + "/" + classNames[0] + ".class"),
+            ImmutableList.of(packageName));
+    for (String className : classNames) {
+      fileScope.addEntity(createClass(className, fileScope));
+    }
+    module.addOrReplaceFileScope(fileScope);
+    return fileScope;
+  }
+
+  private List<String> findClassNames(String prefix, int limit) {
+    return module.getClassIndex().findClassesWithPrefix(prefix, limit).stream()
+        .map(classEntity -> classEntity.getSimpleName())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private List<String> findClassNamesWithHumpInitials(String initials, int limit) {
+    return module.getClassIndex().findClassesWithHumpInitials(initials, limit).stream()
+        .map(classEntity -> classEntity.getSimpleName())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static ClassEntity createClass(String simpleName, EntityScope parentScope) {
+    return new ClassEntity(
+        simpleName,
+        Entity.Kind.CLASS,
+        ImmutableList.of() /* qualifiers */,
+        true /* isStatic */,
+        parentScope,
+        Optional.empty() /* superClass */,
+        ImmutableList.of() /* interfaces */,
+        ImmutableList.of() /* typeParameters */,
+        Optional.empty() /* javadoc */,
+        Range.closedOpen(0, 0) /* classNameRange */,
+        Range.closedOpen(0, 0) /* definitionRange */);
+  }
+}
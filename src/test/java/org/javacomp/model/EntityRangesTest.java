@@ -0,0 +1,58 @@
+package org.javacomp.model;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class EntityRangesTest {
+  @Test
+  public void closedRange_isRestored() {
+    assertThat(roundTrip(Range.closed(3, 8))).isEqualTo(Range.closed(3, 8));
+    assertThat(roundTrip(Range.closed(5, 5))).isEqualTo(Range.closed(5, 5));
+  }
+
+  @Test
+  public void emptyRange_isSharedAndContainsNothing() {
+    Range<Integer> emptyRange = Range.closedOpen(0, 0);
+    int start = EntityRanges.getStart(emptyRange);
+    int end = EntityRanges.getEnd(emptyRange);
+
+    assertThat(end).isLessThan(start);
+    assertThat(EntityRanges.toRange(start, end)).isEqualTo(emptyRange);
+    assertThat(EntityRanges.toRange(start, end)).isSameAs(EntityRanges.toRange(start, end));
+    assertThat(roundTrip(Range.closedOpen(4, 4))).isEqualTo(Range.closedOpen(4, 4));
+  }
+
+  @Test
+  public void openEndpoints_areStoredAsClosedOffsets() {
+    Range<Integer> range = Range.closedOpen(2, 6);
+
+    assertThat(EntityRanges.getStart(range)).isEqualTo(2);
+    assertThat(EntityRanges.getEnd(range)).isEqualTo(5);
+    assertThat(roundTrip(Range.open(2, 6))).isEqualTo(Range.closed(3, 5));
+  }
+
+  @Test
+  public void unboundedRange_isRestored() {
+    assertThat(roundTrip(Range.all())).isEqualTo(Range.all());
+    assertThat(roundTrip(Range.atLeast(3))).isEqualTo(Range.atLeast(3));
+    assertThat(roundTrip(Range.atMost(3))).isEqualTo(Range.atMost(3));
+  }
+
+  @Test
+  public void entityWithEmptySymbolRange_returnsEmptyRange() {
+    Entity entity = new PackageEntity("foo", ImmutableList.of(), new PackageScope());
+
+    assertThat(entity.getSymbolRange().isEmpty()).isTrue();
+    assertThat(entity.getSymbolEnd()).isLessThan(entity.getSymbolStart());
+  }
+
+  private static Range<Integer> roundTrip(Range<Integer> range) {
+    return EntityRanges.toRange(EntityRanges.getStart(range), EntityRanges.getEnd(range));
+  }
+}
@@ -0,0 +1,59 @@
+package org.javacomp.model;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ModelInternerTest {
+
+  @Test
+  public void internName_returnsSameInstanceForEqualNames() {
+    String name1 = new String("FooBar");
+    String name2 = new String("FooBar");
+
+    assertThat(ModelInterner.internName(name1)).isSameAs(ModelInterner.internName(name2));
+  }
+
+  @Test
+  public void internQualifiers_returnsSameInstanceForEqualLists() {
+    List<String> qualifiers1 = new ArrayList<>();
+    qualifiers1.add(new String("java"));
+    qualifiers1.add(new String("util"));
+    List<String> qualifiers2 = ImmutableList.of(new String("java"), new String("util"));
+
+    ImmutableList<String> interned1 = ModelInterner.internQualifiers(qualifiers1);
+    ImmutableList<String> interned2 = ModelInterner.internQualifiers(qualifiers2);
+    assertThat(interned1).containsExactly("java", "util").inOrder();
+    assertThat(interned1).isSameAs(interned2);
+    assertThat(interned1.get(0)).isSameAs(interned2.get(0));
+    assertThat(ModelInterner.internQualifiers(ImmutableList.of("java"), "util"))
+        .isSameAs(interned1);
+  }
+
+  @Test
+  public void internTypeReference_returnsSameInstanceForEqualTypes() {
+    TypeReference type1 =
+        TypeReference.builder()
+            .setFullName("java", "lang", "String")
+            .setPrimitive(false)
+            .setArray(false)
+            .setTypeArguments(ImmutableList.of())
+            .build();
+    TypeReference type2 =
+        TypeReference.builder()
+            .setFullName("java", "lang", "String")
+            .setPrimitive(false)
+            .setArray(false)
+            .setTypeArguments(ImmutableList.of())
+            .build();
+
+    assertThat(ModelInterner.internTypeReference(type1))
+        .isSameAs(ModelInterner.internTypeReference(type2));
+  }
+}
@@ -1,12 +1,18 @@
 package org.javacomp.model;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Range;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Predicate;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -131,6 +137,216 @@ public class ModuleTest {
     assertThat(fxx.getMemberEntities().keys()).containsExactly("entity3");
   }
 
+  @Test
+  public void freezeKeepsEntitiesAndRejectsNewOnes() {
+    FileScope fileScope = FileScope.createForTesting(ImmutableList.of("foo"));
+    ClassEntity classEntity = createClassEntity("Foo", fileScope);
+    ClassEntity innerClass = createClassEntity("Inner", classEntity);
+    fileScope.addEntity(classEntity);
+    classEntity.addEntity(innerClass);
+    module.addOrReplaceFileScope(fileScope);
+
+    module.freeze();
+
+    assertThat(classEntity.isFrozen()).isTrue();
+    assertThat(innerClass.isFrozen()).isTrue();
+    assertThat(fileScope.getMemberEntities().get("Foo")).containsExactly(classEntity);
+    assertThat(classEntity.getInnerClasses()).containsExactly("Inner", innerClass);
+    try {
+      classEntity.addEntity(createClassEntity("Bar", classEntity));
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      // Expected.
+    }
+    try {
+      fileScope.addEntity(createClassEntity("Bar", fileScope));
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void getFilesWithIdentifierShouldFollowFileChanges() {
+    FileScope fileScope1 =
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH);
+    fileScope1.setIdentifierOccurrences(
+        IdentifierOccurrences.builder().add("foo", 1).add("bar", 5).build());
+    FileScope fileScope2 =
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH);
+    fileScope2.setIdentifierOccurrences(IdentifierOccurrences.builder().add("bar", 3).build());
+    // Files without identifier occurrences may contain any identifier.
+    FileScope fileScope3 =
+        FileScope.createFromSource(
+            "filename3", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH);
+
+    module.addOrReplaceFileScope(fileScope1);
+    module.addOrReplaceFileScope(fileScope2);
+    module.addOrReplaceFileScope(fileScope3);
+    assertThat(module.getFilesWithIdentifier("foo")).containsExactly(fileScope1, fileScope3);
+    assertThat(module.getFilesWithIdentifier("bar"))
+        .containsExactly(fileScope1, fileScope2, fileScope3);
+    assertThat(module.getFilesWithIdentifier("baz")).containsExactly(fileScope3);
+
+    FileScope newFileScope1 =
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH);
+    newFileScope1.setIdentifierOccurrences(IdentifierOccurrences.builder().add("baz", 1).build());
+    module.addOrReplaceFileScope(newFileScope1);
+    module.removeFile(Paths.get("filename3"));
+    assertThat(module.getFilesWithIdentifier("foo")).isEmpty();
+    assertThat(module.getFilesWithIdentifier("bar")).containsExactly(fileScope2);
+    assertThat(module.getFilesWithIdentifier("baz")).containsExactly(newFileScope1);
+  }
+
+  @Test
+  public void transitiveGenerationFollowsDependingModules() {
+    Module dependency = new Module();
+    module.addDependingModule(dependency);
+    long dependencyGeneration = dependency.getTransitiveGeneration();
+    long moduleGeneration = module.getTransitiveGeneration();
+
+    dependency.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+
+    assertThat(dependency.getTransitiveGeneration()).isGreaterThan(dependencyGeneration);
+    assertThat(module.getTransitiveGeneration()).isGreaterThan(moduleGeneration);
+
+    dependencyGeneration = dependency.getTransitiveGeneration();
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+
+    assertThat(dependency.getTransitiveGeneration()).isEqualTo(dependencyGeneration);
+  }
+
+  @Test
+  public void transitiveGenerationExcludingFileIgnoresLatestChangesOfFile() {
+    Module dependency = new Module();
+    module.addDependingModule(dependency);
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    long generation = module.getTransitiveGenerationExcludingFile("filename2");
+
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    assertThat(module.getTransitiveGenerationExcludingFile("filename2")).isEqualTo(generation);
+    assertThat(module.getTransitiveGenerationExcludingFile("filename1"))
+        .isEqualTo(module.getTransitiveGeneration());
+
+    // Changes of other files are not ignored.
+    dependency.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename3", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    assertThat(module.getTransitiveGenerationExcludingFile("filename2"))
+        .isGreaterThan(generation);
+  }
+
+  @Test
+  public void definingGenerationIgnoresChangesOfContextModule() {
+    Module dependency = new Module();
+    module.addDependingModule(dependency);
+    FileScope dependencyFile =
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH);
+    dependency.addOrReplaceFileScope(dependencyFile);
+    ClassEntity classEntity = createClassEntity("Foo", dependencyFile);
+    dependencyFile.addEntity(classEntity);
+
+    assertThat(Module.getDefiningModule(classEntity)).hasValue(dependency);
+    long generation = Module.getDefiningGeneration(classEntity, module);
+
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    assertThat(Module.getDefiningGeneration(classEntity, module)).isEqualTo(generation);
+
+    module.addDependingModule(new Module());
+    assertThat(Module.getDefiningGeneration(classEntity, module)).isGreaterThan(generation);
+  }
+
+  @Test
+  public void packageGenerationOnlyChangesWithMembersOfPackage() {
+    Module dependency = new Module();
+    module.addDependingModule(dependency);
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo", "bar"), compilationUnit, EMPTY_FILE_LENGTH));
+    long rootGeneration = module.getTransitivePackageGeneration(ImmutableList.of());
+    long fooGeneration = module.getTransitivePackageGeneration(ImmutableList.of("foo"));
+    long barGeneration = module.getTransitivePackageGeneration(ImmutableList.of("foo", "bar"));
+
+    // Replacing a file changes its package only.
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo", "bar"), compilationUnit, EMPTY_FILE_LENGTH));
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of())).isEqualTo(rootGeneration);
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of("foo")))
+        .isEqualTo(fooGeneration);
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of("foo", "bar")))
+        .isGreaterThan(barGeneration);
+
+    // Creating a package in a depending module changes its parent package.
+    dependency.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename2", ImmutableList.of("baz"), compilationUnit, EMPTY_FILE_LENGTH));
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of()))
+        .isGreaterThan(rootGeneration);
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of("foo")))
+        .isEqualTo(fooGeneration);
+
+    // Removing the last file of a package removes the package from its parent.
+    rootGeneration = module.getTransitivePackageGeneration(ImmutableList.of());
+    module.removeFile(Paths.get("filename1"));
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of()))
+        .isGreaterThan(rootGeneration);
+    assertThat(module.getTransitivePackageGeneration(ImmutableList.of("foo")))
+        .isGreaterThan(fooGeneration);
+  }
+
+  @Test
+  public void symbolIndexIsNotBuiltWithoutAcceptedFiles() {
+    module.addOrReplaceFileScope(
+        FileScope.createFromClassFile(Paths.get("/jar/Foo.class"), ImmutableList.of("foo")));
+    Predicate<FileScope> sourceFileFilter =
+        fileScope -> fileScope.getFileType() == FileScope.FileType.SOURCE_CODE;
+
+    assertThat(module.findSymbols("Foo", 10, sourceFileFilter)).isEmpty();
+    assertThat(module.hasSymbolIndex()).isFalse();
+
+    module.addOrReplaceFileScope(
+        FileScope.createFromSource(
+            "filename1", ImmutableList.of("foo"), compilationUnit, EMPTY_FILE_LENGTH));
+    module.findSymbols("Foo", 10, sourceFileFilter);
+    assertThat(module.hasSymbolIndex()).isTrue();
+  }
+
+  private static ClassEntity createClassEntity(String simpleName, EntityScope parentScope) {
+    return new ClassEntity(
+        simpleName,
+        Entity.Kind.CLASS,
+        ImmutableList.of() /* qualifiers */,
+        true /* isStatic */,
+        parentScope,
+        Optional.empty() /* superClass */,
+        ImmutableList.of() /* interfaces */,
+        ImmutableList.of() /* typeParameters */,
+        Optional.empty() /* javadoc */,
+        Range.closedOpen(0, 0) /* classNameRange */,
+        Range.closedOpen(0, 0) /* definitionRange */);
+  }
+
   private PackageEntity getPackage(EntityScope scope, String simpleName) {
     return getOnlyEntity(scope, simpleName, PackageEntity.class);
   }
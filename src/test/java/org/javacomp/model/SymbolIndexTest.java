@@ -0,0 +1,203 @@
+package org.javacomp.model;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SymbolIndexTest {
+  private final SymbolIndex index = new SymbolIndex();
+
+  @Test
+  public void findSymbols_matchesSubstringsIgnoringCase() {
+    index.addFile(createFile("foo", "HashMap", "TreeMap", "MapHolder", "Hashtable"));
+
+    assertThat(findSymbolNames("map", 10))
+        .containsExactly("MapHolder", "HashMap", "TreeMap")
+        .inOrder();
+    assertThat(findSymbolNames("SHMA", 10)).containsExactly("HashMap");
+    assertThat(findSymbolNames("tree", 10)).containsExactly("TreeMap");
+    assertThat(findSymbolNames("list", 10)).isEmpty();
+  }
+
+  @Test
+  public void findSymbols_matchesCamelCaseHumps() {
+    index.addFile(createFile("foo", "HashMap", "HashMultimap", "Hashtable", "MapHolder", "HM"));
+
+    assertThat(findSymbolNames("HM", 10))
+        .containsExactly("HM", "HashMap", "HashMultimap")
+        .inOrder();
+    assertThat(findSymbolNames("HaMu", 10)).containsExactly("HashMultimap");
+    assertThat(findSymbolNames("MH", 10)).containsExactly("MapHolder");
+  }
+
+  @Test
+  public void findSymbols_shortQueriesMatchPrefixes() {
+    index.addFile(createFile("foo", "Map", "HashMap", "Set"));
+
+    assertThat(findSymbolNames("m", 10)).containsExactly("Map");
+    assertThat(findSymbolNames("ma", 10)).containsExactly("Map");
+    assertThat(findSymbolNames("", 10)).containsExactly("Map", "HashMap", "Set");
+  }
+
+  @Test
+  public void findSymbols_ranksBetterMatchesFirst() {
+    index.addFile(createFile("foo", "ListUtils", "ArrayList", "List", "LinkedSet"));
+
+    List<SymbolIndex.Match> matches = index.findSymbols("list", 10, fileScope -> true);
+
+    assertThat(getNames(matches)).containsExactly("List", "ListUtils", "ArrayList").inOrder();
+    assertThat(matches.get(0).getMatchLevel()).isEqualTo(SymbolIndex.MatchLevel.EXACT);
+    assertThat(matches.get(1).getMatchLevel()).isEqualTo(SymbolIndex.MatchLevel.PREFIX);
+    assertThat(matches.get(2).getMatchLevel()).isEqualTo(SymbolIndex.MatchLevel.SUBSTRING);
+  }
+
+  @Test
+  public void findSymbols_respectsLimit() {
+    index.addFile(createFile("foo", "Aaa", "Aaab", "Aaabc", "Aaabcd"));
+
+    assertThat(findSymbolNames("aaa", 2)).containsExactly("Aaa", "Aaab").inOrder();
+    assertThat(findSymbolNames("aaa", 0)).isEmpty();
+  }
+
+  @Test
+  public void findSymbols_includesMethodsAndFields() {
+    FileScope fileScope = createFile("foo", "Foo");
+    ClassEntity foo = (ClassEntity) fileScope.getMemberEntities().get("Foo").iterator().next();
+    foo.addEntity(createMethod("getFooBar", foo));
+    foo.addEntity(createField("fooBarCount", foo));
+    foo.addEntity(createClass("FooBarInner", foo));
+    index.addFile(fileScope);
+
+    assertThat(findSymbolNames("foobar", 10))
+        .containsExactly("fooBarCount", "FooBarInner", "getFooBar")
+        .inOrder();
+    assertThat(findSymbolNames("gFB", 10)).containsExactly("getFooBar");
+  }
+
+  @Test
+  public void findSymbols_appliesFileFilter() {
+    FileScope fooFile = createFile("foo", "FooMap");
+    index.addFile(fooFile);
+    index.addFile(createFile("bar", "BarMap"));
+
+    List<SymbolIndex.Match> matches = index.findSymbols("map", 10, f -> f == fooFile);
+
+    assertThat(getNames(matches)).containsExactly("FooMap");
+    assertThat(matches.get(0).getFileScope()).isSameAs(fooFile);
+  }
+
+  @Test
+  public void removeFile_removesItsSymbols() {
+    FileScope fooFile = createFile("foo", "FooMap");
+    index.addFile(fooFile);
+    index.addFile(createFile("bar", "BarMap"));
+    assertThat(index.size()).isEqualTo(2);
+
+    index.removeFile(fooFile);
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(findSymbolNames("map", 10)).containsExactly("BarMap");
+    assertThat(findSymbolNames("", 10)).containsExactly("BarMap");
+  }
+
+  @Test
+  public void removeFile_rebuildsIndexAfterManyRemovals() {
+    FileScope keptFile = createFile("kept", "KeptMap");
+    index.addFile(keptFile);
+    for (int i = 0; i < 2000; i++) {
+      FileScope fileScope = createFile("pkg" + i, "Removed" + i + "Map");
+      index.addFile(fileScope);
+      index.removeFile(fileScope);
+    }
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(findSymbolNames("map", 10)).containsExactly("KeptMap");
+  }
+
+  @Test
+  public void moduleSymbolIndexIsUpdatedWithFiles() {
+    Module module = new Module();
+    FileScope fooFile = createFile("foo", "FooMap");
+    module.addOrReplaceFileScope(fooFile);
+    assertThat(getNames(module.findSymbols("map", 10, f -> true))).containsExactly("FooMap");
+
+    module.addOrReplaceFileScope(createFile("bar", "BarMap"));
+    assertThat(getNames(module.findSymbols("map", 10, f -> true)))
+        .containsExactly("BarMap", "FooMap")
+        .inOrder();
+
+    module.removeFile(Paths.get(fooFile.getFilename()));
+    assertThat(getNames(module.findSymbols("map", 10, f -> true))).containsExactly("BarMap");
+  }
+
+  private List<String> findSymbolNames(String query, int limit) {
+    return getNames(index.findSymbols(query, limit, fileScope -> true));
+  }
+
+  private static List<String> getNames(List<SymbolIndex.Match> matches) {
+    return matches.stream()
+        .map(match -> match.getEntity().getSimpleName())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static FileScope createFile(String packageName, String... classNames) {
+    FileScope fileScope =
+        FileScope.createFromClassFile(
+            Paths.get("/" + packageName + "/" + classNames[0] + ".class"),
+            ImmutableList.of(packageName));
+    for (String className : classNames) {
+      fileScope.addEntity(createClass(className, fileScope));
+    }
+    return fileScope;
+  }
+
+  private static ClassEntity createClass(String simpleName, EntityScope parentScope) {
+    return new ClassEntity(
+        simpleName,
+        Entity.Kind.CLASS,
+        ImmutableList.of() /* qualifiers */,
+        true /* isStatic */,
+        parentScope,
+        Optional.empty() /* superClass */,
+        ImmutableList.of() /* interfaces */,
+        ImmutableList.of() /* typeParameters */,
+        Optional.empty() /* javadoc */,
+        Range.closedOpen(0, 0) /* classNameRange */,
+        Range.closedOpen(0, 0) /* definitionRange */);
+  }
+
+  private static MethodEntity createMethod(String simpleName, ClassEntity classEntity) {
+    return new MethodEntity(
+        simpleName,
+        ImmutableList.of() /* qualifiers */,
+        false /* isStatic */,
+        TypeReference.JAVA_LANG_OBJECT /* returnType */,
+        ImmutableList.of() /* parameters */,
+        ImmutableList.of() /* typeParameters */,
+        classEntity,
+        Optional.empty() /* javadoc */,
+        Range.closedOpen(0, 0) /* methodNameRange */,
+        Range.closedOpen(0, 0) /* definitionRange */);
+  }
+
+  private static VariableEntity createField(String simpleName, ClassEntity classEntity) {
+    return new VariableEntity(
+        simpleName,
+        Entity.Kind.FIELD,
+        ImmutableList.of() /* qualifiers */,
+        false /* isStatic */,
+        TypeReference.JAVA_LANG_OBJECT,
+        classEntity,
+        Optional.empty() /* javadoc */,
+        Range.closedOpen(0, 0) /* variableNameRange */,
+        Range.closedOpen(0, 0) /* definitionRange */);
+  }
+}
@@ -2,7 +2,6 @@ package org.javacomp.model.util;
 
 import static com.google.common.truth.Truth.assertThat;
 
-import com.google.common.collect.ImmutableRangeMap;
 import com.google.common.collect.Range;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,7 +12,7 @@ public class NestedRangeMapBuilderTest {
   @Test
   public void noRange() {
     NestedRangeMapBuilder<Integer> builder = new NestedRangeMapBuilder<>();
-    ImmutableRangeMap<Integer, Integer> map = builder.build();
+    IntervalMap<Integer> map = builder.build();
     assertThat(map.asMapOfRanges()).isEmpty();
   }
 
@@ -83,4 +82,22 @@ public class NestedRangeMapBuilderTest {
             Range.closedOpen(12, 13), 4,
             Range.closedOpen(13, 14), 1);
   }
+
+  @Test
+  public void getReturnsInnermostRange() {
+    NestedRangeMapBuilder<Integer> builder = new NestedRangeMapBuilder<>();
+    builder.put(0, 14, 1);
+    builder.put(0, 7, 2);
+    builder.put(1, 3, 5);
+    builder.put(10, 13, 4);
+    IntervalMap<Integer> map = builder.build();
+    assertThat(map.get(-1)).isNull();
+    assertThat(map.get(0)).isEqualTo(2);
+    assertThat(map.get(2)).isEqualTo(5);
+    assertThat(map.get(3)).isEqualTo(2);
+    assertThat(map.get(7)).isEqualTo(1);
+    assertThat(map.get(10)).isEqualTo(4);
+    assertThat(map.get(13)).isEqualTo(1);
+    assertThat(map.get(14)).isNull();
+  }
 }
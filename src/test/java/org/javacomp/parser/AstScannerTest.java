@@ -114,6 +114,27 @@ public class AstScannerTest {
     assertThat(variableEntity.getKind()).isEqualTo(Entity.Kind.FIELD);
   }
 
+  @Test
+  public void entitiesHaveAccessLevels() {
+    assertThat(lookupEntity(fileScope, "TestData").getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PUBLIC);
+    assertThat(lookupEntity(fileScope, "TestData.privateMemberBooleanField").getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PRIVATE);
+    assertThat(lookupEntity(fileScope, "TestData.protectedWhileBlockMethod").getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PROTECTED);
+    assertThat(lookupEntity(fileScope, "TestData.packagePrivateSwitchCaseMethod").getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PACKAGE_PRIVATE);
+    assertThat(lookupEntity(fileScope, "TestData.PrivateStaticInnerClass").getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PRIVATE);
+    // Interface members and enum constants are implicitly public.
+    assertThat(
+            lookupEntity(fileScope, "TestData.PublicInnerInterface.interfaceMethod")
+                .getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PUBLIC);
+    assertThat(lookupEntity(fileScope, "TestData.PublicInnerEnum.ENUM_VALUE1").getAccessLevel())
+        .isEqualTo(Entity.AccessLevel.PUBLIC);
+  }
+
   @Test
   public void fileScopeRange() {
     EntityScope scopeBeforeClass = getEntityScopeBefore("import foo");
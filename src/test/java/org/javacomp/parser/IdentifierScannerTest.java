@@ -0,0 +1,38 @@
+package org.javacomp.parser;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.javacomp.model.IdentifierOccurrences;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IdentifierScannerTest {
+  private final ParserContext parserContext = new ParserContext();
+  private final IdentifierScanner identifierScanner = new IdentifierScanner(parserContext);
+
+  @Test
+  public void testScanIdentifiers() {
+    String content =
+        "package foo;\n"
+            + "/** Mentions foo in comment. */\n"
+            + "class Bar {\n"
+            + "  String foo = \"foo\";\n"
+            + "  int fooBar() { return foo.length(); }\n"
+            + "}\n";
+    parserContext.setupLoggingSource("Bar.java");
+    IdentifierOccurrences occurrences = identifierScanner.scan(content);
+
+    assertThat(occurrences.getIdentifiers())
+        .containsExactly("foo", "Bar", "String", "fooBar", "length");
+    int fieldStart = content.indexOf("foo =");
+    int referenceStart = content.indexOf("foo.length");
+    assertThat(occurrences.getPositions("foo"))
+        .containsExactly(content.indexOf("foo"), fieldStart, referenceStart)
+        .inOrder();
+    assertThat(occurrences.getPositions("length")).containsExactly(referenceStart + 4);
+    assertThat(occurrences.contains("int")).isFalse();
+    assertThat(occurrences.getPositions("baz")).isEmpty();
+  }
+}
@@ -7,13 +7,16 @@ import com.google.common.collect.ImmutableMap;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import org.javacomp.file.PathUtils;
 import org.javacomp.model.ClassEntity;
 import org.javacomp.model.Entity;
+import org.javacomp.model.FileScope;
 import org.javacomp.model.MethodEntity;
 import org.javacomp.model.Module;
 import org.javacomp.model.SimpleType;
@@ -44,6 +47,7 @@ public class ClassModuleBuilderTest {
   public void createModuleFromJarFile() throws Exception {
     Path jarPath = PathUtils.getRootPathForJarFile(Paths.get(TEST_DATA_DIR, "testdata.jar"));
     PathUtils.walkDirectory(jarPath, extensionHandlers, DO_NOT_IGNORE_PATH);
+    classModuleBuilder.build();
     assertModuleIsExpected(module);
   }
 
@@ -54,9 +58,34 @@ public class ClassModuleBuilderTest {
         Paths.get(TEST_DATA_DIR, "TestClass$InnerClass$InnerClass2$InnerClass3.class");
     classModuleBuilder.processClassFile(innerClassFilePath);
     PathUtils.walkDirectory(rootPath, extensionHandlers, path -> innerClassFilePath.equals(path));
+    classModuleBuilder.build();
     assertModuleIsExpected(module);
   }
 
+  @Test
+  public void filesAreAddedToModuleOnceWhenBuilt() throws Exception {
+    List<String> addedFilenames = new ArrayList<>();
+    Module countingModule =
+        new Module() {
+          @Override
+          public synchronized void addOrReplaceFileScope(FileScope fileScope) {
+            addedFilenames.add(fileScope.getFilename());
+            super.addOrReplaceFileScope(fileScope);
+          }
+        };
+    ClassModuleBuilder builder = new ClassModuleBuilder(countingModule);
+    PathUtils.walkDirectory(
+        Paths.get(TEST_DATA_DIR),
+        ImmutableMap.<String, Consumer<Path>>of(".class", path -> builder.processClassFile(path)),
+        DO_NOT_IGNORE_PATH);
+    assertThat(addedFilenames).isEmpty();
+
+    builder.build();
+    assertThat(addedFilenames).containsNoDuplicates();
+    assertThat(addedFilenames).hasSize(countingModule.getAllFiles().size());
+    assertModuleIsExpected(countingModule);
+  }
+
   private void assertModuleIsExpected(Module module) {
     TypeReference typeOfString =
         createFormalizedTypeBuilder()
@@ -172,6 +201,14 @@ public class ClassModuleBuilderTest {
     assertThat(genericMethod.getParameters().get(1).getType()).isEqualTo(typeOfString);
     assertThat(genericMethod.getParameters().get(2).getType()).isEqualTo(typeOfArg2);
     assertThat(genericMethod.getParameters().get(3).getType()).isEqualTo(typeOfArg3);
+
+    // Subtype index
+    assertThat(module.getSubtypeCandidates("AbstractList")).containsExactly(testClass);
+    assertThat(module.getSubtypeCandidates("Comparable")).containsExactly(testClass);
+    assertThat(module.getSubtypeCandidates("Enum")).containsExactly(innerEnum);
+    assertThat(module.getSubtypeCandidates("Annotation")).containsExactly(innerAnnotation);
+    assertThat(module.getSubtypeCandidates("Object"))
+        .containsAllOf(innerClass, innerClass2, innerClass3);
   }
 
   private static TypeReference.Builder createUnformalizedTypeBuilder() {
@@ -30,13 +30,27 @@ public class BaseTest {
   protected static final String TEST_CLASS_FILE = "TestClass.java";
   protected static final String OTHER_CLASS_FILE = "OtherClass.java";
   protected static final String OTHER_PACKAGE_CLASS_FILE = "other/OtherPackageClass.java";
+  protected static final String ACCESS_LEVEL_CLASS_FILE = "AccessLevelClass.java";
+  protected static final String ACCESS_LEVEL_USER_FILE = "AccessLevelUser.java";
+  protected static final String ACCESS_LEVEL_SUBCLASS_FILE = "other/AccessLevelSubclass.java";
+  protected static final String ACCESS_LEVEL_OTHER_USER_FILE = "other/AccessLevelOtherUser.java";
+  protected static final String ACCESS_LEVEL_BASE_FILE = "AccessLevelBase.java";
+  protected static final String ACCESS_LEVEL_IMPL_FILE = "AccessLevelImpl.java";
+  protected static final String ACCESS_LEVEL_IMPL_USER_FILE = "other/AccessLevelImplUser.java";
   protected static final List<String> ALL_FILES =
       ImmutableList.of(
           TEST_CLASS_FILE,
           OTHER_CLASS_FILE,
           OTHER_PACKAGE_CLASS_FILE,
           TEST_REFERENCE_CLASS_FILE,
-          TEST_REFERENCE_CLASS_FILE2);
+          TEST_REFERENCE_CLASS_FILE2,
+          ACCESS_LEVEL_CLASS_FILE,
+          ACCESS_LEVEL_USER_FILE,
+          ACCESS_LEVEL_SUBCLASS_FILE,
+          ACCESS_LEVEL_OTHER_USER_FILE,
+          ACCESS_LEVEL_BASE_FILE,
+          ACCESS_LEVEL_IMPL_FILE,
+          ACCESS_LEVEL_IMPL_USER_FILE);
 
   protected static final String TEST_CLASS_FULL_NAME = "org.javacomp.reference.testdata.TestClass";
   protected static final String OTHER_CLASS_FULL_NAME =
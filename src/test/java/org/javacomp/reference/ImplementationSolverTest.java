@@ -0,0 +1,126 @@
+package org.javacomp.reference;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Paths;
+import java.util.List;
+import org.javacomp.model.ClassEntity;
+import org.javacomp.model.FileScope;
+import org.javacomp.model.MethodEntity;
+import org.javacomp.model.Module;
+import org.javacomp.model.TypeReference;
+import org.javacomp.testing.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ImplementationSolverTest {
+  private static final String TEST_DATA_DIR =
+      "src/test/java/org/javacomp/reference/testdata/hierarchy/";
+  private static final String[] TEST_FILES = {
+    "Shape.java",
+    "AbstractShape.java",
+    "Circle.java",
+    "Square.java",
+    "Container.java",
+    "ShapeContainer.java",
+    "other/Shape.java",
+    "other/Triangle.java",
+  };
+  private static final String PACKAGE = "org.javacomp.reference.testdata.hierarchy.";
+
+  private final ImplementationSolver implementationSolver = new ImplementationSolver();
+
+  private Module module;
+  private ClassEntity shape;
+  private ClassEntity abstractShape;
+  private ClassEntity circle;
+  private ClassEntity square;
+
+  @Before
+  public void setUp() {
+    module = TestUtil.parseFiles(TEST_DATA_DIR, TEST_FILES);
+    shape = lookupClass("Shape");
+    abstractShape = lookupClass("AbstractShape");
+    circle = lookupClass("Circle");
+    square = lookupClass("Square");
+  }
+
+  @Test
+  public void findDirectSubtypes() {
+    assertThat(implementationSolver.findDirectSubtypes(shape, module))
+        .containsExactly(abstractShape);
+    assertThat(implementationSolver.findDirectSubtypes(abstractShape, module))
+        .containsExactly(circle, square);
+    assertThat(implementationSolver.findDirectSubtypes(circle, module)).isEmpty();
+  }
+
+  @Test
+  public void findAllSubtypes() {
+    assertThat(implementationSolver.findAllSubtypes(shape, module))
+        .containsExactly(abstractShape, circle, square);
+  }
+
+  @Test
+  public void findDirectSupertypes() {
+    assertThat(implementationSolver.findDirectSupertypes(circle, module))
+        .containsExactly(abstractShape);
+    assertThat(implementationSolver.findDirectSupertypes(abstractShape, module))
+        .containsExactly(shape);
+  }
+
+  @Test
+  public void subtypesAreUpdatedWhenFileIsRemoved() {
+    FileScope squareFile = (FileScope) square.getParentScope().get();
+    module.removeFile(Paths.get(squareFile.getFilename()));
+    assertThat(implementationSolver.findAllSubtypes(shape, module))
+        .containsExactly(abstractShape, circle);
+  }
+
+  @Test
+  public void findOverridingMethods() {
+    assertThat(implementationSolver.findOverridingMethods(getMethod(shape, "area"), module))
+        .containsExactly(getMethod(circle, "area"), getMethod(square, "area"));
+  }
+
+  @Test
+  public void findOverridingMethods_excludesOverloadsWithOtherParameterTypes() {
+    assertThat(implementationSolver.findOverridingMethods(getMethod(shape, "resize"), module))
+        .containsExactly(
+            getMethod(circle, "resize", "int"), getMethod(square, "resize", "int"));
+    // The other moveTo of Square takes a different Shape with the same simple name.
+    assertThat(implementationSolver.findOverridingMethods(getMethod(shape, "moveTo"), module))
+        .containsExactly(getMethod(circle, "moveTo"), getMethod(square, "moveTo", "Shape"));
+  }
+
+  @Test
+  public void findOverridingMethods_matchesTypeVariables() {
+    ClassEntity container = lookupClass("Container");
+    ClassEntity shapeContainer = lookupClass("ShapeContainer");
+    assertThat(implementationSolver.findOverridingMethods(getMethod(container, "add"), module))
+        .containsExactly(getMethod(shapeContainer, "add", "Shape"));
+  }
+
+  private static MethodEntity getMethod(ClassEntity classEntity, String name) {
+    List<MethodEntity> methods = classEntity.getMethodsWithName(name);
+    assertThat(methods).hasSize(1);
+    return methods.get(0);
+  }
+
+  /** Returns the method whose only parameter type is written as {@code typeName}. */
+  private static MethodEntity getMethod(ClassEntity classEntity, String name, String typeName) {
+    for (MethodEntity method : classEntity.getMethodsWithName(name)) {
+      TypeReference type = method.getParameters().get(0).getType();
+      if (String.join(".", type.getFullName()).equals(typeName)) {
+        return method;
+      }
+    }
+    throw new AssertionError("No method " + name + "(" + typeName + ") in " + classEntity);
+  }
+
+  private ClassEntity lookupClass(String simpleName) {
+    return (ClassEntity) TestUtil.lookupEntity(PACKAGE + simpleName, module);
+  }
+}
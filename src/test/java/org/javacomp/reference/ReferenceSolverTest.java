@@ -7,6 +7,8 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Range;
 import com.google.common.truth.Truth8;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.javacomp.file.TextPosition;
 import org.javacomp.model.FileScope;
@@ -176,6 +178,158 @@ public class ReferenceSolverTest extends BaseTest {
         ref(TEST_REFERENCE_CLASS_FILE, "return new TestReferenceClass(1)"));
   }
 
+  @Test
+  public void testPrivateFieldIsOnlySearchedInItsFile() {
+    // AccessLevelUser declares another field with the same name.
+    assertReference(
+        ACCESS_LEVEL_CLASS_FILE,
+        "private int privateCounter",
+        "privateCounter",
+        ref(ACCESS_LEVEL_CLASS_FILE, "privateCounter = 1"));
+    assertThat(
+            countSearchedScopes(
+                ACCESS_LEVEL_CLASS_FILE, "private int privateCounter", "privateCounter"))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testPackagePrivateFieldIsOnlySearchedInItsPackage() {
+    // Files in the other package declare fields with the same name.
+    assertReference(
+        ACCESS_LEVEL_CLASS_FILE,
+        "int packageCounter",
+        "packageCounter",
+        ref(ACCESS_LEVEL_CLASS_FILE, "packageCounter = 2"),
+        ref(ACCESS_LEVEL_USER_FILE, "accessLevelClass.packageCounter = 2"));
+    assertThat(countSearchedScopes(ACCESS_LEVEL_CLASS_FILE, "int packageCounter", "packageCounter"))
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testProtectedFieldIsSearchedInPackageAndSubclasses() {
+    // AccessLevelOtherUser in the other package is not a subclass.
+    assertReference(
+        ACCESS_LEVEL_CLASS_FILE,
+        "protected int protectedCounter",
+        "protectedCounter",
+        ref(ACCESS_LEVEL_CLASS_FILE, "protectedCounter = 3"),
+        ref(ACCESS_LEVEL_USER_FILE, "accessLevelClass.protectedCounter = 3"),
+        ref(ACCESS_LEVEL_SUBCLASS_FILE, "protectedCounter = 4"));
+    assertThat(
+            countSearchedScopes(
+                ACCESS_LEVEL_CLASS_FILE, "protected int protectedCounter", "protectedCounter"))
+        .isEqualTo(3);
+  }
+
+  @Test
+  public void testPublicMethodOfPackagePrivateClassIsSearchedThroughPublicSubclasses() {
+    // AccessLevelImplUser in the other package calls the method inherited by AccessLevelImpl.
+    assertReference(
+        ACCESS_LEVEL_BASE_FILE,
+        "public void runTask()",
+        "runTask",
+        ref(ACCESS_LEVEL_BASE_FILE, "runTask();"),
+        ref(ACCESS_LEVEL_IMPL_USER_FILE, "new AccessLevelImpl().runTask()"));
+    assertThat(countSearchedScopes(ACCESS_LEVEL_BASE_FILE, "public void runTask()", "runTask"))
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testReferencesInCurrentFileCollectedFirst() {
+    TextPosition pos =
+        locateSymbol(
+            new SymbolLocator(
+                TEST_REFERENCE_CLASS_FILE2,
+                "new TestReferenceClass().publicMethod()",
+                "publicMethod"));
+    List<Multimap<FileScope, Range<Integer>>> batches = new ArrayList<>();
+    List<Integer> numSearchedScopesList = new ArrayList<>();
+    referenceSolver.findReferences(
+        moduleManager,
+        Paths.get(TEST_REFERENCE_CLASS_FILE2),
+        pos.getLine(),
+        pos.getCharacter(),
+        new ReferenceSolver.ReferenceCollector() {
+          @Override
+          public void collect(
+              Multimap<FileScope, Range<Integer>> references,
+              int numSearchedScopes,
+              int numScopes) {
+            batches.add(references);
+            numSearchedScopesList.add(numSearchedScopes);
+            assertThat(numScopes).isEqualTo(2);
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return false;
+          }
+        });
+
+    assertThat(numSearchedScopesList).containsExactly(1, 2).inOrder();
+    assertThat(batches.get(0).keySet())
+        .containsExactly(module.getFileScope(TEST_REFERENCE_CLASS_FILE2).get());
+    assertThat(batches.get(1).keySet())
+        .containsExactly(module.getFileScope(TEST_REFERENCE_CLASS_FILE).get());
+  }
+
+  @Test
+  public void testCancelledSearchCollectsNothing() {
+    TextPosition pos =
+        locateSymbol(
+            new SymbolLocator(
+                TEST_REFERENCE_CLASS_FILE, "public void publicMethod()", "publicMethod"));
+    List<Multimap<FileScope, Range<Integer>>> batches = new ArrayList<>();
+    referenceSolver.findReferences(
+        moduleManager,
+        Paths.get(TEST_REFERENCE_CLASS_FILE),
+        pos.getLine(),
+        pos.getCharacter(),
+        new ReferenceSolver.ReferenceCollector() {
+          @Override
+          public void collect(
+              Multimap<FileScope, Range<Integer>> references,
+              int numSearchedScopes,
+              int numScopes) {
+            batches.add(references);
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return true;
+          }
+        });
+
+    assertThat(batches).isEmpty();
+  }
+
+  /** Returns the number of scopes searched for the references of the symbol. */
+  private int countSearchedScopes(String filename, String symbolContext, String symbol) {
+    TextPosition pos = locateSymbol(new SymbolLocator(filename, symbolContext, symbol));
+    List<Integer> numScopesList = new ArrayList<>();
+    referenceSolver.findReferences(
+        moduleManager,
+        Paths.get(filename),
+        pos.getLine(),
+        pos.getCharacter(),
+        new ReferenceSolver.ReferenceCollector() {
+          @Override
+          public void collect(
+              Multimap<FileScope, Range<Integer>> references,
+              int numSearchedScopes,
+              int numScopes) {
+            numScopesList.add(numScopes);
+          }
+
+          @Override
+          public boolean isCancelled() {
+            return false;
+          }
+        });
+    assertThat(numScopesList).isNotEmpty();
+    return numScopesList.get(0);
+  }
+
   private static class ReferenceSpec {
     private final String filename;
     private final String symbolContext;
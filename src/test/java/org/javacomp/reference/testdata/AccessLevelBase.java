@@ -0,0 +1,9 @@
+package org.javacomp.reference.testdata;
+
+abstract class AccessLevelBase {
+  public void runTask() {}
+
+  void check() {
+    runTask();
+  }
+}
@@ -0,0 +1,13 @@
+package org.javacomp.reference.testdata;
+
+public class AccessLevelClass {
+  private int privateCounter;
+  int packageCounter;
+  protected int protectedCounter;
+
+  void update() {
+    privateCounter = 1;
+    packageCounter = 2;
+    protectedCounter = 3;
+  }
+}
@@ -0,0 +1,3 @@
+package org.javacomp.reference.testdata;
+
+public class AccessLevelImpl extends AccessLevelBase {}
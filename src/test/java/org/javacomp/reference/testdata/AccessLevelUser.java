@@ -0,0 +1,11 @@
+package org.javacomp.reference.testdata;
+
+public class AccessLevelUser {
+  private int privateCounter;
+
+  void use(AccessLevelClass accessLevelClass) {
+    privateCounter = 1;
+    accessLevelClass.packageCounter = 2;
+    accessLevelClass.protectedCounter = 3;
+  }
+}
@@ -0,0 +1,3 @@
+package org.javacomp.reference.testdata.hierarchy;
+
+public abstract class AbstractShape implements Shape {}
@@ -0,0 +1,14 @@
+package org.javacomp.reference.testdata.hierarchy;
+
+public class Circle extends AbstractShape {
+  @Override
+  public double area() {
+    return 0;
+  }
+
+  @Override
+  public void moveTo(Shape other) {}
+
+  @Override
+  public void resize(int size) {}
+}
@@ -0,0 +1,5 @@
+package org.javacomp.reference.testdata.hierarchy;
+
+public interface Container<T> {
+  void add(T item);
+}
@@ -0,0 +1,9 @@
+package org.javacomp.reference.testdata.hierarchy;
+
+public interface Shape {
+  double area();
+
+  void moveTo(Shape other);
+
+  void resize(int size);
+}
@@ -0,0 +1,8 @@
+package org.javacomp.reference.testdata.hierarchy;
+
+public class ShapeContainer implements Container<Shape> {
+  @Override
+  public void add(Shape item) {}
+
+  public void add(int index) {}
+}
@@ -0,0 +1,19 @@
+package org.javacomp.reference.testdata.hierarchy;
+
+public class Square extends AbstractShape {
+  @Override
+  public double area() {
+    return 0;
+  }
+
+  @Override
+  public void moveTo(Shape other) {}
+
+  /** Overloads with a parameter type of the same simple name. */
+  public void moveTo(org.javacomp.reference.testdata.hierarchy.other.Shape other) {}
+
+  @Override
+  public void resize(int size) {}
+
+  public void resize(String size) {}
+}
@@ -0,0 +1,3 @@
+package org.javacomp.reference.testdata.hierarchy.other;
+
+public interface Shape {}
@@ -0,0 +1,4 @@
+package org.javacomp.reference.testdata.hierarchy.other;
+
+/** Implements a different Shape interface with the same simple name. */
+public class Triangle implements Shape {}
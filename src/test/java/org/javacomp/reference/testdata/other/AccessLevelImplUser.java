@@ -0,0 +1,9 @@
+package org.javacomp.reference.testdata.other;
+
+import org.javacomp.reference.testdata.AccessLevelImpl;
+
+public class AccessLevelImplUser {
+  void use() {
+    new AccessLevelImpl().runTask();
+  }
+}
@@ -0,0 +1,11 @@
+package org.javacomp.reference.testdata.other;
+
+public class AccessLevelOtherUser {
+  int protectedCounter;
+  int packageCounter;
+
+  void use() {
+    protectedCounter = 6;
+    packageCounter = 7;
+  }
+}
@@ -0,0 +1,12 @@
+package org.javacomp.reference.testdata.other;
+
+import org.javacomp.reference.testdata.AccessLevelClass;
+
+public class AccessLevelSubclass extends AccessLevelClass {
+  int packageCounter;
+
+  void useInherited() {
+    protectedCounter = 4;
+    packageCounter = 5;
+  }
+}
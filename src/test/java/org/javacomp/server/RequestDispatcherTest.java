@@ -10,6 +10,7 @@ import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -141,6 +142,48 @@ public class RequestDispatcherTest {
     assertErrorResponseWritten(ErrorCode.SERVER_NOT_INITIALIZED, json("id"), "custom error");
   }
 
+  @Test
+  public void testCancelRequestInQueue_returnsRequestCancelledError() {
+    BlockingHandler blockingHandler = new BlockingHandler();
+    dispatcher = createDispatcher(blockingHandler, handler1);
+    dispatchRequest(blockingHandler.getMethod(), json("id1"), null /* params */);
+    JsonObject params1 = new JsonObject();
+    params1.add("strvalue", json("foo"));
+    dispatchRequest(handler1.getMethod(), json("id2"), params1);
+    JsonObject cancelParams = new JsonObject();
+    cancelParams.add("id", json("id2"));
+    dispatchRequest("$/cancelRequest", null /* id */, cancelParams);
+    blockingHandler.latch.countDown();
+
+    assertResponseWritten(Response.createResponse(json("id1"), null /* result */));
+    assertErrorResponseWritten(ErrorCode.REQUEST_CANCELLED, json("id2"), handler1.getMethod());
+  }
+
+  @Test
+  public void testCancelRequest_sharedWithHandlers() {
+    CancelledRequests cancelledRequests = new CancelledRequests();
+    dispatcher =
+        new RequestDispatcher.Builder()
+            .setGson(new Gson())
+            .setExecutor(Executors.newSingleThreadExecutor())
+            .setRequestParser(requestParser)
+            .setResponseWriter(responseWriter)
+            .setCancelledRequests(cancelledRequests)
+            .build();
+    JsonObject cancelRequestParams = new JsonObject();
+    cancelRequestParams.add("id", json(42));
+    dispatchRequest("$/cancelRequest", null /* id */, cancelRequestParams);
+    JsonObject cancelProgressParams = new JsonObject();
+    cancelProgressParams.add("token", json("token"));
+    dispatchRequest("window/workDoneProgress/cancel", null /* id */, cancelProgressParams);
+
+    assertThat(cancelledRequests.isRequestCancelled(json(42))).isTrue();
+    assertThat(cancelledRequests.isRequestCancelled(json(43))).isFalse();
+    assertThat(cancelledRequests.isProgressCancelled(json("token"))).isTrue();
+    // Cancellation notifications are not dispatched to handlers.
+    assertThat(responseWriter.pollResponse()).isNull();
+  }
+
   private RequestDispatcher createDispatcher(RequestHandler<?>... handlers) {
     Gson gson = new Gson();
     RequestDispatcher.Builder builder =
@@ -254,6 +297,20 @@ public class RequestDispatcherTest {
     }
   }
 
+  private static class BlockingHandler extends RequestHandler<NullParams> {
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private BlockingHandler() {
+      super("blocking", NullParams.class);
+    }
+
+    @Override
+    public Void handleRequest(Request<NullParams> request) throws Exception {
+      latch.await();
+      return null;
+    }
+  }
+
   private static class ErrorThrowingHandler extends RequestHandler<NullParams> {
     private final Exception toThrow;
 
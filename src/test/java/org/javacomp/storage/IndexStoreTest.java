@@ -108,6 +108,9 @@ public class IndexStoreTest {
   private boolean methodsEqual(
       MethodEntity deserialized, MethodEntity original, Deque<String> qualifiedName) {
     assertThat(deserialized.isStatic()).named("isStatic").isEqualTo(original.isStatic());
+    assertThat(deserialized.isVariableArity())
+        .named("isVariableArity")
+        .isEqualTo(original.isVariableArity());
     List<VariableEntity> deserializedParameters = deserialized.getParameters();
     List<VariableEntity> originalParameters = original.getParameters();
     if (deserializedParameters.size() != originalParameters.size()) {
@@ -33,6 +33,10 @@ public class TestClass {
 
   public static void staticMethod() {}
 
+  public static void arrayMethod(String[] strings) {}
+
+  public static void variableArityMethod(String... strings) {}
+
   public static class ParameterizedType<A, B extends A> {
     public A getA();
 
@@ -5,6 +5,7 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
 import com.google.common.truth.IterableSubject;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -15,6 +16,7 @@ import org.javacomp.model.FileScope;
 import org.javacomp.model.MethodEntity;
 import org.javacomp.model.TypeReference;
 import org.javacomp.model.VariableEntity;
+import org.javacomp.testing.TestUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,6 +29,8 @@ public class EntityShadowingListBuilderTest {
   private ClassEntity classEntity;
   private ClassEntity classEntity2;
   private MethodEntity methodEntity;
+  private MethodEntity methodEntity2;
+  private MethodEntity overloadMethodEntity;
   private VariableEntity variableEntity;
   private VariableEntity variableEntity2;
 
@@ -93,6 +97,30 @@ public class EntityShadowingListBuilderTest {
             Optional.empty() /* javadoc */,
             Range.all(), /* methodNameRange */
             Range.all() /* definitionRange */);
+    methodEntity2 =
+        new MethodEntity(
+            "foo",
+            ImmutableList.of() /* qualifiers */,
+            false /* isStatic */,
+            TypeReference.JAVA_LANG_OBJECT /* returnType */,
+            ImmutableList.of() /* parameters */,
+            ImmutableList.of() /* typeParameters */,
+            classEntity2,
+            Optional.empty() /* javadoc */,
+            Range.all(), /* methodNameRange */
+            Range.all() /* definitionRange */);
+    overloadMethodEntity =
+        new MethodEntity(
+            "foo",
+            ImmutableList.of() /* qualifiers */,
+            false /* isStatic */,
+            TypeReference.JAVA_LANG_OBJECT /* returnType */,
+            ImmutableList.of(variableEntity) /* parameters */,
+            ImmutableList.of() /* typeParameters */,
+            classEntity,
+            Optional.empty() /* javadoc */,
+            Range.all(), /* methodNameRange */
+            Range.all() /* definitionRange */);
   }
 
   @Test
@@ -115,6 +143,45 @@ public class EntityShadowingListBuilderTest {
     assertNotShadows(methodEntity, classEntity);
   }
 
+  @Test
+  public void methodShadowsMethodWithSameSignature() {
+    assertShadows(methodEntity, methodEntity2);
+    assertShadows(methodEntity2, methodEntity);
+  }
+
+  @Test
+  public void methodDoesNotShadowOverload() {
+    assertNotShadows(methodEntity, overloadMethodEntity);
+    assertNotShadows(overloadMethodEntity, methodEntity);
+  }
+
+  @Test
+  public void methodShadowsMethodWithSameQualifiedParameterTypes() {
+    ClassEntity sub = parseClass("Sub", "import java.util.List;", "void foo(List list) {}");
+    ClassEntity base = parseClass("Base", "", "void foo(java.util.List list) {}");
+    assertShadows(getMethod(sub, "foo"), getMethod(base, "foo"));
+  }
+
+  @Test
+  public void methodDoesNotShadowMethodWithParameterTypesInOtherPackages() {
+    ClassEntity sub = parseClass("Sub", "import java.util.List;", "void foo(List list) {}");
+    ClassEntity base = parseClass("Base", "import java.awt.List;", "void foo(List list) {}");
+    assertNotShadows(getMethod(sub, "foo"), getMethod(base, "foo"));
+  }
+
+  @Test
+  public void methodWithUnknownParameterTypesDoesNotShadow() {
+    // String may be a class in the same package as either of the classes.
+    ClassEntity sub = parseClass("Sub", "", "void foo(String s) {}");
+    ClassEntity base = parseClass("Base", "", "void foo(String s) {}");
+    assertNotShadows(getMethod(sub, "foo"), getMethod(base, "foo"));
+
+    // Type variables may be erased to different types.
+    sub = parseClass("Sub", "", "<T> void foo(T t) {}");
+    base = parseClass("Base", "", "<T extends Number> void foo(T t) {}");
+    assertNotShadows(getMethod(sub, "foo"), getMethod(base, "foo"));
+  }
+
   @Test
   public void nullDoesNotShadowAnything() {
     assertNotShadows(null, variableEntity);
@@ -137,6 +204,17 @@ public class EntityShadowingListBuilderTest {
         .inOrder();
   }
 
+  private static ClassEntity parseClass(String className, String imports, String members) {
+    String content = imports + "\nclass " + className + " {\n" + members + "\n}\n";
+    FileScope fileScope =
+        TestUtil.parseFileContent(content, Paths.get("/test/" + className + ".java"));
+    return (ClassEntity) fileScope.getMemberEntities().get(className).iterator().next();
+  }
+
+  private static MethodEntity getMethod(ClassEntity classEntity, String name) {
+    return classEntity.getMethodsWithName(name).get(0);
+  }
+
   private void assertShadows(Entity entity1, Entity entity2) {
     assertList(buildList(entity1, entity2)).containsExactly(entity1);
   }
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Optional;
 import org.javacomp.model.ClassEntity;
 import org.javacomp.model.EntityWithContext;
+import org.javacomp.model.MethodEntity;
 import org.javacomp.model.Module;
 import org.javacomp.model.SolvedType;
 import org.javacomp.model.TypeArgument;
@@ -114,6 +115,36 @@ public class OverloadSolverTest {
         .isEqualTo("long_long_longVariableArity");
   }
 
+  @Test
+  public void testParameterTypeErasures() {
+    MethodEntity fooArrayFoo = findOverload("FooarrayFoo");
+    assertThat(fooArrayFoo.getParameterTypeErasures()).containsExactly("Foo[]", "Foo").inOrder();
+    assertThat(fooArrayFoo.isVariableArity()).isFalse();
+
+    MethodEntity fooVariableArity = findOverload("FooVariableArity");
+    assertThat(fooVariableArity.getParameterTypeErasures()).containsExactly("Foo[]");
+    assertThat(fooVariableArity.isVariableArity()).isTrue();
+  }
+
+  @Test
+  public void testArrayParameterIsNotVariableArity() {
+    assertThat(findOverload("Foo_longarray").isVariableArity()).isFalse();
+    assertThat(solveOverload(FOO_TYPE, LONG_TYPE, LONG_TYPE)).isNotEqualTo("Foo_longarray");
+    TypeReference longArrayType =
+        TypeReference.builder()
+            .setFullName("long")
+            .setArray(true)
+            .setPrimitive(true)
+            .setTypeArguments(ImmutableList.<TypeArgument>of())
+            .build();
+    assertThat(solveOverload(FOO_TYPE, longArrayType)).isEqualTo("Foo_longarray");
+  }
+
+  @Test
+  public void testVariableArityWithSubtypes() {
+    assertThat(solveOverload(SUBFOO_TYPE, SUBFOO_TYPE, SUBFOO_TYPE)).isEqualTo("FooVariableArity");
+  }
+
   // TODO: add tests for auto-boxing when we have boxed type indexed.
 
   /**
@@ -135,6 +166,15 @@ public class OverloadSolverTest {
         .getSimpleName();
   }
 
+  private MethodEntity findOverload(String returnTypeName) {
+    for (MethodEntity method : topLevelClass.getMethodsWithName(OVERLOAD_METHOD_NAME)) {
+      if (method.getReturnType().getSimpleName().equals(returnTypeName)) {
+        return method;
+      }
+    }
+    throw new AssertionError("No overload returns " + returnTypeName);
+  }
+
   private static TypeReference referenceType(String name) {
     return TypeReference.builder()
         .setFullName(name)
@@ -0,0 +1,41 @@
+package org.javacomp.typesolver;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.Optional;
+import org.javacomp.model.FileScope;
+import org.javacomp.model.Module;
+import org.javacomp.model.SolvedType;
+import org.javacomp.model.TypeReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SolvedTypeCacheTest {
+  private final SolvedTypeCache cache = new SolvedTypeCache(2 /* maxEntriesPerModule */);
+  private final Module module = new Module();
+  private final FileScope fileScope =
+      FileScope.createFromClassFile(Paths.get("/foo/Foo.class"), ImmutableList.of("foo"));
+
+  @Test
+  public void leastRecentlyUsedTypesAreEvictedWhenFull() {
+    getSolvedType(TypeReference.INT_TYPE);
+    getSolvedType(TypeReference.LONG_TYPE);
+    getSolvedType(TypeReference.SHORT_TYPE);
+    assertThat(cache.getSolvedTypeMissCount()).isEqualTo(3);
+
+    // New types are still cached after the cache is full.
+    getSolvedType(TypeReference.SHORT_TYPE);
+    assertThat(cache.getSolvedTypeHitCount()).isEqualTo(1);
+
+    getSolvedType(TypeReference.INT_TYPE);
+    assertThat(cache.getSolvedTypeMissCount()).isEqualTo(4);
+  }
+
+  private Optional<SolvedType> getSolvedType(TypeReference typeReference) {
+    return cache.getSolvedType(typeReference, fileScope, module, () -> Optional.empty());
+  }
+}
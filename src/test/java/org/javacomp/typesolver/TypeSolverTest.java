@@ -4,10 +4,14 @@ import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth8.assertThat;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.truth.Truth8;
+import java.nio.file.Paths;
 import java.util.Optional;
 import org.javacomp.model.ClassEntity;
+import org.javacomp.model.ClassHierarchy;
 import org.javacomp.model.EntityScope;
+import org.javacomp.model.FileScope;
 import org.javacomp.model.MethodEntity;
 import org.javacomp.model.Module;
 import org.javacomp.model.SolvedArrayType;
@@ -291,6 +295,123 @@ public class TypeSolverTest {
                     .build()));
   }
 
+  @Test
+  public void classHierarchyIsCachedUntilModuleChanges() {
+    ClassEntity testClass = (ClassEntity) TestUtil.lookupEntity(TEST_CLASS_FULL_NAME, testModule);
+    ClassEntity baseClass = (ClassEntity) TestUtil.lookupEntity(BASE_CLASS_FULL_NAME, otherModule);
+    ClassEntity baseInterface =
+        (ClassEntity) TestUtil.lookupEntity(BASE_INTERFACE_FULL_NAME, testModule);
+    ClassEntity javaLangObject =
+        (ClassEntity) TestUtil.lookupEntity("java.lang.Object", fakeJdkModule);
+
+    assertThat(typeSolver.classHierarchyWithoutContext(testClass, testModule))
+        .containsExactly(testClass, baseClass, baseInterface, javaLangObject)
+        .inOrder();
+    assertThat(testClass.getCachedHierarchy().get().getLinearizedAncestors()).isPresent();
+    // Served from the cache.
+    assertThat(typeSolver.classHierarchyWithoutContext(testClass, testModule))
+        .containsExactly(testClass, baseClass, baseInterface, javaLangObject)
+        .inOrder();
+
+    // Changing a depending module invalidates the cache.
+    FileScope baseClassFile = (FileScope) baseClass.getParentScope().get();
+    otherModule.removeFile(Paths.get(baseClassFile.getFilename()));
+    assertThat(typeSolver.classHierarchyWithoutContext(testClass, testModule))
+        .containsExactly(testClass, baseInterface, javaLangObject)
+        .inOrder();
+  }
+
+  @Test
+  public void solvedTypesAreCachedUntilModuleChanges() {
+    ClassEntity testClass = (ClassEntity) TestUtil.lookupEntity(TEST_CLASS_FULL_NAME, testModule);
+    TypeReference baseInterfaceReference = testClass.getInterfaces().get(0);
+    SolvedTypeCache cache = typeSolver.getCache();
+
+    Optional<SolvedType> solvedType =
+        typeSolver.solve(baseInterfaceReference, testClass, testModule);
+    long misses = cache.getSolvedTypeMissCount();
+    long hits = cache.getSolvedTypeHitCount();
+    assertThat(misses).isGreaterThan(0L);
+
+    assertThat(typeSolver.solve(baseInterfaceReference, testClass, testModule))
+        .isSameAs(solvedType);
+    assertThat(cache.getSolvedTypeMissCount()).isEqualTo(misses);
+    assertThat(cache.getSolvedTypeHitCount()).isEqualTo(hits + 1);
+
+    // Changing a depending module invalidates the cache.
+    otherModule.addOrReplaceFileScope(
+        TestUtil.parseFileContent("package foo; class Foo {}", TestUtil.DUMMY_PATH));
+    assertThat(typeSolver.solve(baseInterfaceReference, testClass, testModule))
+        .isEqualTo(solvedType);
+    assertThat(cache.getSolvedTypeMissCount()).isGreaterThan(misses);
+  }
+
+  @Test
+  public void getEffectiveMembersIncludesInheritedMembers() {
+    ClassEntity testClass = (ClassEntity) TestUtil.lookupEntity(TEST_CLASS_FULL_NAME, testModule);
+    ClassEntity baseClass = (ClassEntity) TestUtil.lookupEntity(BASE_CLASS_FULL_NAME, otherModule);
+
+    ImmutableList<ClassHierarchy.Member> members =
+        typeSolver.getEffectiveMembers(testClass, testModule);
+    assertThat(members)
+        .contains(
+            ClassHierarchy.Member.create(
+                testClass.getMemberEntities().get("FACTORY").iterator().next(), 0));
+    assertThat(members)
+        .contains(
+            ClassHierarchy.Member.create(
+                baseClass.getMemberEntities().get("STATIC_FIELD").iterator().next(), 1));
+    // Methods don't shadow each other.
+    assertThat(
+            members.stream()
+                .filter(member -> member.getEntity().getSimpleName().equals("staticMethod"))
+                .count())
+        .isEqualTo(2L);
+
+    assertThat(typeSolver.getEffectiveMembers(testClass, testModule)).isSameAs(members);
+  }
+
+  @Test
+  public void classHierarchyOfDependingModuleIsKeptWhenModuleChanges() {
+    ClassEntity baseClass = (ClassEntity) TestUtil.lookupEntity(BASE_CLASS_FULL_NAME, otherModule);
+    ClassEntity javaLangObject =
+        (ClassEntity) TestUtil.lookupEntity("java.lang.Object", fakeJdkModule);
+    assertThat(typeSolver.classHierarchyWithoutContext(baseClass, testModule))
+        .containsExactly(baseClass, javaLangObject)
+        .inOrder();
+    ClassHierarchy cachedHierarchy = baseClass.getCachedHierarchy().get();
+
+    // Changing a file of the module solving the hierarchy doesn't change the module defining
+    // BaseClass.
+    ClassEntity testClass = (ClassEntity) TestUtil.lookupEntity(TEST_CLASS_FULL_NAME, testModule);
+    testModule.addOrReplaceFileScope((FileScope) testClass.getParentScope().get());
+
+    assertThat(typeSolver.classHierarchyWithoutContext(baseClass, testModule))
+        .containsExactly(baseClass, javaLangObject)
+        .inOrder();
+    assertThat(baseClass.getCachedHierarchy().get()).isSameAs(cachedHierarchy);
+  }
+
+  @Test
+  public void solvedTypeOfDependingModuleIsKeptWhenModuleChanges() {
+    ClassEntity baseClass = (ClassEntity) TestUtil.lookupEntity(BASE_CLASS_FULL_NAME, otherModule);
+    TypeReference objectReference = TypeReference.JAVA_LANG_OBJECT;
+    typeSolver.solve(objectReference, baseClass, testModule);
+    long misses = typeSolver.getCache().getSolvedTypeMissCount();
+
+    ClassEntity testClass = (ClassEntity) TestUtil.lookupEntity(TEST_CLASS_FULL_NAME, testModule);
+    testModule.addOrReplaceFileScope((FileScope) testClass.getParentScope().get());
+    typeSolver.solve(objectReference, baseClass, testModule);
+
+    assertThat(typeSolver.getCache().getSolvedTypeMissCount()).isEqualTo(misses);
+
+    // Adding a depending module may change how names are resolved.
+    testModule.addDependingModule(new Module());
+    typeSolver.solve(objectReference, baseClass, testModule);
+
+    assertThat(typeSolver.getCache().getSolvedTypeMissCount()).isEqualTo(misses + 1);
+  }
+
   private Optional<SolvedEntityType> solveEntityType(
       TypeReference typeReference, Module module, EntityScope parentScope) {
     return typeSolver
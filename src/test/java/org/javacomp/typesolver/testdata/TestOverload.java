@@ -31,4 +31,6 @@ public class TestOverload {
   public FooVariableArity overloadMethod(Foo... foos) {}
 
   public Foo_longFooVariableArity overloadMethod(Foo foo1, long long1, Foo... foos) {}
+
+  public Foo_longarray overloadMethod(Foo foo1, long[] longs) {}
 }